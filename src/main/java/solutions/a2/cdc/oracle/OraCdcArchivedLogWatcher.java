@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+
+/**
+ *
+ * Discovery of new archived logs shared by all tasks of JVM connected to the same database.
+ * Single thread samples last archived SEQUENCE# of every redo thread (V$LOG when database is open,
+ * V$ARCHIVED_LOG when database is mounted) and wakes up subscribers of redo thread when it changes.
+ * Sampling interval is doubled, up to a2.log.discovery.max.interval, while nothing changes.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+public class OraCdcArchivedLogWatcher {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcArchivedLogWatcher.class);
+	private static final long MIN_INTERVAL_MS = 50;
+	private static final long UNKNOWN_SEQUENCE = -1;
+	private static final Map<String, OraCdcArchivedLogWatcher> WATCHERS = new HashMap<>();
+
+	private final String key;
+	private final long maxInterval;
+	private final List<Subscription> subscriptions = new ArrayList<>();
+	private final Map<Integer, Long> sequences = new HashMap<>();
+	private volatile boolean running = true;
+	private Connection connection;
+	private PreparedStatement psSample;
+
+	private OraCdcArchivedLogWatcher(final String key, final long maxInterval) {
+		this.key = key;
+		this.maxInterval = Math.max(MIN_INTERVAL_MS, maxInterval);
+		final Thread thread = new Thread(this::run, "OraCdcArchivedLogWatcher-" + key);
+		thread.setDaemon(true);
+		thread.start();
+		LOGGER.info("Started discovery of archived logs for database {}, maximum sampling interval {} ms.",
+				key, this.maxInterval);
+	}
+
+	/**
+	 * Subscribes to new archived logs of redo thread, watcher for database is created by first subscriber
+	 *
+	 * @param dbId         DBID of database with V$ARCHIVED_LOG
+	 * @param dbUniqueName DB_UNIQUE_NAME of database with V$ARCHIVED_LOG
+	 * @param redoThread   THREAD#
+	 * @param maxInterval  maximum sampling interval in milliseconds
+	 * @param supplier     source of connections to database for watcher
+	 * @return
+	 */
+	public static Subscription subscribe(final long dbId, final String dbUniqueName, final int redoThread,
+			final long maxInterval, final ConnectionSupplier supplier) {
+		synchronized (WATCHERS) {
+			final OraCdcArchivedLogWatcher watcher = WATCHERS.computeIfAbsent(
+					dbUniqueName + "-" + dbId, k -> new OraCdcArchivedLogWatcher(k, maxInterval));
+			return watcher.add(redoThread, supplier);
+		}
+	}
+
+	private synchronized Subscription add(final int redoThread, final ConnectionSupplier supplier) {
+		final Subscription subscription = new Subscription(this, redoThread, supplier, sequence(redoThread));
+		subscriptions.add(subscription);
+		LOGGER.debug("Subscription for thread# {} added to discovery of archived logs for database {}.",
+				redoThread, key);
+		return subscription;
+	}
+
+	private void remove(final Subscription subscription) {
+		synchronized (WATCHERS) {
+			synchronized (this) {
+				subscriptions.remove(subscription);
+				if (subscriptions.isEmpty()) {
+					running = false;
+					WATCHERS.remove(key);
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	private long sequence(final int redoThread) {
+		return sequences.getOrDefault(redoThread, UNKNOWN_SEQUENCE);
+	}
+
+	private void run() {
+		long interval = MIN_INTERVAL_MS;
+		while (running) {
+			try {
+				if (connection == null) {
+					connect();
+				}
+				if (sample()) {
+					interval = MIN_INTERVAL_MS;
+				} else {
+					interval = Math.min(interval * 2, maxInterval);
+				}
+			} catch (SQLException sqle) {
+				LOGGER.error("Unable to sample archived logs of database {}, subscribers will poll V$ARCHIVED_LOG every {} ms.",
+						key, maxInterval);
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(sqle));
+				closeConnection();
+				interval = maxInterval;
+			}
+			synchronized (this) {
+				if (running) {
+					try {
+						wait(interval);
+					} catch (InterruptedException ie) {
+						break;
+					}
+				}
+			}
+		}
+		closeConnection();
+		LOGGER.info("Stopped discovery of archived logs for database {}.", key);
+	}
+
+	private void connect() throws SQLException {
+		final List<ConnectionSupplier> suppliers = new ArrayList<>();
+		synchronized (this) {
+			subscriptions.forEach(s -> suppliers.add(s.supplier));
+		}
+		SQLException lastException = new SQLException("No subscribers for discovery of archived logs");
+		for (ConnectionSupplier supplier : suppliers) {
+			try {
+				connection = supplier.get();
+				break;
+			} catch (SQLException sqle) {
+				lastException = sqle;
+			}
+		}
+		if (connection == null) {
+			throw lastException;
+		}
+		boolean mounted = false;
+		try (PreparedStatement psOpenMode = connection.prepareStatement(OraDictSqlTexts.RDBMS_OPEN_MODE,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+				ResultSet rsOpenMode = psOpenMode.executeQuery()) {
+			if (rsOpenMode.next()) {
+				mounted = "MOUNTED".equals(rsOpenMode.getString(1));
+			}
+		}
+		psSample = connection.prepareStatement(
+				mounted ? OraDictSqlTexts.LAST_ARCHIVED_SEQUENCE : OraDictSqlTexts.LAST_ARCHIVED_ONLINE_SEQUENCE,
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+	}
+
+	private boolean sample() throws SQLException {
+		final Map<Integer, Long> sampled = new HashMap<>();
+		try (ResultSet rs = psSample.executeQuery()) {
+			while (rs.next()) {
+				sampled.put(rs.getInt(1), rs.getLong(2));
+			}
+		}
+		boolean changed = false;
+		synchronized (this) {
+			for (Map.Entry<Integer, Long> entry : sampled.entrySet()) {
+				if (entry.getValue() != sequence(entry.getKey())) {
+					if (LOGGER.isDebugEnabled()) {
+						LOGGER.debug("Last archived SEQUENCE# of thread# {} in database {} is {}.",
+								entry.getKey(), key, entry.getValue());
+					}
+					sequences.put(entry.getKey(), entry.getValue());
+					changed = true;
+				}
+			}
+			if (changed) {
+				notifyAll();
+			}
+		}
+		return changed;
+	}
+
+	private void closeConnection() {
+		if (connection != null) {
+			try {
+				connection.close();
+			} catch (SQLException sqle) {
+				LOGGER.debug(ExceptionUtils.getExceptionStackTrace(sqle));
+			}
+			connection = null;
+			psSample = null;
+		}
+	}
+
+	@FunctionalInterface
+	public interface ConnectionSupplier {
+		Connection get() throws SQLException;
+	}
+
+	/**
+	 * Subscription of task to new archived logs of redo thread
+	 */
+	public static class Subscription implements Closeable {
+
+		private final OraCdcArchivedLogWatcher watcher;
+		private final int redoThread;
+		private final ConnectionSupplier supplier;
+		private long sequence;
+
+		private Subscription(final OraCdcArchivedLogWatcher watcher, final int redoThread,
+				final ConnectionSupplier supplier, final long sequence) {
+			this.watcher = watcher;
+			this.redoThread = redoThread;
+			this.supplier = supplier;
+			this.sequence = sequence;
+		}
+
+		/**
+		 * Waits for new archived log of redo thread
+		 *
+		 * @param maxWaitMillis
+		 * @return true when new archived log is available, false on timeout
+		 * @throws InterruptedException
+		 */
+		public boolean await(final long maxWaitMillis) throws InterruptedException {
+			final long deadline = System.currentTimeMillis() + maxWaitMillis;
+			synchronized (watcher) {
+				while (watcher.running) {
+					final long current = watcher.sequence(redoThread);
+					if (current != sequence) {
+						sequence = current;
+						return true;
+					}
+					final long remaining = deadline - System.currentTimeMillis();
+					if (remaining <= 0) {
+						return false;
+					}
+					watcher.wait(remaining);
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public void close() {
+			watcher.remove(this);
+		}
+
+	}
+
+}
@@ -15,8 +15,6 @@ package solutions.a2.cdc.oracle;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
-import java.nio.channels.SocketChannel;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -26,12 +24,19 @@ import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.connect.errors.ConnectException;
@@ -42,6 +47,7 @@ import oracle.jdbc.OracleConnection;
 import solutions.a2.cdc.oracle.jmx.OraCdcLogMinerMgmtIntf;
 import solutions.a2.cdc.oracle.jmx.OraCdcRedoShipment;
 import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+import solutions.a2.cdc.oracle.utils.file.ShipmentClient;
 
 /**
  * 
@@ -73,7 +79,10 @@ public class OraCdcDistributedV$ArchivedLogImpl implements OraLogMiner {
 	private long readStartMillis;
 
 	private final BlockingQueue<ArchivedRedoFile> redoFiles;
-
+	// Size of archived logs shipped to target and not yet processed by LogMiner
+	private final AtomicLong bytesOnTarget = new AtomicLong(0);
+	// Redo below this SCN is not required for restart and may be evicted at target
+	private final AtomicLong restartScn = new AtomicLong(0);
 
 	public OraCdcDistributedV$ArchivedLogImpl(
 			final Connection connLogMiner,
@@ -121,7 +130,7 @@ public class OraCdcDistributedV$ArchivedLogImpl implements OraLogMiner {
 		psOpenMode.close();
 		psOpenMode = null;
 		RedoTransportThread rtt = new RedoTransportThread(
-				firstChange, config, runLatch, redoFiles, oraConnections, rdbmsInfo);
+				firstChange, config, runLatch, redoFiles, bytesOnTarget, restartScn, oraConnections, rdbmsInfo);
 		rtt.start();
 		// It's time to init JMS metrics...
 		metrics.start(firstChange);
@@ -241,9 +250,16 @@ public class OraCdcDistributedV$ArchivedLogImpl implements OraLogMiner {
 		// Add info about processed files to JMX
 		metrics.addAlreadyProcessed(fileNames, archLogsAvailable, archLogsSize,
 				System.currentTimeMillis() - readStartMillis);
+		// Space at target is available for next prefetched files
+		bytesOnTarget.addAndGet(-archLogsSize);
 		LOGGER.trace("END: stop()");
 	}
 
+	@Override
+	public void releaseRedo(final long restartScn) {
+		this.restartScn.set(restartScn);
+	}
+
 	@Override
 	public boolean isDictionaryAvailable() {
 		return dictionaryAvailable;
@@ -264,26 +280,39 @@ public class OraCdcDistributedV$ArchivedLogImpl implements OraLogMiner {
 		private final CountDownLatch runLatch;
 		private final ZoneId oracleDbZoneId;
 		private final BlockingQueue<ArchivedRedoFile> redoFiles;
+		private final AtomicLong bytesOnTarget;
+		private final AtomicLong restartScn;
+		private long releasedScn = 0;
+		private final int prefetchFiles;
+		private final long prefetchBytes;
+		private final Deque<PendingFile> pendingFiles = new ArrayDeque<>();
 		private final OraCdcRedoShipment metrics;
 		private final InetSocketAddress targetServerAddress;
+		private final ShipmentClient targetClient;
 		private OracleConnection connDictionary;
 		private PreparedStatement psGetArchivedLogs;
 		private long firstChange;
-		private long lastSequence = -1;
 		private long nextChange = 0;
 		private final OraRdbmsInfo rdbmsInfo;
+		private final OraCdcArchivedLogWatcher.Subscription subscription;
+		private final long maxDiscoveryInterval;
+		private boolean queryArchivedLogs = true;
 
 		RedoTransportThread(
 				final long firstChange,
 				final OraCdcSourceConnectorConfig config,
 				final CountDownLatch runLatch,
 				final BlockingQueue<ArchivedRedoFile> redoFiles,
+				final AtomicLong bytesOnTarget,
+				final AtomicLong restartScn,
 				final OraConnectionObjects oraConnections,
 				final OraRdbmsInfo rdbmsInfo) throws SQLException {
 			this.setName("OraCdcRedoTransportThread-" + System.nanoTime());
 			this.firstChange = firstChange;
 			this.runLatch = runLatch;
 			this.redoFiles = redoFiles;
+			this.bytesOnTarget = bytesOnTarget;
+			this.restartScn = restartScn;
 			this.rdbmsInfo = rdbmsInfo;
 			connDictionary = (OracleConnection) oraConnections.getConnection();
 			//TODO
@@ -306,6 +335,109 @@ public class OraCdcDistributedV$ArchivedLogImpl implements OraLogMiner {
 			final int targetPort = config.getInt(ParamConstants.DISTRIBUTED_TARGET_PORT);
 			metrics = new OraCdcRedoShipment(targetHost, targetPort);
 			targetServerAddress = new InetSocketAddress(targetHost, targetPort);
+			targetClient = new ShipmentClient(targetServerAddress);
+			prefetchFiles = config.getInt(ParamConstants.DISTRIBUTED_PREFETCH_FILES_PARAM);
+			prefetchBytes = config.getLong(ParamConstants.DISTRIBUTED_PREFETCH_BYTES_PARAM);
+			LOGGER.debug("Up to {} archived logs with total size of {} bytes will be shipped ahead of LogMiner.",
+					prefetchFiles, prefetchBytes == 0 ? "unlimited" : prefetchBytes);
+			if (config.getBoolean(ParamConstants.LOG_DISCOVERY_SHARED_PARAM)) {
+				maxDiscoveryInterval = config.getInt(ParamConstants.LOG_DISCOVERY_MAX_INTERVAL_PARAM);
+				subscription = OraCdcArchivedLogWatcher.subscribe(
+						rdbmsInfo.getDbId(), rdbmsInfo.getDbUniqueName(), rdbmsInfo.getRedoThread(),
+						maxDiscoveryInterval, oraConnections::getConnection);
+			} else {
+				maxDiscoveryInterval = 0;
+				subscription = null;
+			}
+		}
+
+		/**
+		 * Waits for new archived log, V$ARCHIVED_LOG is queried again only after notification,
+		 * timeout, or when prefetch window was full on previous pass
+		 */
+		private void waitForArchivedLog() throws InterruptedException {
+			if (subscription == null || queryArchivedLogs) {
+				Thread.sleep(50);
+			} else {
+				subscription.await(maxDiscoveryInterval);
+			}
+			queryArchivedLogs = true;
+		}
+
+		/**
+		 * Checks prefetch window, at least one file is always allowed when nothing
+		 * is stored at target
+		 */
+		private boolean canRequest(final long bytes) {
+			if (pendingFiles.size() >= prefetchFiles) {
+				return false;
+			}
+			final long stored = bytesOnTarget.get();
+			return prefetchBytes == 0 || stored == 0 || stored + bytes <= prefetchBytes;
+		}
+
+		private void requestFile(final ArchivedRedoFile redoFile) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("File request for reading {} sent to {}:{}",
+						redoFile.NAME,
+						targetServerAddress.getHostString(),
+						targetServerAddress.getPort());
+			}
+			bytesOnTarget.addAndGet(redoFile.BYTES);
+			pendingFiles.add(new PendingFile(redoFile, System.nanoTime(), targetClient.request(redoFile.NAME, null)));
+		}
+
+		/**
+		 * Passes shipped files to LogMiner strictly in sequence order: file is passed only
+		 * when all files before it are passed, regardless of transfer completion order.
+		 *
+		 * @param waitMillis time to wait for completion of the oldest request
+		 * @throws IOException
+		 */
+		private void passShippedFiles(long waitMillis) throws IOException {
+			while (!pendingFiles.isEmpty()) {
+				final PendingFile pending = pendingFiles.peek();
+				final ShipmentClient.Response response;
+				try {
+					if (pending.future.isDone()) {
+						response = pending.future.get();
+					} else if (waitMillis > 0) {
+						response = pending.future.get(waitMillis, TimeUnit.MILLISECONDS);
+						// Only already shipped files are passed after wait
+						waitMillis = 0;
+					} else {
+						return;
+					}
+				} catch (TimeoutException te) {
+					return;
+				} catch (ExecutionException ee) {
+					if (ee.getCause() instanceof IOException) {
+						throw (IOException) ee.getCause();
+					} else {
+						throw new IOException(ee.getCause());
+					}
+				} catch (InterruptedException ie) {
+					throw new IOException(ie);
+				}
+				pendingFiles.poll();
+				final ArchivedRedoFile redoFile = pending.redoFile;
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Response received:\tstatus={}, size={}, file={}, CRC32C={}",
+							response.getStatus(), response.getSize(), response.getMessage(), response.getChecksum());
+				}
+				if (response.isOk()) {
+					metrics.addProcessedFileInfo(
+							System.nanoTime() - pending.startNanos,
+							redoFile.BYTES,
+							response.getShippedBytes(),
+							redoFile.NAME);
+					// Now we need redo log name at target server
+					redoFile.NAME = response.getMessage();
+				} else {
+					throw new IOException("Invalid response!\t" + response.getMessage());
+				}
+				redoFiles.add(redoFile);
+			}
 		}
 
 		@Override
@@ -313,73 +445,61 @@ public class OraCdcDistributedV$ArchivedLogImpl implements OraLogMiner {
 			LOGGER.info("BEGIN: RedoTransportThread.run()");
 			while (runLatch.getCount() > 0) {
 				try {
-					psGetArchivedLogs.setLong(1, firstChange);
-					psGetArchivedLogs.setLong(2, firstChange);
-					psGetArchivedLogs.setLong(3, firstChange);
-					psGetArchivedLogs.setInt(4, rdbmsInfo.getRedoThread());
-					psGetArchivedLogs.setInt(5, rdbmsInfo.getRedoThread());
-					final ResultSet rsArchivedLogFiles = psGetArchivedLogs.executeQuery();
-					while (rsArchivedLogFiles.next()) {
-						final long sequence = rsArchivedLogFiles.getLong("SEQUENCE#");
-						nextChange = rsArchivedLogFiles.getLong("NEXT_CHANGE#");
-						if (sequence > lastSequence) {
+					if (queryArchivedLogs) {
+						queryArchivedLogs = subscription == null;
+						psGetArchivedLogs.setLong(1, firstChange);
+						psGetArchivedLogs.setLong(2, firstChange);
+						psGetArchivedLogs.setLong(3, firstChange);
+						psGetArchivedLogs.setInt(4, rdbmsInfo.getRedoThread());
+						psGetArchivedLogs.setInt(5, rdbmsInfo.getRedoThread());
+						final ResultSet rsArchivedLogFiles = psGetArchivedLogs.executeQuery();
+						while (rsArchivedLogFiles.next()) {
+							nextChange = rsArchivedLogFiles.getLong("NEXT_CHANGE#");
 							if (firstChange < nextChange) {
-								final long startNanos = System.nanoTime();
+								final long bytes = rsArchivedLogFiles.getLong("BYTES");
+								if (!canRequest(bytes)) {
+									// Window is full, rest of files will be requested on next pass
+									queryArchivedLogs = true;
+									break;
+								}
 								ArchivedRedoFile redoFile = new ArchivedRedoFile(oracleDbZoneId);
 								redoFile.NAME = rsArchivedLogFiles.getString("NAME");
 								redoFile.THREAD = rsArchivedLogFiles.getInt("THREAD#");
-								redoFile.SEQUENCE = sequence;
+								redoFile.SEQUENCE = rsArchivedLogFiles.getLong("SEQUENCE#");
 								redoFile.FIRST_CHANGE = rsArchivedLogFiles.getLong("FIRST_CHANGE#");
 								redoFile.NEXT_CHANGE = nextChange;
-								redoFile.BYTES = rsArchivedLogFiles.getLong("BYTES");
+								redoFile.BYTES = bytes;
 								redoFile.FIRST_TIME = rsArchivedLogFiles.getTimestamp("FIRST_TIME");
-								// Get file
-								if (LOGGER.isDebugEnabled()) {
-									LOGGER.debug("File request for reading {} sent to {}:{}",
-											redoFile.NAME,
-											targetServerAddress.getHostString(),
-											targetServerAddress.getPort());
-								}
-								final ByteBuffer fileRequest = ByteBuffer.allocate(1024);
-								fileRequest.put(redoFile.NAME.getBytes("UTF-8"));
-								fileRequest.flip();
-								SocketChannel channelToTarget = SocketChannel.open();
-								channelToTarget.connect(targetServerAddress);
-								channelToTarget.configureBlocking(true);
-								channelToTarget.write(fileRequest);
-								
-								final ByteBuffer fileResponse = ByteBuffer.allocate(1024);
-								channelToTarget.read(fileResponse);
-								fileResponse.rewind();
-								final String responseContent = StringUtils.trim(new String(fileResponse.array(), "UTF-8"));
-								if (LOGGER.isDebugEnabled()) {
-									LOGGER.debug("Response received:\t{}", responseContent);
-								}
-								final String[] responseLines = StringUtils.split(responseContent, "\n");
-								if (responseLines.length == 3 && "OK".equals(responseLines[0])) {
-									metrics.addProcessedFileInfo(
-											System.nanoTime() - startNanos,
-											redoFile.BYTES,
-											redoFile.NAME);
-									// Now we need redo log name at target server
-									redoFile.NAME = responseLines[1];
-								} else {
-									throw new IOException("Invalid response!\t" + responseContent);
-								}
-
-								redoFiles.add(redoFile);
+								requestFile(redoFile);
 								firstChange = redoFile.NEXT_CHANGE;
 							}
 						}
+						rsArchivedLogFiles.close();
+						psGetArchivedLogs.clearParameters();
 					}
-					psGetArchivedLogs.clearParameters();
 					//TODO
 					//TODO Parameter for wait timeout???
 					//TODO
-					try {
-						Thread.sleep(50);
-					} catch (InterruptedException ie) {
-						throw new SQLException(ie);
+					if (restartScn.get() > releasedScn) {
+						releasedScn = restartScn.get();
+						targetClient.release(releasedScn);
+					}
+					if (pendingFiles.isEmpty()) {
+						try {
+							waitForArchivedLog();
+						} catch (InterruptedException ie) {
+							throw new SQLException(ie);
+						}
+					} else {
+						passShippedFiles(50);
+						// Files archived while shipping are discovered without waiting for the last transfer
+						try {
+							if (!queryArchivedLogs && subscription != null && subscription.await(0)) {
+								queryArchivedLogs = true;
+							}
+						} catch (InterruptedException ie) {
+							throw new SQLException(ie);
+						}
 					}
 				} catch (SQLException | IOException sqle) {
 					LOGGER.error(sqle.getMessage());
@@ -390,9 +510,17 @@ public class OraCdcDistributedV$ArchivedLogImpl implements OraLogMiner {
 					try {
 						connDictionary.close();
 					} catch (SQLException sqleIgnore) {} 
+					targetClient.close();
+					if (subscription != null) {
+						subscription.close();
+					}
 					throw new ConnectException(sqle);
 				}
 			}
+			targetClient.close();
+			if (subscription != null) {
+				subscription.close();
+			}
 			try {
 				if (connDictionary != null) {
 					connDictionary.close();
@@ -405,6 +533,20 @@ public class OraCdcDistributedV$ArchivedLogImpl implements OraLogMiner {
 		
 	}
 
+	private static class PendingFile {
+
+		private final ArchivedRedoFile redoFile;
+		private final long startNanos;
+		private final CompletableFuture<ShipmentClient.Response> future;
+
+		PendingFile(final ArchivedRedoFile redoFile, final long startNanos,
+				final CompletableFuture<ShipmentClient.Response> future) {
+			this.redoFile = redoFile;
+			this.startNanos = startNanos;
+			this.future = future;
+		}
+	}
+
 	private static class ArchivedRedoFile {
 
 		private final ZoneId dbZoneId;
@@ -0,0 +1,27 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+/**
+ * Reader of source database with fetch size adjusted by source load governor
+ * 
+ * @author averemee
+ *
+ */
+public interface OraCdcFetchSizeIntf {
+
+	public int getFetchSize();
+	public void setFetchSize(final int fetchSize);
+
+}
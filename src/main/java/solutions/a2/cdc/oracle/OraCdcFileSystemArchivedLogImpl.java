@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import solutions.a2.cdc.oracle.jmx.OraCdcLogMinerMgmtIntf;
+import solutions.a2.cdc.oracle.utils.file.OraRedoLogCatalog;
+import solutions.a2.cdc.oracle.utils.file.OraRedoLogFile;
+
+/**
+ *
+ * Wrapper for LogMiner operations (local directories with archived logs as source) implementation.
+ * Archived logs are found using headers of files, without query to V$ARCHIVED_LOG.
+ *
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+public class OraCdcFileSystemArchivedLogImpl implements OraLogMiner {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcFileSystemArchivedLogImpl.class);
+
+	private long firstChange;
+	private long sessionFirstChange;
+	private long nextChange = 0;
+	private int numArchLogs;
+	private long sizeOfArchLogs;
+	private final boolean useNumOfArchLogs;
+	private final boolean dictionaryAvailable;
+	private final long dbId;
+	private final String dbUniqueName;
+	private final OraCdcLogMinerMgmtIntf metrics;
+	private final OraRedoLogCatalog catalog;
+	private CallableStatement csAddArchivedLogs;
+	private CallableStatement csStartLogMiner;
+	private CallableStatement csStopLogMiner;
+	private int archLogsAvailable = 0;
+	private long archLogsSize = 0;
+	private List<String> fileNames = new ArrayList<>();
+	private long readStartMillis;
+
+	public OraCdcFileSystemArchivedLogImpl(
+			final Connection connLogMiner,
+			final OraCdcLogMinerMgmtIntf metrics, final long firstChange,
+			final OraCdcSourceConnectorConfig config,
+			final CountDownLatch runLatch,
+			final OraRdbmsInfo rdbmsInfo,
+			final OraConnectionObjects oraConnections) throws SQLException {
+		LOGGER.trace("BEGIN: OraLogMiner Constructor");
+		this.metrics = metrics;
+
+		if (config.getLong(ParamConstants.REDO_FILES_SIZE_PARAM) > 0) {
+			useNumOfArchLogs = false;
+			sizeOfArchLogs = config.getLong(ParamConstants.REDO_FILES_SIZE_PARAM);
+			LOGGER.debug("The redo log read size limit will be set to '{}' bytes.", sizeOfArchLogs);
+		} else {
+			useNumOfArchLogs = true;
+			numArchLogs = config.getShort(ParamConstants.REDO_FILES_COUNT_PARAM);
+			LOGGER.debug("The redo log read size limit will be set to '{}' files", numArchLogs);
+		}
+
+		final List<String> directoryNames = config.getList(ParamConstants.ARCHIVED_LOG_DIRS_PARAM);
+		if (directoryNames == null || directoryNames.isEmpty()) {
+			throw new SQLException("Parameter " + ParamConstants.ARCHIVED_LOG_DIRS_PARAM + " must be set");
+		}
+		final List<Path> directories = new ArrayList<>();
+		directoryNames.forEach(name -> directories.add(Paths.get(name.trim())));
+		try {
+			final String indexFileName = config.getString(ParamConstants.ARCHIVED_LOG_INDEX_PARAM);
+			catalog = new OraRedoLogCatalog(directories, rdbmsInfo.getRedoThread(), rdbmsInfo.getDbId(),
+					StringUtils.isBlank(indexFileName) ?
+							null : Paths.get(indexFileName.trim() + "." + rdbmsInfo.getRedoThread()));
+			catalog.scan();
+		} catch (IOException ioe) {
+			throw new SQLException(ioe);
+		}
+		LOGGER.info("{} archived logs of thread# {} found in {}.",
+				catalog.size(), rdbmsInfo.getRedoThread(), directoryNames);
+
+		this.firstChange = firstChange;
+		createStatements(connLogMiner);
+		PreparedStatement psOpenMode = connLogMiner.prepareStatement(OraDictSqlTexts.RDBMS_OPEN_MODE,
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		ResultSet rsOpenMode = psOpenMode.executeQuery();
+		if (rsOpenMode.next()) {
+			final String openMode = rsOpenMode.getString(1);
+			if ("MOUNTED".equals(openMode)) {
+				LOGGER.trace("LogMiner connection database is in MOUNTED state, no dictionary available.");
+				dictionaryAvailable = false;
+			} else {
+				LOGGER.trace("LogMiner connection database is in {} state, dictionary is available.", openMode);
+				dictionaryAvailable = true;
+			}
+			LOGGER.info("LogMiner will start from SCN {}", firstChange);
+			dbId = rsOpenMode.getLong(2);
+			dbUniqueName = rsOpenMode.getString(3);
+		} else {
+			throw new SQLException("Unable to detect RDBMS open mode");
+		}
+		rsOpenMode.close();
+		rsOpenMode = null;
+		psOpenMode.close();
+		psOpenMode = null;
+		// It's time to init JMS metrics...
+		metrics.start(firstChange);
+		LOGGER.trace("END: OraLogMiner Constructor");
+	}
+
+	@Override
+	public void createStatements(final Connection connLogMiner) throws SQLException {
+		csAddArchivedLogs = connLogMiner.prepareCall(OraDictSqlTexts.ADD_ARCHIVED_LOG);
+		csStartLogMiner = connLogMiner.prepareCall(OraDictSqlTexts.START_LOGMINER);
+		csStopLogMiner = connLogMiner.prepareCall(OraDictSqlTexts.STOP_LOGMINER);
+	}
+
+	/**
+	 * Prepare LogMiner (exec DBMS_LOGMNR.START_LOGMNR) for given connection
+	 *
+	 * @return  - true if LogMiner prepared, false if no more redo files available
+	 * @throws SQLException
+	 */
+	@Override
+	public boolean next() throws SQLException {
+		return start(true);
+	}
+
+	@Override
+	public boolean extend() throws SQLException {
+		return start(false);
+	}
+
+	private boolean start(boolean nextLogs) throws SQLException {
+		final String functionName;
+		if (nextLogs) {
+			functionName = "next()";
+		} else {
+			functionName = "extend()";
+		}
+		LOGGER.trace("BEGIN: {}", functionName);
+
+		archLogsAvailable = 0;
+		archLogsSize = 0;
+
+		try {
+			catalog.refresh();
+		} catch (IOException ioe) {
+			throw new SQLException(ioe);
+		}
+		if (nextLogs) {
+			if (firstChange == 0) {
+				// oracdc started without archived logs....
+				firstChange = catalog.firstChange();
+				if (firstChange == 0) {
+					LOGGER.debug("No archived logs found... Will retry");
+					return false;
+				}
+			}
+			// Initialize list of files only for "next()"
+			fileNames = new ArrayList<>();
+		}
+
+		final List<OraRedoLogCatalog.Entry> files = catalog.next(firstChange,
+				useNumOfArchLogs ? numArchLogs : 0, useNumOfArchLogs ? 0 : sizeOfArchLogs);
+		int lagSeconds = 0;
+		for (OraRedoLogCatalog.Entry entry : files) {
+			final OraRedoLogFile redoLog = entry.getRedoLog();
+			if (archLogsAvailable == 0) {
+				lagSeconds = (int) ((System.currentTimeMillis() - entry.getLastModified()) / 1000);
+			}
+			nextChange = redoLog.nextChange();
+			fileNames.add(redoLog.name());
+			LOGGER.info("Adding archived log {} thread# {} sequence# {} first change number {} next log first change {}",
+					redoLog.name(), redoLog.thread(), redoLog.sequence(), redoLog.firstChange(), nextChange);
+			archLogsAvailable++;
+			archLogsSize += redoLog.length();
+		}
+
+		if (archLogsAvailable == 0) {
+			LOGGER.trace("END: {} return false", functionName);
+			return false;
+		} else {
+			// Set current processing in JMX
+			metrics.setNowProcessed(
+					fileNames, nextLogs ? firstChange : sessionFirstChange, nextChange, lagSeconds);
+			LOGGER.trace("Adding files to LogMiner session and starting it");
+			for (int fileNum = 0; fileNum < fileNames.size(); fileNum++) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Adding {} to LogMiner processing list.", fileNames.get(fileNum));
+				}
+				csAddArchivedLogs.setInt(1, fileNum);
+				csAddArchivedLogs.setString(2, fileNames.get(fileNum));
+				csAddArchivedLogs.addBatch();
+			}
+			csAddArchivedLogs.executeBatch();
+			csAddArchivedLogs.clearBatch();
+
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Attempting to start LogMiner for SCN range from {} to {}.",
+						nextLogs ? firstChange : sessionFirstChange, nextChange);
+			}
+			try {
+				csStartLogMiner.setLong(1, nextLogs ? firstChange : sessionFirstChange);
+				csStartLogMiner.setLong(2, nextChange);
+				csStartLogMiner.execute();
+				csStartLogMiner.clearParameters();
+			} catch(SQLException sqle) {
+				LOGGER.error("Unable to execute\n\t{}\n\tusing STARTSCN={} and ENDSCN={}",
+						OraDictSqlTexts.START_LOGMINER, nextLogs ? firstChange : sessionFirstChange, nextChange);
+				throw new SQLException(sqle);
+			}
+			if (nextLogs) {
+				// Set sessionFirstChange only in call to next()
+				sessionFirstChange = firstChange;
+			}
+			firstChange = nextChange;
+			readStartMillis = System.currentTimeMillis();
+			LOGGER.trace("END: {} returns true", functionName);
+			return true;
+		}
+	}
+
+	@Override
+	public void stop() throws SQLException {
+		LOGGER.trace("BEGIN: stop()");
+		csStopLogMiner.execute();
+		// Add info about processed files to JMX
+		metrics.addAlreadyProcessed(fileNames, archLogsAvailable, archLogsSize,
+				System.currentTimeMillis() - readStartMillis);
+		LOGGER.trace("END: stop()");
+	}
+
+	@Override
+	public boolean isDictionaryAvailable() {
+		return dictionaryAvailable;
+	}
+
+	@Override
+	public long getDbId() {
+		return dbId;
+	}
+
+	@Override
+	public String getDbUniqueName() {
+		return dbUniqueName;
+	}
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ *
+ * Compact form of initial load progress stored in offset of every record. Tables of initial load
+ * are numbered in name order, completed tables are stored as base64 encoded bitmap (I:DONE) with
+ * CRC32 of table list (I:LIST), so size of offset does not depend on length of table names and
+ * progress is ignored when list of tables is changed before restart.
+ *
+ * @author averemee
+ *
+ */
+class OraCdcInitialLoadProgress {
+
+	static final String DONE = "I:DONE";
+	static final String LIST = "I:LIST";
+
+	private final List<String> tables;
+	private final long listCrc;
+
+	/**
+	 *
+	 * @param tables fully qualified names of all tables of initial load
+	 */
+	OraCdcInitialLoadProgress(final Collection<String> tables) {
+		this.tables = new ArrayList<>(tables);
+		Collections.sort(this.tables);
+		final CRC32 crc = new CRC32();
+		crc.update(String.join(",", this.tables).getBytes(StandardCharsets.UTF_8));
+		this.listCrc = crc.getValue();
+	}
+
+	/**
+	 * Puts progress to offset
+	 *
+	 * @param offset
+	 * @param completedTables
+	 */
+	void put(final Map<String, Object> offset, final Set<String> completedTables) {
+		final BitSet done = new BitSet(tables.size());
+		for (int i = 0; i < tables.size(); i++) {
+			if (completedTables.contains(tables.get(i))) {
+				done.set(i);
+			}
+		}
+		if (done.isEmpty()) {
+			offset.remove(DONE);
+		} else {
+			offset.put(DONE, Base64.getEncoder().withoutPadding().encodeToString(done.toByteArray()));
+		}
+		offset.put(LIST, listCrc);
+	}
+
+	/**
+	 * Restores completed tables from offset
+	 *
+	 * @param offset
+	 * @param completedTables
+	 * @return false when offset was written for other list of tables
+	 */
+	boolean restore(final Map<String, Object> offset, final Set<String> completedTables) {
+		final Object storedCrc = offset.get(LIST);
+		if (storedCrc == null || ((Number) storedCrc).longValue() != listCrc) {
+			return false;
+		}
+		final String encoded = (String) offset.get(DONE);
+		if (StringUtils.isNotBlank(encoded)) {
+			final BitSet done = BitSet.valueOf(Base64.getDecoder().decode(encoded));
+			for (int i = done.nextSetBit(0); i >= 0 && i < tables.size(); i = done.nextSetBit(i + 1)) {
+				completedTables.add(tables.get(i));
+			}
+		}
+		return true;
+	}
+
+}
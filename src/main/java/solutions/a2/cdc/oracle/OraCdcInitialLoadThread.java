@@ -15,11 +15,20 @@ package solutions.a2.cdc.oracle;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -51,6 +60,22 @@ public class OraCdcInitialLoadThread extends Thread {
 	private final int selectThreadCount;
 	private final OraRdbmsInfo rdbmsInfo;
 	private final OraConnectionObjects oraConnections;
+	private final int chunkCount;
+	private final long chunkMinBlocks;
+	private final int stagingWindow;
+	private final Set<String> completedTables;
+	private final String resumeTable;
+	private final String resumeRowId;
+	private final boolean concurrentSnapshot;
+	private final long rangeMaxBlocks;
+	private final List<OraTable4InitialLoad> tables4Load = Collections.synchronizedList(new ArrayList<>());
+	private volatile boolean stopped = false;
+	private final Object snapshotTicketLock = new Object();
+	private long snapshotTicket = 0;
+	private long nextSnapshotTicket = 0;
+	private volatile ThreadPoolExecutor threadPool;
+	private volatile int activeLoaders;
+	private volatile int fetchSize = 0;
 
 	public OraCdcInitialLoadThread(
 			final int waitInterval,
@@ -60,6 +85,15 @@ public class OraCdcInitialLoadThread extends Thread {
 			final OraRdbmsInfo rdbmsInfo,
 			final OraCdcInitialLoad metrics,
 			final BlockingQueue<OraTable4InitialLoad> tablesQueue,
+			final int chunkCount,
+			final long chunkMinBlocks,
+			final int stagingWindow,
+			final int selectThreads,
+			final Set<String> completedTables,
+			final String resumeTable,
+			final String resumeRowId,
+			final boolean concurrentSnapshot,
+			final long rangeMaxBlocks,
 			OraConnectionObjects oraConnections) throws SQLException {
 		LOGGER.info("Initializing oracdc initial load thread");
 		this.setName("OraCdcInitialLoadThread-" + System.nanoTime());
@@ -69,10 +103,37 @@ public class OraCdcInitialLoadThread extends Thread {
 		this.queuesRoot = queuesRoot;
 		this.tablesQueue = tablesQueue;
 		this.oraConnections = oraConnections;
+		this.chunkCount = chunkCount;
+		this.chunkMinBlocks = chunkMinBlocks;
+		this.stagingWindow = stagingWindow;
+		this.completedTables = completedTables;
+		this.resumeTable = resumeTable;
+		this.resumeRowId = resumeRowId;
+		this.concurrentSnapshot = concurrentSnapshot;
+		// Without concurrent snapshot size of range does not delay redo changes
+		this.rangeMaxBlocks = concurrentSnapshot ? rangeMaxBlocks : 0;
 		final int coreCount = Runtime.getRuntime().availableProcessors();
-		this.selectThreadCount = Math.min(coreCount, rdbmsInfo.getCpuCoreCount());
+		if (selectThreads > 0) {
+			this.selectThreadCount = selectThreads;
+		} else {
+			this.selectThreadCount = Math.min(coreCount, rdbmsInfo.getCpuCoreCount());
+		}
 		LOGGER.info("DB cores available {}, Kafka Cores available {}.", rdbmsInfo.getCpuCoreCount(), coreCount);
-		LOGGER.info("{} parallel loaders for select phase will be used.");
+		LOGGER.info("{} parallel loaders for select phase will be used.", selectThreadCount);
+		this.activeLoaders = selectThreadCount;
+		if (chunkCount > 1) {
+			LOGGER.info("Tables with at least {} blocks will be split into {} ROWID ranges.",
+					chunkMinBlocks, chunkCount);
+		}
+		if (concurrentSnapshot) {
+			LOGGER.info("Concurrent snapshot: ROWID ranges will be read using flashback query and interleaved with redo changes.");
+			LOGGER.info("Concurrent snapshot: tables will be split into ROWID ranges of at most {} blocks.",
+					rangeMaxBlocks);
+		}
+		if (stagingWindow > 0) {
+			LOGGER.info("Streaming initial load with staging window of {} rows per ROWID range will be used.",
+					stagingWindow);
+		}
 		this.metrics = metrics;
 		// Set latch to number of tables for load...
 		this.runLatch = new CountDownLatch(tablesInProcessing.size());
@@ -86,29 +147,79 @@ public class OraCdcInitialLoadThread extends Thread {
 		LOGGER.info("BEGIN: OraCdcInitialLoadThread.run()");
 		final long startMillis = System.currentTimeMillis();
 		if (tablesInProcessing != null && tablesInProcessing.size() > 0) {
-			final BlockingQueue<Runnable> workQueue = new ArrayBlockingQueue<Runnable>(tablesInProcessing.size());
-			final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
-				selectThreadCount, selectThreadCount, waitInterval,
+			// Tables may be split into ROWID ranges, so the number of jobs is not known in advance
+			final BlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<Runnable>();
+			threadPool = new ThreadPoolExecutor(
+				activeLoaders, activeLoaders, waitInterval,
 				TimeUnit.MILLISECONDS, workQueue, new ThreadPoolExecutor.AbortPolicy());
-			tablesInProcessing.forEach((k, oraTable) -> {
-				try {
+			try {
+				for (final OraTable4LogMiner oraTable : tablesInProcessing.values()) {
+					if (completedTables.contains(oraTable.fqn())) {
+						LOGGER.info("Skipping table {}, initial load completed before restart.", oraTable.fqn());
+						runLatch.countDown();
+						continue;
+					}
 					final OraTable4InitialLoad table4Load =
-						new OraTable4InitialLoad(queuesRoot, oraTable, metrics, rdbmsInfo);
-					threadPool.submit(() -> {
-						table4Load.readTableData(asOfScn, runLatch, tablesQueue, oraConnections);
-					});
-				} catch (IOException ioe) {
-					LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
-					throw new ConnectException(ioe);
+						new OraTable4InitialLoad(queuesRoot, oraTable, metrics, rdbmsInfo, stagingWindow);
+					if (resumeRowId != null && oraTable.fqn().equals(resumeTable)) {
+						table4Load.setResumeRowId(resumeRowId);
+					}
+					table4Load.readSegmentSize(oraConnections);
+					metrics.addSegmentBytes(table4Load.getSegmentBytes());
+					tables4Load.add(table4Load);
 				}
-			});
+			} catch (IOException ioe) {
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
+				throw new ConnectException(ioe);
+			}
+			// Largest tables first, so that the biggest table does not start last and extend total load time
+			tables4Load.sort(Comparator.comparingLong(OraTable4InitialLoad::getSegmentBytes).reversed());
+			for (final OraTable4InitialLoad table4Load : tables4Load) {
+				if (stopped) {
+					break;
+				}
+				try {
+					final int tableChunks = table4Load.splitIntoChunks(chunkCount, chunkMinBlocks, rangeMaxBlocks, oraConnections);
+					metrics.addChunks(tableChunks);
+					if (concurrentSnapshot) {
+						table4Load.setConcurrentSnapshot();
+						// Task must see table before snapshot SCN of its first range is taken
+						tablesQueue.put(table4Load);
+					}
+					for (int chunkNo = 0; chunkNo < tableChunks; chunkNo++) {
+						final int chunkToRead = chunkNo;
+						final long ticket = snapshotTicket++;
+						threadPool.submit(() -> {
+							if (concurrentSnapshot) {
+								try {
+									table4Load.setSnapshotScn(chunkToRead, snapshotScn(ticket));
+								} catch (ConnectException ce) {
+									// Future of job is not checked, failure is rethrown to the task by getSourceRecord()
+									table4Load.failChunk(chunkToRead, ce, runLatch, tablesQueue);
+									return;
+								}
+							}
+							table4Load.readTableData(chunkToRead, asOfScn, runLatch, tablesQueue, fetchSize, oraConnections);
+						});
+					}
+				} catch (RejectedExecutionException | InterruptedException e) {
+					if (stopped) {
+						break;
+					}
+					LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+					throw new ConnectException(e);
+				}
+			}
 			try {
 				LOGGER.debug("Start waiting for initial load jobs completition...");
 				runLatch.await();
 				threadPool.shutdown();
 			} catch (InterruptedException ie) {
-				LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
-				throw new ConnectException(ie);
+				if (!stopped) {
+					LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
+					running.set(false);
+					throw new ConnectException(ie);
+				}
 			}
 		} else {
 			LOGGER.warn("No tables for initial load!!!");
@@ -118,8 +229,101 @@ public class OraCdcInitialLoadThread extends Thread {
 				(System.currentTimeMillis() - startMillis));
 	}
 
+	/**
+	 * Returns current SCN for ROWID range with given ticket. Tickets are issued in the
+	 * order in which ranges are sent to Kafka, SCN's are taken strictly in ticket order,
+	 * so snapshot SCN's never decrease in send order
+	 * 
+	 * @param ticket
+	 * @return
+	 */
+	private long snapshotScn(final long ticket) {
+		synchronized (snapshotTicketLock) {
+			try {
+				while (ticket != nextSnapshotTicket) {
+					snapshotTicketLock.wait();
+				}
+				try (Connection connection = oraConnections.getConnection();
+						PreparedStatement statement = connection.prepareStatement(OraDictSqlTexts.CURRENT_SCN);
+						ResultSet rs = statement.executeQuery()) {
+					rs.next();
+					return rs.getLong(1);
+				}
+			} catch (SQLException | InterruptedException e) {
+				LOGGER.error("Unable to get snapshot SCN!");
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+				throw new ConnectException(e);
+			} finally {
+				nextSnapshotTicket++;
+				snapshotTicketLock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Stops initial load: loaders are interrupted, rows in staging windows are
+	 * discarded, so that loaders waiting for free space in window return their
+	 * connections to the pool
+	 */
+	public void shutdown() {
+		LOGGER.info("Stopping oracdc initial load thread.");
+		stopped = true;
+		final ThreadPoolExecutor pool = threadPool;
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+		synchronized (tables4Load) {
+			tables4Load.forEach(OraTable4InitialLoad::stop);
+		}
+		this.interrupt();
+	}
+
 	public boolean isRunning() {
 		return running.get();
 	}
 
+	public int getSelectThreadCount() {
+		return selectThreadCount;
+	}
+
+	public int getActiveLoaders() {
+		return activeLoaders;
+	}
+
+	/**
+	 * Changes number of loaders reading ROWID ranges. Ranges already being read
+	 * are not interrupted, new number is used when next range is taken from queue
+	 * 
+	 * @param loaders
+	 */
+	public synchronized void setActiveLoaders(final int loaders) {
+		final int newLoaders = Math.max(1, Math.min(loaders, selectThreadCount));
+		if (newLoaders != activeLoaders) {
+			final ThreadPoolExecutor pool = threadPool;
+			if (pool != null) {
+				if (newLoaders > activeLoaders) {
+					pool.setMaximumPoolSize(newLoaders);
+					pool.setCorePoolSize(newLoaders);
+				} else {
+					pool.setCorePoolSize(newLoaders);
+					pool.setMaximumPoolSize(newLoaders);
+				}
+			}
+			activeLoaders = newLoaders;
+		}
+	}
+
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Sets fetch size for ROWID ranges which are not yet started, 0 - JDBC driver default
+	 * 
+	 * @param fetchSize
+	 */
+	public void setFetchSize(final int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
 }
\ No newline at end of file
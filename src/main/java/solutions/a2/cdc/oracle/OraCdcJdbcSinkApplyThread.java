@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package solutions.a2.cdc.oracle;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import solutions.a2.cdc.oracle.jmx.OraCdcSinkApplyPipeline;
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+
+/**
+ * Executes and commits batches enqueued by OraCdcJdbcSinkTask.put() and
+ * tracks offsets which are durable in the target database
+ * 
+ * @author averemee
+ *
+ */
+public class OraCdcJdbcSinkApplyThread extends Thread {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcJdbcSinkApplyThread.class);
+	private static final int WAIT_INTERVAL_MS = 100;
+
+	private final OraCdcJdbcSinkTask task;
+	private final BlockingQueue<List<SinkRecord>> applyQueue;
+	private final Map<TopicPartition, OffsetAndMetadata> durableOffsets = new ConcurrentHashMap<>();
+	private final AtomicInteger pendingBatches = new AtomicInteger(0);
+	private final AtomicBoolean running;
+	private final OraCdcSinkApplyPipeline metrics;
+	private volatile RuntimeException failure = null;
+
+	public OraCdcJdbcSinkApplyThread(
+			final String connectorName, final String taskId, final OraCdcJdbcSinkTask task, final int queueSize) {
+		LOGGER.info("Initializing oracdc sink apply thread");
+		this.setName("OraCdcJdbcSinkApplyThread-" + System.nanoTime());
+		this.task = task;
+		this.applyQueue = new ArrayBlockingQueue<>(queueSize);
+		this.metrics = new OraCdcSinkApplyPipeline(connectorName, taskId, applyQueue, queueSize);
+		running = new AtomicBoolean(true);
+	}
+
+	@Override
+	public void run() {
+		LOGGER.info("BEGIN: OraCdcJdbcSinkApplyThread.run()");
+		while (running.get()) {
+			final List<SinkRecord> batch;
+			final long waitStart = System.nanoTime();
+			try {
+				batch = applyQueue.poll(WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException ie) {
+				LOGGER.info("Apply thread interrupted.");
+				break;
+			}
+			metrics.addApplyIdle(System.nanoTime() - waitStart);
+			if (batch == null) {
+				continue;
+			}
+			final long applyStart = System.nanoTime();
+			try {
+				task.apply(batch);
+			} catch (RuntimeException re) {
+				LOGGER.error("Error '{}' while applying batch of {} records!", re.getMessage(), batch.size());
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(re));
+				failure = re;
+				running.set(false);
+			}
+			if (failure == null) {
+				for (SinkRecord record : batch) {
+					durableOffsets.put(
+							new TopicPartition(record.topic(), record.kafkaPartition()),
+							new OffsetAndMetadata(record.kafkaOffset() + 1));
+				}
+				metrics.addApplied(batch.size(), System.nanoTime() - applyStart);
+			}
+			pendingBatches.decrementAndGet();
+			synchronized (this) {
+				this.notifyAll();
+			}
+		}
+		synchronized (this) {
+			this.notifyAll();
+		}
+		LOGGER.info("END: OraCdcJdbcSinkApplyThread.run()");
+	}
+
+	/**
+	 * Enqueues batch for apply, blocks while apply queue is full
+	 * 
+	 * @param batch
+	 */
+	public void enqueue(final List<SinkRecord> batch) {
+		checkFailure();
+		pendingBatches.incrementAndGet();
+		final long waitStart = System.nanoTime();
+		try {
+			while (!applyQueue.offer(batch, WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				if (failure != null || !running.get()) {
+					pendingBatches.decrementAndGet();
+					checkFailure();
+					throw new ConnectException("oracdc sink apply thread is not running!");
+				}
+			}
+		} catch (InterruptedException ie) {
+			pendingBatches.decrementAndGet();
+			throw new ConnectException(ie);
+		} finally {
+			metrics.addPutBlocked(System.nanoTime() - waitStart);
+		}
+	}
+
+	/**
+	 * Waits until all enqueued batches are applied
+	 */
+	public void drain() {
+		synchronized (this) {
+			while (pendingBatches.get() > 0 && failure == null && running.get()) {
+				try {
+					this.wait(WAIT_INTERVAL_MS);
+				} catch (InterruptedException ie) {
+					throw new ConnectException(ie);
+				}
+			}
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Returns offsets of records already committed in the target database
+	 * 
+	 * @param partitions
+	 * @return
+	 */
+	public Map<TopicPartition, OffsetAndMetadata> getDurableOffsets(final Collection<TopicPartition> partitions) {
+		checkFailure();
+		final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+		for (TopicPartition partition : partitions) {
+			final OffsetAndMetadata offset = durableOffsets.get(partition);
+			if (offset != null) {
+				offsets.put(partition, offset);
+			}
+		}
+		return offsets;
+	}
+
+	public void removePartitions(final Collection<TopicPartition> partitions) {
+		for (TopicPartition partition : partitions) {
+			durableOffsets.remove(partition);
+		}
+	}
+
+	public void shutdown() {
+		running.set(false);
+		try {
+			this.join();
+		} catch (InterruptedException ie) {
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
+		}
+		metrics.unregister();
+	}
+
+	private void checkFailure() {
+		if (failure != null) {
+			throw new ConnectException("oracdc sink apply thread failed!", failure);
+		}
+	}
+
+}
@@ -91,6 +91,15 @@ public class OraCdcJdbcSinkConnectionPool {
 		}
 	}
 
+	/**
+	 * Pool without data source for given database type, getConnection() must be overridden
+	 * 
+	 * @param dbType
+	 */
+	OraCdcJdbcSinkConnectionPool(final int dbType) {
+		this.dbType = dbType;
+	}
+
 	public Connection getConnection() throws SQLException {
 		Connection connection = dataSource.getConnection();
 		if (connection.getAutoCommit()) {
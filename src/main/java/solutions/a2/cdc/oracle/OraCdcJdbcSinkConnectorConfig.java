@@ -26,10 +26,36 @@ import org.apache.kafka.common.config.ConfigDef.Type;
  */
 public class OraCdcJdbcSinkConnectorConfig extends AbstractConfig {
 
+	public static final String TASK_PARAM_ID = "task.id";
+
 	public static final String AUTO_CREATE_PARAM = "a2.autocreate";
 	private static final String AUTO_CREATE_DOC = "Automatically create the destination table if missed";
 	public static final String AUTO_CREATE_DEFAULT = "false";
 
+	public static final String INSERT_ONLY_PARAM = "a2.insert.only";
+	private static final String INSERT_ONLY_DOC = "When set to true, runs of consecutive inserts for a table are sent to the target database as multi-row INSERT statements instead of single-row upserts. When multi-row INSERT fails with unique key violation, rows are re-applied using upsert. Default - false";
+	public static final String INSERT_ONLY_DEFAULT = "false";
+
+	public static final String INSERT_RUN_LENGTH_PARAM = "a2.insert.run.length";
+	private static final String INSERT_RUN_LENGTH_DOC = "Maximum number of rows in a single multi-row INSERT statement when a2.insert.only set to true. When set to 0 (default) target database specific value is used: 256 for PostgreSQL and MySQL, 64 for Oracle, and 128 for Microsoft SQL Server. Value is always reduced to fit the bind variables limit of target database";
+	public static final int INSERT_RUN_LENGTH_DEFAULT = 0;
+
+	public static final String BISECT_ON_ERROR_PARAM = "a2.bisect.on.error";
+	private static final String BISECT_ON_ERROR_DOC = "When set to true and batch execution fails, the transaction is rolled back and failed batch is recursively split in halves and re-executed to isolate offending records. Offending records are sent to the dead letter queue configured with errors.deadletterqueue.topic.name (or only logged when dead letter queue is not configured), rest of the batch is applied. Transient errors (deadlock, lock wait timeout, serialization failure, lost connection) are not bisected, batch is retried. Default - false";
+	public static final String BISECT_ON_ERROR_DEFAULT = "false";
+
+	public static final String ARRAY_DELETE_PARAM = "a2.array.delete";
+	private static final String ARRAY_DELETE_DOC = "When set to true and target database is PostgreSQL or Oracle, deletes for tables with supported primary key column types are executed with one array bound for each primary key column instead of row by row JDBC batch. Default - false";
+	public static final String ARRAY_DELETE_DEFAULT = "false";
+
+	public static final String APPLY_ASYNC_PARAM = "a2.apply.async";
+	private static final String APPLY_ASYNC_DOC = "When set to true, put() only enqueues records to bounded apply queue, and a dedicated thread executes and commits them in the target database. Only offsets of records committed in the target database are committed in Kafka. Default - false";
+	public static final String APPLY_ASYNC_DEFAULT = "false";
+
+	public static final String APPLY_QUEUE_SIZE_PARAM = "a2.apply.queue.size";
+	private static final String APPLY_QUEUE_SIZE_DOC = "Maximum number of batches received by put() waiting in apply queue when a2.apply.async set to true. When the queue is full put() blocks. Default - 4";
+	public static final int APPLY_QUEUE_SIZE_DEFAULT = 4;
+
 	public static ConfigDef config() {
 		return new ConfigDef()
 				.define(ParamConstants.CONNECTION_URL_PARAM, Type.STRING,
@@ -46,7 +72,21 @@ public class OraCdcJdbcSinkConnectorConfig extends AbstractConfig {
 						ConfigDef.ValidString.in(ParamConstants.SCHEMA_TYPE_KAFKA, ParamConstants.SCHEMA_TYPE_DEBEZIUM),
 						Importance.HIGH, ParamConstants.SCHEMA_TYPE_DOC)
 				.define(AUTO_CREATE_PARAM, Type.BOOLEAN, AUTO_CREATE_DEFAULT,
-						Importance.HIGH, AUTO_CREATE_DOC);
+						Importance.HIGH, AUTO_CREATE_DOC)
+				.define(INSERT_ONLY_PARAM, Type.BOOLEAN, INSERT_ONLY_DEFAULT,
+						Importance.MEDIUM, INSERT_ONLY_DOC)
+				.define(INSERT_RUN_LENGTH_PARAM, Type.INT, INSERT_RUN_LENGTH_DEFAULT,
+						ConfigDef.Range.atLeast(0),
+						Importance.LOW, INSERT_RUN_LENGTH_DOC)
+				.define(BISECT_ON_ERROR_PARAM, Type.BOOLEAN, BISECT_ON_ERROR_DEFAULT,
+						Importance.MEDIUM, BISECT_ON_ERROR_DOC)
+				.define(ARRAY_DELETE_PARAM, Type.BOOLEAN, ARRAY_DELETE_DEFAULT,
+						Importance.MEDIUM, ARRAY_DELETE_DOC)
+				.define(APPLY_ASYNC_PARAM, Type.BOOLEAN, APPLY_ASYNC_DEFAULT,
+						Importance.MEDIUM, APPLY_ASYNC_DOC)
+				.define(APPLY_QUEUE_SIZE_PARAM, Type.INT, APPLY_QUEUE_SIZE_DEFAULT,
+						ConfigDef.Range.atLeast(1),
+						Importance.LOW, APPLY_QUEUE_SIZE_DOC);
 	}
 
 	public OraCdcJdbcSinkConnectorConfig(Map<?, ?> originals) {
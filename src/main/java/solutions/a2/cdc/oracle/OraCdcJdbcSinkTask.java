@@ -15,16 +15,24 @@ package solutions.a2.cdc.oracle;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.errors.RetriableException;
+import org.apache.kafka.connect.sink.ErrantRecordReporter;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.apache.kafka.connect.sink.SinkTask;
 import org.slf4j.Logger;
@@ -46,9 +54,29 @@ public class OraCdcJdbcSinkTask extends SinkTask {
 	private OraCdcJdbcSinkConnectorConfig config;
 	private int batchSize = 1000;
 	private boolean autoCreateTable = false;
+	private boolean insertOnly = false;
+	private int insertRunLength = 0;
+	private boolean bisectOnError = false;
+	private boolean arrayDelete = false;
+	private ErrantRecordReporter errantRecordReporter;
+	private OraCdcJdbcSinkApplyThread applyThread;
 	private int schemaType;
 	private OraCdcJdbcSinkConnectionPool sinkPool;
 
+	public OraCdcJdbcSinkTask() {
+		super();
+	}
+
+	/**
+	 * Task which uses already created connection pool
+	 * 
+	 * @param sinkPool
+	 */
+	OraCdcJdbcSinkTask(final OraCdcJdbcSinkConnectionPool sinkPool) {
+		super();
+		this.sinkPool = sinkPool;
+	}
+
 	@Override
 	public String version() {
 		return Version.getVersion();
@@ -59,24 +87,51 @@ public class OraCdcJdbcSinkTask extends SinkTask {
 		LOGGER.info("Starting oracdc '{}' Sink Task", props.get("name"));
 		config = new OraCdcJdbcSinkConnectorConfig(props);
 
-		try {
-			LOGGER.trace("BEGIN: Hikari Connection Pool initialization.");
-			sinkPool = new OraCdcJdbcSinkConnectionPool(
-					props.get("name"),
-					config.getString(ParamConstants.CONNECTION_URL_PARAM),
-					config.getString(ParamConstants.CONNECTION_USER_PARAM),
-					config.getPassword(ParamConstants.CONNECTION_PASSWORD_PARAM).value());
-			LOGGER.trace("END: Hikari Connection Pool initialization.");
-		} catch (SQLException sqle) {
-			LOGGER.error("Unable to connect to {}", config.getString(ParamConstants.CONNECTION_URL_PARAM));
-			LOGGER.error(ExceptionUtils.getExceptionStackTrace(sqle));
-			throw new ConnectException("Unable to start oracdc Sink Connector Task.");
+		if (sinkPool == null) {
+			try {
+				LOGGER.trace("BEGIN: Hikari Connection Pool initialization.");
+				sinkPool = new OraCdcJdbcSinkConnectionPool(
+						props.get("name"),
+						config.getString(ParamConstants.CONNECTION_URL_PARAM),
+						config.getString(ParamConstants.CONNECTION_USER_PARAM),
+						config.getPassword(ParamConstants.CONNECTION_PASSWORD_PARAM).value());
+				LOGGER.trace("END: Hikari Connection Pool initialization.");
+			} catch (SQLException sqle) {
+				LOGGER.error("Unable to connect to {}", config.getString(ParamConstants.CONNECTION_URL_PARAM));
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(sqle));
+				throw new ConnectException("Unable to start oracdc Sink Connector Task.");
+			}
 		}
 
 		batchSize = config.getInt(ParamConstants.BATCH_SIZE_PARAM);
 		LOGGER.debug("batchSize = {} records.", batchSize);
 		autoCreateTable = config.getBoolean(OraCdcJdbcSinkConnectorConfig.AUTO_CREATE_PARAM);
 		LOGGER.debug("autoCreateTable set to {}.", autoCreateTable);
+		insertOnly = config.getBoolean(OraCdcJdbcSinkConnectorConfig.INSERT_ONLY_PARAM);
+		insertRunLength = config.getInt(OraCdcJdbcSinkConnectorConfig.INSERT_RUN_LENGTH_PARAM);
+		LOGGER.debug("insertOnly set to {}, insertRunLength set to {}.", insertOnly, insertRunLength);
+		arrayDelete = config.getBoolean(OraCdcJdbcSinkConnectorConfig.ARRAY_DELETE_PARAM);
+		LOGGER.debug("arrayDelete set to {}.", arrayDelete);
+		bisectOnError = config.getBoolean(OraCdcJdbcSinkConnectorConfig.BISECT_ON_ERROR_PARAM);
+		LOGGER.debug("bisectOnError set to {}.", bisectOnError);
+		if (bisectOnError) {
+			try {
+				errantRecordReporter = context.errantRecordReporter();
+			} catch (NoSuchMethodError | NoClassDefFoundError e) {
+				// Kafka Connect runtime older than 2.6
+				errantRecordReporter = null;
+			}
+			if (errantRecordReporter == null) {
+				LOGGER.warn("Dead letter queue is not configured, records isolated by batch bisection will be only logged!");
+			}
+		}
+		if (config.getBoolean(OraCdcJdbcSinkConnectorConfig.APPLY_ASYNC_PARAM)) {
+			final int queueSize = config.getInt(OraCdcJdbcSinkConnectorConfig.APPLY_QUEUE_SIZE_PARAM);
+			LOGGER.info("Asynchronous apply with queue of {} batches will be used.", queueSize);
+			applyThread = new OraCdcJdbcSinkApplyThread(props.get("name"),
+					props.getOrDefault(OraCdcJdbcSinkConnectorConfig.TASK_PARAM_ID, "0"), this, queueSize);
+			applyThread.start();
+		}
 		final String schemaTypeString = props.get(ParamConstants.SCHEMA_TYPE_PARAM);
 		LOGGER.debug("a2.schema.type set to {}.", schemaTypeString);
 		if (ParamConstants.SCHEMA_TYPE_DEBEZIUM.equals(schemaTypeString))
@@ -87,64 +142,260 @@ public class OraCdcJdbcSinkTask extends SinkTask {
 
 	@Override
 	public void put(Collection<SinkRecord> records) {
-		LOGGER.trace("BEGIN: put()");
+		if (applyThread != null) {
+			if (records.size() > 0) {
+				applyThread.enqueue(new ArrayList<>(records));
+			}
+		} else {
+			apply(records);
+		}
+	}
+
+	@Override
+	public Map<TopicPartition, OffsetAndMetadata> preCommit(
+			Map<TopicPartition, OffsetAndMetadata> currentOffsets) {
+		if (applyThread != null) {
+			return applyThread.getDurableOffsets(currentOffsets.keySet());
+		} else {
+			return super.preCommit(currentOffsets);
+		}
+	}
+
+	@Override
+	public void close(Collection<TopicPartition> partitions) {
+		if (applyThread != null) {
+			LOGGER.debug("Waiting for apply of already received records before closing partitions.");
+			applyThread.drain();
+			applyThread.removePartitions(partitions);
+		}
+	}
+
+	/**
+	 * Binds, executes and commits records in the target database
+	 * 
+	 * @param records
+	 */
+	void apply(Collection<SinkRecord> records) {
+		LOGGER.trace("BEGIN: apply()");
 		final Set<String> tablesInProcess = new HashSet<>();
+		final List<SinkRecord> currentBatch = new ArrayList<>();
 		try (Connection connection = sinkPool.getConnection()) {
 			int processedRecords = 0;
 			final Map<TopicPartition, OffsetAndMetadata> currentOffsets = new HashMap<>();
 			for (SinkRecord record : records) {
-				final String tableName;
-				if (schemaType == ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD) {
-					tableName = record.topic();
-					LOGGER.debug("Table name from Kafka topic = {}.", tableName);
-				} else { //schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM
-					tableName = ((Struct) record.value()).getStruct("source").getString("table");
-					LOGGER.debug("Table name from 'source' field = {}.", tableName);
-				}
-				OraTable4SinkConnector oraTable = tablesInProcessing.get(tableName);
-				if (oraTable == null) {
-					LOGGER.debug("Create new table definition for {} and add it to processing map,", tableName);
-					oraTable = new OraTable4SinkConnector(
-								sinkPool, tableName, record, autoCreateTable, schemaType);
-					tablesInProcessing.put(tableName, oraTable);
-				}
-				if (!tablesInProcess.contains(tableName)) {
-					LOGGER.debug("Adding {} to current batch set.", tableName);
-					tablesInProcess.add(tableName);
+				currentBatch.add(record);
+				try {
+					getTable(record, tablesInProcess).putData(connection, record);
+				} catch (SQLException | DataException e) {
+					if (!bisectOnError || isTransient(e)) {
+						throw e;
+					}
+					recoverBatch(connection, tablesInProcess, currentBatch, e);
+					currentBatch.clear();
+					currentOffsets.clear();
+					processedRecords = 0;
+					continue;
 				}
-				oraTable.putData(connection, record);
 				currentOffsets.put(
 						new TopicPartition(record.topic(), record.kafkaPartition()),
 						new OffsetAndMetadata(record.kafkaOffset()));
 				processedRecords++;
 				if (processedRecords == batchSize) {
-					for (String tableInProgress : tablesInProcess) {
-						LOGGER.debug("Executing batch for table {}.", tableInProgress);
-						tablesInProcessing.get(tableInProgress).exec();
-					}
+					execBatch(connection, tablesInProcess, currentBatch, false);
 					this.flush(currentOffsets);
-					connection.commit();
+					currentBatch.clear();
 					currentOffsets.clear();
 					processedRecords = 0;
 				}
 			}
 			LOGGER.debug("Execute and close cursors");
-			for (String tableInProgress : tablesInProcess) {
-				LOGGER.debug("Last batch execution and statements closing for table {}.", tableInProgress);
-				tablesInProcessing.get(tableInProgress).execAndCloseCursors();
-			}
-			connection.commit();
+			execBatch(connection, tablesInProcess, currentBatch, true);
 		} catch (SQLException sqle) {
 			LOGGER.error("Error '{}' when put to target system, SQL errorCode = {}, SQL state = '{}'",
 					sqle.getMessage(), sqle.getErrorCode(), sqle.getSQLState());
 			LOGGER.error(ExceptionUtils.getExceptionStackTrace(sqle));
+			if (isTransient(sqle)) {
+				// Connect delivers same records to put() again
+				throw new RetriableException(sqle);
+			}
 			throw new ConnectException(sqle);
 		}
-		LOGGER.trace("BEGIN: put()");
+		LOGGER.trace("END: apply()");
+	}
+
+	private OraTable4SinkConnector getTable(
+			final SinkRecord record, final Set<String> tablesInProcess) throws SQLException {
+		final String tableName;
+		if (schemaType == ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD) {
+			tableName = record.topic();
+			LOGGER.debug("Table name from Kafka topic = {}.", tableName);
+		} else { //schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM
+			tableName = ((Struct) record.value()).getStruct("source").getString("table");
+			LOGGER.debug("Table name from 'source' field = {}.", tableName);
+		}
+		OraTable4SinkConnector oraTable = tablesInProcessing.get(tableName);
+		if (oraTable == null) {
+			LOGGER.debug("Create new table definition for {} and add it to processing map,", tableName);
+			oraTable = new OraTable4SinkConnector(
+						sinkPool, tableName, record, autoCreateTable, schemaType,
+						insertOnly, insertRunLength, arrayDelete);
+			tablesInProcessing.put(tableName, oraTable);
+		}
+		if (!tablesInProcess.contains(tableName)) {
+			LOGGER.debug("Adding {} to current batch set.", tableName);
+			tablesInProcess.add(tableName);
+		}
+		return oraTable;
+	}
+
+	private void execBatch(final Connection connection, final Set<String> tablesInProcess,
+			final List<SinkRecord> batch, final boolean closeCursors) throws SQLException {
+		try {
+			for (String tableInProgress : tablesInProcess) {
+				if (closeCursors) {
+					LOGGER.debug("Last batch execution and statements closing for table {}.", tableInProgress);
+					tablesInProcessing.get(tableInProgress).execAndCloseCursors();
+				} else {
+					LOGGER.debug("Executing batch for table {}.", tableInProgress);
+					tablesInProcessing.get(tableInProgress).exec();
+				}
+			}
+			connection.commit();
+		} catch (SQLException | DataException e) {
+			if (!bisectOnError || isTransient(e)) {
+				throw e;
+			}
+			recoverBatch(connection, tablesInProcess, batch, e);
+			if (closeCursors) {
+				for (String tableInProgress : tablesInProcess) {
+					tablesInProcessing.get(tableInProgress).execAndCloseCursors();
+				}
+			}
+		}
+	}
+
+	private void recoverBatch(final Connection connection, final Set<String> tablesInProcess,
+			final List<SinkRecord> batch, final Exception cause) throws SQLException {
+		LOGGER.error("Error '{}' while applying batch of {} records, starting batch bisection.",
+				cause.getMessage(), batch.size());
+		rollback(connection, tablesInProcess);
+		if (batch.size() == 1) {
+			reportFailedRecord(batch.get(0), cause);
+		} else {
+			bisect(connection, tablesInProcess, batch);
+		}
+	}
+
+	private void bisect(final Connection connection, final Set<String> tablesInProcess,
+			final List<SinkRecord> batch) throws SQLException {
+		final int half = batch.size() / 2;
+		applyOrBisect(connection, tablesInProcess, batch.subList(0, half));
+		applyOrBisect(connection, tablesInProcess, batch.subList(half, batch.size()));
+	}
+
+	private void applyOrBisect(final Connection connection, final Set<String> tablesInProcess,
+			final List<SinkRecord> batch) throws SQLException {
+		try {
+			for (SinkRecord record : batch) {
+				getTable(record, tablesInProcess).putData(connection, record);
+			}
+			for (String tableInProgress : tablesInProcess) {
+				tablesInProcessing.get(tableInProgress).exec();
+			}
+			connection.commit();
+		} catch (SQLException | DataException e) {
+			rollback(connection, tablesInProcess);
+			if (isTransient(e)) {
+				// Not caused by data, whole batch must be retried
+				throw e;
+			} else if (batch.size() == 1) {
+				reportFailedRecord(batch.get(0), e);
+			} else {
+				LOGGER.debug("Bisecting batch of {} records.", batch.size());
+				bisect(connection, tablesInProcess, batch);
+			}
+		}
+	}
+
+	/**
+	 * Checks for errors not caused by data of records: deadlock, lock wait timeout,
+	 * serialization failure or lost connection. Batch with such error is retried, not bisected
+	 * 
+	 * @param e
+	 * @return
+	 */
+	private boolean isTransient(final Exception e) {
+		Throwable current = e;
+		while (current != null) {
+			if (current instanceof SQLTransientException || current instanceof SQLRecoverableException) {
+				return true;
+			} else if (current instanceof SQLException) {
+				final SQLException sqle = (SQLException) current;
+				// 08xxx connection exception, 40001 serialization failure, 40P01 deadlock detected,
+				// 55P03 lock not available, 57014 query canceled
+				if (StringUtils.startsWith(sqle.getSQLState(), "08") ||
+						StringUtils.equalsAny(sqle.getSQLState(), "40001", "40P01", "55P03", "57014")) {
+					return true;
+				}
+				switch (sinkPool.getDbType()) {
+				case OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE:
+					// ORA-00060 deadlock, ORA-00054/ORA-30006 resource busy,
+					// ORA-08177 can't serialize access, ORA-03113/ORA-03114 not connected
+					switch (sqle.getErrorCode()) {
+					case 60:
+					case 54:
+					case 30006:
+					case 8177:
+					case 3113:
+					case 3114:
+						return true;
+					}
+					break;
+				case OraCdcJdbcSinkConnectionPool.DB_TYPE_MYSQL:
+					// ER_LOCK_WAIT_TIMEOUT, ER_LOCK_DEADLOCK
+					if (sqle.getErrorCode() == 1205 || sqle.getErrorCode() == 1213) {
+						return true;
+					}
+					break;
+				case OraCdcJdbcSinkConnectionPool.DB_TYPE_MSSQL:
+					// Deadlock victim, lock request time out period exceeded
+					if (sqle.getErrorCode() == 1205 || sqle.getErrorCode() == 1222) {
+						return true;
+					}
+					break;
+				}
+			}
+			if (current.getCause() == current) {
+				break;
+			}
+			current = current.getCause();
+		}
+		return false;
+	}
+
+	private void rollback(final Connection connection, final Set<String> tablesInProcess) throws SQLException {
+		connection.rollback();
+		for (String tableInProgress : tablesInProcess) {
+			tablesInProcessing.get(tableInProgress).clearBatches();
+		}
+	}
+
+	private void reportFailedRecord(final SinkRecord record, final Exception cause) {
+		LOGGER.error("Unable to apply record from topic {}, partition {}, offset {}! Error '{}'.",
+				record.topic(), record.kafkaPartition(), record.kafkaOffset(), cause.getMessage());
+		if (errantRecordReporter != null) {
+			errantRecordReporter.report(record, cause);
+		} else {
+			LOGGER.error("Dead letter queue is not configured, record is skipped:\n{}", record);
+		}
 	}
 
 	@Override
 	public void stop() {
+		if (applyThread != null) {
+			applyThread.shutdown();
+			applyThread = null;
+		}
 		sinkPool = null;
 	}
 
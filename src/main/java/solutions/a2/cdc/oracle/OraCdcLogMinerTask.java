@@ -36,6 +36,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -102,10 +103,19 @@ public class OraCdcLogMinerTask extends SourceTask {
 	private boolean execInitialLoad = false;
 	private String initialLoadStatus = ParamConstants.INITIAL_LOAD_IGNORE;
 	private OraCdcInitialLoadThread initialLoadWorker;
+	private OraCdcSourceLoadGovernor loadGovernor;
 	private BlockingQueue<OraTable4InitialLoad> tablesQueue;
 	private OraTable4InitialLoad table4InitialLoad;
 	private boolean lastRecordInTable = true;
 	private OraCdcInitialLoad initialLoadMetrics;
+	private long initialLoadScn = 0;
+	private final Set<String> initialLoadCompletedTables = new LinkedHashSet<>();
+	private String initialLoadResumeTable;
+	private String initialLoadResumeRowId;
+	private Map<String, Object> initialLoadCheckpoint;
+	private OraCdcInitialLoadProgress initialLoadProgress;
+	private Map<String, Object> initialLoadOffset;
+	private boolean concurrentInitialLoad = false;
 	private OraCdcLobTransformationsIntf transformLobs;
 	private String connectorName; 
 	private OraConnectionObjects oraConnections;
@@ -385,6 +395,15 @@ public class OraCdcLogMinerTask extends SourceTask {
 					config.getString(ParamConstants.INITIAL_LOAD_PARAM))) {
 				execInitialLoad = true;
 				initialLoadStatus = ParamConstants.INITIAL_LOAD_EXECUTE;
+				if (config.getBoolean(ParamConstants.INITIAL_LOAD_CONCURRENT_PARAM)) {
+					if (legacyResiliencyModel) {
+						LOGGER.warn("{}=true is ignored when {} set to {}!",
+								ParamConstants.INITIAL_LOAD_CONCURRENT_PARAM,
+								ParamConstants.RESILIENCY_TYPE_PARAM, ParamConstants.RESILIENCY_TYPE_LEGACY);
+					} else {
+						concurrentInitialLoad = true;
+					}
+				}
 			}
 			Map<String, Object> offsetFromKafka = context.offsetStorageReader().offset(partition);
 
@@ -416,6 +435,15 @@ public class OraCdcLogMinerTask extends SourceTask {
 							execInitialLoad = false;
 							initialLoadStatus = ParamConstants.INITIAL_LOAD_COMPLETED;
 							LOGGER.info("Initial load set to {} (value from state file)", ParamConstants.INITIAL_LOAD_COMPLETED);
+						} else if (persistentState.getInitialLoadScn() != null) {
+							initialLoadScn = persistentState.getInitialLoadScn();
+							if (persistentState.getInitialLoadCompletedTables() != null) {
+								initialLoadCompletedTables.addAll(persistentState.getInitialLoadCompletedTables());
+							}
+							initialLoadResumeTable = persistentState.getInitialLoadTable();
+							initialLoadResumeRowId = persistentState.getInitialLoadRowId();
+							LOGGER.info("Initial load will be resumed at SCN {}, {} tables already loaded (values from state file).",
+									initialLoadScn, initialLoadCompletedTables.size());
 						}
 					}
 					// End - initial load analysis...
@@ -526,10 +554,37 @@ public class OraCdcLogMinerTask extends SourceTask {
 						initialLoadStatus = ParamConstants.INITIAL_LOAD_COMPLETED;
 						offset.put("I", ParamConstants.INITIAL_LOAD_COMPLETED);
 						LOGGER.info("Initial load set to {} (value from offset)", ParamConstants.INITIAL_LOAD_COMPLETED);
+					} else if (offsetFromKafka != null && concurrentInitialLoad) {
+						// Snapshot SCN's are taken for each ROWID range, only progress is restored
+						// Completed tables are restored when list of tables is known
+						initialLoadOffset = offsetFromKafka;
+						initialLoadResumeTable = (String) offsetFromKafka.get("I:TABLE");
+						initialLoadResumeRowId = (String) offsetFromKafka.get("I:ROWID");
+						if (initialLoadResumeTable != null || offsetFromKafka.containsKey(OraCdcInitialLoadProgress.DONE)) {
+							LOGGER.info("Concurrent initial load will be resumed (values from offset).");
+						}
+					} else if (offsetFromKafka != null && offsetFromKafka.containsKey("I:SCN")) {
+						final long scnFromOffset = (long) offsetFromKafka.get("I:SCN");
+						if (scnFromOffset < firstAvailableScn) {
+							LOGGER.warn(
+									"Unable to resume initial load at SCN {} from offset, first available SCN in V$ARCHIVED_LOG is {}. Initial load will be restarted.",
+									scnFromOffset, firstAvailableScn);
+						} else {
+							initialLoadScn = scnFromOffset;
+							initialLoadOffset = offsetFromKafka;
+							initialLoadResumeTable = (String) offsetFromKafka.get("I:TABLE");
+							initialLoadResumeRowId = (String) offsetFromKafka.get("I:ROWID");
+							LOGGER.info("Initial load will be resumed at SCN {} (value from offset).",
+									initialLoadScn);
+						}
 					}
 				}
 				// End - initial load analysis...
-				if (offsetFromKafka != null && offsetFromKafka.containsKey("C:COMMIT_SCN")) {
+				if (initialLoadScn > 0) {
+					// Initial load interrupted, mining restarts from SCN used for initial load
+					firstScn = initialLoadScn;
+					LOGGER.info("oracdc will start from initial load SCN {}.", firstScn);
+				} else if (offsetFromKafka != null && offsetFromKafka.containsKey("C:COMMIT_SCN")) {
 					if (startScnFromProps) {
 						// a2.first.change set in connector properties, ignore stored offsets values
 						// for restart...
@@ -782,19 +837,50 @@ public class OraCdcLogMinerTask extends SourceTask {
 				LOGGER.debug("Initial load table list SQL {}", initialLoadSql);
 				tablesQueue = new LinkedBlockingQueue<>();
 				buildInitialLoadTableList(initialLoadSql);
+				final List<String> initialLoadTables = new ArrayList<>();
+				tablesInProcessing.values().forEach(t -> initialLoadTables.add(t.fqn()));
+				initialLoadProgress = new OraCdcInitialLoadProgress(initialLoadTables);
+				if (initialLoadOffset != null) {
+					if (initialLoadProgress.restore(initialLoadOffset, initialLoadCompletedTables)) {
+						LOGGER.info("{} of {} tables already loaded (values from offset).",
+								initialLoadCompletedTables.size(), initialLoadTables.size());
+					} else {
+						LOGGER.warn("List of tables for initial load is changed after offset was written, all tables will be loaded again.");
+						initialLoadResumeTable = null;
+						initialLoadResumeRowId = null;
+					}
+				}
 				initialLoadMetrics = new OraCdcInitialLoad(rdbmsInfo, connectorName);
+				if (initialLoadScn == 0 && !concurrentInitialLoad) {
+					initialLoadScn = firstScn;
+				}
+				updateInitialLoadCheckpoint();
 				initialLoadWorker = new OraCdcInitialLoadThread(
 						WAIT_FOR_WORKER_MILLIS,
-						firstScn,
+						initialLoadScn,
 						tablesInProcessing,
 						queuesRoot,
 						rdbmsInfo,
 						initialLoadMetrics,
 						tablesQueue,
+						config.getInt(ParamConstants.INITIAL_LOAD_CHUNK_COUNT_PARAM),
+						config.getLong(ParamConstants.INITIAL_LOAD_CHUNK_MIN_BLOCKS_PARAM),
+						config.getInt(ParamConstants.INITIAL_LOAD_STAGING_WINDOW_PARAM),
+						config.getInt(ParamConstants.INITIAL_LOAD_SELECT_THREADS_PARAM),
+						initialLoadCompletedTables,
+						initialLoadResumeTable,
+						initialLoadResumeRowId,
+						concurrentInitialLoad,
+						config.getLong(ParamConstants.INITIAL_LOAD_CONCURRENT_RANGE_BLOCKS_PARAM),
 						oraConnections);
 			}
 
 
+			if (config.getInt(ParamConstants.GOVERNOR_INTERVAL_PARAM) > 0) {
+				loadGovernor = new OraCdcSourceLoadGovernor(
+						config, rdbmsInfo, connectorName, worker, initialLoadWorker, oraConnections);
+			}
+
 		} catch (SQLException | InvalidPathException | IOException e) {
 			LOGGER.error("Unable to start oracdc logminer task!");
 			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
@@ -805,6 +891,9 @@ public class OraCdcLogMinerTask extends SourceTask {
 			initialLoadWorker.start();
 		}
 		worker.start();
+		if (loadGovernor != null) {
+			loadGovernor.start();
+		}
 		needToStoreState = true;
 		runLatch = new CountDownLatch(1);
 		isPollRunning = new AtomicBoolean(false);
@@ -820,7 +909,7 @@ public class OraCdcLogMinerTask extends SourceTask {
 		}
 		isPollRunning.set(true);
 		List<SourceRecord> result = new ArrayList<>();
-		if (execInitialLoad) {
+		if (execInitialLoad && !concurrentInitialLoad) {
 			// Execute initial load...
 			if (!initialLoadWorker.isRunning() && tablesQueue.isEmpty() && table4InitialLoad == null) {
 				Thread.sleep(WAIT_FOR_WORKER_MILLIS);
@@ -852,9 +941,17 @@ public class OraCdcLogMinerTask extends SourceTask {
 				} else {
 					lastRecordInTable = false;
 					// Processing.......
-					SourceRecord record = table4InitialLoad.getSourceRecord();
-					if (record == null) {
+					SourceRecord record = table4InitialLoad.getSourceRecord(initialLoadCheckpoint);
+					if (record == null && !table4InitialLoad.isCompleted()) {
+						// Streaming initial load, wait for rows from loader
+						if (result.isEmpty()) {
+							Thread.sleep(WAIT_FOR_WORKER_MILLIS);
+						}
+						break;
+					} else if (record == null) {
 						initialLoadMetrics.finishSendTable(table4InitialLoad.fqn());
+						initialLoadCompletedTables.add(table4InitialLoad.fqn());
+						updateInitialLoadCheckpoint();
 						LOGGER.info("Table {} initial load (send to Kafka phase) completed.",
 								table4InitialLoad.fqn());
 						lastRecordInTable = true;
@@ -874,6 +971,29 @@ public class OraCdcLogMinerTask extends SourceTask {
 				int recordCount = 0;
 				int parseTime = 0;
 				while (recordCount < batchSize) {
+					if (lastStatementInTransaction && execInitialLoad) {
+						// Concurrent initial load, interleave ROWID ranges with redo changes
+						final long snapshotScn = initialLoadSnapshotScn();
+						if (snapshotScn > 0) {
+							final OraCdcTransaction next = committedTransactions.peek();
+							if (next != null && next.getCommitScn() <= snapshotScn) {
+								// Changes committed before snapshot SCN of range are sent first
+							} else if (next != null || worker.getLastScn() > snapshotScn) {
+								// All changes up to snapshot SCN are sent, send rows of range
+								final int chunkBefore = table4InitialLoad.getCurrentChunk();
+								final int rowsSent = sendInitialLoadRows(result, batchSize - recordCount);
+								recordCount += rowsSent;
+								if (rowsSent == 0 && chunkBefore == table4InitialLoad.getCurrentChunk()) {
+									// Range is still being read
+									break;
+								}
+								continue;
+							} else {
+								// Waiting for LogMiner to pass snapshot SCN of range
+								break;
+							}
+						}
+					}
 					if (lastStatementInTransaction) {
 						// End of transaction, need to poll new
 						transaction = committedTransactions.poll();
@@ -1026,6 +1146,12 @@ public class OraCdcLogMinerTask extends SourceTask {
 		if (runLatch != null ) {
 			// We can stop before runLatch initialization due to invalid parameters
 			runLatch.countDown();
+			if (loadGovernor != null) {
+				loadGovernor.shutdown();
+			}
+			if (initialLoadWorker != null) {
+				initialLoadWorker.shutdown();
+			}
 			if (stopWorker) {
 				worker.shutdown();
 				while (worker.isRunning()) {
@@ -1096,6 +1222,20 @@ public class OraCdcLogMinerTask extends SourceTask {
 		ops.setLastRsId(worker.getLastRsId());
 		ops.setLastSsn(worker.getLastSsn());
 		ops.setInitialLoad(initialLoadStatus);
+		if (execInitialLoad && initialLoadScn > 0) {
+			ops.setInitialLoadScn(initialLoadScn);
+			if (!initialLoadCompletedTables.isEmpty()) {
+				ops.setInitialLoadCompletedTables(new ArrayList<>(initialLoadCompletedTables));
+			}
+			if (table4InitialLoad != null) {
+				ops.setInitialLoadTable(table4InitialLoad.fqn());
+				ops.setInitialLoadRowId(table4InitialLoad.getCheckpointRowId());
+			} else if (initialLoadResumeTable != null &&
+					!initialLoadCompletedTables.contains(initialLoadResumeTable)) {
+				ops.setInitialLoadTable(initialLoadResumeTable);
+				ops.setInitialLoadRowId(initialLoadResumeRowId);
+			}
+		}
 		if (saveFinalState) {
 			if (transaction != null) {
 				ops.setCurrentTransaction(transaction.attrsAsMap());
@@ -1157,6 +1297,92 @@ public class OraCdcLogMinerTask extends SourceTask {
 		LOGGER.debug("State file contents:\n{}", ops.toString());
 	}
 
+	/**
+	 * Concurrent initial load: returns snapshot SCN of ROWID range to send next,
+	 * or 0 when there is no started range
+	 */
+	private long initialLoadSnapshotScn() {
+		if (table4InitialLoad != null && table4InitialLoad.isCompleted()) {
+			initialLoadMetrics.finishSendTable(table4InitialLoad.fqn());
+			initialLoadCompletedTables.add(table4InitialLoad.fqn());
+			updateInitialLoadCheckpoint();
+			LOGGER.info("Table {} initial load (send to Kafka phase) completed.",
+					table4InitialLoad.fqn());
+			table4InitialLoad.close();
+			table4InitialLoad = null;
+		}
+		if (table4InitialLoad == null) {
+			table4InitialLoad = tablesQueue.poll();
+			if (table4InitialLoad != null) {
+				initialLoadMetrics.startSendTable(table4InitialLoad.fqn());
+				LOGGER.info("Table {} initial load (send to Kafka phase) started.",
+						table4InitialLoad.fqn());
+			} else if (!initialLoadWorker.isRunning() && tablesQueue.isEmpty()) {
+				LOGGER.info("Initial load completed");
+				execInitialLoad = false;
+				initialLoadStatus = ParamConstants.INITIAL_LOAD_COMPLETED;
+				offset.put("I", ParamConstants.INITIAL_LOAD_COMPLETED);
+				offset.remove(OraCdcInitialLoadProgress.DONE);
+				offset.remove(OraCdcInitialLoadProgress.LIST);
+				return 0;
+			} else {
+				return 0;
+			}
+		}
+		return table4InitialLoad.getSnapshotScn();
+	}
+
+	/**
+	 * Concurrent initial load: sends rows of current ROWID range
+	 * 
+	 * @param result
+	 * @param maxRows
+	 * @return number of rows added to result
+	 */
+	private int sendInitialLoadRows(final List<SourceRecord> result, final int maxRows) {
+		// All rows of range share the same restart data
+		final Map<String, Object> rowsOffset = new HashMap<>(offset);
+		rowsOffset.put("I:TABLE", table4InitialLoad.fqn());
+		if (table4InitialLoad.getCheckpointRowId() != null) {
+			rowsOffset.put("I:ROWID", table4InitialLoad.getCheckpointRowId());
+		}
+		int rowsSent = 0;
+		while (rowsSent < maxRows) {
+			final SourceRecord record = table4InitialLoad.getSourceRecord(rowsOffset);
+			if (record == null) {
+				break;
+			} else {
+				result.add(record);
+				rowsSent++;
+			}
+		}
+		offset.put("I:TABLE", table4InitialLoad.fqn());
+		if (table4InitialLoad.getCheckpointRowId() != null) {
+			offset.put("I:ROWID", table4InitialLoad.getCheckpointRowId());
+		}
+		return rowsSent;
+	}
+
+	/**
+	 * Builds initial load progress added to offset of each initial load record
+	 */
+	private void updateInitialLoadCheckpoint() {
+		if (concurrentInitialLoad) {
+			// Progress is stored in offset of redo records too
+			offset.put("I", ParamConstants.INITIAL_LOAD_EXECUTE);
+			initialLoadProgress.put(offset, initialLoadCompletedTables);
+			offset.remove("I:TABLE");
+			offset.remove("I:ROWID");
+			initialLoadCheckpoint = offset;
+			return;
+		}
+		final Map<String, Object> checkpoint = new HashMap<>();
+		checkpoint.put("I", ParamConstants.INITIAL_LOAD_EXECUTE);
+		checkpoint.put("I:SCN", initialLoadScn);
+		initialLoadProgress.put(checkpoint, initialLoadCompletedTables);
+		initialLoadCheckpoint = checkpoint;
+	}
+
 	public void saveTablesSchema() throws IOException {
 		String schemaFileName = null;
 		try {
@@ -54,7 +54,7 @@ import solutions.a2.cdc.oracle.utils.OraSqlUtils;
  * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
  *
  */
-public class OraCdcLogMinerWorkerThread extends Thread {
+public class OraCdcLogMinerWorkerThread extends Thread implements OraCdcFetchSizeIntf {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcLogMinerWorkerThread.class);
 	private static final int ORA_17410 = 17410;
@@ -103,7 +103,8 @@ public class OraCdcLogMinerWorkerThread extends Thread {
 	private final String topicNameDelimiter;
 	private OraCdcLargeObjectWorker lobWorker;
 	private final int connectionRetryBackoff;
-	private final int fetchSize;
+	private volatile int fetchSize;
+	private int appliedFetchSize;
 	private final boolean traceSession;
 	private final OraConnectionObjects oraConnections;
 	private final int topicPartition;
@@ -162,6 +163,7 @@ public class OraCdcLogMinerWorkerThread extends Thread {
 		this.topicNameDelimiter = config.getString(ParamConstants.TOPIC_NAME_DELIMITER_PARAM);
 		this.connectionRetryBackoff = config.getInt(ParamConstants.CONNECTION_BACKOFF_PARAM);
 		this.fetchSize = config.getInt(ParamConstants.FETCH_SIZE_PARAM);
+		this.appliedFetchSize = fetchSize;
 		this.traceSession = config.getBoolean(ParamConstants.TRACE_LOGMINER_PARAM);
 		this.rdbmsInfo = rdbmsInfo;
 		this.oraConnections = oraConnections;
@@ -334,6 +336,36 @@ public class OraCdcLogMinerWorkerThread extends Thread {
 		}
 	}
 
+	/**
+	 * When new LogMiner session continues mining of online redo log, rows
+	 * already processed in previous session are skipped
+	 * 
+	 * @throws SQLException
+	 */
+	private void skipProcessed() throws SQLException {
+		if (logMinerReady && logMiner.isContinuation() && lastRsId != null) {
+			rewind(lastScn, lastRsId, lastSsn);
+		}
+	}
+
+	/**
+	 * Waits for notification about new archived log from implementation of OraLogMiner
+	 * or a2.poll.interval when implementation is not notified
+	 */
+	private void waitForRedo() {
+		try {
+			if (!logMiner.awaitRedo()) {
+				synchronized (this) {
+					LOGGER.debug("Waiting {} ms", pollInterval);
+					this.wait(pollInterval);
+				}
+			}
+		} catch (InterruptedException ie) {
+			LOGGER.error(ie.getMessage());
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
+		}
+	}
+
 	@Override
 	public void run()  {
 		LOGGER.info("BEGIN: OraCdcLogMinerWorkerThread.run()");
@@ -351,6 +383,12 @@ public class OraCdcLogMinerWorkerThread extends Thread {
 					}
 					isRsLogMinerRowAvailable = rsLogMiner.next();
 					while (isRsLogMinerRowAvailable && runLatch.getCount() > 0) {
+						if (appliedFetchSize != fetchSize) {
+							// Changed by source load governor
+							appliedFetchSize = fetchSize;
+							psLogMiner.setRowPrefetch(appliedFetchSize);
+							rsLogMiner.setFetchSize(appliedFetchSize);
+						}
 						fetchRsLogMinerNext = true;
 						final short operation = rsLogMiner.getShort("OPERATION_CODE");
 						xid = rsLogMiner.getString("XID");
@@ -720,9 +758,22 @@ public class OraCdcLogMinerWorkerThread extends Thread {
 						// Update restart point in time
 						task.putReadRestartScn(Triple.of(lastGuaranteedScn, lastGuaranteedRsId, lastGuaranteedSsn));
 					}
+					if (!legacyResiliencyModel) {
+						if (activeTransactions.isEmpty()) {
+							if (lastGuaranteedScn > 0) {
+								logMiner.releaseRedo(lastGuaranteedScn);
+							}
+						} else {
+							logMiner.releaseRedo(sortedByFirstScn.firstEntry().getValue().getLeft());
+						}
+					}
+					if (lastGuaranteedScn > 0) {
+						logMiner.setLastProcessedScn(lastGuaranteedScn);
+					}
 					if (runLatch.getCount() > 0) {
 						try {
 							logMinerReady = logMiner.next();
+							skipProcessed();
 						} catch (SQLException sqle) {
 							if (sqle instanceof SQLRecoverableException) {
 								restoreOraConnection(sqle);
@@ -737,22 +788,15 @@ public class OraCdcLogMinerWorkerThread extends Thread {
 					}
 				} else {
 					while (!logMinerReady && runLatch.getCount() > 0) {
-						synchronized (this) {
-							LOGGER.debug("Waiting {} ms", pollInterval);
-							try {
-								this.wait(pollInterval);
-							} catch (InterruptedException ie) {
-								LOGGER.error(ie.getMessage());
-								LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
-							}
-							try {
-								logMinerReady = logMiner.next();
-							} catch (SQLException sqle) {
-								if (sqle instanceof SQLRecoverableException) {
-									restoreOraConnection(sqle);
-								} else {
-									throw new SQLException(sqle);
-								}
+						waitForRedo();
+						try {
+							logMinerReady = logMiner.next();
+							skipProcessed();
+						} catch (SQLException sqle) {
+							if (sqle instanceof SQLRecoverableException) {
+								restoreOraConnection(sqle);
+							} else {
+								throw new SQLException(sqle);
 							}
 						}
 					}
@@ -773,12 +817,14 @@ public class OraCdcLogMinerWorkerThread extends Thread {
 				lastScn = lastGuaranteedScn;
 				lastRsId = lastGuaranteedRsId;
 				lastSsn = lastGuaranteedSsn;
+				logMiner.close();
 				running.set(false);
 				task.stop(false);
 				throw new ConnectException(e);
 			}
 		}
 		LOGGER.debug("End of LogMiner loop...");
+		logMiner.close();
 		running.set(false);
 		LOGGER.info("END: OraCdcLogMinerWorkerThread.run()");
 	}
@@ -787,6 +833,22 @@ public class OraCdcLogMinerWorkerThread extends Thread {
 		return lastScn;
 	}
 
+	@Override
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Sets number of rows fetched with each round trip to V$LOGMNR_CONTENTS,
+	 * new value is applied before processing of next row
+	 * 
+	 * @param fetchSize
+	 */
+	@Override
+	public void setFetchSize(final int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
 	public String getLastRsId() {
 		return lastRsId;
 	}
@@ -1052,15 +1114,7 @@ public class OraCdcLogMinerWorkerThread extends Thread {
 							break;
 						} else if (runLatch.getCount() > 0) {
 							//Wait for next archived log
-							synchronized (this) {
-								LOGGER.debug("Waiting {} ms", pollInterval);
-								try {
-									this.wait(pollInterval);
-								} catch (InterruptedException ie) {
-									LOGGER.error(ie.getMessage());
-									LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
-								}
-							}
+							waitForRedo();
 						} else {
 							//Stop processing
 							break;
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects materialized view log polled next by source task. Log with largest
+ * estimated backlog is polled first, estimates are decreased by number of rows
+ * read and all logs are sampled again when estimates are exhausted or after
+ * RESAMPLE_PASSES polls, so that log with new rows is not starved by busy log
+ * 
+ * @author averemee
+ *
+ */
+public class OraCdcMViewLogScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcMViewLogScheduler.class);
+	static final int RESAMPLE_PASSES = 16;
+
+	private final int[] backlog;
+	private final int limit;
+	private int nextTable = 0;
+	private int passes = 0;
+	private boolean sampled = false;
+
+	/**
+	 * 
+	 * @param tableCount number of materialized view logs
+	 * @param batchSize  a2.batch.size, counting of rows is capped by batchSize + 1
+	 */
+	public OraCdcMViewLogScheduler(final int tableCount, final int batchSize) {
+		this.backlog = new int[tableCount];
+		// Enough to know that log holds more than one batch, larger backlogs are polled round-robin
+		this.limit = batchSize + 1;
+	}
+
+	/**
+	 * 
+	 * @param sampler estimates backlog of materialized view log
+	 * @return index of materialized view log or -1 when all logs are empty
+	 * @throws SQLException
+	 */
+	public int next(final BacklogSampler sampler) throws SQLException {
+		int tableNo = -1;
+		if (sampled && passes < RESAMPLE_PASSES) {
+			tableNo = nextWithBacklog();
+		}
+		if (tableNo < 0) {
+			// Estimates are exhausted or too old, sample all materialized view logs
+			for (int i = 0; i < backlog.length; i++) {
+				backlog[i] = sampler.sample(i, limit);
+			}
+			sampled = true;
+			passes = 0;
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Materialized view log backlog estimates: {}", Arrays.toString(backlog));
+			}
+			tableNo = nextWithBacklog();
+		}
+		return tableNo;
+	}
+
+	/**
+	 * Updates backlog estimate after poll of materialized view log
+	 * 
+	 * @param tableNo
+	 * @param rowCount   number of rows read
+	 * @param hasBacklog true when log contains more rows
+	 */
+	public void polled(final int tableNo, final int rowCount, final boolean hasBacklog) {
+		if (hasBacklog) {
+			// At least one more batch is waiting
+			backlog[tableNo] = Math.max(backlog[tableNo] - rowCount, 1);
+		} else {
+			backlog[tableNo] = 0;
+		}
+		nextTable = (tableNo + 1) % backlog.length;
+		passes++;
+	}
+
+	/**
+	 * Selects materialized view log with largest estimated backlog, ties are
+	 * resolved round-robin starting from table next to last polled
+	 * 
+	 * @return index of materialized view log or -1 when all estimates are zero
+	 */
+	private int nextWithBacklog() {
+		int tableNo = -1;
+		int maxBacklog = 0;
+		for (int i = 0; i < backlog.length; i++) {
+			final int candidate = (nextTable + i) % backlog.length;
+			if (backlog[candidate] > maxBacklog) {
+				maxBacklog = backlog[candidate];
+				tableNo = candidate;
+			}
+		}
+		return tableNo;
+	}
+
+	@FunctionalInterface
+	public interface BacklogSampler {
+		/**
+		 * 
+		 * @param tableNo index of materialized view log
+		 * @param limit   maximum number of rows to count
+		 * @return number of rows in materialized view log, but not more than limit
+		 * @throws SQLException
+		 */
+		int sample(int tableNo, int limit) throws SQLException;
+	}
+
+}
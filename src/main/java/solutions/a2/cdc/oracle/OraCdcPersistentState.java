@@ -50,6 +50,10 @@ public class OraCdcPersistentState implements Serializable {
 	private Long lastSsn;
 	private Long lastOpTsMillis;
 	private String initialLoad;
+	private Long initialLoadScn;
+	private List<String> initialLoadCompletedTables;
+	private String initialLoadTable;
+	private String initialLoadRowId;
 
 	private Map<String, Object> currentTransaction;
 	private List<Map<String, Object>> committedTransactions;
@@ -147,6 +151,38 @@ public class OraCdcPersistentState implements Serializable {
 		this.initialLoad = initialLoad;
 	}
 
+	public Long getInitialLoadScn() {
+		return initialLoadScn;
+	}
+
+	public void setInitialLoadScn(Long initialLoadScn) {
+		this.initialLoadScn = initialLoadScn;
+	}
+
+	public List<String> getInitialLoadCompletedTables() {
+		return initialLoadCompletedTables;
+	}
+
+	public void setInitialLoadCompletedTables(List<String> initialLoadCompletedTables) {
+		this.initialLoadCompletedTables = initialLoadCompletedTables;
+	}
+
+	public String getInitialLoadTable() {
+		return initialLoadTable;
+	}
+
+	public void setInitialLoadTable(String initialLoadTable) {
+		this.initialLoadTable = initialLoadTable;
+	}
+
+	public String getInitialLoadRowId() {
+		return initialLoadRowId;
+	}
+
+	public void setInitialLoadRowId(String initialLoadRowId) {
+		this.initialLoadRowId = initialLoadRowId;
+	}
+
 	public Map<String, Object> getCurrentTransaction() {
 		return currentTransaction;
 	}
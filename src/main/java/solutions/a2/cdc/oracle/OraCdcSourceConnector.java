@@ -42,7 +42,6 @@ import solutions.a2.cdc.oracle.utils.Version;
 public class OraCdcSourceConnector extends SourceConnector {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcSourceConnector.class);
-	private static final int MAX_TABLES = 256;
 
 	private OraCdcSourceConnectorConfig config;
 	private boolean validConfig = true;
@@ -148,15 +147,6 @@ public class OraCdcSourceConnector extends SourceConnector {
 					throw new ConnectException(message);
 				}
 
-				if (tableCount > MAX_TABLES) {
-					final String message = "Too much tables with user " + 
-								connection.getMetaData().getUserName() +
-								".\nReduce table count from " + tableCount + " and try again."; 
-					LOGGER.error(message);
-					LOGGER.error("Stopping {}", OraCdcSourceConnector.class.getName());
-					throw new ConnectException(message);
-				}
-
 				final String schemaTypeString = config.getString(ParamConstants.SCHEMA_TYPE_PARAM);
 				LOGGER.debug("a2.schema.type set to {}.", schemaTypeString);
 				if (ParamConstants.SCHEMA_TYPE_DEBEZIUM.equals(schemaTypeString))
@@ -195,25 +185,10 @@ public class OraCdcSourceConnector extends SourceConnector {
 			LOGGER.debug("maxTasks set to -> {}.", maxTasks);
 			LOGGER.debug("tableCount set to -> {}.", tableCount);
 		}
-		if (maxTasks != tableCount) {
-			final String message = 
-					"To run " + OraCdcSourceConnector.class.getName() +
-					" against " + (
-					StringUtils.isBlank(config.getString(ParamConstants.CONNECTION_WALLET_PARAM)) ?
-								config.getString(ParamConstants.CONNECTION_URL_PARAM) +
-								" with username " +
-								config.getString(ParamConstants.CONNECTION_USER_PARAM)
-							:
-								config.getString(ParamConstants.CONNECTION_URL_PARAM) +
-								" using wallet " +
-								config.getString(ParamConstants.CONNECTION_WALLET_PARAM)) +
-					" parameter tasks.max must set to " + tableCount;
-			LOGGER.error(message);
-			LOGGER.error("Stopping {}", OraCdcSourceConnector.class.getName());
-			throw new ConnectException(message);
-		}
-
-		final List<Map<String, String>> configs = new ArrayList<>(maxTasks);
+		// Each task processes a list of materialized view logs
+		final int taskCount = Math.min(maxTasks, tableCount);
+		LOGGER.info("{} materialized view logs will be processed by {} tasks.", tableCount, taskCount);
+		final List<Map<String, String>> configs = new ArrayList<>(taskCount);
 		try (Connection connection = OraPoolConnectionFactory.getConnection()) {
 			String sqlStatementText = null;
 			if (mvLogPre11gR2) {
@@ -233,26 +208,13 @@ public class OraCdcSourceConnector extends SourceConnector {
 			final PreparedStatement statement = connection.prepareStatement(sqlStatementText);
 			final ResultSet resultSet = statement.executeQuery();
 
-			for (int i = 0; i < maxTasks; i++) {
-				resultSet.next();
+			for (int i = 0; i < taskCount; i++) {
 				final Map<String, String> taskParam = new HashMap<>();
 
 				taskParam.put(ParamConstants.BATCH_SIZE_PARAM,
 					config.getInt(ParamConstants.BATCH_SIZE_PARAM).toString());
 				taskParam.put(ParamConstants.POLL_INTERVAL_MS_PARAM,
 					config.getInt(ParamConstants.POLL_INTERVAL_MS_PARAM).toString());
-				taskParam.put(OraCdcSourceConnectorConfig.TASK_PARAM_MASTER,
-					resultSet.getString("MASTER"));
-				taskParam.put(OraCdcSourceConnectorConfig.TASK_PARAM_MV_LOG,
-					resultSet.getString("LOG_TABLE"));
-				taskParam.put(OraCdcSourceConnectorConfig.TASK_PARAM_OWNER,
-					resultSet.getString("LOG_OWNER"));
-				taskParam.put(OraCdcSourceConnectorConfig.TASK_PARAM_MV_ROWID,
-					resultSet.getString("ROWIDS"));
-				taskParam.put(OraCdcSourceConnectorConfig.TASK_PARAM_MV_PK,
-					resultSet.getString("PRIMARY_KEY"));
-				taskParam.put(OraCdcSourceConnectorConfig.TASK_PARAM_MV_SEQUENCE,
-					resultSet.getString("SEQUENCE"));
 				taskParam.put(ParamConstants.SCHEMA_TYPE_PARAM,
 					Integer.toString(schemaType));
 
@@ -264,9 +226,42 @@ public class OraCdcSourceConnector extends SourceConnector {
 					taskParam.put(ParamConstants.KAFKA_TOPIC_PARAM,
 							config.getString(ParamConstants.KAFKA_TOPIC_PARAM));
 				}
-
 				configs.add(taskParam);
 			}
+
+			// Round-robin distribution of materialized view logs between tasks
+			final int[] taskTables = new int[taskCount];
+			int tableNo = 0;
+			while (tableNo < tableCount && resultSet.next()) {
+				final int taskNo = tableNo % taskCount;
+				final int taskTableNo = taskTables[taskNo]++;
+				final Map<String, String> taskParam = configs.get(taskNo);
+				taskParam.put(OraCdcSourceConnectorConfig.taskParam(
+						OraCdcSourceConnectorConfig.TASK_PARAM_MASTER, taskTableNo),
+					resultSet.getString("MASTER"));
+				taskParam.put(OraCdcSourceConnectorConfig.taskParam(
+						OraCdcSourceConnectorConfig.TASK_PARAM_MV_LOG, taskTableNo),
+					resultSet.getString("LOG_TABLE"));
+				taskParam.put(OraCdcSourceConnectorConfig.taskParam(
+						OraCdcSourceConnectorConfig.TASK_PARAM_OWNER, taskTableNo),
+					resultSet.getString("LOG_OWNER"));
+				taskParam.put(OraCdcSourceConnectorConfig.taskParam(
+						OraCdcSourceConnectorConfig.TASK_PARAM_MV_ROWID, taskTableNo),
+					resultSet.getString("ROWIDS"));
+				taskParam.put(OraCdcSourceConnectorConfig.taskParam(
+						OraCdcSourceConnectorConfig.TASK_PARAM_MV_PK, taskTableNo),
+					resultSet.getString("PRIMARY_KEY"));
+				taskParam.put(OraCdcSourceConnectorConfig.taskParam(
+						OraCdcSourceConnectorConfig.TASK_PARAM_MV_SEQUENCE, taskTableNo),
+					resultSet.getString("SEQUENCE"));
+				tableNo++;
+			}
+			resultSet.close();
+			statement.close();
+			for (int i = 0; i < taskCount; i++) {
+				configs.get(i).put(OraCdcSourceConnectorConfig.TASK_PARAM_TABLE_COUNT,
+						Integer.toString(taskTables[i]));
+			}
 			return configs;
 		} catch (SQLException sqle) {
 			validConfig = false;
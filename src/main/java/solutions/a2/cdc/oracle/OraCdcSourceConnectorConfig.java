@@ -34,6 +34,18 @@ public class OraCdcSourceConnectorConfig extends AbstractConfig {
 	public static final String TASK_PARAM_MV_ROWID = "mvlog.rowid";
 	public static final String TASK_PARAM_MV_PK = "mvlog.pk";
 	public static final String TASK_PARAM_MV_SEQUENCE = "mvlog.seq";
+	public static final String TASK_PARAM_TABLE_COUNT = "table.count";
+
+	/**
+	 * Returns name of task parameter for materialized view log with given index
+	 * 
+	 * @param param    parameter name, i.e. TASK_PARAM_MASTER
+	 * @param tableNo  index of materialized view log assigned to task
+	 * @return indexed parameter name
+	 */
+	public static String taskParam(final String param, final int tableNo) {
+		return param + "." + tableNo;
+	}
 
 	public static ConfigDef config() {
 		return new ConfigDef()
@@ -90,6 +102,48 @@ public class OraCdcSourceConnectorConfig extends AbstractConfig {
 						ConfigDef.ValidString.in(ParamConstants.INITIAL_LOAD_IGNORE,
 								ParamConstants.INITIAL_LOAD_EXECUTE),
 						Importance.LOW, ParamConstants.INITIAL_LOAD_DOC)
+				.define(ParamConstants.INITIAL_LOAD_CHUNK_COUNT_PARAM, Type.INT,
+						ParamConstants.INITIAL_LOAD_CHUNK_COUNT_DEFAULT,
+						ConfigDef.Range.atLeast(1),
+						Importance.LOW, ParamConstants.INITIAL_LOAD_CHUNK_COUNT_DOC)
+				.define(ParamConstants.INITIAL_LOAD_CHUNK_MIN_BLOCKS_PARAM, Type.LONG,
+						ParamConstants.INITIAL_LOAD_CHUNK_MIN_BLOCKS_DEFAULT,
+						ConfigDef.Range.atLeast(0),
+						Importance.LOW, ParamConstants.INITIAL_LOAD_CHUNK_MIN_BLOCKS_DOC)
+				.define(ParamConstants.INITIAL_LOAD_STAGING_WINDOW_PARAM, Type.INT,
+						ParamConstants.INITIAL_LOAD_STAGING_WINDOW_DEFAULT,
+						ConfigDef.Range.atLeast(0),
+						Importance.LOW, ParamConstants.INITIAL_LOAD_STAGING_WINDOW_DOC)
+				.define(ParamConstants.INITIAL_LOAD_SELECT_THREADS_PARAM, Type.INT,
+						ParamConstants.INITIAL_LOAD_SELECT_THREADS_DEFAULT,
+						ConfigDef.Range.atLeast(0),
+						Importance.LOW, ParamConstants.INITIAL_LOAD_SELECT_THREADS_DOC)
+				.define(ParamConstants.INITIAL_LOAD_CONCURRENT_PARAM, Type.BOOLEAN, false,
+						Importance.LOW, ParamConstants.INITIAL_LOAD_CONCURRENT_DOC)
+				.define(ParamConstants.INITIAL_LOAD_CONCURRENT_RANGE_BLOCKS_PARAM, Type.LONG,
+						ParamConstants.INITIAL_LOAD_CONCURRENT_RANGE_BLOCKS_DEFAULT,
+						ConfigDef.Range.atLeast(1),
+						Importance.LOW, ParamConstants.INITIAL_LOAD_CONCURRENT_RANGE_BLOCKS_DOC)
+				.define(ParamConstants.GOVERNOR_INTERVAL_PARAM, Type.INT,
+						ParamConstants.GOVERNOR_INTERVAL_DEFAULT,
+						ConfigDef.Range.atLeast(0),
+						Importance.LOW, ParamConstants.GOVERNOR_INTERVAL_DOC)
+				.define(ParamConstants.GOVERNOR_HOST_CPU_MAX_PARAM, Type.INT,
+						ParamConstants.GOVERNOR_HOST_CPU_MAX_DEFAULT,
+						ConfigDef.Range.between(1, 100),
+						Importance.LOW, ParamConstants.GOVERNOR_HOST_CPU_MAX_DOC)
+				.define(ParamConstants.GOVERNOR_ACTIVE_SESSIONS_MAX_PARAM, Type.DOUBLE,
+						ParamConstants.GOVERNOR_ACTIVE_SESSIONS_MAX_DEFAULT,
+						ConfigDef.Range.atLeast(0),
+						Importance.LOW, ParamConstants.GOVERNOR_ACTIVE_SESSIONS_MAX_DOC)
+				.define(ParamConstants.GOVERNOR_FETCH_SIZE_MIN_PARAM, Type.INT,
+						ParamConstants.GOVERNOR_FETCH_SIZE_MIN_DEFAULT,
+						ConfigDef.Range.atLeast(1),
+						Importance.LOW, ParamConstants.GOVERNOR_FETCH_SIZE_MIN_DOC)
+				.define(ParamConstants.GOVERNOR_FETCH_SIZE_MAX_PARAM, Type.INT,
+						ParamConstants.GOVERNOR_FETCH_SIZE_MAX_DEFAULT,
+						ConfigDef.Range.atLeast(1),
+						Importance.LOW, ParamConstants.GOVERNOR_FETCH_SIZE_MAX_DOC)
 				.define(ParamConstants.TOPIC_NAME_STYLE_PARAM, Type.STRING,
 						ParamConstants.TOPIC_NAME_STYLE_TABLE,
 						ConfigDef.ValidString.in(ParamConstants.TOPIC_NAME_STYLE_TABLE,
@@ -113,6 +167,10 @@ public class OraCdcSourceConnectorConfig extends AbstractConfig {
 						Importance.LOW, ParamConstants.CONNECTION_BACKOFF_DOC)
 				.define(ParamConstants.ARCHIVED_LOG_CAT_PARAM, Type.STRING, ParamConstants.ARCHIVED_LOG_CAT_DEFAULT,
 						Importance.LOW, ParamConstants.ARCHIVED_LOG_CAT_DOC)
+				.define(ParamConstants.ARCHIVED_LOG_DIRS_PARAM, Type.LIST, "",
+						Importance.LOW, ParamConstants.ARCHIVED_LOG_DIRS_DOC)
+				.define(ParamConstants.ARCHIVED_LOG_INDEX_PARAM, Type.STRING, "",
+						Importance.LOW, ParamConstants.ARCHIVED_LOG_INDEX_DOC)
 				.define(ParamConstants.FETCH_SIZE_PARAM, Type.INT, ParamConstants.FETCH_SIZE_DEFAULT,
 						Importance.LOW, ParamConstants.FETCH_SIZE_DOC)
 				.define(ParamConstants.TRACE_LOGMINER_PARAM, Type.BOOLEAN, false,
@@ -127,6 +185,22 @@ public class OraCdcSourceConnectorConfig extends AbstractConfig {
 						Importance.LOW, ParamConstants.DISTRIBUTED_TARGET_HOST_DOC)
 				.define(ParamConstants.DISTRIBUTED_TARGET_PORT, Type.INT, ParamConstants.DISTRIBUTED_TARGET_PORT_DEFAULT,
 						Importance.LOW, ParamConstants.DISTRIBUTED_TARGET_PORT_DOC)
+				.define(ParamConstants.ONLINE_REDO_TAILING_PARAM, Type.BOOLEAN, false,
+						Importance.LOW, ParamConstants.ONLINE_REDO_TAILING_DOC)
+				.define(ParamConstants.LOG_DISCOVERY_SHARED_PARAM, Type.BOOLEAN, false,
+						Importance.LOW, ParamConstants.LOG_DISCOVERY_SHARED_DOC)
+				.define(ParamConstants.LOG_DISCOVERY_MAX_INTERVAL_PARAM, Type.INT,
+						ParamConstants.LOG_DISCOVERY_MAX_INTERVAL_DEFAULT,
+						ConfigDef.Range.atLeast(50),
+						Importance.LOW, ParamConstants.LOG_DISCOVERY_MAX_INTERVAL_DOC)
+				.define(ParamConstants.DISTRIBUTED_PREFETCH_FILES_PARAM, Type.INT,
+						ParamConstants.DISTRIBUTED_PREFETCH_FILES_DEFAULT,
+						ConfigDef.Range.atLeast(1),
+						Importance.LOW, ParamConstants.DISTRIBUTED_PREFETCH_FILES_DOC)
+				.define(ParamConstants.DISTRIBUTED_PREFETCH_BYTES_PARAM, Type.LONG,
+						ParamConstants.DISTRIBUTED_PREFETCH_BYTES_DEFAULT,
+						ConfigDef.Range.atLeast(0),
+						Importance.LOW, ParamConstants.DISTRIBUTED_PREFETCH_BYTES_DOC)
 				.define(ParamConstants.LOB_TRANSFORM_CLASS_PARAM, Type.STRING, ParamConstants.LOB_TRANSFORM_CLASS_DEFAULT,
 						Importance.LOW, ParamConstants.LOB_TRANSFORM_CLASS_DOC)
 				.define(ParamConstants.RESILIENCY_TYPE_PARAM, Type.STRING,
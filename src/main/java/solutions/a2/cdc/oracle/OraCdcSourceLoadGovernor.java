@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package solutions.a2.cdc.oracle;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import solutions.a2.cdc.oracle.jmx.OraCdcLoadGovernor;
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+
+/**
+ * Samples source database load (V$SYSMETRIC) and waits of sessions of this connector (V$SESSION)
+ * and adjusts number of initial load loaders, initial load fetch size and
+ * V$LOGMNR_CONTENTS fetch size within configured bounds.
+ * Load is halved when source is overloaded and increased step by step when
+ * source has enough headroom
+ * 
+ * @author averemee
+ *
+ */
+public class OraCdcSourceLoadGovernor extends Thread {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcSourceLoadGovernor.class);
+	private static final String HOST_CPU_METRIC = "Host CPU Utilization (%)";
+	private static final String AAS_METRIC = "Average Active Sessions";
+	// Load is increased only below this share of configured limits
+	private static final double RELAX_RATIO = 0.8;
+
+	private final int interval;
+	private final int maxHostCpu;
+	private final double maxActiveSessions;
+	private final int minFetchSize;
+	private final int maxInitialLoadFetchSize;
+	private final int maxLogMinerFetchSize;
+	private final OraCdcFetchSizeIntf worker;
+	private final OraCdcInitialLoadThread initialLoadWorker;
+	private final OraConnectionObjects oraConnections;
+	private final OraCdcLoadGovernor metrics;
+	private final CountDownLatch runLatch;
+	private final AtomicBoolean running;
+
+	public OraCdcSourceLoadGovernor(
+			final OraCdcSourceConnectorConfig config,
+			final OraRdbmsInfo rdbmsInfo,
+			final String connectorName,
+			final OraCdcFetchSizeIntf worker,
+			final OraCdcInitialLoadThread initialLoadWorker,
+			final OraConnectionObjects oraConnections) {
+		LOGGER.info("Initializing oracdc source load governor");
+		this.setName("OraCdcSourceLoadGovernor-" + System.nanoTime());
+		this.setDaemon(true);
+		this.interval = config.getInt(ParamConstants.GOVERNOR_INTERVAL_PARAM);
+		this.maxHostCpu = config.getInt(ParamConstants.GOVERNOR_HOST_CPU_MAX_PARAM);
+		final double activeSessions = config.getDouble(ParamConstants.GOVERNOR_ACTIVE_SESSIONS_MAX_PARAM);
+		this.maxActiveSessions = activeSessions > 0 ? activeSessions : rdbmsInfo.getCpuCoreCount();
+		this.minFetchSize = config.getInt(ParamConstants.GOVERNOR_FETCH_SIZE_MIN_PARAM);
+		this.maxInitialLoadFetchSize = Math.max(minFetchSize,
+				config.getInt(ParamConstants.GOVERNOR_FETCH_SIZE_MAX_PARAM));
+		this.maxLogMinerFetchSize = Math.max(minFetchSize, worker.getFetchSize());
+		this.worker = worker;
+		this.initialLoadWorker = initialLoadWorker;
+		this.oraConnections = oraConnections;
+		this.metrics = new OraCdcLoadGovernor(rdbmsInfo, connectorName);
+		if (initialLoadWorker != null) {
+			initialLoadWorker.setFetchSize(maxInitialLoadFetchSize);
+		}
+		metrics.setLimits(
+				initialLoadWorker == null ? 0 : initialLoadWorker.getActiveLoaders(),
+				initialLoadWorker == null ? 0 : initialLoadWorker.getFetchSize(),
+				worker.getFetchSize());
+		LOGGER.info("Source load governor limits: host CPU {}%, average active sessions {}, fetch size from {} to {}, sampling interval {} ms.",
+				maxHostCpu, maxActiveSessions, minFetchSize, maxInitialLoadFetchSize, interval);
+		runLatch = new CountDownLatch(1);
+		running = new AtomicBoolean(false);
+	}
+
+	@Override
+	public void run() {
+		LOGGER.info("BEGIN: OraCdcSourceLoadGovernor.run()");
+		running.set(true);
+		while (runLatch.getCount() > 0) {
+			try {
+				sampleAndAdjust();
+			} catch (SQLException sqle) {
+				LOGGER.warn("Unable to sample source database load, limits are not changed!");
+				LOGGER.warn(ExceptionUtils.getExceptionStackTrace(sqle));
+			}
+			try {
+				runLatch.await(interval, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException ie) {
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
+				break;
+			}
+		}
+		running.set(false);
+		LOGGER.info("END: OraCdcSourceLoadGovernor.run()");
+	}
+
+	void sampleAndAdjust() throws SQLException {
+		double hostCpu = 0;
+		double activeSessions = 0;
+		int sessions = 0;
+		int waiting = 0;
+		int contending = 0;
+		String topEvent = null;
+		try (Connection connection = oraConnections.getConnection()) {
+			try (PreparedStatement statement = connection.prepareStatement(OraDictSqlTexts.GOVERNOR_SYSMETRIC);
+					ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					if (HOST_CPU_METRIC.equals(rs.getString("METRIC_NAME"))) {
+						hostCpu = rs.getDouble("VALUE");
+					} else {
+						activeSessions = rs.getDouble("VALUE");
+					}
+				}
+			}
+			try (PreparedStatement statement = connection.prepareStatement(OraDictSqlTexts.GOVERNOR_SESSIONS)) {
+				statement.setString(1, oraConnections.getSessionAction());
+				try (ResultSet rs = statement.executeQuery()) {
+					if (rs.next()) {
+						sessions = rs.getInt("SESSIONS");
+						waiting = rs.getInt("WAITING");
+						contending = rs.getInt("CONTENDING");
+						topEvent = rs.getString("TOP_EVENT");
+					}
+				}
+			}
+		}
+		metrics.addSample(hostCpu, activeSessions, sessions, waiting, contending, topEvent);
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Source load: host CPU {}%, {} {}, oracdc sessions {}, waiting {}, contending {}, top wait event '{}'.",
+					hostCpu, AAS_METRIC, activeSessions, sessions, waiting, contending, topEvent);
+		}
+
+		final boolean loadInitial = initialLoadWorker != null && initialLoadWorker.isRunning();
+		final int loaders = loadInitial ? initialLoadWorker.getActiveLoaders() : 0;
+		final int initialLoadFetchSize = loadInitial ? initialLoadWorker.getFetchSize() : 0;
+		final int logMinerFetchSize = worker.getFetchSize();
+		final int newLoaders;
+		final int newInitialLoadFetchSize;
+		final int newLogMinerFetchSize;
+		final boolean throttle;
+		final String reason;
+		if (hostCpu > maxHostCpu || activeSessions > maxActiveSessions || contending > 0) {
+			throttle = true;
+			if (hostCpu > maxHostCpu) {
+				reason = "host CPU " + hostCpu + "% > " + maxHostCpu + "%";
+			} else if (activeSessions > maxActiveSessions) {
+				reason = "average active sessions " + activeSessions + " > " + maxActiveSessions;
+			} else {
+				reason = contending + " oracdc session(s) waiting on '" + topEvent + "'";
+			}
+			newLoaders = Math.max(1, loaders / 2);
+			newInitialLoadFetchSize = Math.max(minFetchSize, initialLoadFetchSize / 2);
+			newLogMinerFetchSize = Math.max(minFetchSize, logMinerFetchSize / 2);
+		} else if (hostCpu < maxHostCpu * RELAX_RATIO && activeSessions < maxActiveSessions * RELAX_RATIO) {
+			throttle = false;
+			reason = "host CPU " + hostCpu + "%, average active sessions " + activeSessions;
+			newLoaders = loadInitial ? Math.min(initialLoadWorker.getSelectThreadCount(), loaders + 1) : 0;
+			newInitialLoadFetchSize = Math.min(maxInitialLoadFetchSize, initialLoadFetchSize * 2);
+			newLogMinerFetchSize = Math.min(maxLogMinerFetchSize, logMinerFetchSize * 2);
+		} else {
+			return;
+		}
+
+		final StringBuilder decision = new StringBuilder(128);
+		decision.append(throttle ? "THROTTLE (" : "RELAX (");
+		decision.append(reason);
+		decision.append(")");
+		boolean changed = false;
+		if (loadInitial && newLoaders != loaders) {
+			initialLoadWorker.setActiveLoaders(newLoaders);
+			decision.append(", loaders ").append(loaders).append("->").append(newLoaders);
+			changed = true;
+		}
+		if (loadInitial && newInitialLoadFetchSize != initialLoadFetchSize) {
+			initialLoadWorker.setFetchSize(newInitialLoadFetchSize);
+			decision
+				.append(", initial load fetch size ")
+				.append(initialLoadFetchSize)
+				.append("->")
+				.append(newInitialLoadFetchSize);
+			changed = true;
+		}
+		if (newLogMinerFetchSize != logMinerFetchSize) {
+			worker.setFetchSize(newLogMinerFetchSize);
+			decision
+				.append(", LogMiner fetch size ")
+				.append(logMinerFetchSize)
+				.append("->")
+				.append(newLogMinerFetchSize);
+			changed = true;
+		}
+		if (changed) {
+			metrics.setLimits(
+					loadInitial ? initialLoadWorker.getActiveLoaders() : 0,
+					loadInitial ? initialLoadWorker.getFetchSize() : 0,
+					worker.getFetchSize());
+			metrics.addDecision(throttle, decision.toString());
+			LOGGER.info("Source load governor: {}", decision.toString());
+		}
+	}
+
+	public void shutdown() {
+		LOGGER.info("Stopping oracdc source load governor...");
+		runLatch.countDown();
+	}
+
+	public boolean isRunning() {
+		return running.get();
+	}
+
+}
@@ -16,6 +16,7 @@ package solutions.a2.cdc.oracle;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLRecoverableException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -39,11 +40,12 @@ public class OraCdcSourceTask extends SourceTask {
 	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcSourceTask.class);
 	private static final String PARTITION_FIELD = "mvlog";
 
-	private OraTable oraTable;
+	private final List<OraTable> oraTables = new ArrayList<>();
+	private final List<String> topics = new ArrayList<>();
+	private OraCdcMViewLogScheduler scheduler;
 	private int batchSize;
 	private int pollInterval;
 	private int schemaType;
-	private String topic;
 
 	@Override
 	public String version() {
@@ -53,7 +55,8 @@ public class OraCdcSourceTask extends SourceTask {
 	@Override
 	public void start(Map<String, String> props) {
 
-		LOGGER.info("Starting oracdc Source Task for {}", props.get(OraCdcSourceConnectorConfig.TASK_PARAM_MASTER));
+		final int tableCount = Integer.parseInt(props.get(OraCdcSourceConnectorConfig.TASK_PARAM_TABLE_COUNT));
+		LOGGER.info("Starting oracdc Source Task for {} materialized view logs", tableCount);
 
 		batchSize = Integer.parseInt(props.get(ParamConstants.BATCH_SIZE_PARAM));
 		LOGGER.debug("batchSize = {} records.", batchSize);
@@ -61,58 +64,77 @@ public class OraCdcSourceTask extends SourceTask {
 		LOGGER.debug("pollInterval = {} ms.", pollInterval);
 		schemaType = Integer.parseInt(props.get(ParamConstants.SCHEMA_TYPE_PARAM));
 		LOGGER.debug("schemaType (Integer value 1 for Debezium, 2 for Kafka STD) = {} .", schemaType);
-		if (schemaType == ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD) {
-			topic = props.get(ParamConstants.TOPIC_PREFIX_PARAM) + 
-					props.get(OraCdcSourceConnectorConfig.TASK_PARAM_MASTER);
-		} else {
-			// ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM
-			topic = props.get(ParamConstants.KAFKA_TOPIC_PARAM);
-		}
-		LOGGER.debug("topic set to {}.", topic);
 
 		try (Connection connDictionary = OraPoolConnectionFactory.getConnection()) {
-			LOGGER.trace("Checking for stored offset...");
-			final String tableName = props.get(OraCdcSourceConnectorConfig.TASK_PARAM_MASTER);
-			final String tableOwner = props.get(OraCdcSourceConnectorConfig.TASK_PARAM_OWNER); 
 			OraRdbmsInfo rdbmsInfo = new OraRdbmsInfo(connDictionary);
-			LOGGER.trace("Setting source partition name for processing snapshot log");
-			final String sourcePartitionName = rdbmsInfo.getInstanceName() + "_" + rdbmsInfo.getHostName() + ":" +
-						tableName + "." + tableOwner;
-			LOGGER.debug("Source Partition {} set to {}.", PARTITION_FIELD,  sourcePartitionName);
-			final Map<String, String> partition = Collections.singletonMap(PARTITION_FIELD, sourcePartitionName);
-			Map<String, Object> offset = context.offsetStorageReader().offset(partition);
-			if (offset != null && LOGGER.isDebugEnabled()) {
-				if (offset.get(OraColumn.ORA_ROWSCN) != null)
-					LOGGER.debug("Last record SCN(from {} pseudocolumn) for {} in offset file = {}.",
-							OraColumn.ORA_ROWSCN, sourcePartitionName, (long) offset.get(OraColumn.ORA_ROWSCN));
-				if (offset.get(OraColumn.MVLOG_SEQUENCE) != null)
-					LOGGER.debug("Last processed {} for {} in offset file = {}.",
-							OraColumn.MVLOG_SEQUENCE, sourcePartitionName, (long) offset.get(OraColumn.MVLOG_SEQUENCE));
-			}
+			for (int i = 0; i < tableCount; i++) {
+				final String tableName = props.get(
+						OraCdcSourceConnectorConfig.taskParam(OraCdcSourceConnectorConfig.TASK_PARAM_MASTER, i));
+				final String tableOwner = props.get(
+						OraCdcSourceConnectorConfig.taskParam(OraCdcSourceConnectorConfig.TASK_PARAM_OWNER, i));
+				final String topic;
+				if (schemaType == ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD) {
+					topic = props.get(ParamConstants.TOPIC_PREFIX_PARAM) + tableName;
+				} else {
+					// ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM
+					topic = props.get(ParamConstants.KAFKA_TOPIC_PARAM);
+				}
+				LOGGER.debug("topic for {}.{} set to {}.", tableOwner, tableName, topic);
+
+				LOGGER.trace("Checking for stored offset...");
+				LOGGER.trace("Setting source partition name for processing snapshot log");
+				final String sourcePartitionName = rdbmsInfo.getInstanceName() + "_" + rdbmsInfo.getHostName() + ":" +
+							tableName + "." + tableOwner;
+				LOGGER.debug("Source Partition {} set to {}.", PARTITION_FIELD,  sourcePartitionName);
+				final Map<String, String> partition = Collections.singletonMap(PARTITION_FIELD, sourcePartitionName);
+				Map<String, Object> offset = context.offsetStorageReader().offset(partition);
+				if (offset != null && LOGGER.isDebugEnabled()) {
+					if (offset.get(OraColumn.ORA_ROWSCN) != null)
+						LOGGER.debug("Last record SCN(from {} pseudocolumn) for {} in offset file = {}.",
+								OraColumn.ORA_ROWSCN, sourcePartitionName, (long) offset.get(OraColumn.ORA_ROWSCN));
+					if (offset.get(OraColumn.MVLOG_SEQUENCE) != null)
+						LOGGER.debug("Last processed {} for {} in offset file = {}.",
+								OraColumn.MVLOG_SEQUENCE, sourcePartitionName, (long) offset.get(OraColumn.MVLOG_SEQUENCE));
+				}
 
-			oraTable = new OraTable(
-					tableOwner, tableName,
-					props.get(OraCdcSourceConnectorConfig.TASK_PARAM_MV_LOG),
-					"YES".equalsIgnoreCase(props.get(OraCdcSourceConnectorConfig.TASK_PARAM_MV_ROWID)),
-					"YES".equalsIgnoreCase(props.get(OraCdcSourceConnectorConfig.TASK_PARAM_MV_PK)),
-					"YES".equalsIgnoreCase(props.get(OraCdcSourceConnectorConfig.TASK_PARAM_MV_SEQUENCE)),
-					batchSize, schemaType, partition, offset, rdbmsInfo);
+				oraTables.add(new OraTable(
+						tableOwner, tableName,
+						props.get(OraCdcSourceConnectorConfig.taskParam(OraCdcSourceConnectorConfig.TASK_PARAM_MV_LOG, i)),
+						"YES".equalsIgnoreCase(props.get(
+								OraCdcSourceConnectorConfig.taskParam(OraCdcSourceConnectorConfig.TASK_PARAM_MV_ROWID, i))),
+						"YES".equalsIgnoreCase(props.get(
+								OraCdcSourceConnectorConfig.taskParam(OraCdcSourceConnectorConfig.TASK_PARAM_MV_PK, i))),
+						"YES".equalsIgnoreCase(props.get(
+								OraCdcSourceConnectorConfig.taskParam(OraCdcSourceConnectorConfig.TASK_PARAM_MV_SEQUENCE, i))),
+						batchSize, schemaType, partition, offset, rdbmsInfo));
+				topics.add(topic);
+			}
 		} catch (SQLException sqle) {
 			LOGGER.error("Unable to get table information.");
 			LOGGER.error(ExceptionUtils.getExceptionStackTrace(sqle));
 			throw new ConnectException(sqle);
 		}
+		scheduler = new OraCdcMViewLogScheduler(oraTables.size(), batchSize);
 	}
 
 	@Override
 	public List<SourceRecord> poll() throws InterruptedException {
 		LOGGER.trace("BEGIN: poll()");
-		synchronized (this) {
-			LOGGER.trace("Waiting {} ms", pollInterval);
-			this.wait(pollInterval);
-		}
 		try (Connection connection = OraPoolConnectionFactory.getConnection()) {
-			final List<SourceRecord> result = oraTable.pollMVLog(connection, topic);
+			final int tableNo = scheduler.next(
+					(logNo, limit) -> oraTables.get(logNo).sampleBacklog(connection, limit));
+			if (tableNo < 0) {
+				// Sleep only when all materialized view logs assigned to this task are empty
+				synchronized (this) {
+					LOGGER.trace("Waiting {} ms", pollInterval);
+					this.wait(pollInterval);
+				}
+				LOGGER.trace("END: poll()");
+				return null;
+			}
+			final OraTable oraTable = oraTables.get(tableNo);
+			final List<SourceRecord> result = oraTable.pollMVLog(connection, topics.get(tableNo));
+			scheduler.polled(tableNo, result.size(), oraTable.hasBacklog());
 			LOGGER.trace("Before commit at Kafka side.");
 			this.commit();
 			LOGGER.trace("After commit at Kafka side & before commit at RDBMS side.");
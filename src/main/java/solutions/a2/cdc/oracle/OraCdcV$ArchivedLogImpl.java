@@ -30,6 +30,11 @@ import solutions.a2.cdc.oracle.jmx.OraCdcLogMinerMgmtIntf;
 /**
  * 
  * Wrapper for LogMiner operations (V$ARCHIVED_LOG as source) implementation
+ * When a2.online.redo.tailing is set and there are no new archived logs, current
+ * online redo log is mined up to current SCN of database. Repeated sessions over
+ * the same redo start from last processed SCN and are marked as continuation.
+ * When a2.log.discovery.shared is set V$ARCHIVED_LOG is queried only after
+ * notification from OraCdcArchivedLogWatcher.
  * 
  * 
  * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
@@ -59,6 +64,16 @@ public class OraCdcV$ArchivedLogImpl implements OraLogMiner {
 	private List<String> fileNames = new ArrayList<>();
 	private long readStartMillis;
 	private final OraRdbmsInfo rdbmsInfo;
+	private final boolean tailOnlineLog;
+	private final int pollInterval;
+	private PreparedStatement psCurrentOnlineLog;
+	private PreparedStatement psCurrentScn;
+	private boolean onlineSession = false;
+	private boolean continuation = false;
+	private long lastProcessedScn = 0;
+	private long onlineStartMillis = 0;
+	private OraCdcArchivedLogWatcher.Subscription subscription;
+	private final long maxDiscoveryInterval;
 
 	public OraCdcV$ArchivedLogImpl(
 			final Connection connLogMiner,
@@ -88,6 +103,20 @@ public class OraCdcV$ArchivedLogImpl implements OraLogMiner {
 			LOGGER.debug("The redo log read size limit will be set to '{}' files", numArchLogs);
 		}
 
+		if (config.getBoolean(ParamConstants.ONLINE_REDO_TAILING_PARAM) &&
+				config.getBoolean(ParamConstants.PROCESS_LOBS_PARAM)) {
+			LOGGER.warn("Parameter {} is ignored when {} is set to true.",
+					ParamConstants.ONLINE_REDO_TAILING_PARAM, ParamConstants.PROCESS_LOBS_PARAM);
+			tailOnlineLog = false;
+		} else {
+			tailOnlineLog = config.getBoolean(ParamConstants.ONLINE_REDO_TAILING_PARAM);
+		}
+		pollInterval = config.getInt(ParamConstants.POLL_INTERVAL_MS_PARAM);
+		if (tailOnlineLog) {
+			LOGGER.info("Current online redo log of thread# {} will be mined when there are no new archived logs.",
+					rdbmsInfo.getRedoThread());
+		}
+
 		this.firstChange = firstChange;
 		createStatements(connLogMiner);
 		PreparedStatement psOpenMode = connLogMiner.prepareStatement(OraDictSqlTexts.RDBMS_OPEN_MODE,
@@ -112,6 +141,21 @@ public class OraCdcV$ArchivedLogImpl implements OraLogMiner {
 		rsOpenMode = null;
 		psOpenMode.close();
 		psOpenMode = null;
+		if (config.getBoolean(ParamConstants.LOG_DISCOVERY_SHARED_PARAM) && !tailOnlineLog) {
+			final OraCdcArchivedLogWatcher.ConnectionSupplier supplier;
+			if (config.getBoolean(ParamConstants.MAKE_STANDBY_ACTIVE_PARAM)) {
+				final String standbyUrl = config.getString(ParamConstants.STANDBY_URL_PARAM);
+				final String standbyWallet = config.getString(ParamConstants.STANDBY_WALLET_PARAM);
+				supplier = () -> OraConnectionObjects.getStandbyConnection(standbyUrl, standbyWallet);
+			} else {
+				supplier = oraConnections::getConnection;
+			}
+			maxDiscoveryInterval = config.getInt(ParamConstants.LOG_DISCOVERY_MAX_INTERVAL_PARAM);
+			subscription = OraCdcArchivedLogWatcher.subscribe(dbId, dbUniqueName, rdbmsInfo.getRedoThread(),
+					maxDiscoveryInterval, supplier);
+		} else {
+			maxDiscoveryInterval = 0;
+		}
 		// It's time to init JMS metrics...
 		metrics.start(firstChange);
 		LOGGER.trace("END: OraLogMiner Constructor");
@@ -126,6 +170,12 @@ public class OraCdcV$ArchivedLogImpl implements OraLogMiner {
 		if (callDbmsLogmnrAddLogFile) {
 			csAddArchivedLogs = connLogMiner.prepareCall(OraDictSqlTexts.ADD_ARCHIVED_LOG);
 		}
+		if (tailOnlineLog) {
+			psCurrentOnlineLog = connLogMiner.prepareStatement(OraDictSqlTexts.CURRENT_ONLINE_LOG,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			psCurrentScn = connLogMiner.prepareStatement(OraDictSqlTexts.CURRENT_SCN,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		}
 	}
 
 	/**
@@ -156,7 +206,14 @@ public class OraCdcV$ArchivedLogImpl implements OraLogMiner {
 		archLogsAvailable = 0;
 		archLogsSize = 0;
 
+		if (!nextLogs && onlineSession) {
+			// Online redo log is not extended, its content is mined in next session
+			LOGGER.trace("END: {} return false for online redo log", functionName);
+			return false;
+		}
+		final boolean afterOnlineSession = onlineSession;
 		if (nextLogs) {
+			continuation = false;
 			if (firstChange == 0) {
 				// oracdc started without archived logs....
 				LOGGER.debug("Requerying V$ARCHIVED_LOG for FIRST_CHANGE# ...");
@@ -219,12 +276,25 @@ public class OraCdcV$ArchivedLogImpl implements OraLogMiner {
 		psGetArchivedLogs.clearParameters();
 
 		if (archLogsAvailable == 0) {
+			if (nextLogs && tailOnlineLog) {
+				return startOnline(afterOnlineSession);
+			}
 			LOGGER.trace("END: {} return false", functionName);
 			return false;
 		} else {
+			final long startScn;
+			if (!nextLogs) {
+				startScn = sessionFirstChange;
+			} else if (afterOnlineSession && lastProcessedScn > 0) {
+				// Archived copy of online log which is already partially processed
+				startScn = lastProcessedScn;
+				continuation = true;
+			} else {
+				startScn = firstChange;
+			}
 			// Set current processing in JMX
 			metrics.setNowProcessed(
-					fileNames, nextLogs ? firstChange : sessionFirstChange, nextChange, lagSeconds);
+					fileNames, startScn, nextChange, lagSeconds);
 			if (callDbmsLogmnrAddLogFile) {
 				LOGGER.trace("Adding files to LogMiner session and starting it");
 				for (int fileNum = 0; fileNum < fileNames.size(); fileNum++) {
@@ -241,21 +311,14 @@ public class OraCdcV$ArchivedLogImpl implements OraLogMiner {
 
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug("Attempting to start LogMiner for SCN range from {} to {}.",
-						nextLogs ? firstChange : sessionFirstChange, nextChange);
-			}
-			try {
-				csStartLogMiner.setLong(1, nextLogs ? firstChange : sessionFirstChange); 
-				csStartLogMiner.setLong(2, nextChange); 
-				csStartLogMiner.execute();
-				csStartLogMiner.clearParameters();
-			} catch(SQLException sqle) {
-				LOGGER.error("Unable to execute\n\t{}\n\tusing STARTSCN={} and ENDSCN={}",
-						OraDictSqlTexts.START_LOGMINER, nextLogs ? firstChange : sessionFirstChange, nextChange);
-				throw new SQLException(sqle);
+						startScn, nextChange);
 			}
+			startLogMiner(startScn, nextChange);
 			if (nextLogs) {
 				// Set sessionFirstChange only in call to next()
-				sessionFirstChange = firstChange;
+				sessionFirstChange = startScn;
+				onlineSession = false;
+				lastProcessedScn = 0;
 			}
 			firstChange = nextChange;
 			readStartMillis = System.currentTimeMillis();
@@ -264,16 +327,135 @@ public class OraCdcV$ArchivedLogImpl implements OraLogMiner {
 		}
 	}
 
+	/**
+	 * Starts LogMiner over current online redo log up to current SCN of database.
+	 * firstChange is not changed, it is moved only by archived logs.
+	 * 
+	 * @param afterOnlineSession previous session was over the same online redo log
+	 * @return  - true if LogMiner prepared
+	 * @throws SQLException
+	 */
+	private boolean startOnline(final boolean afterOnlineSession) throws SQLException {
+		if (afterOnlineSession &&
+				(System.currentTimeMillis() - onlineStartMillis) < pollInterval) {
+			// Do not restart LogMiner more often than a2.poll.interval
+			LOGGER.trace("END: next() return false, online redo log was mined less than {} ms ago", pollInterval);
+			return false;
+		}
+		long sequence = -1;
+		long logFirstChange = 0;
+		String member = null;
+		psCurrentOnlineLog.setInt(1, rdbmsInfo.getRedoThread());
+		ResultSet rs = psCurrentOnlineLog.executeQuery();
+		if (rs.next()) {
+			sequence = rs.getLong("SEQUENCE#");
+			logFirstChange = rs.getLong("FIRST_CHANGE#");
+			member = rs.getString("MEMBER");
+		}
+		rs.close();
+		rs = null;
+		psCurrentOnlineLog.clearParameters();
+		if (member == null || logFirstChange > firstChange) {
+			// Log switch is in progress, wait for archived copy
+			LOGGER.trace("END: next() return false, waiting for archived log starting from SCN {}", firstChange);
+			return false;
+		}
+		long currentScn = 0;
+		rs = psCurrentScn.executeQuery();
+		if (rs.next()) {
+			currentScn = rs.getLong(1);
+		}
+		rs.close();
+		rs = null;
+
+		final boolean afterProcessed = afterOnlineSession && lastProcessedScn > 0;
+		final long startScn = afterProcessed ? lastProcessedScn : firstChange;
+		if (currentScn <= startScn) {
+			LOGGER.trace("END: next() return false, no changes after SCN {}", startScn);
+			return false;
+		}
+		fileNames.add(member);
+		archLogsAvailable = 1;
+		metrics.setNowProcessed(fileNames, startScn, currentScn, 0);
+		if (callDbmsLogmnrAddLogFile) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Adding online redo log {} thread# {} sequence# {} to LogMiner processing list.",
+						member, rdbmsInfo.getRedoThread(), sequence);
+			}
+			csAddArchivedLogs.setInt(1, 0);
+			csAddArchivedLogs.setString(2, member);
+			csAddArchivedLogs.execute();
+			csAddArchivedLogs.clearParameters();
+		}
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Attempting to start LogMiner over online redo log for SCN range from {} to {}.",
+					startScn, currentScn);
+		}
+		startLogMiner(startScn, currentScn);
+		sessionFirstChange = startScn;
+		onlineSession = true;
+		continuation = afterProcessed;
+		onlineStartMillis = System.currentTimeMillis();
+		readStartMillis = onlineStartMillis;
+		LOGGER.trace("END: next() returns true for online redo log");
+		return true;
+	}
+
+	private void startLogMiner(final long startScn, final long endScn) throws SQLException {
+		try {
+			csStartLogMiner.setLong(1, startScn); 
+			csStartLogMiner.setLong(2, endScn); 
+			csStartLogMiner.execute();
+			csStartLogMiner.clearParameters();
+		} catch(SQLException sqle) {
+			LOGGER.error("Unable to execute\n\t{}\n\tusing STARTSCN={} and ENDSCN={}",
+					OraDictSqlTexts.START_LOGMINER, startScn, endScn);
+			throw new SQLException(sqle);
+		}
+	}
+
 	@Override
 	public void stop() throws SQLException {
 		LOGGER.trace("BEGIN: stop()");
 		csStopLogMiner.execute();
-		// Add info about processed files to JMX
-		metrics.addAlreadyProcessed(fileNames, archLogsAvailable, archLogsSize,
-				System.currentTimeMillis() - readStartMillis);
+		if (!onlineSession) {
+			// Add info about processed files to JMX
+			metrics.addAlreadyProcessed(fileNames, archLogsAvailable, archLogsSize,
+					System.currentTimeMillis() - readStartMillis);
+		}
 		LOGGER.trace("END: stop()");
 	}
 
+	@Override
+	public boolean awaitRedo() throws InterruptedException {
+		if (subscription == null) {
+			return false;
+		} else {
+			subscription.await(maxDiscoveryInterval);
+			return true;
+		}
+	}
+
+	@Override
+	public void close() {
+		if (subscription != null) {
+			subscription.close();
+			subscription = null;
+		}
+	}
+
+	@Override
+	public boolean isContinuation() {
+		return continuation;
+	}
+
+	@Override
+	public void setLastProcessedScn(final long scn) {
+		if (onlineSession) {
+			lastProcessedScn = scn;
+		}
+	}
+
 	@Override
 	public boolean isDictionaryAvailable() {
 		return dictionaryAvailable;
@@ -866,68 +866,60 @@ public class OraColumn {
 		if (columnValue == null) {
 			statement.setNull(columnNo, jdbcType);
 		} else {
-			switch (jdbcType) {
-			case Types.DATE:
-				statement.setDate(columnNo, new java.sql.Date(((java.util.Date) columnValue).getTime()));
-				break;
-			case Types.TIMESTAMP:
-				statement.setTimestamp(columnNo, new java.sql.Timestamp(((java.util.Date) columnValue).getTime()));
-				break;
-			case Types.TIMESTAMP_WITH_TIMEZONE:
-				statement.setObject(columnNo, OraTimestamp.toLogical((String) columnValue));
-				break;
-			case Types.BOOLEAN:
-				statement.setBoolean(columnNo, (boolean) columnValue);
-				break;
-			case Types.TINYINT:
-				statement.setByte(columnNo, (Byte) columnValue);
-				break;
-			case Types.SMALLINT:
-				statement.setShort(columnNo, (Short) columnValue);
-				break;
-			case Types.INTEGER:
-				statement.setInt(columnNo, (Integer) columnValue);
-				break;
-			case Types.BIGINT:
-				try {
-					statement.setLong(columnNo, (Long) columnValue);
-				} catch (ClassCastException cce) {
-					statement.setLong(columnNo, (Integer) columnValue);
-				}
-				break;
-			case Types.FLOAT:
-				statement.setFloat(columnNo, (float) columnValue);
-				break;
-			case Types.DOUBLE:
-				statement.setDouble(columnNo, (double) columnValue);
-				break;
-			case Types.DECIMAL:
-				statement.setBigDecimal(columnNo, (BigDecimal) columnValue);
-				break;
-			case Types.NUMERIC:
-				BigDecimal bd = OraNumber.toLogical(((ByteBuffer) columnValue).array());
-				if (bd == null) {
-					statement.setNull(columnNo, Types.NUMERIC);
-				} else {
-					statement.setBigDecimal(columnNo, bd);
-				}
-				break;
-			case Types.BINARY:
-				statement.setBytes(columnNo, ((ByteBuffer) columnValue).array());
-				break;
-			case Types.VARCHAR:
-				// 0x00 PostgreSQL problem
-				if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL) {
-					statement.setString(columnNo, StringUtils.replace((String) columnValue, "\0", StringUtils.EMPTY));
-				} else { 
-					statement.setString(columnNo, (String) columnValue);
-				}
-				break;
-			default:
+			final OraSinkColumnBinder.Setter setter;
+			try {
+				setter = OraSinkColumnBinder.setter(dbType, this);
+			} catch (SQLException sqle) {
 				LOGGER.error("Unsupported data type {} for column {}.",
 						JdbcTypes.getTypeName(jdbcType), columnName);
-				throw new SQLException("Unsupported data type: " + JdbcTypes.getTypeName(jdbcType));
+				throw sqle;
 			}
+			setter.set(statement, columnNo, columnValue);
+		}
+	}
+
+	/**
+	 * Converts Kafka Connect value to Java object used as java.sql.Array element
+	 * 
+	 * @param dbType
+	 * @param columnValue
+	 * @return
+	 * @throws SQLException
+	 */
+	public Object toArrayElement(final int dbType, final Object columnValue) throws SQLException {
+		if (columnValue == null) {
+			return null;
+		}
+		switch (jdbcType) {
+		case Types.DATE:
+		case Types.TIMESTAMP:
+			return new java.sql.Timestamp(((java.util.Date) columnValue).getTime());
+		case Types.BOOLEAN:
+		case Types.INTEGER:
+		case Types.FLOAT:
+		case Types.DOUBLE:
+		case Types.DECIMAL:
+			return columnValue;
+		case Types.TINYINT:
+		case Types.SMALLINT:
+			return ((Number) columnValue).shortValue();
+		case Types.BIGINT:
+			return ((Number) columnValue).longValue();
+		case Types.NUMERIC:
+			return OraNumber.toLogical(((ByteBuffer) columnValue).array());
+		case Types.BINARY:
+			return ((ByteBuffer) columnValue).array();
+		case Types.VARCHAR:
+			// 0x00 PostgreSQL problem
+			if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL) {
+				return StringUtils.replace((String) columnValue, "\0", StringUtils.EMPTY);
+			} else { 
+				return columnValue;
+			}
+		default:
+			LOGGER.error("Unsupported data type {} for array bound column {}.",
+					JdbcTypes.getTypeName(jdbcType), columnName);
+			throw new SQLException("Unsupported data type: " + JdbcTypes.getTypeName(jdbcType));
 		}
 	}
 
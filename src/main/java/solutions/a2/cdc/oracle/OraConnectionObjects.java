@@ -45,11 +45,15 @@ public class OraConnectionObjects {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OraConnectionObjects.class);
 	private static final int INITIAL_SIZE = 4;
+	private static final String SESSION_MODULE = "oracdc";
+	// Maximum length of action name, as for DBMS_APPLICATION_INFO.SET_ACTION
+	private static final int SESSION_ACTION_LENGTH = 32;
 	private static final AtomicBoolean state = new AtomicBoolean(true);
 	private static final AtomicInteger taskId = new AtomicInteger(0);
 
 	private PoolDataSource pds;
 	private final String poolName;
+	private String sessionAction;
 	private boolean standby = false;
 	private boolean distributed = false;
 	private Connection connection4LogMiner;
@@ -58,6 +62,7 @@ public class OraConnectionObjects {
 
 	private OraConnectionObjects(final String poolName, final String dbUrl) throws SQLException {
 		this.poolName = poolName;
+		this.sessionAction = StringUtils.left(poolName, SESSION_ACTION_LENGTH);
 		pds = PoolDataSourceFactory.getPoolDataSource();
 		pds.setConnectionFactoryClassName("oracle.jdbc.pool.OracleDataSource");
 		pds.setConnectionPoolName(poolName);
@@ -66,6 +71,16 @@ public class OraConnectionObjects {
 		pds.setMinPoolSize(INITIAL_SIZE);
 	}
 
+	/**
+	 * Connection objects without pool data source, getConnection() must be overridden
+	 * 
+	 * @param poolName
+	 */
+	OraConnectionObjects(final String poolName) {
+		this.poolName = poolName;
+		this.sessionAction = StringUtils.left(poolName, SESSION_ACTION_LENGTH);
+	}
+
 	public static OraConnectionObjects get4UserPassword(final String poolName,
 			final String dbUrl, final String dbUser, final String dbPassword)
 					throws SQLException {
@@ -119,6 +134,8 @@ public class OraConnectionObjects {
 			System.setProperty(OracleConnection.CONNECTION_PROPERTY_WALLET_LOCATION, wallet);
 		}
 		OraConnectionObjects oco = new OraConnectionObjects(poolName + "-" + index, dbUrls.get(index));
+		// All instances of RAC are processed by the same connector
+		oco.sessionAction = StringUtils.left(poolName, SESSION_ACTION_LENGTH);
 		if (wallet == null) {
 			oco.setUserPassword(dbUser, dbPassword);
 		}
@@ -172,6 +189,7 @@ public class OraConnectionObjects {
 		ods.setConnectionProperties(props);
 		ods.setURL(dbUrl);
 		connection4LogMiner = ods.getConnection();
+		setSessionInfo(connection4LogMiner, "LogMiner Read-only");
 		connection4LogMiner.setAutoCommit(false);
 
 		if (init4Standby) {
@@ -205,7 +223,7 @@ public class OraConnectionObjects {
 			logMinerConnection = connection4LogMiner;
 		} else {
 			logMinerConnection = getConnection();
-			logMinerConnection.setClientInfo("OCSID.CLIENTID","LogMiner Read-only");
+			setSessionInfo(logMinerConnection, "LogMiner Read-only");
 		}
 		if (trace) {
 			try {
@@ -226,8 +244,7 @@ public class OraConnectionObjects {
 	public Connection getConnection() throws SQLException {
 		try {
 			Connection connection = pds.getConnection();
-			connection.setClientInfo("OCSID.MODULE","oracdc");
-			connection.setClientInfo("OCSID.CLIENTID","Generic R/W");
+			setSessionInfo(connection, "Generic R/W");
 			connection.setAutoCommit(false);
 			return connection;
 		} catch(SQLException sqle) {
@@ -252,6 +269,28 @@ public class OraConnectionObjects {
 		}
 	}
 
+	/**
+	 * Marks session with MODULE 'oracdc' and ACTION set to connector name,
+	 * so that V$SESSION rows of this connector can be selected
+	 * 
+	 * @param connection
+	 * @param clientId purpose of connection
+	 * @throws SQLException
+	 */
+	private void setSessionInfo(final Connection connection, final String clientId) throws SQLException {
+		connection.setClientInfo("OCSID.MODULE", SESSION_MODULE);
+		connection.setClientInfo("OCSID.ACTION", sessionAction);
+		connection.setClientInfo("OCSID.CLIENTID", clientId);
+	}
+
+	/**
+	 * 
+	 * @return V$SESSION.ACTION of sessions opened by this connector
+	 */
+	public String getSessionAction() {
+		return sessionAction;
+	}
+
 	public static Connection getConnection(OraCdcSourceConnectorConfig config) throws SQLException {
 		final Properties props = new Properties();
 		if (StringUtils.isNotBlank(config.getString(ParamConstants.CONNECTION_WALLET_PARAM))) {
@@ -551,6 +551,129 @@ where  O.OBJECT_TYPE='TABLE'
 		"  and  O.OWNER=T.OWNER\n" +
 		"  and  O.OBJECT_NAME=T.TABLE_NAME";
 
+/*
+select ROWIDTOCHAR(DBMS_ROWID.ROWID_CREATE(1, DATA_OBJECT_ID, LO_FNO, LO_BLOCK, 0)) ROWID_START,
+       ROWIDTOCHAR(DBMS_ROWID.ROWID_CREATE(1, DATA_OBJECT_ID, HI_FNO, HI_BLOCK, 32767)) ROWID_END,
+       TOTAL_BLOCKS
+from  (select GRP, DATA_OBJECT_ID, max(TOTAL_BLOCKS) TOTAL_BLOCKS,
+              min(RELATIVE_FNO) keep (dense_rank first order by RELATIVE_FNO, BLOCK_ID) LO_FNO,
+              min(BLOCK_ID) keep (dense_rank first order by RELATIVE_FNO, BLOCK_ID) LO_BLOCK,
+              max(RELATIVE_FNO) keep (dense_rank last order by RELATIVE_FNO, BLOCK_ID) HI_FNO,
+              max(BLOCK_ID + BLOCKS - 1) keep (dense_rank last order by RELATIVE_FNO, BLOCK_ID) HI_BLOCK
+       from  (select O.DATA_OBJECT_ID, E.RELATIVE_FNO, E.BLOCK_ID, E.BLOCKS,
+                     sum(E.BLOCKS) over () TOTAL_BLOCKS,
+                     trunc((sum(E.BLOCKS) over (order by O.DATA_OBJECT_ID, E.RELATIVE_FNO, E.BLOCK_ID) - 0.01) /
+                           (sum(E.BLOCKS) over () / :CHUNK_COUNT)) GRP
+              from   DBA_EXTENTS E, DBA_OBJECTS O
+              where  E.OWNER = :OWNER
+                and  E.SEGMENT_NAME = :TABLE_NAME
+                and  E.SEGMENT_TYPE in ('TABLE', 'TABLE PARTITION', 'TABLE SUBPARTITION')
+                and  O.OWNER = E.OWNER
+                and  O.OBJECT_NAME = E.SEGMENT_NAME
+                and  O.OBJECT_TYPE = E.SEGMENT_TYPE
+                and  nvl(O.SUBOBJECT_NAME, '-') = nvl(E.PARTITION_NAME, '-'))
+       group by GRP, DATA_OBJECT_ID)
+order by GRP, DATA_OBJECT_ID
+ */
+	public static final String INITIAL_LOAD_ROWID_RANGES =
+		"select ROWIDTOCHAR(DBMS_ROWID.ROWID_CREATE(1, DATA_OBJECT_ID, LO_FNO, LO_BLOCK, 0)) ROWID_START,\n" +
+		"       ROWIDTOCHAR(DBMS_ROWID.ROWID_CREATE(1, DATA_OBJECT_ID, HI_FNO, HI_BLOCK, 32767)) ROWID_END,\n" +
+		"       TOTAL_BLOCKS\n" +
+		"from  (select GRP, DATA_OBJECT_ID, max(TOTAL_BLOCKS) TOTAL_BLOCKS,\n" +
+		"              min(RELATIVE_FNO) keep (dense_rank first order by RELATIVE_FNO, BLOCK_ID) LO_FNO,\n" +
+		"              min(BLOCK_ID) keep (dense_rank first order by RELATIVE_FNO, BLOCK_ID) LO_BLOCK,\n" +
+		"              max(RELATIVE_FNO) keep (dense_rank last order by RELATIVE_FNO, BLOCK_ID) HI_FNO,\n" +
+		"              max(BLOCK_ID + BLOCKS - 1) keep (dense_rank last order by RELATIVE_FNO, BLOCK_ID) HI_BLOCK\n" +
+		"       from  (select O.DATA_OBJECT_ID, E.RELATIVE_FNO, E.BLOCK_ID, E.BLOCKS,\n" +
+		"                     sum(E.BLOCKS) over () TOTAL_BLOCKS,\n" +
+		"                     trunc((sum(E.BLOCKS) over (order by O.DATA_OBJECT_ID, E.RELATIVE_FNO, E.BLOCK_ID) - 0.01) /\n" +
+		"                           (sum(E.BLOCKS) over () / ?)) GRP\n" +
+		"              from   DBA_EXTENTS E, DBA_OBJECTS O\n" +
+		"              where  E.OWNER = ?\n" +
+		"                and  E.SEGMENT_NAME = ?\n" +
+		"                and  E.SEGMENT_TYPE in ('TABLE', 'TABLE PARTITION', 'TABLE SUBPARTITION')\n" +
+		"                and  O.OWNER = E.OWNER\n" +
+		"                and  O.OBJECT_NAME = E.SEGMENT_NAME\n" +
+		"                and  O.OBJECT_TYPE = E.SEGMENT_TYPE\n" +
+		"                and  nvl(O.SUBOBJECT_NAME, '-') = nvl(E.PARTITION_NAME, '-'))\n" +
+		"       group by GRP, DATA_OBJECT_ID)\n" +
+		"order by GRP, DATA_OBJECT_ID";
+
+	/*
+	 * Allocated size of table including all partitions, subpartitions and LOB segments
+	 * Bind variables: owner, table name, owner, table name
+	 */
+	public static final String INITIAL_LOAD_SEGMENT_SIZE =
+		"select nvl(sum(case when S.SEGMENT_TYPE like 'TABLE%' then S.BLOCKS end), 0) TABLE_BLOCKS,\n" +
+		"       nvl(sum(S.BYTES), 0) TOTAL_BYTES\n" +
+		"from   DBA_SEGMENTS S\n" +
+		"where  S.OWNER = ?\n" +
+		"  and ((S.SEGMENT_NAME = ?\n" +
+		"        and S.SEGMENT_TYPE in ('TABLE', 'TABLE PARTITION', 'TABLE SUBPARTITION'))\n" +
+		"   or  (S.SEGMENT_TYPE in ('LOBSEGMENT', 'LOB PARTITION', 'LOB SUBPARTITION')\n" +
+		"        and S.SEGMENT_NAME in (select L.SEGMENT_NAME from DBA_LOBS L where L.OWNER = ? and L.TABLE_NAME = ?)))";
+
+	/*
+	 * Source load governor: host CPU and average active sessions for last 60 seconds
+	 */
+	public static final String GOVERNOR_SYSMETRIC =
+		"select METRIC_NAME, VALUE\n" +
+		"from   V$SYSMETRIC\n" +
+		"where  GROUP_ID = 2\n" +
+		"  and  METRIC_NAME in ('Host CPU Utilization (%)', 'Average Active Sessions')";
+
+	/*
+	 * Source load governor: waits of sessions of connector except current,
+	 * sessions are marked with MODULE 'oracdc' and ACTION set to connector name
+	 */
+	public static final String GOVERNOR_SESSIONS =
+		"select count(*) SESSIONS,\n" +
+		"       nvl(sum(case when STATE = 'WAITING' and WAIT_CLASS <> 'Idle' then 1 else 0 end), 0) WAITING,\n" +
+		"       nvl(sum(case when STATE = 'WAITING' and WAIT_CLASS in ('Application', 'Concurrency', 'Configuration', 'Cluster') then 1 else 0 end), 0) CONTENDING,\n" +
+		"       stats_mode(case when STATE = 'WAITING' and WAIT_CLASS <> 'Idle' then EVENT end) TOP_EVENT\n" +
+		"from   V$SESSION\n" +
+		"where  MODULE = 'oracdc'\n" +
+		"  and  ACTION = ?\n" +
+		"  and  TYPE = 'USER'\n" +
+		"  and  SID <> SYS_CONTEXT('USERENV', 'SID')";
+
+	public static final String CURRENT_SCN =
+		"select CURRENT_SCN from V$DATABASE";
+
+/*
+select L.SEQUENCE#, L.FIRST_CHANGE#, F.MEMBER
+from   V$LOG L, V$LOGFILE F
+where  L.GROUP# = F.GROUP# and L.THREAD# = ? and L.STATUS = 'CURRENT' and F.STATUS is null
+ */
+	public static final String CURRENT_ONLINE_LOG =
+		"select L.SEQUENCE#, L.FIRST_CHANGE#, F.MEMBER\n" +
+		"from   V$LOG L, V$LOGFILE F\n" +
+		"where  L.GROUP# = F.GROUP# and L.THREAD# = ? and L.STATUS = 'CURRENT' and F.STATUS is null";
+
+/*
+select THREAD#, max(SEQUENCE#)
+from   V$LOG
+where  ARCHIVED = 'YES'
+group by THREAD#
+ */
+	public static final String LAST_ARCHIVED_ONLINE_SEQUENCE =
+		"select THREAD#, max(SEQUENCE#)\n" +
+		"from   V$LOG\n" +
+		"where  ARCHIVED = 'YES'\n" +
+		"group by THREAD#";
+
+/*
+select THREAD#, max(SEQUENCE#)
+from   V$ARCHIVED_LOG
+where  ARCHIVED = 'YES' and STANDBY_DEST = 'NO'
+group by THREAD#
+ */
+	public static final String LAST_ARCHIVED_SEQUENCE =
+		"select THREAD#, max(SEQUENCE#)\n" +
+		"from   V$ARCHIVED_LOG\n" +
+		"where  ARCHIVED = 'YES' and STANDBY_DEST = 'NO'\n" +
+		"group by THREAD#";
+
 /*
 select I$.INSTANCE_NAME
 from   V$ACTIVE_INSTANCES A$, GV$INSTANCE I$
@@ -0,0 +1,633 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.openhft.chronicle.bytes.Bytes;
+import oracle.jdbc.OracleResultSet;
+import oracle.sql.BINARY_DOUBLE;
+import oracle.sql.BINARY_FLOAT;
+import oracle.sql.NUMBER;
+import oracle.sql.TIMESTAMP;
+import oracle.sql.TIMESTAMPLTZ;
+import oracle.sql.TIMESTAMPTZ;
+import solutions.a2.cdc.oracle.data.OraTimestamp;
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+import solutions.a2.cdc.oracle.utils.Lz4Util;
+
+/**
+ * Serializes column of initial load select from OracleResultSet by position to
+ * Chronicle Bytes and deserializes it back to value for Struct field.
+ * Reader, writer, and Struct fields are resolved once for each table
+ *
+ * @author averemee
+ *
+ */
+public class OraInitialLoadColumnCodec {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OraInitialLoadColumnCodec.class);
+	private static final byte NULL_LENGTH_BYTE = (byte) -1;
+	private static final short NULL_LENGTH_SHORT = (short) -1;
+	private static final int NULL_LENGTH_INT = (int) -1;
+	private static final int LOB_CHUNK_SIZE = 16384;
+	// Max size of Java array
+	private static final int MAX_LOB_BYTES = Integer.MAX_VALUE - 8;
+
+	@FunctionalInterface
+	public interface ColumnWriter {
+		void write(Bytes<?> bytes, OracleResultSet rs, int columnIndex) throws SQLException;
+	}
+
+	@FunctionalInterface
+	public interface ColumnReader {
+		Object read(Bytes<?> raw, Connection connTzData) throws SQLException;
+	}
+
+	private final OraColumn column;
+	private final int columnIndex;
+	private final boolean keyColumn;
+	private final Field keyField;
+	private final boolean valueColumn;
+	private final Field valueField;
+	private final ColumnWriter writer;
+	private final ColumnReader reader;
+
+	private OraInitialLoadColumnCodec(final OraColumn column, final int columnIndex,
+			final boolean keyColumn, final Field keyField,
+			final boolean valueColumn, final Field valueField,
+			final ColumnWriter writer, final ColumnReader reader) {
+		this.column = column;
+		this.columnIndex = columnIndex;
+		this.keyColumn = keyColumn;
+		this.keyField = keyField;
+		this.valueColumn = valueColumn;
+		this.valueField = valueField;
+		this.writer = writer;
+		this.reader = reader;
+	}
+
+	public void write(final Bytes<?> bytes, final OracleResultSet rs) throws SQLException {
+		writer.write(bytes, rs, columnIndex);
+	}
+
+	public Object read(final Bytes<?> raw, final Connection connTzData) throws SQLException {
+		return reader.read(raw, connTzData);
+	}
+
+	public OraColumn getColumn() {
+		return column;
+	}
+
+	public boolean isKeyColumn() {
+		return keyColumn;
+	}
+
+	public Field getKeyField() {
+		return keyField;
+	}
+
+	public boolean isValueColumn() {
+		return valueColumn;
+	}
+
+	public Field getValueField() {
+		return valueField;
+	}
+
+	/**
+	 * Creates codecs for all columns of initial load select in select list order,
+	 * codec for allColumns.get(i) reads column i + 1 of result set
+	 *
+	 * @param tableFqn
+	 * @param allColumns
+	 * @param pkColumns
+	 * @param keySchema
+	 * @param valueSchema
+	 * @param schemaType
+	 * @return
+	 */
+	public static OraInitialLoadColumnCodec[] compile(final String tableFqn,
+			final List<OraColumn> allColumns, final Map<String, OraColumn> pkColumns,
+			final Schema keySchema, final Schema valueSchema, final int schemaType) {
+		final OraInitialLoadColumnCodec[] codecs = new OraInitialLoadColumnCodec[allColumns.size()];
+		for (int i = 0; i < allColumns.size(); i++) {
+			final OraColumn column = allColumns.get(i);
+			final String columnName = column.getColumnName();
+			final boolean keyColumn = keySchema != null && pkColumns.containsKey(columnName);
+			// Don't process PK again in case of SCHEMA_TYPE_INT_KAFKA_STD
+			final boolean valueColumn =
+					(schemaType == ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD && !pkColumns.containsKey(columnName)) ||
+					schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM;
+			// Field is null when schema does not contain column, Struct.put(Field, Object) throws DataException for it
+			codecs[i] = new OraInitialLoadColumnCodec(column, i + 1,
+					keyColumn, keyColumn ? keySchema.field(columnName) : null,
+					valueColumn, valueColumn ? valueSchema.field(columnName) : null,
+					writer(tableFqn, column), reader(column));
+		}
+		return codecs;
+	}
+
+	static ColumnWriter writer(final String tableFqn, final OraColumn column) {
+		switch (column.getJdbcType()) {
+		case Types.DATE:
+		case Types.TIMESTAMP:
+			return (bytes, rs, columnIndex) -> {
+				final TIMESTAMP timeStampValue = rs.getTIMESTAMP(columnIndex);
+				writeByteLength(bytes, rs.wasNull() ? null : timeStampValue.getBytes());
+			};
+		case Types.TIMESTAMP_WITH_TIMEZONE:
+			if (column.isLocalTimeZone()) {
+				return (bytes, rs, columnIndex) -> {
+					final TIMESTAMPLTZ ltz = rs.getTIMESTAMPLTZ(columnIndex);
+					writeByteLength(bytes, ltz == null ? null : ltz.getBytes());
+				};
+			} else {
+				return (bytes, rs, columnIndex) -> {
+					final TIMESTAMPTZ tz = rs.getTIMESTAMPTZ(columnIndex);
+					writeByteLength(bytes, tz == null ? null : tz.getBytes());
+				};
+			}
+		case Types.TINYINT:
+		case Types.SMALLINT:
+		case Types.INTEGER:
+		case Types.BIGINT:
+		case Types.DECIMAL:
+		case Types.NUMERIC:
+			return (bytes, rs, columnIndex) -> {
+				final NUMBER numberValue = rs.getNUMBER(columnIndex);
+				writeByteLength(bytes, rs.wasNull() ? null : numberValue.getBytes());
+			};
+		case Types.FLOAT:
+			if (column.isBinaryFloatDouble()) {
+				return (bytes, rs, columnIndex) -> {
+					final float floatValue = rs.getFloat(columnIndex);
+					writeByteLength(bytes, rs.wasNull() ? null : (new BINARY_FLOAT(floatValue)).getBytes());
+				};
+			} else {
+				return (bytes, rs, columnIndex) -> {
+					final NUMBER floatValue = rs.getNUMBER(columnIndex);
+					writeByteLength(bytes, rs.wasNull() ? null : floatValue.getBytes());
+				};
+			}
+		case Types.DOUBLE:
+			if (column.isBinaryFloatDouble()) {
+				return (bytes, rs, columnIndex) -> {
+					final double doubleValue = rs.getDouble(columnIndex);
+					writeByteLength(bytes, rs.wasNull() ? null : (new BINARY_DOUBLE(doubleValue)).getBytes());
+				};
+			} else {
+				return (bytes, rs, columnIndex) -> {
+					final NUMBER doubleValue = rs.getNUMBER(columnIndex);
+					writeByteLength(bytes, rs.wasNull() ? null : doubleValue.getBytes());
+				};
+			}
+		case Types.BINARY:
+			return (bytes, rs, columnIndex) -> {
+				final byte[] rawValue = rs.getBytes(columnIndex);
+				if (rawValue == null) {
+					bytes.writeShort(NULL_LENGTH_SHORT);
+				} else {
+					bytes.writeShort((short) rawValue.length);
+					bytes.write(rawValue);
+				}
+			};
+		case Types.CHAR:
+		case Types.VARCHAR:
+			return (bytes, rs, columnIndex) -> bytes.writeUtf8(rs.getString(columnIndex));
+		case Types.NCHAR:
+		case Types.NVARCHAR:
+			return (bytes, rs, columnIndex) -> bytes.writeUtf8(rs.getNString(columnIndex));
+		case Types.ROWID:
+			return (bytes, rs, columnIndex) -> {
+				final RowId rowIdValue = rs.getRowId(columnIndex);
+				bytes.write8bit(rowIdValue == null ? ((String) null): rowIdValue.toString());
+			};
+		case Types.CLOB:
+		case Types.NCLOB:
+			final boolean isClob = column.getJdbcType() == Types.CLOB;
+			return (bytes, rs, columnIndex) -> {
+				final Clob clobValue;
+				if (isClob) {
+					clobValue = rs.getClob(columnIndex);
+				} else {
+					//NCLOB
+					clobValue = rs.getNClob(columnIndex);
+				}
+				if (rs.wasNull() || clobValue.length() < 1) {
+					bytes.writeInt(NULL_LENGTH_INT);
+				} else {
+					if (MAX_LOB_BYTES < clobValue.length()) {
+						LOGGER.error(
+								"Unable to process {} column {}({}) with length ({}) greater than {}",
+								isClob ? "CLOB" : "NCLOB",
+								tableFqn, column.getColumnName(), clobValue.length(), MAX_LOB_BYTES);
+						throw new SQLException(
+								"Unable to process " +
+								(isClob ? "CLOB" : "NCLOB") +
+								"column with length " + clobValue.length() + " chars!");
+					}
+					try (Reader reader = clobValue.getCharacterStream()) {
+						writeLob(bytes, reader);
+					} catch (IOException ioe) {
+						LOGGER.error("IO Error while processing {} column {}({})",
+								isClob ? "CLOB" : "NCLOB",
+								tableFqn, column.getColumnName());
+						LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
+						throw new ConnectException(ioe);
+					} finally {
+						clobValue.free();
+					}
+				}
+			};
+		case Types.BLOB:
+			return (bytes, rs, columnIndex) -> {
+				final Blob blobValue = rs.getBlob(columnIndex);
+				if (rs.wasNull() || blobValue.length() < 1) {
+					bytes.writeInt(NULL_LENGTH_INT);
+				} else {
+					if (MAX_LOB_BYTES < blobValue.length()) {
+						LOGGER.error(
+								"Unable to process BLOB column {}({}) with length ({}) greater than {}",
+								tableFqn, column.getColumnName(), blobValue.length(), MAX_LOB_BYTES);
+						throw new SQLException(
+								"Unable to process BLOB column with length " + blobValue.length() + " bytes!");
+					}
+					try (InputStream is = blobValue.getBinaryStream()) {
+						writeLob(bytes, is);
+					} catch (IOException ioe) {
+						LOGGER.error("IO Error while processing BLOB column {}({})",
+								tableFqn, column.getColumnName());
+						LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
+						throw new ConnectException(ioe);
+					} finally {
+						blobValue.free();
+					}
+				}
+			};
+		case Types.SQLXML:
+			return (bytes, rs, columnIndex) -> {
+				final SQLXML xmlValue = rs.getSQLXML(columnIndex);
+				if (rs.wasNull()) {
+					bytes.writeInt(NULL_LENGTH_INT);
+				} else {
+					try (Reader reader = xmlValue.getCharacterStream()) {
+						writeLob(bytes, reader);
+					} catch (IOException ioe) {
+						LOGGER.error("IO Error while processing XMLTYPE column {}({})",
+								tableFqn, column.getColumnName());
+						LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
+						throw new ConnectException(ioe);
+					} finally {
+						xmlValue.free();
+					}
+				}
+			};
+		default:
+			return (bytes, rs, columnIndex) -> {
+				throw new SQLException("Unsupported JDBC Type " + column.getJdbcType());
+			};
+		}
+	}
+
+	static ColumnReader reader(final OraColumn column) {
+		switch (column.getJdbcType()) {
+		case Types.DATE:
+		case Types.TIMESTAMP:
+			return (raw, connTzData) -> {
+				final byte[] ba = readByteLength(raw);
+				return ba == null ? null : (new TIMESTAMP(ba)).timestampValue();
+			};
+		case Types.TIMESTAMP_WITH_TIMEZONE:
+			if (column.isLocalTimeZone()) {
+				return (raw, connTzData) -> {
+					final byte[] ba = readByteLength(raw);
+					return ba == null ? null :
+						OraTimestamp.ISO_8601_FMT.format((new TIMESTAMPLTZ(ba)).offsetDateTimeValue(connTzData));
+				};
+			} else {
+				return (raw, connTzData) -> {
+					final byte[] ba = readByteLength(raw);
+					return ba == null ? null :
+						OraTimestamp.ISO_8601_FMT.format((new TIMESTAMPTZ(ba)).offsetDateTimeValue(connTzData));
+				};
+			}
+		case Types.TINYINT:
+			return (raw, connTzData) -> {
+				final NUMBER tinyIntNumber = readNUMBER(raw);
+				return tinyIntNumber == null ? null : tinyIntNumber.byteValue();
+			};
+		case Types.SMALLINT:
+			return (raw, connTzData) -> {
+				final NUMBER smallIntNumber = readNUMBER(raw);
+				return smallIntNumber == null ? null : smallIntNumber.shortValue();
+			};
+		case Types.INTEGER:
+			return (raw, connTzData) -> {
+				final NUMBER integerNumber = readNUMBER(raw);
+				return integerNumber == null ? null : integerNumber.intValue();
+			};
+		case Types.BIGINT:
+			return (raw, connTzData) -> {
+				final NUMBER bigIntNumber = readNUMBER(raw);
+				return bigIntNumber == null ? null : bigIntNumber.longValue();
+			};
+		case Types.DECIMAL:
+			final int dataScale = column.getDataScale();
+			return (raw, connTzData) -> {
+				final NUMBER decimalNumber = readNUMBER(raw);
+				if (decimalNumber == null) {
+					return null;
+				} else {
+					final BigDecimal bdColumnValue = decimalNumber.bigDecimalValue();
+					return bdColumnValue.setScale(dataScale);
+				}
+			};
+		case Types.NUMERIC:
+			return (raw, connTzData) -> readByteLength(raw);
+		case Types.FLOAT:
+			if (column.isBinaryFloatDouble()) {
+				return (raw, connTzData) -> {
+					final byte[] ba = readByteLength(raw);
+					return ba == null ? null : (new BINARY_FLOAT(ba)).floatValue();
+				};
+			} else {
+				return (raw, connTzData) -> {
+					final NUMBER floatNumber = readNUMBER(raw);
+					return floatNumber == null ? null : floatNumber.floatValue();
+				};
+			}
+		case Types.DOUBLE:
+			if (column.isBinaryFloatDouble()) {
+				return (raw, connTzData) -> {
+					final byte[] ba = readByteLength(raw);
+					return ba == null ? null : (new BINARY_DOUBLE(ba)).doubleValue();
+				};
+			} else {
+				return (raw, connTzData) -> {
+					final NUMBER doubleNumber = readNUMBER(raw);
+					return doubleNumber == null ? null : doubleNumber.doubleValue();
+				};
+			}
+		case Types.BINARY:
+			return (raw, connTzData) -> {
+				final short sizeShort = raw.readShort();
+				if (sizeShort != NULL_LENGTH_SHORT) {
+					final byte[] ba = new byte[sizeShort];
+					raw.read(ba);
+					return ba;
+				} else {
+					return null;
+				}
+			};
+		case Types.CHAR:
+		case Types.VARCHAR:
+		case Types.NCHAR:
+		case Types.NVARCHAR:
+			return (raw, connTzData) -> raw.readUtf8();
+		case Types.ROWID:
+			return (raw, connTzData) -> raw.read8bit();
+		case Types.CLOB:
+		case Types.NCLOB:
+		case Types.SQLXML:
+			// Character LOBs are sent to Kafka as LZ4 block of UTF-8 data
+			return (raw, connTzData) -> {
+				final byte[] ba = readLob(raw);
+				return ba.length == 0 ? ba : Lz4Util.compress(ba);
+			};
+		case Types.BLOB:
+			return (raw, connTzData) -> readLob(raw);
+		default:
+			return (raw, connTzData) -> {
+				throw new SQLException("Unsupported JDBC Type " +
+						column.getJdbcType() + " for column " + column.getColumnName());
+			};
+		}
+	}
+
+	/**
+	 * Streams character LOB as UTF-8 in LOB_CHUNK_SIZE chunks through LZ4 frame encoder.
+	 * Format: int UTF-8 length (NULL_LENGTH_INT for empty), int frame length, LZ4 frame
+	 * 
+	 * @param bytes
+	 * @param reader
+	 * @throws IOException
+	 */
+	static void writeLob(final Bytes<?> bytes, final Reader reader) throws IOException {
+		final long lengthPosition = bytes.writePosition();
+		bytes.writeInt(NULL_LENGTH_INT);
+		bytes.writeInt(0);
+		final long framePosition = bytes.writePosition();
+		final CountingOutputStream counter = new CountingOutputStream(
+				new LZ4FrameOutputStream(new BytesOutputStream(bytes), LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB));
+		try (Writer writer = new OutputStreamWriter(counter, StandardCharsets.UTF_8)) {
+			final char[] data = new char[LOB_CHUNK_SIZE];
+			int charsRead;
+			while ((charsRead = reader.read(data, 0, data.length)) != -1) {
+				writer.write(data, 0, charsRead);
+			}
+		}
+		finishLob(bytes, lengthPosition, framePosition, counter.count);
+	}
+
+	/**
+	 * Streams binary LOB in LOB_CHUNK_SIZE chunks through LZ4 frame encoder.
+	 * Format: int length (NULL_LENGTH_INT for empty), int frame length, LZ4 frame
+	 * 
+	 * @param bytes
+	 * @param is
+	 * @throws IOException
+	 */
+	static void writeLob(final Bytes<?> bytes, final InputStream is) throws IOException {
+		final long lengthPosition = bytes.writePosition();
+		bytes.writeInt(NULL_LENGTH_INT);
+		bytes.writeInt(0);
+		final long framePosition = bytes.writePosition();
+		final CountingOutputStream counter = new CountingOutputStream(
+				new LZ4FrameOutputStream(new BytesOutputStream(bytes), LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB));
+		try {
+			final byte[] data = new byte[LOB_CHUNK_SIZE];
+			int bytesRead;
+			while ((bytesRead = is.read(data, 0, data.length)) != -1) {
+				counter.write(data, 0, bytesRead);
+			}
+		} finally {
+			counter.close();
+		}
+		finishLob(bytes, lengthPosition, framePosition, counter.count);
+	}
+
+	private static void finishLob(final Bytes<?> bytes,
+			final long lengthPosition, final long framePosition, final long length) {
+		if (length == 0) {
+			// Empty LOB is passed as NULL
+			bytes.writePosition(lengthPosition);
+			bytes.writeInt(NULL_LENGTH_INT);
+		} else {
+			bytes.writeInt(lengthPosition, (int) length);
+			bytes.writeInt(lengthPosition + Integer.BYTES, (int) (bytes.writePosition() - framePosition));
+		}
+	}
+
+	/**
+	 * Decodes LOB written by writeLob into array of exact length
+	 * 
+	 * @param raw
+	 * @return zero length array for NULL
+	 * @throws SQLException
+	 */
+	static byte[] readLob(final Bytes<?> raw) throws SQLException {
+		final int length = raw.readInt();
+		if (length == NULL_LENGTH_INT) {
+			//For nullify BLOB/CLOB/NCLOB/XMLTYPE we need to pass zero length array
+			//NULL at Kafka side is for "not touch LOB"
+			return new byte[0];
+		}
+		final int frameLength = raw.readInt();
+		final long frameEnd = raw.readPosition() + frameLength;
+		final byte[] ba = new byte[length];
+		try {
+			final InputStream is = new LZ4FrameInputStream(new BytesInputStream(raw, frameLength));
+			int offset = 0;
+			while (offset < length) {
+				final int bytesRead = is.read(ba, offset, length - offset);
+				if (bytesRead == -1) {
+					throw new SQLException("Unexpected end of LZ4 frame at " + offset + " of " + length + " bytes!");
+				}
+				offset += bytesRead;
+			}
+		} catch (IOException ioe) {
+			throw new SQLException(ioe);
+		} finally {
+			raw.readPosition(frameEnd);
+		}
+		return ba;
+	}
+
+	private static void writeByteLength(final Bytes<?> bytes, final byte[] baData) {
+		if (baData == null) {
+			bytes.writeByte(NULL_LENGTH_BYTE);
+		} else {
+			bytes.writeByte((byte) baData.length);
+			bytes.write(baData);
+		}
+	}
+
+	private static byte[] readByteLength(final Bytes<?> raw) {
+		final byte sizeByte = raw.readByte();
+		if (sizeByte != NULL_LENGTH_BYTE) {
+			final byte[] ba = new byte[sizeByte];
+			raw.read(ba);
+			return ba;
+		} else {
+			return null;
+		}
+	}
+
+	private static NUMBER readNUMBER(final Bytes<?> raw) {
+		final byte[] ba = readByteLength(raw);
+		return ba == null ? null : new NUMBER(ba);
+	}
+
+	private static class BytesOutputStream extends OutputStream {
+		private final Bytes<?> bytes;
+		BytesOutputStream(final Bytes<?> bytes) {
+			this.bytes = bytes;
+		}
+		@Override
+		public void write(int b) {
+			bytes.writeByte((byte) b);
+		}
+		@Override
+		public void write(byte[] b, int off, int len) {
+			bytes.write(b, off, len);
+		}
+	}
+
+	private static class BytesInputStream extends InputStream {
+		private final Bytes<?> bytes;
+		private long remaining;
+		BytesInputStream(final Bytes<?> bytes, final long length) {
+			this.bytes = bytes;
+			this.remaining = length;
+		}
+		@Override
+		public int read() {
+			if (remaining < 1) {
+				return -1;
+			}
+			remaining--;
+			return bytes.readUnsignedByte();
+		}
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (remaining < 1) {
+				return -1;
+			}
+			final int toRead = (int) Math.min(len, remaining);
+			bytes.read(b, off, toRead);
+			remaining -= toRead;
+			return toRead;
+		}
+	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+		private long count = 0;
+		CountingOutputStream(final OutputStream out) {
+			super(out);
+		}
+		@Override
+		public void write(int b) throws IOException {
+			checkCount(1);
+			out.write(b);
+		}
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			checkCount(len);
+			out.write(b, off, len);
+		}
+		private void checkCount(final int len) throws IOException {
+			count += len;
+			if (count > MAX_LOB_BYTES) {
+				throw new IOException("LOB value exceeds " + MAX_LOB_BYTES + " bytes!");
+			}
+		}
+	}
+
+}
@@ -43,4 +43,43 @@ public interface OraLogMiner {
 		return true;
 	}
 
+	/**
+	 * Informs implementation that redo below given SCN is not required for restart
+	 *
+	 * @param restartScn
+	 */
+	default void releaseRedo(final long restartScn) {}
+
+	/**
+	 * Is current session a continuation of previous session over online redo log?
+	 * When true rows already processed must be skipped by caller
+	 *
+	 * @return
+	 */
+	default boolean isContinuation() {
+		return false;
+	}
+
+	/**
+	 * Informs implementation about SCN of last row processed in current session
+	 *
+	 * @param scn
+	 */
+	default void setLastProcessedScn(final long scn) {}
+
+	/**
+	 * Waits for new redo when implementation is notified about new archived logs
+	 *
+	 * @return false when implementation does not wait and caller must wait a2.poll.interval itself
+	 * @throws InterruptedException
+	 */
+	default boolean awaitRedo() throws InterruptedException {
+		return false;
+	}
+
+	/**
+	 * Releases resources which are not connected to LogMiner session
+	 */
+	default void close() {}
+
 }
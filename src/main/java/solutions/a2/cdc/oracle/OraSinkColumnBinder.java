@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package solutions.a2.cdc.oracle;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+
+import solutions.a2.cdc.oracle.data.OraNumber;
+import solutions.a2.cdc.oracle.data.OraTimestamp;
+import solutions.a2.cdc.oracle.schema.JdbcTypes;
+
+/**
+ * Binds value of Struct field to PreparedStatement parameter using Field, setter,
+ * and parameter index resolved once for each schema version
+ * 
+ * @author averemee
+ *
+ */
+public class OraSinkColumnBinder {
+
+	@FunctionalInterface
+	public interface Setter {
+		void set(PreparedStatement statement, int columnNo, Object columnValue) throws SQLException;
+	}
+
+	private final OraColumn column;
+	private final Field field;
+	private final int columnNo;
+	private final int jdbcType;
+	private final Setter setter;
+
+	private OraSinkColumnBinder(final OraColumn column, final Field field,
+			final int columnNo, final Setter setter) {
+		this.column = column;
+		this.field = field;
+		this.columnNo = columnNo;
+		this.jdbcType = column.getJdbcType();
+		this.setter = setter;
+	}
+
+	/**
+	 * Binds value of field to parameter (offset + parameter index)
+	 * 
+	 * @param statement
+	 * @param offset
+	 * @param struct
+	 * @throws SQLException
+	 */
+	public void bind(final PreparedStatement statement, final int offset, final Struct struct) throws SQLException {
+		final Object columnValue = struct.get(field);
+		if (columnValue == null) {
+			statement.setNull(offset + columnNo, jdbcType);
+		} else {
+			setter.set(statement, offset + columnNo, columnValue);
+		}
+	}
+
+	public OraColumn getColumn() {
+		return column;
+	}
+
+	/**
+	 * Compiles binders for columns, parameter indexes start from firstColumnNo
+	 * 
+	 * @param dbType
+	 * @param schema
+	 * @param columns
+	 * @param firstColumnNo
+	 * @return
+	 * @throws SQLException
+	 */
+	public static OraSinkColumnBinder[] compile(final int dbType, final Schema schema,
+			final Iterable<OraColumn> columns, final int firstColumnNo) throws SQLException {
+		final List<OraSinkColumnBinder> binders = new ArrayList<>();
+		int columnNo = firstColumnNo;
+		for (final OraColumn column : columns) {
+			final Field field = schema.field(column.getColumnName());
+			if (field == null) {
+				throw new DataException(column.getColumnName() + " is not a valid field name");
+			}
+			binders.add(new OraSinkColumnBinder(column, field, columnNo, setter(dbType, column)));
+			columnNo++;
+		}
+		return binders.toArray(new OraSinkColumnBinder[0]);
+	}
+
+	/**
+	 * Returns dialect specific setter for column
+	 * 
+	 * @param dbType
+	 * @param column
+	 * @return
+	 * @throws SQLException
+	 */
+	public static Setter setter(final int dbType, final OraColumn column) throws SQLException {
+		switch (column.getJdbcType()) {
+		case Types.DATE:
+			return (statement, columnNo, columnValue) ->
+				statement.setDate(columnNo, new java.sql.Date(((java.util.Date) columnValue).getTime()));
+		case Types.TIMESTAMP:
+			return (statement, columnNo, columnValue) ->
+				statement.setTimestamp(columnNo, new java.sql.Timestamp(((java.util.Date) columnValue).getTime()));
+		case Types.TIMESTAMP_WITH_TIMEZONE:
+			return (statement, columnNo, columnValue) ->
+				statement.setObject(columnNo, OraTimestamp.toLogical((String) columnValue));
+		case Types.BOOLEAN:
+			return (statement, columnNo, columnValue) ->
+				statement.setBoolean(columnNo, (boolean) columnValue);
+		case Types.TINYINT:
+			return (statement, columnNo, columnValue) ->
+				statement.setByte(columnNo, (Byte) columnValue);
+		case Types.SMALLINT:
+			return (statement, columnNo, columnValue) ->
+				statement.setShort(columnNo, (Short) columnValue);
+		case Types.INTEGER:
+			return (statement, columnNo, columnValue) ->
+				statement.setInt(columnNo, (Integer) columnValue);
+		case Types.BIGINT:
+			return (statement, columnNo, columnValue) -> {
+				if (columnValue instanceof Long) {
+					statement.setLong(columnNo, (Long) columnValue);
+				} else {
+					statement.setLong(columnNo, (Integer) columnValue);
+				}
+			};
+		case Types.FLOAT:
+			return (statement, columnNo, columnValue) ->
+				statement.setFloat(columnNo, (float) columnValue);
+		case Types.DOUBLE:
+			return (statement, columnNo, columnValue) ->
+				statement.setDouble(columnNo, (double) columnValue);
+		case Types.DECIMAL:
+			return (statement, columnNo, columnValue) ->
+				statement.setBigDecimal(columnNo, (BigDecimal) columnValue);
+		case Types.NUMERIC:
+			return (statement, columnNo, columnValue) -> {
+				final BigDecimal bd = OraNumber.toLogical(((ByteBuffer) columnValue).array());
+				if (bd == null) {
+					statement.setNull(columnNo, Types.NUMERIC);
+				} else {
+					statement.setBigDecimal(columnNo, bd);
+				}
+			};
+		case Types.BINARY:
+			return (statement, columnNo, columnValue) ->
+				statement.setBytes(columnNo, ((ByteBuffer) columnValue).array());
+		case Types.VARCHAR:
+			if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL) {
+				// 0x00 PostgreSQL problem
+				return (statement, columnNo, columnValue) ->
+					statement.setString(columnNo, StringUtils.replace((String) columnValue, "\0", StringUtils.EMPTY));
+			} else {
+				return (statement, columnNo, columnValue) ->
+					statement.setString(columnNo, (String) columnValue);
+			}
+		default:
+			throw new SQLException("Unsupported data type: " + JdbcTypes.getTypeName(column.getJdbcType()) +
+					" for column " + column.getColumnName());
+		}
+	}
+
+}
@@ -17,7 +17,6 @@ import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.RowId;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.text.SimpleDateFormat;
@@ -46,6 +45,7 @@ import solutions.a2.cdc.oracle.utils.ExceptionUtils;
 public class OraTable extends OraTable4SourceConnector {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OraTable.class);
+	private static final String MASTER_ROWID = "MASTER$$ROWID";
 
 	private int batchSize;
 	private boolean logWithRowIds = false;
@@ -56,7 +56,10 @@ public class OraTable extends OraTable4SourceConnector {
 	private String snapshotLog;
 	private String snapshotLogSelSql;
 	private String snapshotLogDelSql;
+	private String snapshotLogJoinSql;
+	private String snapshotLogCountSql;
 	private Map<String, String> sourcePartition;
+	private boolean backlog = false;
 
 	private final SimpleDateFormat iso8601DateFmt = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
 	private final SimpleDateFormat iso8601TimestampFmt = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
@@ -126,8 +129,14 @@ public class OraTable extends OraTable4SourceConnector {
 			this.masterTableSelSql = masterSelect.toString();
 			this.snapshotLogSelSql = mViewSelect.toString();
 			this.snapshotLogDelSql = snapshotDelete.toString();
+			this.snapshotLogJoinSql = buildJoinSql(this.tableOwner, this.tableName, snapshotLog,
+					allColumns, pkColumns, logWithRowIds, logWithSequence, sourceOffset);
+			this.snapshotLogCountSql =
+					"select count(*) from (select 1 from \"" + this.tableOwner + "\".\"" +
+					this.snapshotLog + "\" where ROWNUM <= ?)";
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug("Table {} -> MView select statement\n{}", tableName, this.snapshotLogSelSql);
+				LOGGER.debug("Table {} -> MView join master table statement\n{}", tableName, this.snapshotLogJoinSql);
 				LOGGER.debug("Table {} -> MView delete statement\n{}", tableName, this.tableName, this.snapshotLogDelSql);
 				LOGGER.debug("Table {} -> Master table select statement\n{}", tableName, this.masterTableSelSql);
 			}
@@ -138,42 +147,119 @@ public class OraTable extends OraTable4SourceConnector {
 		}
 	}
 
+	/**
+	 * Builds single select of materialized view log outer joined to master table.
+	 * Master table columns are null for deletes and for rows not found in master table
+	 * 
+	 * @param tableOwner
+	 * @param tableName
+	 * @param snapshotLog
+	 * @param allColumns
+	 * @param pkColumns
+	 * @param logWithRowIds
+	 * @param logWithSequence
+	 * @param sourceOffset
+	 * @return
+	 */
+	static String buildJoinSql(final String tableOwner, final String tableName, final String snapshotLog,
+			final List<OraColumn> allColumns, final Map<String, OraColumn> pkColumns,
+			final boolean logWithRowIds, final boolean logWithSequence,
+			final Map<String, Object> sourceOffset) {
+		final StringBuilder sb = new StringBuilder(1024);
+		sb.append("select ");
+		if (logWithRowIds) {
+			sb.append("chartorowid(L.M_ROW$$) ");
+			sb.append(OraColumn.ROWID_KEY);
+			sb.append(", ");
+		}
+		for (final OraColumn column : allColumns) {
+			if (pkColumns.containsKey(column.getColumnName()) &&
+					!OraColumn.ROWID_KEY.equals(column.getColumnName())) {
+				sb.append("L.\"");
+				sb.append(column.getColumnName());
+				sb.append("\", ");
+			}
+		}
+		if (logWithSequence) {
+			sb.append("L.");
+			sb.append(OraColumn.MVLOG_SEQUENCE);
+			sb.append(", ");
+		}
+		sb.append("case L.DMLTYPE$$ when 'I' then 'c' when 'U' then 'u' else 'd' end as OPTYPE$$, L.ORA_ROWSCN, SYSTIMESTAMP at time zone 'GMT' as TIMESTAMP$$, L.ROWID");
+		// Primary key values are taken from log, and they are equal to master values
+		for (final OraColumn column : allColumns) {
+			if (!pkColumns.containsKey(column.getColumnName())) {
+				sb.append(", M.\"");
+				sb.append(column.getColumnName());
+				sb.append("\"");
+			}
+		}
+		sb.append(", M.ROWID ");
+		sb.append(MASTER_ROWID);
+		sb.append("\nfrom \"");
+		sb.append(tableOwner);
+		sb.append("\".\"");
+		sb.append(snapshotLog);
+		sb.append("\" L left outer join \"");
+		sb.append(tableOwner);
+		sb.append("\".\"");
+		sb.append(tableName);
+		sb.append("\" M\n  on L.DMLTYPE$$ <> 'D'");
+		if (logWithRowIds) {
+			// ROWID access is always faster that any other
+			sb.append(" and M.ROWID = chartorowid(L.M_ROW$$)");
+		} else {
+			for (final OraColumn column : pkColumns.values()) {
+				sb.append(" and M.\"");
+				sb.append(column.getColumnName());
+				sb.append("\" = L.\"");
+				sb.append(column.getColumnName());
+				sb.append("\"");
+			}
+		}
+		if (logWithSequence) {
+			if (sourceOffset != null && sourceOffset.get(OraColumn.MVLOG_SEQUENCE) != null) {
+				sb.append("\nwhere L.");
+				sb.append(OraColumn.MVLOG_SEQUENCE);
+				sb.append(" > ");
+				sb.append((long) sourceOffset.get(OraColumn.MVLOG_SEQUENCE));
+			}
+			sb.append("\norder by L.");
+			sb.append(OraColumn.MVLOG_SEQUENCE);
+		}
+		return sb.toString();
+	}
+
 	public List<SourceRecord> pollMVLog(final Connection connection, final String kafkaConnectTopic) throws SQLException {
 		LOGGER.trace("BEGIN: pollMVLog()");
-		PreparedStatement stmtLog = connection.prepareStatement(snapshotLogSelSql,
-				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-		PreparedStatement stmtMaster = connection.prepareStatement(masterTableSelSql,
+		PreparedStatement stmtLog = connection.prepareStatement(snapshotLogJoinSql,
 				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		// Extra row to check for backlog without additional round trip
+		stmtLog.setFetchSize(batchSize + 1);
 		PreparedStatement stmtDeleteLog = connection.prepareStatement(snapshotLogDelSql);
-		final List<RowId> logRows2Delete = new ArrayList<>();
 		final List<SourceRecord> result = new ArrayList<>();
-		// Read materialized view log and get PK values
-		ResultSet rsLog = stmtLog.executeQuery();
+		// Read materialized view log joined with master table
+		OracleResultSet rsLog = (OracleResultSet) stmtLog.executeQuery();
 		int recordCount = 0;
-		while (rsLog.next() && recordCount < batchSize) {
+		while (recordCount < batchSize && rsLog.next()) {
 			recordCount++;
 			final String opType = rsLog.getString("OPTYPE$$");
 			final boolean deleteOp = "d".equals(opType);
 			final Struct keyStruct = new Struct(keySchema);
 			final Struct valueStruct = new Struct(valueSchema);
-			processPkColumns(deleteOp, rsLog, keyStruct, valueStruct, stmtMaster);
-			// Add ROWID to list for delete after sending data to queue
-			logRows2Delete.add(rsLog.getRowId("ROWID"));
+			processPkColumns(rsLog, keyStruct, valueStruct);
+			// Add ROWID to batch for delete after sending data to queue
+			stmtDeleteLog.setRowId(1, rsLog.getRowId("ROWID"));
+			stmtDeleteLog.addBatch();
 			boolean success = true;
 			if (!deleteOp) {
-				// Get data from master table
-				OracleResultSet rsMaster = (OracleResultSet) stmtMaster.executeQuery();
-				// We're working with PK
-				if (rsMaster.next()) {
-					processAllColumns(rsMaster, null, valueStruct);
+				if (rsLog.getString(MASTER_ROWID) != null) {
+					processAllColumns(rsLog, null, valueStruct);
 				} else {
 					success = false;
 					LOGGER.error("Primary key = {} not found in {}.{}", nonExistentPk(rsLog), tableOwner, tableName);
-					LOGGER.error("\twhile executing{}\n\t\t", masterTableSelSql);
+					LOGGER.error("\twhile executing{}\n\t\t", snapshotLogJoinSql);
 				}
-				// Close unneeded ResultSet
-				rsMaster.close();
-				rsMaster = null;
 			}
 			// Ready to process message
 			if (success) {
@@ -232,22 +318,52 @@ public class OraTable extends OraTable4SourceConnector {
 				}
 			}
 		}
+		backlog = recordCount == batchSize && rsLog.next();
 		rsLog.close();
 		rsLog = null;
 		// Perform deletion
 		LOGGER.trace("Start of materialized view log cleaning.");
-		for (RowId rowId : logRows2Delete) {
-			stmtDeleteLog.setRowId(1, rowId);
-			stmtDeleteLog.executeUpdate();
+		if (recordCount > 0) {
+			stmtDeleteLog.executeBatch();
 		}
 		LOGGER.trace("End of materialized view log cleaning.");
 		stmtLog.close(); stmtLog = null;
-		stmtMaster.close(); stmtMaster = null;
 		stmtDeleteLog.close(); stmtDeleteLog = null;
 		LOGGER.trace("END: pollMVLog()");
 		return result;
 	}
 
+	/**
+	 * 
+	 * @return true when last pollMVLog() stopped at batch size and log contains more rows
+	 */
+	public boolean hasBacklog() {
+		return backlog;
+	}
+
+	/**
+	 * Cheap estimate of materialized view log backlog, count is capped by limit
+	 * to avoid full scan of large log
+	 * 
+	 * @param connection
+	 * @param limit maximum number of rows to count
+	 * @return number of rows in materialized view log, but not more than limit
+	 * @throws SQLException
+	 */
+	public int sampleBacklog(final Connection connection, final int limit) throws SQLException {
+		int rowCount = 0;
+		try (PreparedStatement statement = connection.prepareStatement(snapshotLogCountSql)) {
+			statement.setInt(1, limit);
+			try (ResultSet rs = statement.executeQuery()) {
+				if (rs.next()) {
+					rowCount = rs.getInt(1);
+				}
+			}
+		}
+		LOGGER.trace("Backlog of {} = {} rows.", this, rowCount);
+		return rowCount;
+	}
+
 
 	@Override
 	public String toString() {
@@ -267,12 +383,9 @@ public class OraTable extends OraTable4SourceConnector {
 		return sb.toString();
 	}
 
-	private void processPkColumns(final boolean deleteOp, ResultSet rsLog,
-			final Struct keyStruct, final Struct valueStruct, PreparedStatement stmtMaster) throws SQLException {
-		if (this.logWithPrimaryKey && this.logWithRowIds && !deleteOp)
-			stmtMaster.setRowId(1, rsLog.getRowId(OraColumn.ROWID_KEY));
+	private void processPkColumns(ResultSet rsLog,
+			final Struct keyStruct, final Struct valueStruct) throws SQLException {
 		Iterator<Entry<String, OraColumn>> iterator = pkColumns.entrySet().iterator();
-		int bindNo = 1;
 		while (iterator.hasNext()) {
 			final OraColumn oraColumn = iterator.next().getValue();
 			final String columnName = oraColumn.getColumnName();
@@ -280,85 +393,55 @@ public class OraTable extends OraTable4SourceConnector {
 			case Types.ROWID:
 				if (!this.logWithPrimaryKey)
 					keyStruct.put(columnName, rsLog.getRowId(columnName).toString());
-				if (!deleteOp && this.logWithRowIds) {
-					stmtMaster.setRowId(bindNo, rsLog.getRowId(columnName));
-				}
 				break;
 			case Types.DATE:
 				//TODO Timezone support!!!!
 				keyStruct.put(columnName, rsLog.getDate(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setDate(bindNo, rsLog.getDate(columnName));
 				break;
 			case Types.TINYINT:
 				keyStruct.put(columnName, rsLog.getByte(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setByte(bindNo, rsLog.getByte(columnName));
 				break;
 			case Types.SMALLINT:
 				keyStruct.put(columnName, rsLog.getShort(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setShort(bindNo, rsLog.getShort(columnName));
 				break;
 			case Types.INTEGER:
 				keyStruct.put(columnName, rsLog.getInt(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setInt(bindNo, rsLog.getInt(columnName));
 				break;
 			case Types.BIGINT:
 				keyStruct.put(columnName, rsLog.getLong(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setLong(bindNo, rsLog.getLong(columnName));
 				break;
 			case Types.FLOAT:
 				keyStruct.put(columnName, rsLog.getFloat(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setFloat(bindNo, rsLog.getFloat(columnName));
 				break;
 			case Types.DOUBLE:
 				keyStruct.put(columnName, rsLog.getDouble(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setDouble(bindNo, rsLog.getDouble(columnName));
 				break;
 			case Types.DECIMAL:
 				BigDecimal bdValue = rsLog.getBigDecimal(columnName).setScale(oraColumn.getDataScale());
 				keyStruct.put(columnName, bdValue);
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setBigDecimal(bindNo, bdValue);
 				break;
 			case Types.BINARY:
 				keyStruct.put(columnName, rsLog.getBytes(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setBytes(bindNo, rsLog.getBytes(columnName));
 				break;
 			case Types.CHAR:
 			case Types.VARCHAR:
 				keyStruct.put(columnName, rsLog.getString(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setString(bindNo, rsLog.getString(columnName));
 				break;
 			case Types.NCHAR:
 			case Types.NVARCHAR:
 				keyStruct.put(columnName, rsLog.getNString(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setNString(bindNo, rsLog.getNString(columnName));
 				break;
 			case Types.TIMESTAMP:
 				//TODO Timezone support!!!!
 				keyStruct.put(columnName, rsLog.getTimestamp(columnName));
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setTimestamp(bindNo, rsLog.getTimestamp(columnName));
 				break;
 			default:
 				// Types.BLOB, Types.CLOB, Types.NCLOB - not possible!!! 
 				keyStruct.put(columnName, columnName);
-				if (!deleteOp && !this.logWithRowIds)
-					stmtMaster.setString(bindNo, columnName);
 				break;
 			}
 			if (schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM)
 				valueStruct.put(columnName, keyStruct.get(columnName));
-			bindNo++;
 		}
 	}
 
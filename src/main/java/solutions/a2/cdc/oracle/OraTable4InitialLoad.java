@@ -1,28 +1,25 @@
 package solutions.a2.cdc.oracle;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.Reader;
-import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.sql.Blob;
-import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.RowId;
 import java.sql.SQLException;
-import java.sql.SQLXML;
 import java.sql.Statement;
-import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.connect.data.Struct;
@@ -42,43 +39,43 @@ import net.openhft.chronicle.wire.WireIn;
 import net.openhft.chronicle.wire.WireOut;
 import net.openhft.chronicle.wire.WriteMarshallable;
 import oracle.jdbc.OracleResultSet;
-import oracle.sql.BINARY_DOUBLE;
-import oracle.sql.BINARY_FLOAT;
-import oracle.sql.NUMBER;
-import oracle.sql.TIMESTAMP;
-import oracle.sql.TIMESTAMPLTZ;
-import oracle.sql.TIMESTAMPTZ;
-import solutions.a2.cdc.oracle.data.OraTimestamp;
 import solutions.a2.cdc.oracle.jmx.OraCdcInitialLoad;
 import solutions.a2.cdc.oracle.utils.ExceptionUtils;
-import solutions.a2.cdc.oracle.utils.Lz4Util;
 
 /**
  * 
  * @author averemee
  *
  */
-public class OraTable4InitialLoad extends OraTable4SourceConnector implements ReadMarshallable, WriteMarshallable {
+public class OraTable4InitialLoad extends OraTable4SourceConnector implements ReadMarshallable {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OraTable4InitialLoad.class);
-	private static final byte NULL_LENGTH_BYTE = (byte) -1;
-	private static final short NULL_LENGTH_SHORT = (short) -1;
-	private static final int NULL_LENGTH_INT = (int) -1;
 	private static final int LOB_CHUNK_SIZE = 16384;
 	private static final int ORA_942 = 942;
+	private static final int CHUNK_PROGRESS_ROWS = 10000;
+	private static final long WINDOW_OFFER_MS = 500;
 
 	private final String pdbName;
 	private final Path queueDirectory;
 	private final OraCdcInitialLoad metrics;
 	private final String sqlSelect;
+	private final OraInitialLoadColumnCodec[] codecs;
 	private final String tableFqn;
 	private final String kafkaTopic;
-	private ChronicleQueue tableRows;
-	private ExcerptAppender appender;
-	private ExcerptTailer tailer;
-	private int queueSize;
+	private final List<RowIdChunk> chunks;
+	private final AtomicInteger pendingChunks;
+	private final AtomicInteger queueSize;
+	private final AtomicBoolean selectStarted;
+	private final int stagingWindow;
+	private volatile boolean selectFailed;
+	private volatile boolean stopped = false;
+	private int currentChunk;
+	private String resumeRowId;
+	private boolean concurrentSnapshot = false;
+	private String checkpointRowId;
 	private int tailerOffset;
-	private OracleResultSet rsMaster;
+	private long segmentBlocks = -1;
+	private long segmentBytes = 0;
 
 	//TODO
 	//TODO
@@ -95,11 +92,13 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 	 * @param oraTable
 	 * @param metrics
 	 * @param rdbmsInfo
+	 * @param stagingWindow max number of rows staged in memory for each ROWID range, 0 - stage whole table in Chronicle Queue
 	 * @throws IOException
 	 */
 	public OraTable4InitialLoad(final Path rootDir, final OraTable4LogMiner oraTable,
 				final OraCdcInitialLoad metrics,
-				final OraRdbmsInfo rdbmsInfo) throws IOException {
+				final OraRdbmsInfo rdbmsInfo,
+				final int stagingWindow) throws IOException {
 		super(oraTable.getTableOwner(), oraTable.getTableName(), oraTable.getSchemaType());
 		LOGGER.trace("BEGIN: create OraCdcTableBuffer");
 		this.pdbName = oraTable.getPdbName();
@@ -134,239 +133,33 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 		sb.append(tableOwner);
 		sb.append(".");
 		sb.append(tableName);
-		if (this.isRowLevelScn()) {
-			sb.append(" where ORA_ROWSCN < ?");
-		}
 		sqlSelect = sb.toString();
 		LOGGER.debug("{} will be used for initial data load.", sqlSelect);
+		// Select list order is allColumns order, columns are accessed by position
+		codecs = OraInitialLoadColumnCodec.compile(tableFqn, allColumns, pkColumns,
+				keySchema, valueSchema, schemaType);
 
 		// Create ChronicleQueue
 		queueDirectory = Files.createTempDirectory(rootDir, StringUtils.replace(tableFqn, ":", "-") + ".");
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug("Created queue directory {} .", queueDirectory.toString());
 		}
-		try {
-			tableRows = ChronicleQueue
-				.singleBuilder(queueDirectory)
-				.build();
-			tailer = this.tableRows.createTailer();
-			appender = this.tableRows.acquireAppender();
-			queueSize = 0;
-			tailerOffset = 0;
-		} catch (Exception e) {
-			LOGGER.error("Unable to create Chronicle Queue!");
-			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
-			throw new IOException(e);
-		}
+		chunks = new ArrayList<>();
+		chunks.add(new RowIdChunk(0, null, null));
+		pendingChunks = new AtomicInteger(1);
+		queueSize = new AtomicInteger(0);
+		selectStarted = new AtomicBoolean(false);
+		this.stagingWindow = stagingWindow;
+		selectFailed = false;
+		currentChunk = 0;
+		tailerOffset = 0;
 		LOGGER.trace("END: create OraCdcTableBuffer");
 	}
 
-	@Override
-	public void writeMarshallable(WireOut wire) {
-		Bytes<?> bytes = wire.bytes();
+	private void writeRow(final Bytes<?> bytes, final OracleResultSet rsMaster) {
 		try {
-			for (int i = 0; i < allColumns.size(); i++) {
-				final OraColumn oraColumn = allColumns.get(i);
-				final String columnName = oraColumn.getColumnName();
-				switch (oraColumn.getJdbcType()) {
-					case Types.DATE:
-					case Types.TIMESTAMP:
-						final TIMESTAMP timeStampValue = rsMaster.getTIMESTAMP(columnName);
-						if (rsMaster.wasNull()) {
-							bytes.writeByte(NULL_LENGTH_BYTE);
-						} else {
-							final byte[] baData = timeStampValue.getBytes();
-							bytes.writeByte((byte) baData.length);
-							bytes.write(baData);
-						}
-						break;
-					case Types.TIMESTAMP_WITH_TIMEZONE:
-						byte[] baTsTzData = null;
-						if (oraColumn.isLocalTimeZone()) {
-							final TIMESTAMPLTZ ltz = rsMaster.getTIMESTAMPLTZ(columnName);
-							if (ltz != null) {
-								baTsTzData = ltz.getBytes();
-							}
-						} else {
-							final TIMESTAMPTZ tz = rsMaster.getTIMESTAMPTZ(columnName);
-							if (tz != null) {
-								baTsTzData = tz.getBytes();
-							}
-						}
-						if (baTsTzData == null) {
-							bytes.writeByte(NULL_LENGTH_BYTE);
-						} else {
-							bytes.writeByte((byte) baTsTzData.length);
-							bytes.write(baTsTzData);
-						}
-						break;
-					case Types.TINYINT:
-					case Types.SMALLINT:
-					case Types.INTEGER:
-					case Types.BIGINT:
-					case Types.DECIMAL:
-					case Types.NUMERIC:
-						final NUMBER numberValue = rsMaster.getNUMBER(columnName);
-						if (rsMaster.wasNull()) {
-							bytes.writeByte(NULL_LENGTH_BYTE);
-						} else {
-							final byte[] baData = numberValue.getBytes();
-							bytes.writeByte((byte) baData.length);
-							bytes.write(baData);
-						}
-						break;
-					case Types.FLOAT:
-						byte[] baFloat = null;
-						if (oraColumn.isBinaryFloatDouble()) {
-							final float floatValue = rsMaster.getFloat(columnName);
-							if (!rsMaster.wasNull()) {
-								baFloat = (new BINARY_FLOAT(floatValue)).getBytes();
-							}
-						} else {
-							final NUMBER floatValue = rsMaster.getNUMBER(columnName);
-							if (!rsMaster.wasNull()) {
-								baFloat = floatValue.getBytes();
-							}
-						}
-						if (baFloat == null) {
-							bytes.writeByte(NULL_LENGTH_BYTE);
-						} else {
-							bytes.writeByte((byte) baFloat.length);
-							bytes.write(baFloat);
-						}
-						break;
-					case Types.DOUBLE:
-						byte[] baDouble = null;
-						if (oraColumn.isBinaryFloatDouble()) {
-							final double doubleValue = rsMaster.getDouble(columnName);
-							if (!rsMaster.wasNull()) {
-								baDouble = (new BINARY_DOUBLE(doubleValue)).getBytes();
-							}
-						} else {
-							final NUMBER doubleValue = rsMaster.getNUMBER(columnName);
-							if (!rsMaster.wasNull()) {
-								baDouble = doubleValue.getBytes();
-							}
-						}
-						if (baDouble == null) {
-							bytes.writeByte(NULL_LENGTH_BYTE);
-						} else {
-							bytes.writeByte((byte) baDouble.length);
-							bytes.write(baDouble);
-						}
-						break;
-					case Types.BINARY:
-						final byte[] rawValue = rsMaster.getBytes(columnName);
-						if (rawValue == null) {
-							bytes.writeShort(NULL_LENGTH_SHORT);
-						} else {
-							bytes.writeShort((short) rawValue.length);
-							bytes.write(rawValue);
-						}
-						break;
-					case Types.CHAR:
-					case Types.VARCHAR:
-						bytes.writeUtf8(rsMaster.getString(columnName));
-						break;
-					case Types.NCHAR:
-					case Types.NVARCHAR:
-						bytes.writeUtf8(rsMaster.getNString(columnName));
-						break;
-					case Types.ROWID:
-						final RowId rowIdValue = rsMaster.getRowId(columnName);
-						bytes.write8bit(rowIdValue == null ? ((String) null): rowIdValue.toString());
-						break;
-					case Types.CLOB:
-					case Types.NCLOB:
-						final Clob clobValue;
-						if (oraColumn.getJdbcType() == Types.CLOB) {
-							clobValue = rsMaster.getClob(columnName);
-						} else {
-							//NCLOB
-							clobValue = rsMaster.getNClob(columnName);
-						}
-						if (rsMaster.wasNull() || clobValue.length() < 1) {
-							bytes.writeInt(NULL_LENGTH_INT);
-						} else {
-							if (Integer.MAX_VALUE < clobValue.length()) {
-								LOGGER.error(
-										"Unable to process {} column {}({}) with length ({}) greater than Integer.MAX_VALUE ({})",
-										oraColumn.getJdbcType() == Types.CLOB ? "CLOB" : "NCLOB",
-										this.fqn(), columnName, clobValue.length(), Integer.MAX_VALUE);
-								throw new SQLException(
-										"Unable to process " +
-										(oraColumn.getJdbcType() == Types.CLOB ? "CLOB" : "NCLOB") +
-										"column with length " + clobValue.length() + " chars!");
-							}
-							try (Reader reader = clobValue.getCharacterStream()) {
-								final StringBuilder sbClob = new StringBuilder((int) clobValue.length());
-								int charsRead;
-								final char[] data = new char[LOB_CHUNK_SIZE];
-								while ((charsRead = reader.read(data, 0, data.length)) != -1) {
-									sbClob.append(data, 0, charsRead);
-								}
-								final byte[] clobCompressed = Lz4Util.compress(sbClob.toString());
-								bytes.writeInt(clobCompressed.length);
-								bytes.write(clobCompressed);
-							} catch (IOException ioe) {
-								LOGGER.error("IO Error while processing {} column {}({})",
-										oraColumn.getJdbcType() == Types.CLOB ? "CLOB" : "NCLOB",
-										this.fqn(), columnName);
-								LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
-								throw new ConnectException(ioe);
-							}
-						}
-						break;
-					case Types.BLOB:
-						final Blob blobValue = rsMaster.getBlob(columnName);
-						if (rsMaster.wasNull() || blobValue.length() < 1) {
-							bytes.writeInt(NULL_LENGTH_INT);
-						} else {
-							if (Integer.MAX_VALUE < blobValue.length()) {
-								LOGGER.error(
-										"Unable to process BLOB column {}({}) with length ({}) greater than Integer.MAX_VALUE ({})",
-										this.fqn(), columnName, blobValue.length(), Integer.MAX_VALUE);
-								throw new SQLException(
-										"Unable to process BLOB column with length " + blobValue.length() + " bytes!");
-							}
-							try (InputStream is = blobValue.getBinaryStream();
-									ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-								final byte[] data = new byte[LOB_CHUNK_SIZE];
-								int bytesRead;
-								while ((bytesRead = is.read(data, 0, data.length)) != -1) {
-									baos.write(data, 0, bytesRead);
-								}
-								bytes.writeInt(baos.size());
-								bytes.write(baos.toByteArray());
-							} catch (IOException ioe) {
-								LOGGER.error("IO Error while processing BLOB column {}({})", 
-										this.fqn(), columnName);
-								LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
-								throw new ConnectException(ioe);
-							}
-						}
-						break;
-					case Types.SQLXML:
-						final SQLXML xmlValue = rsMaster.getSQLXML(columnName);
-						if (rsMaster.wasNull()) {
-							bytes.writeInt(NULL_LENGTH_INT);
-						} else {
-							//TODO
-							//TODO or better to use xmlValue.getCharacterStream() ?
-							//TODO
-							final String xmlAsString = xmlValue.getString();
-							if (xmlAsString.length() < 1) {
-								bytes.writeInt(NULL_LENGTH_INT);
-							} else {
-								final byte[] xmlCompressed = Lz4Util.compress(xmlAsString);
-								bytes.writeInt(xmlCompressed.length);
-								bytes.write(xmlCompressed);
-							}
-						}
-						break;
-					default:
-						throw new SQLException("Unsupported JDBC Type " + oraColumn.getJdbcType());
-				}
+			for (final OraInitialLoadColumnCodec codec : codecs) {
+				codec.write(bytes, rsMaster);
 			}
 		} catch (SQLException sqle) {
 			LOGGER.error(ExceptionUtils.getExceptionStackTrace(sqle));
@@ -376,150 +169,19 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 
 	@Override
 	public void readMarshallable(WireIn wire) throws IORuntimeException {
-		Bytes<?> raw = wire.bytes();
+		readRow(wire.bytes());
+	}
+
+	private void readRow(final Bytes<?> raw) {
 		try {
-			for (int i = 0; i < allColumns.size(); i++) {
-				final OraColumn oraColumn = allColumns.get(i);
-				final String columnName = oraColumn.getColumnName();
-				Object columnValue = null;
-				byte sizeByte;
-				switch (oraColumn.getJdbcType()) {
-					case Types.DATE:
-					case Types.TIMESTAMP:
-						sizeByte = raw.readByte();
-						if (sizeByte != NULL_LENGTH_BYTE) {
-							final byte[] ba = new byte[sizeByte];
-							raw.read(ba);
-							columnValue = (new TIMESTAMP(ba)).timestampValue();
-						}
-						break;
-					case Types.TIMESTAMP_WITH_TIMEZONE:
-						sizeByte = raw.readByte();
-						if (sizeByte != NULL_LENGTH_BYTE) {
-							final byte[] ba = new byte[sizeByte];
-							raw.read(ba);
-							if (oraColumn.isLocalTimeZone()) {
-								TIMESTAMPLTZ ltz = new TIMESTAMPLTZ(ba);
-								columnValue = OraTimestamp.ISO_8601_FMT.format(ltz.offsetDateTimeValue(connTzData));
-							} else {
-								TIMESTAMPTZ tz = new TIMESTAMPTZ(ba);
-								columnValue = OraTimestamp.ISO_8601_FMT.format(tz.offsetDateTimeValue(connTzData));
-							}
-						}
-						break;
-					case Types.TINYINT:
-						final NUMBER tinyIntNumber = readNUMBER(raw);
-						if (tinyIntNumber != null) {
-							columnValue = tinyIntNumber.byteValue();
-						}
-						break;
-					case Types.SMALLINT:
-						final NUMBER smallIntNumber = readNUMBER(raw);
-						if (smallIntNumber != null) {
-							columnValue = smallIntNumber.shortValue();
-						}
-						break;
-					case Types.INTEGER:
-						final NUMBER integerNumber = readNUMBER(raw);
-						if (integerNumber != null) {
-							columnValue = integerNumber.intValue();
-						}
-						break;
-					case Types.BIGINT:
-						final NUMBER bigIntNumber = readNUMBER(raw);
-						if (bigIntNumber != null) {
-							columnValue = bigIntNumber.longValue();
-						}
-						break;
-					case Types.DECIMAL:
-						final NUMBER decimalNumber = readNUMBER(raw);
-						if (decimalNumber != null) {
-							final BigDecimal bdColumnValue = decimalNumber.bigDecimalValue();
-							columnValue = bdColumnValue.setScale(oraColumn.getDataScale());
-						}
-						break;
-					case Types.NUMERIC:
-						sizeByte = raw.readByte();
-						if (sizeByte != NULL_LENGTH_BYTE) {
-							final byte[] ba = new byte[sizeByte];
-							raw.read(ba);
-							columnValue = ba;
-						}
-						break;
-					case Types.FLOAT:
-						if (oraColumn.isBinaryFloatDouble()) {
-							sizeByte = raw.readByte();
-							if (sizeByte != NULL_LENGTH_BYTE) {
-								final byte[] ba = new byte[sizeByte];
-								raw.read(ba);
-								final BINARY_FLOAT floatNumber = new BINARY_FLOAT(ba);
-								columnValue = floatNumber.floatValue();
-							}
-						} else {
-							final NUMBER floatNumber = readNUMBER(raw);
-							if (floatNumber != null) {
-								columnValue = floatNumber.floatValue();
-							}
-						}
-						break;
-					case Types.DOUBLE:
-						if (oraColumn.isBinaryFloatDouble()) {
-							sizeByte = raw.readByte();
-							if (sizeByte != NULL_LENGTH_BYTE) {
-								final byte[] ba = new byte[sizeByte];
-								raw.read(ba);
-								final BINARY_DOUBLE doubleNumber = new BINARY_DOUBLE(ba);
-								columnValue = doubleNumber.doubleValue();
-							}
-						} else {
-							final NUMBER doubleNumber = readNUMBER(raw);
-							if (doubleNumber != null) {
-								columnValue = doubleNumber.doubleValue();
-							}
-						}
-						break;
-					case Types.BINARY:
-						final short sizeShort = raw.readShort();
-						if (sizeShort != NULL_LENGTH_SHORT) {
-							final byte[] ba = new byte[sizeShort];
-							raw.read(ba);
-							columnValue = ba;
-						}
-						break;
-					case Types.CHAR:
-					case Types.VARCHAR:
-					case Types.NCHAR:
-					case Types.NVARCHAR:
-						columnValue = raw.readUtf8();
-						break;
-					case Types.ROWID:
-						columnValue = raw.read8bit();
-						break;
-					case Types.CLOB:
-					case Types.NCLOB:
-					case Types.BLOB:
-					case Types.SQLXML:
-						final int sizeInt = raw.readInt();
-						if (sizeInt != NULL_LENGTH_INT) {
-							final byte[] ba = new byte[sizeInt];
-							raw.read(ba);
-							columnValue = ba;
-						} else {
-							//For nullify BLOB/CLOB/NCLOB/XMLTYPE we need to pass zero length array
-							//NULL at Kafka side is for "not touch LOB"
-							columnValue = new byte[0];
-						}
-						break;
-					default:
-						throw new SQLException("Unsupported JDBC Type " +
-								oraColumn.getJdbcType() + " for column " + columnName);
-				}
-				if (keyStruct != null && pkColumns.containsKey(columnName)) {
+			for (final OraInitialLoadColumnCodec codec : codecs) {
+				final Object columnValue = codec.read(raw, connTzData);
+				if (keyStruct != null && codec.isKeyColumn()) {
 					try {
-						keyStruct.put(columnName, columnValue);
+						keyStruct.put(codec.getKeyField(), columnValue);
 					} catch (DataException de) {
 						LOGGER.error("Data exception while performing initial load for table {}, COLUMN={}, VALUE={}",
-								this.tableFqn, columnName, columnValue);
+								this.tableFqn, codec.getColumn().getColumnName(), columnValue);
 						LOGGER.error("Primary key column(s) for table {}:", this.tableFqn);
 						pkColumns.forEach((k, v) -> {
 							LOGGER.error("\t" + v.getColumnName());
@@ -531,10 +193,8 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 						throw new DataException(de);
 					}
 				}
-				// Don't process PK again in case of SCHEMA_TYPE_INT_KAFKA_STD
-				if ((schemaType == ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD && !pkColumns.containsKey(columnName)) ||
-						schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM) {
-					valueStruct.put(columnName, columnValue);
+				if (codec.isValueColumn()) {
+					valueStruct.put(codec.getValueField(), columnValue);
 				}
 			}
 		} catch (SQLException sqle) {
@@ -543,28 +203,181 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 		}
 	}
 
-	private NUMBER readNUMBER(Bytes<?> raw) {
-		final byte sizeByte = raw.readByte();
-		if (sizeByte != NULL_LENGTH_BYTE) {
-			final byte[] ba = new byte[sizeByte];
-			raw.read(ba);
-			return new NUMBER(ba);
-		} else {
-			return null;
-		}
-	}
-
 	@Override
 	public boolean usesSelfDescribingMessage() {
 		// TODO Auto-generated method stub
 		return ReadMarshallable.super.usesSelfDescribingMessage();
 	}
 
-	public void readTableData(final Long asOfScn, final CountDownLatch runLatch,
-			final BlockingQueue<OraTable4InitialLoad> tablesQueue,
+	/**
+	 * Reads allocated size of table, its partitions and LOB segments from DBA_SEGMENTS
+	 * 
+	 * @param oraConnections
+	 */
+	public void readSegmentSize(final OraConnectionObjects oraConnections) {
+		try (Connection connection = oraConnections.getConnection()) {
+			if (pdbName != null) {
+				Statement alterSession = connection.createStatement();
+				alterSession.execute("alter session set CONTAINER=" + pdbName);
+				alterSession.close();
+				alterSession = null;
+			}
+			PreparedStatement statement = connection.prepareStatement(OraDictSqlTexts.INITIAL_LOAD_SEGMENT_SIZE,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setString(1, tableOwner);
+			statement.setString(2, tableName);
+			statement.setString(3, tableOwner);
+			statement.setString(4, tableName);
+			ResultSet rs = statement.executeQuery();
+			if (rs.next()) {
+				segmentBlocks = rs.getLong("TABLE_BLOCKS");
+				segmentBytes = rs.getLong("TOTAL_BYTES");
+			}
+			rs.close();
+			rs = null;
+			statement.close();
+			statement = null;
+			if (pdbName != null) {
+				Statement alterSession = connection.createStatement();
+				alterSession.execute("alter session set CONTAINER=" + rdbmsInfo.getPdbName());
+				alterSession.close();
+				alterSession = null;
+			}
+			LOGGER.debug("Table {} allocated size: {} bytes, {} table blocks.",
+					tableFqn, segmentBytes, segmentBlocks);
+		} catch (SQLException sqle) {
+			LOGGER.warn("Unable to read segment size of table {}, table will be scheduled last!", tableFqn);
+			LOGGER.warn(ExceptionUtils.getExceptionStackTrace(sqle));
+			segmentBlocks = -1;
+			segmentBytes = 0;
+		}
+	}
+
+	/**
+	 * 
+	 * @return allocated size of table including partitions and LOB segments, 0 when unknown
+	 */
+	public long getSegmentBytes() {
+		return segmentBytes;
+	}
+
+	/**
+	 * 
+	 * @param segmentBlocks allocated blocks of table, -1 when unknown
+	 * @param chunkCount
+	 * @param minBlocks
+	 * @param maxBlocks
+	 * @return number of ROWID ranges for table, 1 when table is read by single select
+	 */
+	static int rangeCount(final long segmentBlocks, final int chunkCount, final long minBlocks, final long maxBlocks) {
+		int rangeCount = (segmentBlocks > -1 && segmentBlocks < minBlocks) ? 1 : chunkCount;
+		if (maxBlocks > 0 && segmentBlocks > maxBlocks) {
+			rangeCount = (int) Math.max(rangeCount, (segmentBlocks + maxBlocks - 1) / maxBlocks);
+		}
+		return rangeCount;
+	}
+
+	private long chunkBytes(final int chunkNo) {
+		final long bytesPerChunk = segmentBytes / chunks.size();
+		if (chunkNo == chunks.size() - 1) {
+			return segmentBytes - bytesPerChunk * (chunks.size() - 1);
+		} else {
+			return bytesPerChunk;
+		}
+	}
+
+	/**
+	 * Splits table into ROWID ranges using DBA_EXTENTS
+	 * 
+	 * @param chunkCount     requested number of chunks
+	 * @param minBlocks      tables with fewer allocated blocks are read by single select
+	 * @param oraConnections
+	 * @return number of chunks to read
+	 */
+	public int splitIntoChunks(final int chunkCount, final long minBlocks,
+			final OraConnectionObjects oraConnections) {
+		return splitIntoChunks(chunkCount, minBlocks, 0, oraConnections);
+	}
+
+	/**
+	 * Splits table into ROWID ranges using DBA_EXTENTS
+	 * 
+	 * @param chunkCount     requested number of chunks
+	 * @param minBlocks      tables with fewer allocated blocks are read by single select
+	 * @param maxBlocks      when greater than 0, table is split into as many chunks as needed
+	 *                       for chunk to be not larger than maxBlocks regardless of chunkCount and minBlocks
+	 * @param oraConnections
+	 * @return number of chunks to read
+	 */
+	public int splitIntoChunks(final int chunkCount, final long minBlocks, final long maxBlocks,
+			final OraConnectionObjects oraConnections) {
+		final int rangeCount = rangeCount(segmentBlocks, chunkCount, minBlocks, maxBlocks);
+		if (rangeCount < 2) {
+			return chunks.size();
+		}
+		final boolean bounded = maxBlocks > 0 && segmentBlocks > maxBlocks;
+		final List<RowIdChunk> rowIdChunks = new ArrayList<>();
+		try (Connection connection = oraConnections.getConnection()) {
+			if (pdbName != null) {
+				Statement alterSession = connection.createStatement();
+				alterSession.execute("alter session set CONTAINER=" + pdbName);
+				alterSession.close();
+				alterSession = null;
+			}
+			PreparedStatement statement = connection.prepareStatement(OraDictSqlTexts.INITIAL_LOAD_ROWID_RANGES,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setInt(1, rangeCount);
+			statement.setString(2, tableOwner);
+			statement.setString(3, tableName);
+			ResultSet rs = statement.executeQuery();
+			while (rs.next()) {
+				if (!bounded && rs.getLong("TOTAL_BLOCKS") < minBlocks) {
+					break;
+				}
+				rowIdChunks.add(new RowIdChunk(rowIdChunks.size(),
+						rs.getString("ROWID_START"), rs.getString("ROWID_END")));
+			}
+			rs.close();
+			rs = null;
+			statement.close();
+			statement = null;
+			if (pdbName != null) {
+				Statement alterSession = connection.createStatement();
+				alterSession.execute("alter session set CONTAINER=" + rdbmsInfo.getPdbName());
+				alterSession.close();
+				alterSession = null;
+			}
+		} catch (SQLException sqle) {
+			LOGGER.warn("Unable to split table {} into ROWID ranges, table will be read by single select!", tableFqn);
+			LOGGER.warn(ExceptionUtils.getExceptionStackTrace(sqle));
+			rowIdChunks.clear();
+		}
+		if (rowIdChunks.size() > 1) {
+			chunks.clear();
+			chunks.addAll(rowIdChunks);
+			pendingChunks.set(chunks.size());
+			LOGGER.info("Table {} split into {} ROWID ranges for initial load.", tableFqn, chunks.size());
+		}
+		return chunks.size();
+	}
+
+	public void readTableData(final int chunkNo, final Long asOfScn, final CountDownLatch runLatch,
+			final BlockingQueue<OraTable4InitialLoad> tablesQueue, final int fetchSize,
 			final OraConnectionObjects oraConnections) {
-		metrics.startSelectTable(tableFqn);
-		boolean success = false;
+		if (selectStarted.compareAndSet(false, true)) {
+			metrics.startSelectTable(tableFqn);
+			if (stagingWindow > 0 && !concurrentSnapshot) {
+				// Rows are sent to Kafka while select is running
+				try {
+					tablesQueue.put(this);
+				} catch (InterruptedException ie) {
+					LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
+					throw new ConnectException(ie);
+				}
+			}
+		}
+		final RowIdChunk chunk = chunks.get(chunkNo);
+		metrics.startSelectChunk(tableFqn, chunkNo, chunks.size());
 		try (Connection connection = oraConnections.getConnection()) {
 			connTzData = connection;
 			if (pdbName != null) {
@@ -573,28 +386,73 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 				alterSession.close();
 				alterSession = null;
 			}
-			PreparedStatement statement = connection.prepareStatement(sqlSelect,
+			chunk.open();
+			final StringBuilder sb = new StringBuilder(sqlSelect.length() + 128);
+			sb.append(sqlSelect);
+			int paramNo = 1;
+			if (concurrentSnapshot) {
+				sb.append(" as of scn ?");
+			}
+			boolean whereAdded = false;
+			if (chunk.rowIdStart != null) {
+				sb.append(" where ROWID between CHARTOROWID(?) and CHARTOROWID(?)");
+				whereAdded = true;
+			}
+			if (resumeRowId != null) {
+				// Rows with lower ROWID are already sent before restart
+				sb.append(whereAdded ? " and " : " where ");
+				sb.append("ROWID >= CHARTOROWID(?)");
+				whereAdded = true;
+			}
+			if (this.isRowLevelScn() && !concurrentSnapshot) {
+				sb.append(whereAdded ? " and " : " where ");
+				sb.append("ORA_ROWSCN < ?");
+			}
+			PreparedStatement statement = connection.prepareStatement(sb.toString(),
 					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-			if (this.isRowLevelScn()) {
-				statement.setLong(1, asOfScn);
-				LOGGER.info("Table {} initial load (read phase) up to SCN {} started.", tableFqn, asOfScn);
+			if (fetchSize > 0) {
+				statement.setFetchSize(fetchSize);
+			}
+			if (concurrentSnapshot) {
+				statement.setLong(paramNo++, chunk.snapshotScn);
+			}
+			if (chunk.rowIdStart != null) {
+				statement.setString(paramNo++, chunk.rowIdStart);
+				statement.setString(paramNo++, chunk.rowIdEnd);
+			}
+			if (resumeRowId != null) {
+				statement.setString(paramNo++, resumeRowId);
+			}
+			if (concurrentSnapshot) {
+				LOGGER.info("Table {} initial load (read phase{}) as of SCN {} started.",
+						tableFqn, chunkInfo(chunkNo), chunk.snapshotScn);
+			} else if (this.isRowLevelScn()) {
+				statement.setLong(paramNo++, asOfScn);
+				LOGGER.info("Table {} initial load (read phase{}) up to SCN {} started.",
+						tableFqn, chunkInfo(chunkNo), asOfScn);
 			} else {
-				LOGGER.info("Table {} (DEPENDENCY='DISABLED') initial load (read phase) started.", tableFqn);
+				LOGGER.info("Table {} (DEPENDENCY='DISABLED') initial load (read phase{}) started.",
+						tableFqn, chunkInfo(chunkNo));
 			}
 			final long startTime = System.nanoTime();
-			rsMaster = (OracleResultSet) statement.executeQuery();
-			while (rsMaster.next()) {
-				appender.writeDocument(this);
-				queueSize++;
+			chunk.rsMaster = (OracleResultSet) statement.executeQuery();
+			while (chunk.rsMaster.next()) {
+				chunk.write();
+				chunk.rowCount++;
+				if (chunk.rowCount % CHUNK_PROGRESS_ROWS == 0) {
+					metrics.selectChunkProgress(tableFqn, chunkNo, chunk.rowCount);
+				}
 			}
-			rsMaster.close();
-			rsMaster = null;
+			chunk.rsMaster.close();
+			chunk.rsMaster = null;
 			statement.close();
 			statement = null;
-			metrics.finishSelectTable(tableFqn,
-					queueSize, queueSize * this.allColumns.size(), (System.nanoTime() - startTime));
-			success = true;
-			LOGGER.info("Table {} initial load (read phase) completed. {} rows read.", tableFqn, queueSize);
+			chunk.selectNanos = System.nanoTime() - startTime;
+			queueSize.addAndGet(chunk.rowCount);
+			chunk.completed = true;
+			metrics.finishSelectChunk(tableFqn, chunkNo, chunk.rowCount, chunkBytes(chunkNo));
+			LOGGER.info("Table {} initial load (read phase{}) completed. {} rows read.",
+					tableFqn, chunkInfo(chunkNo), chunk.rowCount);
 			if (pdbName != null) {
 				Statement alterSession = connection.createStatement();
 				alterSession.execute("alter session set CONTAINER=" + rdbmsInfo.getPdbName());
@@ -602,34 +460,148 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 				alterSession = null;
 			}
 		} catch (SQLException sqle) {
+			metrics.finishSelectChunk(tableFqn, chunkNo, chunk.rowCount, chunkBytes(chunkNo));
 			if (sqle.getErrorCode() == ORA_942) {
+				selectFailed = true;
+				chunk.completed = true;
 				LOGGER.error("ORA-942!\nPlease grant select on table {} for user running connector!", tableFqn);
 			} else {
-				LOGGER.error("Error while performing initial load of {}!", tableFqn);
+				LOGGER.error("Error while performing initial load of {}{}!", tableFqn, chunkInfo(chunkNo));
 				LOGGER.error(ExceptionUtils.getExceptionStackTrace(sqle));
-				throw new ConnectException(sqle);
+				chunk.failure = sqle;
 			}
-		}
-		if (success) {
-			try {
-				tablesQueue.put(this);
-			} catch (InterruptedException ie) {
+		} catch (IOException ioe) {
+			LOGGER.error("Unable to create Chronicle Queue!");
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
+			chunk.failure = ioe;
+		} catch (InterruptedException ie) {
+			if (stopped) {
+				LOGGER.info("Initial load of {}{} stopped.", tableFqn, chunkInfo(chunkNo));
+			} else {
+				LOGGER.error("Interrupted while waiting for free space in staging window of {}!", tableFqn);
 				LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
-				throw new ConnectException(ie);
 			}
+			chunk.failure = ie;
+		} catch (RuntimeException re) {
+			LOGGER.error("Error while performing initial load of {}{}!", tableFqn, chunkInfo(chunkNo));
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(re));
+			chunk.failure = re;
+		}
+		// Method runs in thread pool, failure of range is rethrown to the task by getSourceRecord()
+		chunkFinished(runLatch, tablesQueue);
+	}
+
+	/**
+	 * Marks ROWID range as failed without reading it, e.g. when snapshot SCN for range
+	 * cannot be obtained. Failure is rethrown to the task by getSourceRecord()
+	 * 
+	 * @param chunkNo
+	 * @param failure
+	 * @param runLatch
+	 * @param tablesQueue
+	 */
+	public void failChunk(final int chunkNo, final Exception failure, final CountDownLatch runLatch,
+			final BlockingQueue<OraTable4InitialLoad> tablesQueue) {
+		if (selectStarted.compareAndSet(false, true)) {
+			metrics.startSelectTable(tableFqn);
+		}
+		LOGGER.error("Initial load of {}{} failed before read phase!", tableFqn, chunkInfo(chunkNo));
+		chunks.get(chunkNo).failure = failure;
+		chunkFinished(runLatch, tablesQueue);
+	}
+
+	private void chunkFinished(final CountDownLatch runLatch, final BlockingQueue<OraTable4InitialLoad> tablesQueue) {
+		if (pendingChunks.decrementAndGet() == 0) {
+			// Last chunk of table read
+			if (!selectFailed) {
+				long selectNanos = 0;
+				for (final RowIdChunk readChunk : chunks) {
+					selectNanos += readChunk.selectNanos;
+				}
+				metrics.finishSelectTable(tableFqn,
+						queueSize.get(), queueSize.get() * this.allColumns.size(), selectNanos);
+				if (chunks.size() > 1) {
+					LOGGER.info("Table {} initial load (read phase) completed. {} rows read using {} ROWID ranges.",
+							tableFqn, queueSize.get(), chunks.size());
+				}
+				if (stagingWindow == 0 && !concurrentSnapshot) {
+					try {
+						tablesQueue.put(this);
+					} catch (InterruptedException ie) {
+						LOGGER.error(ExceptionUtils.getExceptionStackTrace(ie));
+						throw new ConnectException(ie);
+					}
+				}
+			} else {
+				metrics.finishSelectTable(tableFqn, 0, 0, 0);
+			}
+			runLatch.countDown();
+		}
+	}
+
+	private String chunkInfo(final int chunkNo) {
+		if (chunks.size() > 1) {
+			return ", ROWID range " + (chunkNo + 1) + " of " + chunks.size();
+		} else {
+			return "";
 		}
-		runLatch.countDown();
 	}
 
-	public SourceRecord getSourceRecord() {
+	/**
+	 * 
+	 * @param checkpoint initial load progress of task, added to offset of each record
+	 * @return next record or null if no rows available
+	 * @throws ConnectException when reading of ROWID range from database failed
+	 */
+	public SourceRecord getSourceRecord(final Map<String, Object> checkpoint) {
 		final long startNanos = System.nanoTime();
 		keyStruct = new Struct(keySchema);
 		valueStruct = new Struct(valueSchema);
-		final boolean result = tailer.readDocument(this);
-		tailerOffset++;
+		boolean result = false;
+		while (currentChunk < chunks.size()) {
+			final RowIdChunk chunk = chunks.get(currentChunk);
+			if (chunk.failure != null) {
+				throw new ConnectException("Initial load of table " + tableFqn + chunkInfo(currentChunk) + " failed!",
+						chunk.failure);
+			}
+			if (chunk.rowIdStart != null &&
+					(checkpointRowId == null || compareRowIds(chunk.rowIdStart, checkpointRowId) > 0)) {
+				// All rows with ROWID lower than start of current range are sent
+				checkpointRowId = chunk.rowIdStart;
+			}
+			if (chunk.read()) {
+				result = true;
+				break;
+			} else if (chunk.completed) {
+				// Re-check, the last rows may have been written before completed flag is set
+				if (chunk.read()) {
+					result = true;
+					break;
+				}
+				currentChunk++;
+				if (concurrentSnapshot) {
+					// Next range has own snapshot SCN
+					break;
+				}
+			} else {
+				// Streaming mode, select is still running
+				break;
+			}
+		}
 		if (result) {
-			final Map<String, Object> offset = new HashMap<>();
-			offset.put("ROWNUM", tailerOffset);
+			tailerOffset++;
+			final Map<String, Object> offset;
+			if (concurrentSnapshot) {
+				// Offset prepared by task for all rows of range
+				offset = checkpoint;
+			} else {
+				offset = new HashMap<>(checkpoint);
+				offset.put("ROWNUM", tailerOffset);
+				offset.put("I:TABLE", tableFqn);
+				if (checkpointRowId != null) {
+					offset.put("I:ROWID", checkpointRowId);
+				}
+			}
 			SourceRecord sourceRecord = null;
 			if (schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM) {
 				final long ts = System.currentTimeMillis();
@@ -677,10 +649,9 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 
 	public void close() {
 		LOGGER.trace("Closing Cronicle Queue and deleting files.");
-		if (tableRows != null) {
-			tableRows.close();
+		for (final RowIdChunk chunk : chunks) {
+			chunk.close();
 		}
-		tableRows = null;
 		try {
 			Files.walk(queueDirectory)
 				.sorted(Comparator.reverseOrder())
@@ -692,8 +663,118 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 		}
 	}
 
+	/**
+	 * Stops reading of table: loaders waiting for free space in staging window or
+	 * reading rows from database leave the range with failure, rows in staging windows
+	 * are discarded
+	 */
+	public void stop() {
+		stopped = true;
+		for (final RowIdChunk chunk : chunks) {
+			final BlockingQueue<byte[]> window = chunk.window;
+			if (window != null) {
+				window.clear();
+			}
+		}
+	}
+
+	/**
+	 * Sets ROWID from which initial load of table is resumed after restart
+	 * 
+	 * @param rowId all rows with lower ROWID's are already sent
+	 */
+	public void setResumeRowId(final String rowId) {
+		this.resumeRowId = rowId;
+		this.checkpointRowId = rowId;
+		LOGGER.info("Initial load of table {} will be resumed from ROWID {}.", tableFqn, rowId);
+	}
+
+	/**
+	 * Switches table to concurrent snapshot mode: each ROWID range is read using
+	 * flashback query as of own SCN, set with {@link #setSnapshotScn(int, long)}
+	 * before reading, instead of ORA_ROWSCN predicate. Rows are returned range by range
+	 * and table is queued for sending by the caller
+	 */
+	public void setConcurrentSnapshot() {
+		this.concurrentSnapshot = true;
+	}
+
+	public void setSnapshotScn(final int chunkNo, final long snapshotScn) {
+		chunks.get(chunkNo).snapshotScn = snapshotScn;
+	}
+
+	/**
+	 * 
+	 * @return snapshot SCN of range being sent, 0 when range is not started yet
+	 * @throws ConnectException when snapshot SCN for range was not obtained
+	 */
+	public long getSnapshotScn() {
+		if (currentChunk < chunks.size()) {
+			final RowIdChunk chunk = chunks.get(currentChunk);
+			if (chunk.failure != null) {
+				throw new ConnectException("Initial load of table " + tableFqn + chunkInfo(currentChunk) + " failed!",
+						chunk.failure);
+			}
+			return chunk.snapshotScn;
+		} else {
+			return 0;
+		}
+	}
+
+	public int getCurrentChunk() {
+		return currentChunk;
+	}
+
+	/**
+	 * 
+	 * @return ROWID below which all rows of table are sent, or null
+	 */
+	public String getCheckpointRowId() {
+		return checkpointRowId;
+	}
+
+	/**
+	 * Compares two extended ROWID's (OOOOOOFFFBBBBBBRRR, base64 encoded) in
+	 * object, file, block, row order
+	 * 
+	 * @param rowId1
+	 * @param rowId2
+	 * @return
+	 */
+	static int compareRowIds(final String rowId1, final String rowId2) {
+		for (int i = 0; i < rowId1.length() && i < rowId2.length(); i++) {
+			final int diff = rowIdDigit(rowId1.charAt(i)) - rowIdDigit(rowId2.charAt(i));
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return rowId1.length() - rowId2.length();
+	}
+
+	private static int rowIdDigit(final char c) {
+		if (c >= 'A' && c <= 'Z') {
+			return c - 'A';
+		} else if (c >= 'a' && c <= 'z') {
+			return c - 'a' + 26;
+		} else if (c >= '0' && c <= '9') {
+			return c - '0' + 52;
+		} else if (c == '+') {
+			return 62;
+		} else {
+			return 63;
+		}
+	}
+
+	/**
+	 * 
+	 * @return true when all rows of table are read from staging area
+	 */
+	public boolean isCompleted() {
+		return currentChunk >= chunks.size();
+	}
+
 	public int length() {
-		return queueSize;
+		return queueSize.get();
 	}
 
 	public int offset() {
@@ -704,4 +785,101 @@ public class OraTable4InitialLoad extends OraTable4SourceConnector implements Re
 		return queueDirectory;
 	}
 
+	/**
+	 * ROWID range of table with own Chronicle Queue or, in streaming mode,
+	 * with own bounded in-memory staging window
+	 * When rowIdStart is null whole table is read
+	 */
+	private class RowIdChunk implements WriteMarshallable {
+
+		private final int chunkNo;
+		private final String rowIdStart;
+		private final String rowIdEnd;
+		private ChronicleQueue tableRows;
+		private ExcerptAppender appender;
+		private ExcerptTailer tailer;
+		private OracleResultSet rsMaster;
+		private volatile BlockingQueue<byte[]> window;
+		private Bytes<?> rowBuffer;
+		private int rowCount;
+		private long selectNanos;
+		private volatile boolean completed;
+		private volatile Exception failure;
+		private volatile long snapshotScn;
+
+		RowIdChunk(final int chunkNo, final String rowIdStart, final String rowIdEnd) {
+			this.chunkNo = chunkNo;
+			this.rowIdStart = rowIdStart;
+			this.rowIdEnd = rowIdEnd;
+			this.rowCount = 0;
+			this.selectNanos = 0;
+			this.completed = false;
+			this.failure = null;
+			this.snapshotScn = 0;
+		}
+
+		void open() throws IOException {
+			if (stagingWindow > 0) {
+				rowBuffer = Bytes.allocateElasticOnHeap(LOB_CHUNK_SIZE);
+				window = new ArrayBlockingQueue<>(stagingWindow);
+				return;
+			}
+			try {
+				tableRows = ChronicleQueue
+					.singleBuilder(queueDirectory.resolve("chunk-" + chunkNo))
+					.build();
+				tailer = tableRows.createTailer();
+				appender = tableRows.acquireAppender();
+			} catch (Exception e) {
+				throw new IOException(e);
+			}
+		}
+
+		@Override
+		public void writeMarshallable(WireOut wire) {
+			writeRow(wire.bytes(), rsMaster);
+		}
+
+		void write() throws InterruptedException {
+			if (stopped) {
+				throw new InterruptedException("Initial load of " + tableFqn + " stopped");
+			}
+			if (window == null) {
+				appender.writeDocument(this);
+			} else {
+				rowBuffer.clear();
+				writeRow(rowBuffer, rsMaster);
+				final byte[] row = rowBuffer.toByteArray();
+				// Waits while staging window is full, but not after stop
+				while (!window.offer(row, WINDOW_OFFER_MS, TimeUnit.MILLISECONDS)) {
+					if (stopped) {
+						throw new InterruptedException("Initial load of " + tableFqn + " stopped");
+					}
+				}
+			}
+		}
+
+		boolean read() {
+			if (window == null) {
+				return tailer != null && tailer.readDocument(OraTable4InitialLoad.this);
+			} else {
+				final byte[] row = window.poll();
+				if (row == null) {
+					return false;
+				} else {
+					readRow(Bytes.wrapForRead(row));
+					return true;
+				}
+			}
+		}
+
+		void close() {
+			if (tableRows != null) {
+				tableRows.close();
+			}
+			tableRows = null;
+		}
+
+	}
+
 }
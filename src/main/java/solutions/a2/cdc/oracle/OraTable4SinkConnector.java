@@ -16,11 +16,13 @@ package solutions.a2.cdc.oracle;
 import java.io.ByteArrayInputStream;
 import java.io.StringReader;
 import java.nio.ByteBuffer;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
@@ -32,6 +34,7 @@ import java.util.Map.Entry;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.errors.DataException;
 import org.apache.kafka.connect.header.Header;
@@ -39,6 +42,7 @@ import org.apache.kafka.connect.sink.SinkRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import oracle.jdbc.OracleConnection;
 import solutions.a2.cdc.oracle.jmx.OraCdcSinkTableInfo;
 import solutions.a2.cdc.oracle.schema.JdbcTypes;
 import solutions.a2.cdc.oracle.utils.ExceptionUtils;
@@ -60,13 +64,28 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 	private boolean ready4Ops = false;
 	private String sinkUpsertSql = null;
 	private String sinkDeleteSql = null;
+	private String sinkDeleteArraySql = null;
 	private PreparedStatement sinkUpsert = null;
 	private PreparedStatement sinkDelete = null;
+	private PreparedStatement sinkInsert = null;
 	private int upsertCount;
 	private int deleteCount;
+	private int insertCount;
 	private long upsertTime;
 	private long deleteTime;
+	private long insertTime;
 	private final boolean onlyPkColumns;
+	private final boolean insertOnly;
+	private final int insertRunLength;
+	private final Map<Integer, String> multiRowInsertSql = new HashMap<>();
+	private final Map<Integer, PreparedStatement> sinkInsertRemainder = new HashMap<>();
+	private final List<Struct[]> pendingInserts = new ArrayList<>();
+	private final boolean arrayDelete;
+	private final List<Struct> pendingDeletes = new ArrayList<>();
+	private Schema keyBindersSchema = null;
+	private OraSinkColumnBinder[] keyBinders = null;
+	private Schema valueBindersSchema = null;
+	private OraSinkColumnBinder[] valueBinders = null;
 	private final Map<String, Object> lobColumns = new HashMap<>();
 	private Map<String, LobSqlHolder> lobColsSqlMap;
 
@@ -79,11 +98,15 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 	 * @param record
 	 * @param autoCreateTable
 	 * @param schemaType
+	 * @param insertOnly
+	 * @param insertRunLength
+	 * @param arrayDelete
 	 * @throws SQLException 
 	 */
 	public OraTable4SinkConnector(
 			final OraCdcJdbcSinkConnectionPool sinkPool, final String tableName,
-			final SinkRecord record, final boolean autoCreateTable, final int schemaType) throws SQLException {
+			final SinkRecord record, final boolean autoCreateTable, final int schemaType,
+			final boolean insertOnly, final int insertRunLength, final boolean arrayDelete) throws SQLException {
 		super(schemaType);
 		dbType = sinkPool.getDbType();
 		LOGGER.trace("Creating OraTable object from Kafka connect SinkRecord...");
@@ -150,12 +173,27 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 		} else {
 			onlyPkColumns = false;
 		}
+		if (insertOnly && !onlyPkColumns && lobColumns.size() == 0) {
+			this.insertRunLength = TargetDbSqlUtils.multiRowInsertRunLength(
+					dbType, pkColumns.size() + allColumns.size(), insertRunLength);
+			this.insertOnly = this.insertRunLength > 1;
+		} else {
+			if (insertOnly) {
+				LOGGER.info("Multi-row INSERT is not used for table {} with LOB or only primary key column(s).",
+						this.tableName);
+			}
+			this.insertRunLength = 1;
+			this.insertOnly = false;
+		}
+		this.arrayDelete = arrayDelete;
 		metrics = new OraCdcSinkTableInfo(this.tableName);
 		prepareSql(sinkPool, autoCreateTable);
 		upsertCount = 0;
 		deleteCount = 0;
+		insertCount = 0;
 		upsertTime = 0;
 		deleteTime = 0;
+		insertTime = 0;
 	}
 
 
@@ -167,9 +205,23 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 				tableName, dbType, pkColumns, allColumns, lobColumns);
 		sinkUpsertSql = sqlTexts.get(TargetDbSqlUtils.UPSERT);
 		sinkDeleteSql = sqlTexts.get(TargetDbSqlUtils.DELETE);
+		if (arrayDelete) {
+			sinkDeleteArraySql = sqlTexts.get(TargetDbSqlUtils.DELETE_ARRAY);
+			if (sinkDeleteArraySql == null) {
+				LOGGER.info("Array bound DELETE is not supported for table {}, row by row DELETE will be used.",
+						this.tableName);
+			}
+		}
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug("Table name -> {}, UPSERT statement ->\n{}", this.tableName, sinkUpsertSql);
 			LOGGER.debug("Table name -> {}, DELETE statement ->\n{}", this.tableName, sinkDeleteSql);
+			if (sinkDeleteArraySql != null) {
+				LOGGER.debug("Table name -> {}, array bound DELETE statement ->\n{}", this.tableName, sinkDeleteArraySql);
+			}
+			if (insertOnly) {
+				LOGGER.debug("Table name -> {}, multi-row INSERT statement for {} rows ->\n{}",
+						this.tableName, insertRunLength, getMultiRowInsertSql(insertRunLength));
+			}
 		}
 		if (lobColumns.size() > 0) {
 			lobColsSqlMap = new HashMap<>();
@@ -272,10 +324,18 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 			opType = ((Struct) record.value()).getString("op");
 			LOGGER.debug("Operation type set payload to {}.", opType);
 		}
+		final boolean insertRun = insertOnly && "c".equals(opType);
+		if (!insertRun && !pendingInserts.isEmpty()) {
+			// Run of consecutive inserts is finished, it must be applied before this row
+			exec();
+		}
 		final long nanosStart = System.nanoTime();
 		if ("d".equals(opType)) {
 			processDelete(connection, record);
 			deleteTime += System.nanoTime() - nanosStart;
+		} else if (insertRun) {
+			processInsert(connection, record);
+			insertTime += System.nanoTime() - nanosStart;
 		} else {
 			processUpsert(connection, record);
 			upsertTime += System.nanoTime() - nanosStart;
@@ -283,18 +343,16 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 		LOGGER.trace("END: putData");
 	}
 
+	/**
+	 * Executes bound rows in order of arrival: pending multi-row inserts are always
+	 * the last run of rows because they are executed before any other operation is bound
+	 * 
+	 * @throws SQLException
+	 */
 	public void exec() throws SQLException {
 		LOGGER.trace("BEGIN: exec()");
 		final long nanosStart = System.nanoTime();
-		if (sinkUpsert != null && upsertCount > 0) {
-			execUpsert();
-			sinkUpsert.clearBatch();
-			execLobUpdate(false);
-			upsertTime += System.nanoTime() - nanosStart;
-			metrics.addUpsert(upsertCount, upsertTime);
-			upsertCount = 0;
-			upsertTime = 0;
-		}
+		execUpsertBatch(nanosStart);
 		if (sinkDelete != null && deleteCount > 0) {
 			execDelete();
 			sinkDelete.clearBatch();
@@ -303,39 +361,95 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 			deleteCount = 0;
 			deleteTime = 0;
 		}
+		if (sinkInsert != null && !pendingInserts.isEmpty()) {
+			final long insertStart = System.nanoTime();
+			if (!execInsert()) {
+				// Rows of multi-row INSERT failed with unique key violation are bound as upserts,
+				// but are counted as inserts
+				execUpsert();
+				sinkUpsert.clearBatch();
+				execLobUpdate(false);
+				upsertCount = 0;
+				upsertTime = 0;
+			}
+			insertTime += System.nanoTime() - insertStart;
+			metrics.addInsert(insertCount, insertTime);
+			insertCount = 0;
+			insertTime = 0;
+		}
 		LOGGER.trace("END: exec()");
 	}
 
+	private void execUpsertBatch(final long nanosStart) throws SQLException {
+		if (sinkUpsert != null && upsertCount > 0) {
+			execUpsert();
+			sinkUpsert.clearBatch();
+			execLobUpdate(false);
+			upsertTime += System.nanoTime() - nanosStart;
+			metrics.addUpsert(upsertCount, upsertTime);
+			upsertCount = 0;
+			upsertTime = 0;
+		}
+	}
+
 	public void execAndCloseCursors() throws SQLException {
 		LOGGER.trace("BEGIN: closeCursors()");
-		final long nanosStart = System.nanoTime();
+		exec();
+		if (sinkInsert != null) {
+			sinkInsert.close();
+			sinkInsert = null;
+		}
+		for (final PreparedStatement statement : sinkInsertRemainder.values()) {
+			statement.close();
+		}
+		sinkInsertRemainder.clear();
 		if (sinkUpsert != null) {
-			if (upsertCount > 0) {
-				execUpsert();
-				execLobUpdate(true);
-				upsertTime += System.nanoTime() - nanosStart;
-				metrics.addUpsert(upsertCount, upsertTime);
-
-			}
+			execLobUpdate(true);
 			sinkUpsert.close();
 			sinkUpsert = null;
-			upsertCount = 0;
-			upsertTime = 0;
 		}
 		if (sinkDelete != null) {
-			if (deleteCount > 0) {
-				execDelete();
-				deleteTime += System.nanoTime() - nanosStart;
-				metrics.addDelete(deleteCount, deleteTime);
-			}
 			sinkDelete.close();
 			sinkDelete = null;
-			deleteCount = 0;
-			deleteTime = 0;
 		}
 		LOGGER.trace("END: closeCursors()");
 	}
 
+	/**
+	 * Discards all rows bound since last exec() call, connection must be rolled back by caller
+	 * 
+	 * @throws SQLException
+	 */
+	public void clearBatches() throws SQLException {
+		LOGGER.trace("BEGIN: clearBatches()");
+		pendingInserts.clear();
+		if (sinkInsert != null) {
+			sinkInsert.clearBatch();
+		}
+		insertCount = 0;
+		insertTime = 0;
+		if (sinkUpsert != null) {
+			sinkUpsert.clearBatch();
+		}
+		upsertCount = 0;
+		upsertTime = 0;
+		pendingDeletes.clear();
+		if (sinkDelete != null) {
+			sinkDelete.clearBatch();
+		}
+		deleteCount = 0;
+		deleteTime = 0;
+		if (lobColumns.size() > 0) {
+			for (final LobSqlHolder holder : lobColsSqlMap.values()) {
+				if (holder.STATEMENT != null) {
+					holder.STATEMENT.clearBatch();
+				}
+				holder.EXEC_COUNT = 0;
+			}
+		}
+		LOGGER.trace("END: clearBatches()");
+	}
+
 	private void execUpsert() throws SQLException {
 		try {
 			sinkUpsert.executeBatch();
@@ -363,7 +477,180 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 		}
 	}
 
+	/**
+	 * Executes pending rows with multi-row INSERT
+	 * 
+	 * @return true when rows are inserted, false when rows are bound to upsert
+	 *         batch after unique key violation
+	 * @throws SQLException
+	 */
+	private boolean execInsert() throws SQLException {
+		final Connection connection = sinkInsert.getConnection();
+		final Savepoint savepoint = connection.setSavepoint();
+		try {
+			final int fullRuns = pendingInserts.size() / insertRunLength;
+			int rowNo = 0;
+			for (int run = 0; run < fullRuns; run++) {
+				bindInsertRun(sinkInsert, rowNo, insertRunLength);
+				sinkInsert.addBatch();
+				rowNo += insertRunLength;
+			}
+			if (fullRuns > 0) {
+				sinkInsert.executeBatch();
+				sinkInsert.clearBatch();
+			}
+			final int remainder = pendingInserts.size() - rowNo;
+			if (remainder > 0) {
+				PreparedStatement statement = sinkInsertRemainder.get(remainder);
+				if (statement == null) {
+					statement = connection.prepareStatement(getMultiRowInsertSql(remainder));
+					sinkInsertRemainder.put(remainder, statement);
+				}
+				bindInsertRun(statement, rowNo, remainder);
+				statement.executeUpdate();
+			}
+			releaseSavepoint(connection, savepoint);
+			return true;
+		} catch(SQLException sqle) {
+			if (isUniqueKeyViolation(sqle)) {
+				LOGGER.warn("Unique key violation '{}' while executing multi-row INSERT for table {}.",
+						sqle.getMessage(), tableName);
+				LOGGER.warn("Falling back to upsert for {} rows.", pendingInserts.size());
+				sinkInsert.clearBatch();
+				connection.rollback(savepoint);
+				releaseSavepoint(connection, savepoint);
+				for (final Struct[] row : pendingInserts) {
+					bindUpsert(connection, row[0], row[1]);
+				}
+				return false;
+			} else {
+				LOGGER.error("Error while executing multi-row INSERT statement {}",
+						getMultiRowInsertSql(insertRunLength));
+				throw new SQLException(sqle);
+			}
+		} finally {
+			pendingInserts.clear();
+		}
+	}
+
+	private void releaseSavepoint(final Connection connection, final Savepoint savepoint) throws SQLException {
+		// Oracle JDBC does not support releaseSavepoint(), savepoint is released at commit.
+		// For PostgreSQL savepoint is subtransaction and is kept open until released
+		if (dbType != OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE) {
+			connection.releaseSavepoint(savepoint);
+		}
+	}
+
+	private boolean isUniqueKeyViolation(final SQLException sqle) {
+		SQLException current = sqle;
+		while (current != null) {
+			switch (dbType) {
+			case OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE:
+				// ORA-00001: unique constraint %s violated
+				if (current.getErrorCode() == 1) {
+					return true;
+				}
+				break;
+			case OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL:
+				// unique_violation
+				if (StringUtils.equals("23505", current.getSQLState())) {
+					return true;
+				}
+				break;
+			case OraCdcJdbcSinkConnectionPool.DB_TYPE_MSSQL:
+				// Violation of PRIMARY KEY or UNIQUE KEY constraint / Cannot insert duplicate key row
+				if (current.getErrorCode() == 2627 || current.getErrorCode() == 2601) {
+					return true;
+				}
+				break;
+			default:
+				// ER_DUP_ENTRY
+				if (current.getErrorCode() == 1062 ||
+						StringUtils.startsWith(current.getMessage(), "Duplicate entry")) {
+					return true;
+				}
+			}
+			if (current.getNextException() == current) {
+				break;
+			}
+			current = current.getNextException();
+		}
+		return false;
+	}
+
+	private String getMultiRowInsertSql(final int rowCount) {
+		String sqlText = multiRowInsertSql.get(rowCount);
+		if (sqlText == null) {
+			sqlText = TargetDbSqlUtils.generateMultiRowInsertSql(
+					tableName, dbType, pkColumns, allColumns, rowCount);
+			multiRowInsertSql.put(rowCount, sqlText);
+		}
+		return sqlText;
+	}
+
+	private void bindInsertRun(final PreparedStatement statement,
+			final int firstRow, final int rowCount) throws SQLException {
+		int offset = 0;
+		for (int rowNo = firstRow; rowNo < firstRow + rowCount; rowNo++) {
+			final Struct keyStruct = pendingInserts.get(rowNo)[0];
+			final Struct valueStruct = pendingInserts.get(rowNo)[1];
+			final OraSinkColumnBinder[] pkBinders = getKeyBinders(keyStruct);
+			for (int i = 0; i < pkBinders.length; i++) {
+				try {
+					pkBinders[i].bind(statement, offset, keyStruct);
+				} catch (DataException de) {
+					final OraColumn oraColumn = pkBinders[i].getColumn();
+					LOGGER.error("Data error while performing insert! Table={}, PK column={}, {}.",
+							tableName, oraColumn.getColumnName(), structValueAsString(oraColumn, keyStruct));
+					throw new DataException(de);
+				}
+			}
+			final OraSinkColumnBinder[] columnBinders = getValueBinders(valueStruct);
+			for (int i = 0; i < columnBinders.length; i++) {
+				try {
+					columnBinders[i].bind(statement, offset, valueStruct);
+				} catch (DataException de) {
+					final OraColumn oraColumn = columnBinders[i].getColumn();
+					LOGGER.error("Data error while performing insert! Table={}, column={}, {}.",
+							tableName, oraColumn.getColumnName(), structValueAsString(oraColumn, valueStruct));
+					throw new DataException(de);
+				}
+			}
+			offset += pkBinders.length + columnBinders.length;
+		}
+	}
+
+	private OraSinkColumnBinder[] getKeyBinders(final Struct keyStruct) throws SQLException {
+		if (keyBinders == null || keyStruct.schema() != keyBindersSchema) {
+			LOGGER.debug("Compiling PK column binders for table {}.", tableName);
+			keyBinders = OraSinkColumnBinder.compile(dbType, keyStruct.schema(), pkColumns.values(), 1);
+			keyBindersSchema = keyStruct.schema();
+		}
+		return keyBinders;
+	}
+
+	private OraSinkColumnBinder[] getValueBinders(final Struct valueStruct) throws SQLException {
+		if (valueBinders == null || valueStruct.schema() != valueBindersSchema) {
+			LOGGER.debug("Compiling non PK column binders for table {}.", tableName);
+			final List<OraColumn> columns = new ArrayList<>(allColumns.size());
+			for (final OraColumn oraColumn : allColumns) {
+				if (schemaType == ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD ||
+						(schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM && !oraColumn.isPartOfPk())) {
+					columns.add(oraColumn);
+				}
+			}
+			valueBinders = OraSinkColumnBinder.compile(
+					dbType, valueStruct.schema(), columns, pkColumns.size() + 1);
+			valueBindersSchema = valueStruct.schema();
+		}
+		return valueBinders;
+	}
+
 	private void execDelete() throws SQLException {
+		if (sinkDeleteArraySql != null) {
+			execArrayDelete();
+			return;
+		}
 		try {
 			sinkDelete.executeBatch();
 		} catch(SQLException sqle) {
@@ -372,6 +659,57 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 		}
 	}
 
+	private void execArrayDelete() throws SQLException {
+		final Connection connection = sinkDelete.getConnection();
+		final int maxElements = TargetDbSqlUtils.arrayDeleteMaxElements(dbType);
+		try {
+			for (int firstRow = 0; firstRow < pendingDeletes.size(); firstRow += maxElements) {
+				final int rowCount = Math.min(maxElements, pendingDeletes.size() - firstRow);
+				final List<Array> arrays = new ArrayList<>(pkColumns.size());
+				try {
+					int columnNo = 1;
+					for (final OraColumn oraColumn : pkColumns.values()) {
+						final Object[] elements = new Object[rowCount];
+						for (int i = 0; i < rowCount; i++) {
+							final Struct keyStruct = pendingDeletes.get(firstRow + i);
+							try {
+								elements[i] = oraColumn.toArrayElement(dbType, keyStruct.get(oraColumn.getColumnName()));
+							} catch (DataException de) {
+								LOGGER.error("Data error while performing delete! Table {}, PK column {}, {}.",
+										tableName, oraColumn.getColumnName(), structValueAsString(oraColumn, keyStruct));
+								throw new DataException(de);
+							}
+						}
+						final String elementType = TargetDbSqlUtils.arrayElementType(dbType, oraColumn);
+						final Array array;
+						if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE) {
+							array = connection.unwrap(OracleConnection.class).createOracleArray(elementType, elements);
+						} else {
+							array = connection.createArrayOf(elementType, elements);
+						}
+						arrays.add(array);
+						sinkDelete.setArray(columnNo, array);
+						columnNo++;
+					}
+					sinkDelete.executeUpdate();
+				} finally {
+					for (final Array array : arrays) {
+						try {
+							array.free();
+						} catch (SQLException sqle) {
+							LOGGER.warn("Unable to free array bound to DELETE statement: {}", sqle.getMessage());
+						}
+					}
+				}
+			}
+		} catch(SQLException sqle) {
+			LOGGER.error("Error while executing array bound DELETE statement {}", sinkDeleteArraySql);
+			throw new SQLException(sqle);
+		} finally {
+			pendingDeletes.clear();
+		}
+	}
+
 	private void execLobUpdate(final boolean closeCursor) throws SQLException {
 		if (lobColumns.size() > 0) {
 			Iterator<Entry<String, LobSqlHolder>> lobIterator = lobColsSqlMap.entrySet().iterator();
@@ -404,6 +742,28 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 		}
 	}
 
+	private void processInsert(
+			final Connection connection, final SinkRecord record) throws SQLException {
+		LOGGER.trace("BEGIN: processInsert()");
+		final Struct keyStruct;
+		final Struct valueStruct;
+		if (schemaType == ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD) {
+			keyStruct = (Struct) record.key();
+			valueStruct = (Struct) record.value();
+		} else { // if (schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM)
+			keyStruct = ((Struct) record.value()).getStruct("before");
+			valueStruct = ((Struct) record.value()).getStruct("after");
+		}
+		if (sinkInsert == null) {
+			sinkInsert = connection.prepareStatement(getMultiRowInsertSql(insertRunLength));
+			insertCount = 0;
+			insertTime = 0;
+		}
+		pendingInserts.add(new Struct[] {keyStruct, valueStruct});
+		insertCount++;
+		LOGGER.trace("END: processInsert()");
+	}
+
 	private void processUpsert(
 			final Connection connection, final SinkRecord record) throws SQLException {
 		LOGGER.trace("BEGIN: processUpsert()");
@@ -416,32 +776,35 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 			keyStruct = ((Struct) record.value()).getStruct("before");
 			valueStruct = ((Struct) record.value()).getStruct("after");
 		}
+		bindUpsert(connection, keyStruct, valueStruct);
+		LOGGER.trace("END: processUpsert()");
+	}
+
+	private void bindUpsert(final Connection connection,
+			final Struct keyStruct, final Struct valueStruct) throws SQLException {
 		if (sinkUpsert == null) {
 			sinkUpsert = connection.prepareStatement(sinkUpsertSql);
 			upsertCount = 0;
 			upsertTime = 0;
 		}
-		int columnNo = 1;
-		Iterator<Entry<String, OraColumn>> iterator = pkColumns.entrySet().iterator();
-		while (iterator.hasNext()) {
-			final OraColumn oraColumn = iterator.next().getValue();
+		final OraSinkColumnBinder[] pkBinders = getKeyBinders(keyStruct);
+		for (int i = 0; i < pkBinders.length; i++) {
 			try {
-				oraColumn.bindWithPrepStmt(dbType, sinkUpsert, columnNo, keyStruct.get(oraColumn.getColumnName()));
-				columnNo++;
+				pkBinders[i].bind(sinkUpsert, 0, keyStruct);
 			} catch (DataException de) {
+				final OraColumn oraColumn = pkBinders[i].getColumn();
 				LOGGER.error("Data error while performing upsert! Table={}, PK column={}, {}.",
 						tableName, oraColumn.getColumnName(), structValueAsString(oraColumn, keyStruct));
 				throw new DataException(de);
 			}
 		}
-		for (int i = 0; i < allColumns.size(); i++) {
-			final OraColumn oraColumn = allColumns.get(i);
-			if (schemaType == ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD ||
-					(schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM && !oraColumn.isPartOfPk())) {
+		if (allColumns.size() > 0) {
+			final OraSinkColumnBinder[] columnBinders = getValueBinders(valueStruct);
+			for (int i = 0; i < columnBinders.length; i++) {
 				try {
-					oraColumn.bindWithPrepStmt(dbType, sinkUpsert, columnNo, valueStruct.get(oraColumn.getColumnName()));
-					columnNo++;
+					columnBinders[i].bind(sinkUpsert, 0, valueStruct);
 				} catch (DataException | SQLException de) {
+					final OraColumn oraColumn = columnBinders[i].getColumn();
 					LOGGER.error("Data error while performing upsert! Table={}, column={}, {}.",
 							tableName, oraColumn.getColumnName(), structValueAsString(oraColumn, valueStruct));
 					LOGGER.error("SQL statement:\n\t{}", sinkUpsertSql);
@@ -492,13 +855,8 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 								}
 							}
 							// Bind PK columns...
-							columnNo = 2;
-							iterator = pkColumns.entrySet().iterator();
-							while (iterator.hasNext()) {
-								final OraColumn oraColumn = iterator.next().getValue();
-								oraColumn.bindWithPrepStmt(
-										dbType, holder.STATEMENT, columnNo, keyStruct.get(oraColumn.getColumnName()));
-								columnNo++;
+							for (final OraSinkColumnBinder binder : pkBinders) {
+								binder.bind(holder.STATEMENT, 1, keyStruct);
 							}
 							holder.STATEMENT.addBatch();
 							holder.EXEC_COUNT++;
@@ -511,19 +869,15 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 						final Struct transformedStruct = (Struct) objLobValue;
 						@SuppressWarnings("unchecked")
 						final List<OraColumn> transformedCols = (List<OraColumn>) objLobColumn;
-						columnNo = 1;
+						int columnNo = 1;
 						for (OraColumn transformedColumn : transformedCols) {
 							transformedColumn.bindWithPrepStmt(
 									dbType, holder.STATEMENT, columnNo, transformedStruct.get(transformedColumn.getColumnName()));
 							columnNo++;
 						}
 						// Bind PK columns...
-						iterator = pkColumns.entrySet().iterator();
-						while (iterator.hasNext()) {
-							final OraColumn oraColumn = iterator.next().getValue();
-							oraColumn.bindWithPrepStmt(
-									dbType, holder.STATEMENT, columnNo, keyStruct.get(oraColumn.getColumnName()));
-							columnNo++;
+						for (final OraSinkColumnBinder binder : pkBinders) {
+							binder.bind(holder.STATEMENT, transformedCols.size(), keyStruct);
 						}
 						holder.STATEMENT.addBatch();
 						holder.EXEC_COUNT++;
@@ -531,7 +885,6 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 				}
 			}
 		}
-		LOGGER.trace("END: processUpsert()");
 	}
 
 	private void processDelete(
@@ -543,19 +896,32 @@ public class OraTable4SinkConnector extends OraTableDefinition {
 		} else { // if (schemaType == ParamConstants.SCHEMA_TYPE_INT_DEBEZIUM)
 			keyStruct = ((Struct) record.value()).getStruct("before");
 		}
+		if (sinkDeleteArraySql != null) {
+			if (sinkDelete == null) {
+				if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE) {
+					sinkDelete = connection.prepareCall(sinkDeleteArraySql);
+				} else {
+					sinkDelete = connection.prepareStatement(sinkDeleteArraySql);
+				}
+				deleteCount = 0;
+				deleteTime = 0;
+			}
+			pendingDeletes.add(keyStruct);
+			deleteCount++;
+			LOGGER.trace("END: processDelete()");
+			return;
+		}
 		if (sinkDelete == null) {
 			sinkDelete = connection.prepareStatement(sinkDeleteSql);
 			deleteCount = 0;
 			deleteTime = 0;
 		}
-		Iterator<Entry<String, OraColumn>> iterator = pkColumns.entrySet().iterator();
-		int columnNo = 1;
-		while (iterator.hasNext()) {
-			final OraColumn oraColumn = iterator.next().getValue();
+		final OraSinkColumnBinder[] pkBinders = getKeyBinders(keyStruct);
+		for (int i = 0; i < pkBinders.length; i++) {
 			try {
-				oraColumn.bindWithPrepStmt(dbType, sinkDelete, columnNo, keyStruct.get(oraColumn.getColumnName()));
-				columnNo++;
+				pkBinders[i].bind(sinkDelete, 0, keyStruct);
 			} catch (DataException de) {
+				final OraColumn oraColumn = pkBinders[i].getColumn();
 				LOGGER.error("Data error while performing delete! Table {}, PK column {}, {}.",
 						tableName, oraColumn.getColumnName(), structValueAsString(oraColumn, keyStruct));
 				throw new DataException(de);
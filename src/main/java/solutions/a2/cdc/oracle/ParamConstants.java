@@ -106,6 +106,49 @@ public class ParamConstants {
 	public static final String INITIAL_LOAD_EXECUTE = "EXECUTE";
 	public static final String INITIAL_LOAD_COMPLETED = "COMPLETED";
 
+	public static final String INITIAL_LOAD_CHUNK_COUNT_PARAM = "a2.initial.load.chunk.count";
+	public static final String INITIAL_LOAD_CHUNK_COUNT_DOC = "Number of ROWID ranges (calculated using DBA_EXTENTS) into which large tables are split during initial load. Ranges are read in parallel by the loader pool. Default - 1 (table is read with single select)";
+	public static final int INITIAL_LOAD_CHUNK_COUNT_DEFAULT = 1;
+
+	public static final String INITIAL_LOAD_CHUNK_MIN_BLOCKS_PARAM = "a2.initial.load.chunk.min.blocks";
+	public static final String INITIAL_LOAD_CHUNK_MIN_BLOCKS_DOC = "Minimum number of allocated blocks for a table to be split into ROWID ranges when a2.initial.load.chunk.count is greater than 1. Default - 65536";
+	public static final long INITIAL_LOAD_CHUNK_MIN_BLOCKS_DEFAULT = 65536;
+
+	public static final String INITIAL_LOAD_STAGING_WINDOW_PARAM = "a2.initial.load.staging.window";
+	public static final String INITIAL_LOAD_STAGING_WINDOW_DOC = "When set to a value greater than 0, initial load is performed in streaming mode: rows are sent to Kafka while the select is still running, and at most this number of rows for each ROWID range is staged in memory. Default - 0 (whole table is staged in Chronicle Queue at a2.tmpdir before sending)";
+	public static final int INITIAL_LOAD_STAGING_WINDOW_DEFAULT = 0;
+
+	public static final String INITIAL_LOAD_SELECT_THREADS_PARAM = "a2.initial.load.select.threads";
+	public static final String INITIAL_LOAD_SELECT_THREADS_DOC = "Number of parallel loaders used for select phase of initial load. Default - 0 (minimum of Kafka Connect worker cores and database cores)";
+	public static final int INITIAL_LOAD_SELECT_THREADS_DEFAULT = 0;
+
+	public static final String INITIAL_LOAD_CONCURRENT_PARAM = "a2.initial.load.concurrent";
+	public static final String INITIAL_LOAD_CONCURRENT_DOC = "When set to true, initial load runs concurrently with sending of redo changes: each ROWID range is read using flashback query as of own SCN and sent between changes committed before and after this SCN. Requires a2.resiliency.type=fault-tolerant. Default - false";
+
+	public static final String INITIAL_LOAD_CONCURRENT_RANGE_BLOCKS_PARAM = "a2.initial.load.concurrent.range.blocks";
+	public static final String INITIAL_LOAD_CONCURRENT_RANGE_BLOCKS_DOC = "Maximum number of allocated blocks in a ROWID range when a2.initial.load.concurrent is true. Larger tables are split into more ROWID ranges than a2.initial.load.chunk.count, so that redo changes committed after snapshot SCN of range are not held back for reading of whole table. Default - 16384";
+	public static final long INITIAL_LOAD_CONCURRENT_RANGE_BLOCKS_DEFAULT = 16384;
+
+	public static final String GOVERNOR_INTERVAL_PARAM = "a2.governor.interval.ms";
+	public static final String GOVERNOR_INTERVAL_DOC = "Interval in milliseconds at which the source load governor samples V$SYSMETRIC and V$SESSION and adjusts number of initial load loaders and fetch sizes. Default - 0 (governor is disabled)";
+	public static final int GOVERNOR_INTERVAL_DEFAULT = 0;
+
+	public static final String GOVERNOR_HOST_CPU_MAX_PARAM = "a2.governor.host.cpu.max";
+	public static final String GOVERNOR_HOST_CPU_MAX_DOC = "Host CPU utilization (%) of source database above which the source load governor reduces load. Default - 80";
+	public static final int GOVERNOR_HOST_CPU_MAX_DEFAULT = 80;
+
+	public static final String GOVERNOR_ACTIVE_SESSIONS_MAX_PARAM = "a2.governor.active.sessions.max";
+	public static final String GOVERNOR_ACTIVE_SESSIONS_MAX_DOC = "Average active sessions of source database above which the source load governor reduces load. Default - 0 (number of database CPU cores)";
+	public static final double GOVERNOR_ACTIVE_SESSIONS_MAX_DEFAULT = 0;
+
+	public static final String GOVERNOR_FETCH_SIZE_MIN_PARAM = "a2.governor.fetch.size.min";
+	public static final String GOVERNOR_FETCH_SIZE_MIN_DOC = "Lower bound of initial load and V$LOGMNR_CONTENTS fetch size set by the source load governor. Default - 16";
+	public static final int GOVERNOR_FETCH_SIZE_MIN_DEFAULT = 16;
+
+	public static final String GOVERNOR_FETCH_SIZE_MAX_PARAM = "a2.governor.fetch.size.max";
+	public static final String GOVERNOR_FETCH_SIZE_MAX_DOC = "Upper bound of initial load fetch size set by the source load governor. Upper bound of V$LOGMNR_CONTENTS fetch size is a2.fetch.size. Default - 1024";
+	public static final int GOVERNOR_FETCH_SIZE_MAX_DEFAULT = 1024;
+
 	public static final String KAFKA_TOPIC_PARAM = "a2.kafka.topic";
 	public static final String KAFKA_TOPIC_PARAM_DOC = "Target topic to send data";
 	public static final String KAFKA_TOPIC_PARAM_DEFAULT = "oracdc-topic";
@@ -144,6 +187,12 @@ public class ParamConstants {
 	public static final String ARCHIVED_LOG_CAT_DOC = "name of class which implements solutions.a2.cdc.oracle.OraLogMiner interface. Default - solutions.a2.cdc.oracle.OraCdcV$ArchivedLogImpl which reads archived log information from V$ARCHIVED_LOG fixed view";
 	public static final String ARCHIVED_LOG_CAT_DEFAULT = "solutions.a2.cdc.oracle.OraCdcV$ArchivedLogImpl";
 
+	public static final String ARCHIVED_LOG_DIRS_PARAM = "a2.archived.log.catalog.directories";
+	public static final String ARCHIVED_LOG_DIRS_DOC = "Comma separated list of directories with archived logs for solutions.a2.cdc.oracle.OraCdcFileSystemArchivedLogImpl. Default - empty";
+
+	public static final String ARCHIVED_LOG_INDEX_PARAM = "a2.archived.log.catalog.index";
+	public static final String ARCHIVED_LOG_INDEX_DOC = "Name of file to keep headers of archived logs read by solutions.a2.cdc.oracle.OraCdcFileSystemArchivedLogImpl between restarts, THREAD# is appended to name. Default - empty, headers of all files are read after restart";
+
 	public static final String FETCH_SIZE_PARAM = "a2.fetch.size";
 	public static final String FETCH_SIZE_DOC = "number of rows fetched with each RDBMS round trip for access V$LOGMNR_CONTENTS. Default 32";
 	public static final int FETCH_SIZE_DEFAULT = 32;
@@ -173,6 +222,24 @@ public class ParamConstants {
 	public static final String DISTRIBUTED_TARGET_PORT_DOC = "port number on which shipping agent listens for requests";
 	public static final int DISTRIBUTED_TARGET_PORT_DEFAULT = 21521;
 
+	public static final String ONLINE_REDO_TAILING_PARAM = "a2.online.redo.tailing";
+	public static final String ONLINE_REDO_TAILING_DOC = "When set to true and there are no new archived logs, current online redo log is mined up to current SCN of database. Only for solutions.a2.cdc.oracle.OraCdcV$ArchivedLogImpl when mining database is source database. Default - false";
+
+	public static final String LOG_DISCOVERY_SHARED_PARAM = "a2.log.discovery.shared";
+	public static final String LOG_DISCOVERY_SHARED_DOC = "When set to true, new archived logs are detected by single thread per JVM for all tasks connected to the same database instead of periodic queries to V$ARCHIVED_LOG by every task. Default - false";
+
+	public static final String LOG_DISCOVERY_MAX_INTERVAL_PARAM = "a2.log.discovery.max.interval";
+	public static final String LOG_DISCOVERY_MAX_INTERVAL_DOC = "Maximum interval in milliseconds between checks for new archived logs when a2.log.discovery.shared is set to true. Interval starts from 50 ms and is doubled while no new archived logs appear. Default - 5000";
+	public static final int LOG_DISCOVERY_MAX_INTERVAL_DEFAULT = 5000;
+
+	public static final String DISTRIBUTED_PREFETCH_FILES_PARAM = "a2.distributed.prefetch.files";
+	public static final String DISTRIBUTED_PREFETCH_FILES_DOC = "Number of archived logs requested from shipment agent at once in distributed mode. Files are passed to LogMiner strictly in sequence order. Default - 1";
+	public static final int DISTRIBUTED_PREFETCH_FILES_DEFAULT = 1;
+
+	public static final String DISTRIBUTED_PREFETCH_BYTES_PARAM = "a2.distributed.prefetch.bytes";
+	public static final String DISTRIBUTED_PREFETCH_BYTES_DOC = "Maximum size in bytes of archived logs shipped to target and not yet processed by LogMiner in distributed mode. Default - 0, no limit";
+	public static final long DISTRIBUTED_PREFETCH_BYTES_DEFAULT = 0;
+
 	public static final String LOB_TRANSFORM_CLASS_PARAM = "a2.lob.transformation.class";
 	public static final String LOB_TRANSFORM_CLASS_DOC = "name of class which implements solutions.a2.cdc.oracle.data.OraCdcLobTransformationsIntf interface. Default - solutions.a2.cdc.oracle.data.OraCdcDefaultLobTransformationsImpl which just passes information about and values of BLOB/CLOB/NCLOB/XMLTYPE columns to Kafka Connect without performing any additional transformation";
 	public static final String LOB_TRANSFORM_CLASS_DEFAULT = "solutions.a2.cdc.oracle.data.OraCdcDefaultLobTransformationsImpl";
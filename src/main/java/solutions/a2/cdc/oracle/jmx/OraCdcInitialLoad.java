@@ -19,6 +19,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.management.InstanceAlreadyExistsException;
@@ -59,6 +62,12 @@ public class OraCdcInitialLoad implements OraCdcInitialLoadMBean {
 	private final AtomicLong sendNanos;
 	private final AtomicLong sendRows;
 	private final AtomicLong sendRowsColumns;
+	private final Map<String, long[]> chunksSelect;
+	private final AtomicInteger chunkCount;
+	private final AtomicInteger processedChunkCount;
+	private final AtomicLong segmentBytes;
+	private final AtomicLong processedSegmentBytes;
+	private final AtomicLong firstChunkStartMillis;
 
 	public OraCdcInitialLoad(final OraRdbmsInfo rdbmsInfo, final String connectorName) {
 		this.startTimeMillis = System.currentTimeMillis();
@@ -73,6 +82,12 @@ public class OraCdcInitialLoad implements OraCdcInitialLoadMBean {
 		this.sendNanos = new AtomicLong(0);
 		this.sendRows = new AtomicLong(0);
 		this.sendRowsColumns = new AtomicLong(0);
+		this.chunksSelect = new ConcurrentHashMap<>();
+		this.chunkCount = new AtomicInteger(0);
+		this.processedChunkCount = new AtomicInteger(0);
+		this.segmentBytes = new AtomicLong(0);
+		this.processedSegmentBytes = new AtomicLong(0);
+		this.firstChunkStartMillis = new AtomicLong(0);
 		final StringBuilder sb = new StringBuilder(96);
 		sb.append("solutions.a2.oracdc:type=Initial-Load-metrics,name=");
 		sb.append(connectorName);
@@ -151,6 +166,84 @@ public class OraCdcInitialLoad implements OraCdcInitialLoadMBean {
 		return tablesSelect.toArray(new String[0]);
 	}
 
+	public void addChunks(int count) {
+		chunkCount.addAndGet(count);
+	}
+	public void startSelectChunk(String fqn, int chunkNo, int tableChunks) {
+		firstChunkStartMillis.compareAndSet(0, System.currentTimeMillis());
+		// {chunkNo, tableChunks, rows, startMillis}
+		chunksSelect.put(chunkKey(fqn, chunkNo),
+				new long[] {chunkNo + 1, tableChunks, 0, System.currentTimeMillis()});
+	}
+	public void selectChunkProgress(String fqn, int chunkNo, long numRows) {
+		final long[] progress = chunksSelect.get(chunkKey(fqn, chunkNo));
+		if (progress != null) {
+			progress[2] = numRows;
+		}
+	}
+	public void finishSelectChunk(String fqn, int chunkNo, long numRows, long chunkBytes) {
+		chunksSelect.remove(chunkKey(fqn, chunkNo));
+		processedChunkCount.incrementAndGet();
+		processedSegmentBytes.addAndGet(chunkBytes);
+	}
+	private String chunkKey(String fqn, int chunkNo) {
+		return fqn + "#" + chunkNo;
+	}
+	@Override
+	public String[] getCurrentSelectChunkList() {
+		final long now = System.currentTimeMillis();
+		return chunksSelect.entrySet().stream()
+				.map(e -> {
+					final long[] progress = e.getValue();
+					return e.getKey().substring(0, e.getKey().lastIndexOf('#')) +
+							" chunk " + progress[0] + " of " + progress[1] +
+							", rows read " + progress[2] +
+							", elapsed " + OraCdcMBeanUtils.formatDuration(Duration.ofMillis(now - progress[3]));
+				})
+				.toArray(String[]::new);
+	}
+	@Override
+	public int getChunkCount() {
+		return chunkCount.get();
+	}
+	@Override
+	public int getProcessedChunkCount() {
+		return processedChunkCount.get();
+	}
+
+	public void addSegmentBytes(long bytes) {
+		segmentBytes.addAndGet(bytes);
+	}
+	@Override
+	public long getSegmentBytes() {
+		return segmentBytes.get();
+	}
+	@Override
+	public long getProcessedSegmentBytes() {
+		return processedSegmentBytes.get();
+	}
+	@Override
+	public long getEstimatedTimeToCompletionMillis() {
+		// Estimated from select rate of already read ROWID ranges, -1 until first range is read
+		final long processed = processedSegmentBytes.get();
+		final long startMillis = firstChunkStartMillis.get();
+		if (processed == 0 || startMillis == 0) {
+			return -1;
+		} else {
+			final long remaining = Math.max(0, segmentBytes.get() - processed);
+			return (long) (((double) remaining) * (System.currentTimeMillis() - startMillis) / processed);
+		}
+	}
+	@Override
+	public String getEstimatedTimeToCompletion() {
+		final long etaMillis = getEstimatedTimeToCompletionMillis();
+		if (etaMillis < 0) {
+			return "N/A";
+		} else {
+			return OraCdcMBeanUtils.formatDuration(Duration.ofMillis(etaMillis));
+		}
+	}
+
 	public void startSendTable(String fqn) {
 		synchronized (tablesSend) {
 			tablesSend.add(fqn);
@@ -35,6 +35,13 @@ public interface OraCdcInitialLoadMBean {
 	public double getRowsPerSecond();
 	public double getRowsColumnsPerSecond();
 	public String[] getCurrentSelectTableList();
+	public String[] getCurrentSelectChunkList();
+	public int getChunkCount();
+	public int getProcessedChunkCount();
+	public long getSegmentBytes();
+	public long getProcessedSegmentBytes();
+	public long getEstimatedTimeToCompletionMillis();
+	public String getEstimatedTimeToCompletion();
 	public String[] getCurrentSendTableList();
 	public int getProcessedTableCount();
 	public String[] getLast500ProcessedTables();
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package solutions.a2.cdc.oracle.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.apache.commons.math3.util.Precision;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import solutions.a2.cdc.oracle.OraRdbmsInfo;
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+import solutions.a2.cdc.oracle.utils.LimitedSizeQueue;
+
+/**
+ * 
+ * @author averemee
+ *
+ */
+public class OraCdcLoadGovernor implements OraCdcLoadGovernorMBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcLoadGovernor.class);
+
+	private final long startTimeMillis;
+	private final LocalDateTime startTime;
+	private volatile double hostCpuUtilization;
+	private volatile double averageActiveSessions;
+	private volatile int oracdcSessions;
+	private volatile int oracdcWaitingSessions;
+	private volatile int oracdcContendingSessions;
+	private volatile String oracdcTopWaitEvent;
+	private volatile int activeLoaders;
+	private volatile int initialLoadFetchSize;
+	private volatile int logMinerFetchSize;
+	private volatile long sampleCount;
+	private volatile long throttleCount;
+	private volatile long relaxCount;
+	private volatile String lastDecision;
+	private volatile LocalDateTime lastDecisionTime;
+	private final LimitedSizeQueue<String> lastHundredDecisions;
+
+	public OraCdcLoadGovernor(final OraRdbmsInfo rdbmsInfo, final String connectorName) {
+		final StringBuilder sb = new StringBuilder(96);
+		sb.append("solutions.a2.oracdc:type=Load-Governor-metrics,name=");
+		sb.append(connectorName);
+		sb.append(",database=");
+		sb.append(rdbmsInfo.getInstanceName());
+		sb.append("_");
+		sb.append(rdbmsInfo.getHostName());
+		try {
+			final ObjectName name = new ObjectName(sb.toString());
+			final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+			if (mbs.isRegistered(name)) {
+				LOGGER.warn("JMX MBean {} already registered, trying to remove it.", name.getCanonicalName());
+				try {
+					mbs.unregisterMBean(name);
+				} catch (InstanceNotFoundException nfe) {
+					LOGGER.error("Unable to unregister MBean {}", name.getCanonicalName());
+					LOGGER.error(ExceptionUtils.getExceptionStackTrace(nfe));
+					throw new ConnectException(nfe);
+				}
+			}
+			mbs.registerMBean(this, name);
+			LOGGER.debug("MBean {} registered.", sb.toString());
+		} catch (MalformedObjectNameException | InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException e) {
+			LOGGER.error("Unable to register MBean {} !!! ", sb.toString());
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+			throw new ConnectException(e);
+		}
+		startTimeMillis = System.currentTimeMillis();
+		startTime = LocalDateTime.now();
+		oracdcTopWaitEvent = "";
+		lastDecision = "";
+		lastHundredDecisions = new LimitedSizeQueue<>(100);
+	}
+
+	@Override
+	public String getStartTime() {
+		return startTime.format(DateTimeFormatter.ISO_DATE_TIME);
+	}
+	@Override
+	public long getElapsedTimeMillis() {
+		return System.currentTimeMillis() - startTimeMillis;
+	}
+	@Override
+	public String getElapsedTime() {
+		Duration duration = Duration.ofMillis(System.currentTimeMillis() - startTimeMillis);
+		return OraCdcMBeanUtils.formatDuration(duration);
+	}
+
+	public void addSample(final double hostCpuUtilization, final double averageActiveSessions,
+			final int oracdcSessions, final int oracdcWaitingSessions,
+			final int oracdcContendingSessions, final String oracdcTopWaitEvent) {
+		this.hostCpuUtilization = hostCpuUtilization;
+		this.averageActiveSessions = averageActiveSessions;
+		this.oracdcSessions = oracdcSessions;
+		this.oracdcWaitingSessions = oracdcWaitingSessions;
+		this.oracdcContendingSessions = oracdcContendingSessions;
+		this.oracdcTopWaitEvent = oracdcTopWaitEvent == null ? "" : oracdcTopWaitEvent;
+		sampleCount++;
+	}
+	@Override
+	public double getHostCpuUtilization() {
+		return Precision.round(hostCpuUtilization, 2);
+	}
+	@Override
+	public double getAverageActiveSessions() {
+		return Precision.round(averageActiveSessions, 2);
+	}
+	@Override
+	public int getOracdcSessions() {
+		return oracdcSessions;
+	}
+	@Override
+	public int getOracdcWaitingSessions() {
+		return oracdcWaitingSessions;
+	}
+	@Override
+	public int getOracdcContendingSessions() {
+		return oracdcContendingSessions;
+	}
+	@Override
+	public String getOracdcTopWaitEvent() {
+		return oracdcTopWaitEvent;
+	}
+	@Override
+	public long getSampleCount() {
+		return sampleCount;
+	}
+
+	public void setLimits(final int activeLoaders, final int initialLoadFetchSize, final int logMinerFetchSize) {
+		this.activeLoaders = activeLoaders;
+		this.initialLoadFetchSize = initialLoadFetchSize;
+		this.logMinerFetchSize = logMinerFetchSize;
+	}
+	@Override
+	public int getActiveLoaders() {
+		return activeLoaders;
+	}
+	@Override
+	public int getInitialLoadFetchSize() {
+		return initialLoadFetchSize;
+	}
+	@Override
+	public int getLogMinerFetchSize() {
+		return logMinerFetchSize;
+	}
+
+	public void addDecision(final boolean throttle, final String decision) {
+		if (throttle) {
+			throttleCount++;
+		} else {
+			relaxCount++;
+		}
+		lastDecisionTime = LocalDateTime.now();
+		lastDecision = decision;
+		lastHundredDecisions.add(lastDecisionTime.format(DateTimeFormatter.ISO_DATE_TIME) + " " + decision);
+	}
+	@Override
+	public long getThrottleCount() {
+		return throttleCount;
+	}
+	@Override
+	public long getRelaxCount() {
+		return relaxCount;
+	}
+	@Override
+	public String getLastDecision() {
+		return lastDecision;
+	}
+	@Override
+	public String getLastDecisionTime() {
+		return lastDecisionTime == null ? "" : lastDecisionTime.format(DateTimeFormatter.ISO_DATE_TIME);
+	}
+	@Override
+	public String[] getLast100Decisions() {
+		return lastHundredDecisions.toArray(new String[0]);
+	}
+
+}
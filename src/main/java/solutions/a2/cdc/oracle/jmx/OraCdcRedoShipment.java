@@ -48,6 +48,7 @@ public class OraCdcRedoShipment implements OraCdcRedoShipmentMBean {
 	private long totalNanos;
 	private int numberOfFiles;
 	private long totalBytes;
+	private long shippedBytes;
 	private String lastProcessedFile;
 	private LimitedSizeQueue<String> lastHundredProcessed;
 
@@ -82,6 +83,7 @@ public class OraCdcRedoShipment implements OraCdcRedoShipmentMBean {
 		totalNanos = 0;
 		numberOfFiles = 0;
 		totalBytes = 0;
+		shippedBytes = 0;
 		lastProcessedFile = "";
 		lastHundredProcessed = new LimitedSizeQueue<>(100);
 	}
@@ -100,10 +102,11 @@ public class OraCdcRedoShipment implements OraCdcRedoShipmentMBean {
 		return OraCdcMBeanUtils.formatDuration(duration);
 	}
 
-	public void addProcessedFileInfo(final long nanos, final long bytes, final String fileName) {
+	public void addProcessedFileInfo(final long nanos, final long bytes, final long shipped, final String fileName) {
 		totalNanos += nanos;
 		numberOfFiles += 1;
 		totalBytes += bytes;
+		shippedBytes += shipped;
 		lastProcessedFile = fileName;
 		lastHundredProcessed.add(fileName);
 	}
@@ -158,5 +161,26 @@ public class OraCdcRedoShipment implements OraCdcRedoShipmentMBean {
 					(float) (getProcessedGiB() * 1_000_000_000) / totalNanos, 3);
 		}
 	}
+	@Override
+	public long getShippedBytesCount() {
+		return shippedBytes;
+	}
+	@Override
+	public float getCompressionRatio() {
+		if (shippedBytes == 0) {
+			return 0;
+		} else {
+			return Precision.round((float) totalBytes / shippedBytes, 3);
+		}
+	}
+	@Override
+	public float getShippedMiBPerSecond() {
+		if (totalNanos == 0) {
+			return 0;
+		} else {
+			return Precision.round(
+					(float) (((double) shippedBytes / (1024 * 1024)) * 1_000_000_000) / totalNanos, 3);
+		}
+	}
 
 }
@@ -32,4 +32,7 @@ public interface OraCdcRedoShipmentMBean {
 	public String[] getLast100ProcessedFiles();
 	public float getMiBPerSecond();
 	public float getGiBPerSecond();
+	public long getShippedBytesCount();
+	public float getCompressionRatio();
+	public float getShippedMiBPerSecond();
 }
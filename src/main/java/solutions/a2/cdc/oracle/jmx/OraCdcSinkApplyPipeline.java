@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package solutions.a2.cdc.oracle.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.BlockingQueue;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.apache.commons.math3.util.Precision;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+
+/**
+ * 
+ * @author averemee
+ *
+ */
+public class OraCdcSinkApplyPipeline implements OraCdcSinkApplyPipelineMBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OraCdcSinkApplyPipeline.class);
+
+	private final long startTimeMillis;
+	private final LocalDateTime startTime;
+	private final BlockingQueue<?> applyQueue;
+	private final int queueCapacity;
+	private ObjectName name;
+	private volatile long putBlockedNanos;
+	private volatile long applyIdleNanos;
+	private volatile long applyNanos;
+	private volatile long appliedBatchesCount;
+	private volatile long appliedRecordsCount;
+
+	public OraCdcSinkApplyPipeline(final String connectorName, final String taskId,
+			final BlockingQueue<?> applyQueue, final int queueCapacity) {
+		this.startTimeMillis = System.currentTimeMillis();
+		this.startTime = LocalDateTime.now();
+		this.applyQueue = applyQueue;
+		this.queueCapacity = queueCapacity;
+		this.putBlockedNanos = 0;
+		this.applyIdleNanos = 0;
+		this.applyNanos = 0;
+		this.appliedBatchesCount = 0;
+		this.appliedRecordsCount = 0;
+		final StringBuilder sb = new StringBuilder(64);
+		sb.append("solutions.a2.oracdc:type=Sink-apply-pipeline,name=");
+		sb.append(connectorName);
+		sb.append(",task=");
+		sb.append(taskId);
+		try {
+			name = new ObjectName(sb.toString());
+			final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+			if (mbs.isRegistered(name)) {
+				LOGGER.warn("JMX MBean {} already registered, trying to remove it.", name.getCanonicalName());
+				try {
+					mbs.unregisterMBean(name);
+				} catch (InstanceNotFoundException nfe) {
+					LOGGER.error("Unable to unregister MBean {}", name.getCanonicalName());
+					LOGGER.error(ExceptionUtils.getExceptionStackTrace(nfe));
+					throw new ConnectException(nfe);
+				}
+			}
+			mbs.registerMBean(this, name);
+			LOGGER.debug("MBean {} registered.", name.getCanonicalName());
+		} catch (MalformedObjectNameException | InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException e) {
+			LOGGER.error("Unable to register MBean {} !!! ", sb.toString());
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+			throw new ConnectException(e);
+		}
+	}
+
+	/**
+	 * Removes MBean from platform MBean server, must be called when apply thread stops
+	 */
+	public void unregister() {
+		if (name != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+				LOGGER.debug("MBean {} unregistered.", name.getCanonicalName());
+			} catch (InstanceNotFoundException | MBeanRegistrationException e) {
+				LOGGER.error("Unable to unregister MBean {}", name.getCanonicalName());
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+			}
+			name = null;
+		}
+	}
+
+	@Override
+	public String getStartTime() {
+		return startTime.format(DateTimeFormatter.ISO_DATE_TIME);
+	}
+	@Override
+	public long getElapsedTimeMillis() {
+		return System.currentTimeMillis() - startTimeMillis;
+	}
+	@Override
+	public String getElapsedTime() {
+		Duration duration = Duration.ofMillis(System.currentTimeMillis() - startTimeMillis);
+		return OraCdcMBeanUtils.formatDuration(duration);
+	}
+
+	@Override
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+	@Override
+	public int getQueueSize() {
+		return applyQueue.size();
+	}
+
+	public void addPutBlocked(final long nanos) {
+		putBlockedNanos += nanos;
+	}
+	@Override
+	public long getPutBlockedMillis() {
+		return putBlockedNanos / 1_000_000;
+	}
+	@Override
+	public String getPutBlockedTime() {
+		Duration duration = Duration.ofNanos(putBlockedNanos);
+		return OraCdcMBeanUtils.formatDuration(duration);
+	}
+
+	public void addApplyIdle(final long nanos) {
+		applyIdleNanos += nanos;
+	}
+	@Override
+	public long getApplyIdleMillis() {
+		return applyIdleNanos / 1_000_000;
+	}
+	@Override
+	public String getApplyIdleTime() {
+		Duration duration = Duration.ofNanos(applyIdleNanos);
+		return OraCdcMBeanUtils.formatDuration(duration);
+	}
+
+	public void addApplied(final int records, final long nanos) {
+		appliedBatchesCount++;
+		appliedRecordsCount += records;
+		applyNanos += nanos;
+	}
+	@Override
+	public long getApplyMillis() {
+		return applyNanos / 1_000_000;
+	}
+	@Override
+	public String getApplyTime() {
+		Duration duration = Duration.ofNanos(applyNanos);
+		return OraCdcMBeanUtils.formatDuration(duration);
+	}
+	@Override
+	public long getAppliedBatchesCount() {
+		return appliedBatchesCount;
+	}
+	@Override
+	public long getAppliedRecordsCount() {
+		return appliedRecordsCount;
+	}
+	@Override
+	public double getAppliedRecordsPerSecond() {
+		if (appliedRecordsCount == 0 || applyNanos == 0) {
+			return 0;
+		} else {
+			return Precision.round(((double)(appliedRecordsCount * 1_000_000_000)) / ((double) applyNanos), 2);
+		}
+	}
+
+}
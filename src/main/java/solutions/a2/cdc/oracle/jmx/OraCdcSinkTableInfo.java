@@ -48,6 +48,8 @@ public class OraCdcSinkTableInfo implements OraCdcSinkTableInfoMBean {
 	private long upsertRecordsCount;
 	private long elapsedDeleteNanos;
 	private long deleteRecordsCount;
+	private long elapsedInsertNanos;
+	private long insertRecordsCount;
 
 	public OraCdcSinkTableInfo(final String tableName) {
 		this.startTimeMillis = System.currentTimeMillis();
@@ -56,6 +58,8 @@ public class OraCdcSinkTableInfo implements OraCdcSinkTableInfoMBean {
 		this.upsertRecordsCount = 0;
 		this.elapsedDeleteNanos = 0;
 		this.deleteRecordsCount = 0;
+		this.elapsedInsertNanos = 0;
+		this.insertRecordsCount = 0;
 		final StringBuilder sb = new StringBuilder(64);
 		sb.append("solutions.a2.oracdc:type=Sink-metrics,tableName=");
 		sb.append(tableName);
@@ -97,16 +101,16 @@ public class OraCdcSinkTableInfo implements OraCdcSinkTableInfoMBean {
 
 	@Override
 	public long getProcessingTimeMillis() {
-		return ((elapsedUpsertNanos + elapsedDeleteNanos) / 1_000_000);
+		return ((elapsedUpsertNanos + elapsedDeleteNanos + elapsedInsertNanos) / 1_000_000);
 	}
 	@Override
 	public String getProcessingTime() {
-		Duration duration = Duration.ofNanos(elapsedUpsertNanos + elapsedDeleteNanos);
+		Duration duration = Duration.ofNanos(elapsedUpsertNanos + elapsedDeleteNanos + elapsedInsertNanos);
 		return OraCdcMBeanUtils.formatDuration(duration);
 	}
 	@Override
 	public long getProcessedRecordsCount() {
-		return (upsertRecordsCount + deleteRecordsCount);
+		return (upsertRecordsCount + deleteRecordsCount + insertRecordsCount);
 	}
 
 	public void addUpsert(int processed, long opNanos) {
@@ -161,4 +165,30 @@ public class OraCdcSinkTableInfo implements OraCdcSinkTableInfoMBean {
 		}
 	}
 
+	public void addInsert(int processed, long opNanos) {
+		insertRecordsCount += processed;
+		elapsedInsertNanos += opNanos;
+	}
+	@Override
+	public long getInsertCount() {
+		return insertRecordsCount;
+	}
+	@Override
+	public long getInsertProcessingMillis() {
+		return elapsedInsertNanos / 1_000_000;
+	}
+	@Override
+	public String getInsertProcessingTime() {
+		Duration duration = Duration.ofNanos(elapsedInsertNanos);
+		return OraCdcMBeanUtils.formatDuration(duration);
+	}
+	@Override
+	public double getInsertsPerSecond() {
+		if (insertRecordsCount == 0 || elapsedInsertNanos == 0) {
+			return 0;
+		} else {
+			return Precision.round(((double)(insertRecordsCount * 1_000_000_000)) / ((double) elapsedInsertNanos), 2);
+		}
+	}
+
 }
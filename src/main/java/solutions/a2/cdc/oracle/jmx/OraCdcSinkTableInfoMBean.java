@@ -33,5 +33,9 @@ public interface OraCdcSinkTableInfoMBean {
 	public long getDeleteProcessingMillis();
 	public String getDeleteProcessingTime();
 	public double getDeletesPerSecond();
+	public long getInsertCount();
+	public long getInsertProcessingMillis();
+	public String getInsertProcessingTime();
+	public double getInsertsPerSecond();
 
 }
@@ -29,8 +29,14 @@ public class Lz4Util {
 		if (stringData == null || stringData.length() == 0) {
 			throw new IllegalArgumentException("Cannot compress null or empty string");
 		}
+		return compress(stringData.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static byte[] compress(final byte[] byteData) {
+		if (byteData == null || byteData.length == 0) {
+			throw new IllegalArgumentException("Cannot compress null or empty array");
+		}
 		final LZ4Compressor compressor = factory.fastCompressor();
-		final byte[] byteData = stringData.getBytes(StandardCharsets.UTF_8);
 		final int decompressedLength = byteData.length;
 		final int maxCompressedLength = compressor.maxCompressedLength(decompressedLength);
 		final byte[] compressed = new byte[maxCompressedLength];
@@ -53,7 +59,7 @@ public class Lz4Util {
 		try {
 			final int decompressedLength =
 					decompressor.decompress(compressedData, 0, compressedData.length, decompressedBytes, 0);
-			return new String(Arrays.copyOfRange(decompressedBytes, 0, decompressedLength));
+			return new String(decompressedBytes, 0, decompressedLength, StandardCharsets.UTF_8);
 			
 		} catch (LZ4Exception lz4e) {
 			throw new IllegalArgumentException("Failed to uncompress byte array", lz4e);
@@ -36,6 +36,15 @@ public class TargetDbSqlUtils {
 	public static final String UPDATE = "1#";	//For future...
 	public static final String DELETE = "2#";
 	public static final String UPSERT = "3#";
+	public static final String DELETE_ARRAY = "4#";
+
+	private static final int MAX_BINDS_POSTGRESQL = Short.MAX_VALUE;
+	private static final int MAX_BINDS_MYSQL = 65_535;
+	private static final int MAX_BINDS_ORACLE = 65_535;
+	private static final int MAX_BINDS_MSSQL = 2_099;
+	private static final int MAX_ROWS_MSSQL = 1_000;
+	private static final int MAX_ELEMENTS_ODCI_LIST = 32_767;
+	private static final int MAX_ELEMENTS_POSTGRESQL_ARRAY = 65_536;
 
 	@SuppressWarnings("serial")
 	private static final Map<Integer, String> MYSQL_MAPPING =
@@ -479,6 +488,10 @@ public class TargetDbSqlUtils {
 		generatedSql.put(UPSERT, sbInsSql.toString());
 		generatedSql.put(UPDATE, sbUpdSql.toString());
 		generatedSql.put(DELETE, sbDelSql.toString());
+		final String arrayDeleteSql = generateArrayDeleteSql(tableName, dbType, pkColumns);
+		if (arrayDeleteSql != null) {
+			generatedSql.put(DELETE_ARRAY, arrayDeleteSql);
+		}
 
 		if (lobColumns != null && lobColumns.size() > 0) {
 			for (Map.Entry<String, Object> entry : lobColumns.entrySet()) {
@@ -516,4 +529,251 @@ public class TargetDbSqlUtils {
 		return generatedSql;
 	}
 
+
+	/**
+	 * Returns the number of rows to send in a single multi-row INSERT statement
+	 * 
+	 * @param dbType
+	 * @param columnCount number of columns bound for each row
+	 * @param runLength   requested run length, 0 for target database specific default
+	 * @return number of rows reduced to fit the bind variables limit of target database
+	 */
+	public static int multiRowInsertRunLength(final int dbType, final int columnCount, final int runLength) {
+		final int maxBinds;
+		final int defaultRunLength;
+		switch (dbType) {
+		case OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL:
+			maxBinds = MAX_BINDS_POSTGRESQL;
+			defaultRunLength = 256;
+			break;
+		case OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE:
+			maxBinds = MAX_BINDS_ORACLE;
+			defaultRunLength = 64;
+			break;
+		case OraCdcJdbcSinkConnectionPool.DB_TYPE_MSSQL:
+			maxBinds = MAX_BINDS_MSSQL;
+			defaultRunLength = 128;
+			break;
+		default:
+			maxBinds = MAX_BINDS_MYSQL;
+			defaultRunLength = 256;
+		}
+		int rows = Math.min(runLength > 0 ? runLength : defaultRunLength, maxBinds / Math.max(columnCount, 1));
+		if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_MSSQL) {
+			rows = Math.min(rows, MAX_ROWS_MSSQL);
+		}
+		return rows;
+	}
+
+	/**
+	 * Generates multi-row INSERT statement, PK columns are bound first for each row
+	 * 
+	 * @param tableName
+	 * @param dbType
+	 * @param pkColumns
+	 * @param allColumns
+	 * @param rowCount
+	 * @return INSERT ... VALUES (...),(...) for PostgreSQL, MySQL, and Microsoft SQL Server,
+	 *         INSERT ALL INTO ... SELECT * FROM DUAL for Oracle
+	 */
+	public static String generateMultiRowInsertSql(final String tableName,
+			final int dbType,
+			final Map<String, OraColumn> pkColumns,
+			final List<OraColumn> allColumns,
+			final int rowCount) {
+		final StringBuilder sbColumns = new StringBuilder(256);
+		final StringBuilder sbValues = new StringBuilder(128);
+		sbColumns.append(tableName);
+		sbColumns.append("(");
+		sbValues.append("(");
+		boolean firstColumn = true;
+		for (OraColumn column : pkColumns.values()) {
+			if (!firstColumn) {
+				sbColumns.append(",");
+				sbValues.append(",");
+			}
+			sbColumns.append(column.getColumnName());
+			sbValues.append("?");
+			firstColumn = false;
+		}
+		for (OraColumn column : allColumns) {
+			if (!firstColumn) {
+				sbColumns.append(",");
+				sbValues.append(",");
+			}
+			sbColumns.append(column.getColumnName());
+			sbValues.append("?");
+			firstColumn = false;
+		}
+		sbColumns.append(")");
+		sbValues.append(")");
+
+		final StringBuilder sbInsSql = new StringBuilder(
+				32 + sbColumns.length() + rowCount * (sbValues.length() + sbColumns.length() + 16));
+		if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE) {
+			sbInsSql.append("insert all");
+			for (int i = 0; i < rowCount; i++) {
+				sbInsSql.append("\n  into ");
+				sbInsSql.append(sbColumns);
+				sbInsSql.append(" values");
+				sbInsSql.append(sbValues);
+			}
+			sbInsSql.append("\nselect * from DUAL");
+		} else {
+			sbInsSql.append("insert into ");
+			sbInsSql.append(sbColumns);
+			sbInsSql.append(" values");
+			for (int i = 0; i < rowCount; i++) {
+				if (i > 0) {
+					sbInsSql.append(",");
+				}
+				sbInsSql.append("\n");
+				sbInsSql.append(sbValues);
+			}
+		}
+		return sbInsSql.toString();
+	}
+
+	/**
+	 * Returns type name for binding array of column values
+	 * 
+	 * @param dbType
+	 * @param column
+	 * @return java.sql.Array element type name for PostgreSQL, SQL collection type for Oracle,
+	 *         or null when array binding is not supported for column
+	 */
+	public static String arrayElementType(final int dbType, final OraColumn column) {
+		if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL) {
+			switch (column.getJdbcType()) {
+			case Types.BOOLEAN:
+				return "bool";
+			case Types.TINYINT:
+			case Types.SMALLINT:
+				return "int2";
+			case Types.INTEGER:
+				return "int4";
+			case Types.BIGINT:
+				return "int8";
+			case Types.FLOAT:
+				return "float4";
+			case Types.DOUBLE:
+				return "float8";
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return "numeric";
+			case Types.DATE:
+			case Types.TIMESTAMP:
+				return "timestamp";
+			case Types.VARCHAR:
+				return "text";
+			case Types.BINARY:
+				return "bytea";
+			}
+		} else if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE) {
+			switch (column.getJdbcType()) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return "SYS.ODCINUMBERLIST";
+			case Types.DATE:
+				// SYS.ODCIDATELIST truncates fractional seconds, not used for TIMESTAMP
+				return "SYS.ODCIDATELIST";
+			case Types.VARCHAR:
+				return "SYS.ODCIVARCHAR2LIST";
+			case Types.BINARY:
+				return "SYS.ODCIRAWLIST";
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns maximum number of elements in single array bound to DELETE_ARRAY statement
+	 * 
+	 * @param dbType
+	 * @return
+	 */
+	public static int arrayDeleteMaxElements(final int dbType) {
+		if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE) {
+			return MAX_ELEMENTS_ODCI_LIST;
+		} else {
+			return MAX_ELEMENTS_POSTGRESQL_ARRAY;
+		}
+	}
+
+	/**
+	 * Generates DELETE statement with one array bound for each PK column
+	 * 
+	 * @param tableName
+	 * @param dbType
+	 * @param pkColumns
+	 * @return DELETE ... WHERE (PK) IN (SELECT * FROM UNNEST(?,?)) for PostgreSQL,
+	 *         anonymous PL/SQL block with FORALL DELETE for Oracle,
+	 *         null when array binding is not supported for table
+	 */
+	public static String generateArrayDeleteSql(final String tableName,
+			final int dbType,
+			final Map<String, OraColumn> pkColumns) {
+		if (pkColumns.size() == 0 ||
+				(dbType != OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL &&
+				dbType != OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE)) {
+			return null;
+		}
+		for (OraColumn column : pkColumns.values()) {
+			if (arrayElementType(dbType, column) == null) {
+				return null;
+			}
+		}
+		final StringBuilder sbDelSql = new StringBuilder(256);
+		if (dbType == OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL) {
+			final StringBuilder sbUnnest = new StringBuilder(64);
+			sbDelSql.append("delete from ");
+			sbDelSql.append(tableName);
+			sbDelSql.append(" where (");
+			boolean firstColumn = true;
+			for (OraColumn column : pkColumns.values()) {
+				if (!firstColumn) {
+					sbDelSql.append(",");
+					sbUnnest.append(",");
+				}
+				sbDelSql.append(column.getColumnName());
+				sbUnnest.append("?::");
+				sbUnnest.append(arrayElementType(dbType, column));
+				sbUnnest.append("[]");
+				firstColumn = false;
+			}
+			sbDelSql.append(") in (select * from unnest(");
+			sbDelSql.append(sbUnnest);
+			sbDelSql.append("))");
+		} else {
+			final StringBuilder sbWhere = new StringBuilder(128);
+			sbDelSql.append("declare\n");
+			int columnNo = 1;
+			for (OraColumn column : pkColumns.values()) {
+				sbDelSql.append("  ORACDC_P");
+				sbDelSql.append(columnNo);
+				sbDelSql.append(" ");
+				sbDelSql.append(arrayElementType(dbType, column));
+				sbDelSql.append(" := ?;\n");
+				if (columnNo > 1) {
+					sbWhere.append(" and ");
+				}
+				sbWhere.append(column.getColumnName());
+				sbWhere.append("=ORACDC_P");
+				sbWhere.append(columnNo);
+				sbWhere.append("(I)");
+				columnNo++;
+			}
+			sbDelSql.append("begin\n  forall I in 1 .. ORACDC_P1.COUNT\n    delete from ");
+			sbDelSql.append(tableName);
+			sbDelSql.append(" where ");
+			sbDelSql.append(sbWhere);
+			sbDelSql.append(";\nend;");
+		}
+		return sbDelSql.toString();
+	}
+
 }
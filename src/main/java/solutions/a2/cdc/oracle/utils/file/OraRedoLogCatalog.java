@@ -0,0 +1,426 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle.utils.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+
+/**
+ *
+ * Catalog of archived redo logs stored in local directories. Headers of files are read
+ * once with {@link OraRedoLogFile} by several threads and indexed by SEQUENCE# for single
+ * redo thread. Headers can be persisted to index file, so after restart only new files are read.
+ * Directories are watched with {@link WatchService} and rescanned only after change.
+ * Files which are not redo logs or not yet completely written are skipped and read
+ * again only when their size or modification time change.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+public class OraRedoLogCatalog implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OraRedoLogCatalog.class);
+	private static final int INDEXER_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+	private static final char DELIMITER = '\t';
+
+	private final List<Path> directories;
+	private final int thread;
+	private final long dbId;
+	private final Path indexFile;
+	private final TreeMap<Long, Entry> sequences = new TreeMap<>();
+	/** Headers of all redo logs in directories, including other threads and databases */
+	private final Map<Path, Entry> headers = new HashMap<>();
+	/** Size and modification time of files which are not redo logs */
+	private final Map<Path, Long> stamps = new HashMap<>();
+	private final WatchService watchService;
+	private boolean pending = true;
+	private long missingSequence = -1;
+
+	/**
+	 *
+	 * @param directories directories with archived logs
+	 * @param thread      redo thread
+	 * @param dbId        DBID of database, 0 to accept files of any database
+	 * @throws IOException
+	 */
+	public OraRedoLogCatalog(final List<Path> directories, final int thread, final long dbId) throws IOException {
+		this(directories, thread, dbId, null);
+	}
+
+	/**
+	 *
+	 * @param directories directories with archived logs
+	 * @param thread      redo thread
+	 * @param dbId        DBID of database, 0 to accept files of any database
+	 * @param indexFile   file to keep headers between restarts, null when not required
+	 * @throws IOException
+	 */
+	public OraRedoLogCatalog(final List<Path> directories, final int thread, final long dbId,
+			final Path indexFile) throws IOException {
+		this.directories = directories;
+		this.thread = thread;
+		this.dbId = dbId;
+		this.indexFile = indexFile;
+		loadIndex();
+		watchService = FileSystems.getDefault().newWatchService();
+		for (Path directory : directories) {
+			if (!Files.isDirectory(directory)) {
+				throw new IOException("'" + directory + "' must be directory!");
+			}
+			directory.register(watchService,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE);
+		}
+	}
+
+	/**
+	 * Rescans directories when they are changed since previous call
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void refresh() throws IOException {
+		WatchKey key;
+		while ((key = watchService.poll()) != null) {
+			// Events are not analyzed, any change leads to rescan
+			key.pollEvents();
+			key.reset();
+			pending = true;
+		}
+		if (pending) {
+			scan();
+		}
+	}
+
+	/**
+	 * Reads headers of new and changed files in all directories
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void scan() throws IOException {
+		pending = false;
+		final Map<Path, Entry> current = new HashMap<>();
+		final Map<Path, Long> skipped = new HashMap<>();
+		final List<Callable<Entry>> toRead = new ArrayList<>();
+		for (Path directory : directories) {
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+				for (Path file : stream) {
+					final BasicFileAttributes attrs;
+					try {
+						attrs = Files.readAttributes(file, BasicFileAttributes.class);
+					} catch (IOException ioe) {
+						// Deleted in the middle of scan
+						continue;
+					}
+					if (!attrs.isRegularFile()) {
+						continue;
+					}
+					final long size = attrs.size();
+					final long lastModified = attrs.lastModifiedTime().toMillis();
+					final Entry known = headers.get(file);
+					if (known != null && known.redoLog.length() == size && known.lastModified == lastModified) {
+						current.put(file, known);
+					} else {
+						final long stamp = size * 31 + lastModified;
+						final Long previous = stamps.get(file);
+						if (previous != null && previous == stamp) {
+							skipped.put(file, stamp);
+						} else {
+							toRead.add(() -> readHeader(file, lastModified, stamp));
+						}
+					}
+				}
+			}
+		}
+		final boolean changed = !toRead.isEmpty() || current.size() != headers.size();
+		for (Entry entry : readHeaders(toRead)) {
+			if (entry.redoLog == null) {
+				skipped.put(entry.path, entry.lastModified);
+			} else {
+				current.put(entry.path, entry);
+			}
+		}
+		stamps.clear();
+		stamps.putAll(skipped);
+		headers.clear();
+		headers.putAll(current);
+		rebuild();
+		if (changed) {
+			saveIndex();
+		}
+	}
+
+	/**
+	 * Reads headers using several threads, storage with archived logs usually
+	 * serves parallel small reads much faster than sequential
+	 */
+	private List<Entry> readHeaders(final List<Callable<Entry>> toRead) throws IOException {
+		final List<Entry> entries = new ArrayList<>(toRead.size());
+		if (toRead.size() == 1) {
+			try {
+				entries.add(toRead.get(0).call());
+			} catch (Exception e) {
+				throw new IOException(e);
+			}
+		} else if (toRead.size() > 1) {
+			final ExecutorService indexer = Executors.newFixedThreadPool(
+					Math.min(toRead.size(), INDEXER_THREADS), runnable -> {
+						final Thread indexerThread = new Thread(runnable, "OraCdcRedoLogIndexer-" + thread);
+						indexerThread.setDaemon(true);
+						return indexerThread;
+					});
+			try {
+				for (Future<Entry> future : indexer.invokeAll(toRead)) {
+					entries.add(future.get());
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				throw new IOException(e);
+			} finally {
+				indexer.shutdownNow();
+			}
+			LOGGER.debug("{} files read by {} indexer threads.", toRead.size(), Math.min(toRead.size(), INDEXER_THREADS));
+		}
+		return entries;
+	}
+
+	/**
+	 * Returns entry with header or entry without header and with stamp of file for skipped file
+	 */
+	private static Entry readHeader(final Path file, final long lastModified, final long stamp) {
+		try {
+			return new Entry(file, new OraRedoLogFile(file.toString()), lastModified);
+		} catch (IOException ioe) {
+			// Not a redo log or archiver is still writing it, file is read again after next change
+			LOGGER.debug("Skipping {}: {}", file, ioe.getMessage());
+		} catch (Exception e) {
+			LOGGER.warn("Unable to read header of {}: {}", file, e.getMessage());
+			LOGGER.debug(ExceptionUtils.getExceptionStackTrace(e));
+		}
+		return new Entry(file, null, stamp);
+	}
+
+	/**
+	 * Builds index of required thread and database from all known headers
+	 */
+	private void rebuild() {
+		final TreeMap<Long, Entry> previous = new TreeMap<>(sequences);
+		sequences.clear();
+		final List<Entry> entries = new ArrayList<>(headers.values());
+		// Copies of the same sequence in other destinations are ignored, first one is kept
+		entries.sort(Comparator.comparing(entry -> entry.path));
+		for (Entry entry : entries) {
+			final OraRedoLogFile redoLog = entry.redoLog;
+			if (redoLog.thread() != thread || (dbId != 0 && redoLog.getDbId() != dbId)) {
+				continue;
+			}
+			if (!sequences.containsKey(redoLog.sequence())) {
+				sequences.put(redoLog.sequence(), entry);
+				if (!previous.containsKey(redoLog.sequence())) {
+					LOGGER.debug("Archived log {} sequence# {} SCN range {}-{} added to catalog.",
+							entry.path, redoLog.sequence(), redoLog.firstChange(), redoLog.nextChange());
+				}
+			}
+		}
+		for (Map.Entry<Long, Entry> removed : previous.entrySet()) {
+			if (!sequences.containsKey(removed.getKey())) {
+				LOGGER.info("Archived log {} sequence# {} removed from catalog.",
+						removed.getValue().path, removed.getKey());
+			}
+		}
+	}
+
+	private void loadIndex() {
+		if (indexFile == null || !Files.exists(indexFile)) {
+			return;
+		}
+		try {
+			for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+				final String[] fields = StringUtils.splitPreserveAllTokens(line, DELIMITER);
+				if (fields.length != 11) {
+					continue;
+				}
+				try {
+					final OraRedoLogFile redoLog = new OraRedoLogFile(fields[0],
+							Long.parseLong(fields[2]), Integer.parseInt(fields[3]), Long.parseLong(fields[4]),
+							Integer.parseInt(fields[5]), Long.parseLong(fields[6]), fields[7],
+							Long.parseLong(fields[8]), "1".equals(fields[9]), fields[10]);
+					final Path file = Paths.get(fields[0]);
+					headers.put(file, new Entry(file, redoLog, Long.parseLong(fields[1])));
+				} catch (IOException | NumberFormatException e) {
+					LOGGER.debug("Invalid line in {}: {}", indexFile, line);
+				}
+			}
+			LOGGER.info("{} headers of archived logs loaded from {}.", headers.size(), indexFile);
+		} catch (IOException ioe) {
+			LOGGER.error("Unable to read index {}: {}", indexFile, ioe.getMessage());
+			headers.clear();
+		}
+	}
+
+	private void saveIndex() {
+		if (indexFile == null) {
+			return;
+		}
+		final StringBuilder sb = new StringBuilder(headers.size() * 192);
+		for (Entry entry : headers.values()) {
+			final OraRedoLogFile redoLog = entry.redoLog;
+			sb
+				.append(redoLog.name()).append(DELIMITER)
+				.append(entry.lastModified).append(DELIMITER)
+				.append(redoLog.length()).append(DELIMITER)
+				.append(redoLog.blockSize()).append(DELIMITER)
+				.append(redoLog.blockCount()).append(DELIMITER)
+				.append(redoLog.getVersionRaw()).append(DELIMITER)
+				.append(redoLog.getDbId()).append(DELIMITER)
+				.append(redoLog.getInstanceName()).append(DELIMITER)
+				.append(redoLog.getActivationId()).append(DELIMITER)
+				.append(redoLog.isBigEndian() ? '1' : '0').append(DELIMITER)
+				.append(redoLog.description()).append('\n');
+		}
+		final Path tmpFile = Paths.get(indexFile.toString() + ".tmp");
+		try {
+			Files.write(tmpFile, sb.toString().getBytes(StandardCharsets.UTF_8));
+			Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ioe) {
+			LOGGER.error("Unable to write index {}: {}", indexFile, ioe.getMessage());
+		}
+	}
+
+	/**
+	 * Returns FIRST_CHANGE# of oldest cataloged file or 0 when catalog is empty
+	 *
+	 * @return
+	 */
+	public synchronized long firstChange() {
+		return sequences.isEmpty() ? 0 : sequences.firstEntry().getValue().redoLog.firstChange();
+	}
+
+	/**
+	 * Returns consecutive archived logs starting from the one which contains firstChange.
+	 * List ends before missing SEQUENCE#, files after gap are returned when missing
+	 * file appears in directory.
+	 *
+	 * @param firstChange first SCN required
+	 * @param maxFiles    maximum number of files, 0 for no limit
+	 * @param maxBytes    maximum total size of files, 0 for no limit
+	 * @return
+	 */
+	public synchronized List<Entry> next(final long firstChange, final int maxFiles, final long maxBytes) {
+		final List<Entry> files = new ArrayList<>();
+		long bytes = 0;
+		long expectedSequence = -1;
+		for (Entry entry : sequences.values()) {
+			if (entry.redoLog.nextChange() <= firstChange) {
+				continue;
+			}
+			if (expectedSequence == -1 && firstChange > 0 && entry.redoLog.firstChange() > firstChange) {
+				// Sequence# with firstChange is not archived yet or is missing in directories
+				final Map.Entry<Long, Entry> previous = sequences.lowerEntry(entry.redoLog.sequence());
+				warnGap(previous == null ?
+						entry.redoLog.sequence() - 1 :
+						Math.min(previous.getKey() + 1, entry.redoLog.sequence() - 1));
+				break;
+			}
+			if (expectedSequence != -1 && entry.redoLog.sequence() != expectedSequence) {
+				warnGap(expectedSequence);
+				break;
+			}
+			files.add(entry);
+			bytes += entry.redoLog.length();
+			expectedSequence = entry.redoLog.sequence() + 1;
+			if ((maxFiles > 0 && files.size() >= maxFiles) ||
+					(maxBytes > 0 && bytes >= maxBytes)) {
+				break;
+			}
+		}
+		return files;
+	}
+
+	private void warnGap(final long sequence) {
+		if (missingSequence != sequence) {
+			missingSequence = sequence;
+			LOGGER.warn("Gap in archived logs of thread# {} detected, waiting for sequence# {}.", thread, sequence);
+		}
+	}
+
+	public synchronized int size() {
+		return sequences.size();
+	}
+
+	@Override
+	public void close() {
+		try {
+			watchService.close();
+		} catch (IOException ioe) {
+			LOGGER.debug(ExceptionUtils.getExceptionStackTrace(ioe));
+		}
+	}
+
+	/**
+	 * Cataloged archived log
+	 */
+	public static class Entry {
+
+		private final Path path;
+		private final OraRedoLogFile redoLog;
+		private final long lastModified;
+
+		Entry(final Path path, final OraRedoLogFile redoLog, final long lastModified) {
+			this.path = path;
+			this.redoLog = redoLog;
+			this.lastModified = lastModified;
+		}
+
+		public Path getPath() {
+			return path;
+		}
+
+		public OraRedoLogFile getRedoLog() {
+			return redoLog;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+
+	}
+
+}
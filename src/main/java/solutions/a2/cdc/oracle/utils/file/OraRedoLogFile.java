@@ -14,9 +14,12 @@
 package solutions.a2.cdc.oracle.utils.file;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.BasicConfigurator;
 import org.apache.log4j.Level;
 import org.slf4j.Logger;
@@ -32,6 +35,9 @@ import solutions.a2.cdc.oracle.utils.ExceptionUtils;
  *     Jure Kajzer https://www.abakus.si/download/events/2014_jure_kajzer_forenzicna_analiza_oracle_log_datotek.pdf
  * internals.
  * 
+ * File header (block 0x00) and redo header (block 0x01) are read with single positional read.
+ * Byte order of platform which wrote the file is detected using magic number of file header.
+ * 
  * @author averemee
  *
  */
@@ -40,122 +46,176 @@ public class OraRedoLogFile  {
 	private static final Logger LOGGER = LoggerFactory.getLogger(OraRedoLogFile.class);
 
 	private static final int TYPE_REDO_LOG_FILE = 0x22;
-	private static final int POS_BLOCK_SIZE = 0x15;
+	private static final int POS_BLOCK_SIZE = 0x14;
 	private static final int POS_BLOCK_COUNT = 0x18;
+	private static final int POS_MAGIC = 0x1c;
+	private static final int MAGIC = 0x7a7b7c7d;
 	private static final int POS_RDBMS_VERSION = 0x14;
 	private static final int POS_DBID = 0x18;
 	private static final int POS_INSTANCE_NAME = 0x1c;
+	private static final int LENGTH_INSTANCE_NAME = 8;
 	private static final int POS_ACTIVATION_ID = 0x34;
 	private static final int POS_DESCRIPTION = 0x5c;
+	private static final int LENGTH_DESCRIPTION = 64;
+	private static final int LENGTH_FILE_HEADER = POS_MAGIC + Integer.BYTES;
+	private static final int LENGTH_REDO_HEADER = POS_DESCRIPTION + LENGTH_DESCRIPTION;
+	/** Enough for file and redo headers with largest block size */
+	private static final int LENGTH_READ = 4096 + LENGTH_REDO_HEADER;
 
 	private final String fileName;
 	private final long fileLength;
 	private final int fileBlockSize;
 	private final long blocksInFile;
+	private final int versionRaw;
 	private final String versionString;
 	private final int versionMajor;
 	private final String instanceName;
 	private final long dbId;
 	private final String fileDescription;
 	private final long activationId;
-	private final int threadNo;
-	private final long sequenceNo;
-	private final long firstScn;
-	private final long nextScn;
+	private final boolean bigEndian;
+	private int threadNo;
+	private long sequenceNo;
+	private long firstScn;
+	private long nextScn;
 
 	public OraRedoLogFile(String fileName) throws IOException {
 		this.fileName = fileName;
-		RandomAccessFile raf = new RandomAccessFile(fileName, "r");
-		if (raf.read() != 0) {
-			raf.close();
-			raf = null;
+		final ByteBuffer buffer = ByteBuffer.allocate(LENGTH_READ);
+		try (FileChannel fc = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			fileLength = fc.size();
+			while (buffer.hasRemaining()) {
+				if (fc.read(buffer, buffer.position()) < 0) {
+					break;
+				}
+			}
+		}
+		buffer.flip();
+		if (buffer.remaining() < LENGTH_FILE_HEADER) {
+			throw new IOException("Redo log is too short!");
+		}
+		if (buffer.get(0) != 0) {
 			throw new IOException("First byte of redo log must be 0x0!");
 		}
-		if (raf.read() != TYPE_REDO_LOG_FILE) {
-			raf.close();
-			raf = null;
+		if ((buffer.get(1) & 0xFF) != TYPE_REDO_LOG_FILE) {
 			throw new IOException("Type of file (second byte) of redo log must be 0x22!");
 		}
+		// Files without magic number are treated as little-endian
+		bigEndian = buffer.order(ByteOrder.BIG_ENDIAN).getInt(POS_MAGIC) == MAGIC;
+		buffer.order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
 
-		//TODO Endianness!
-		raf.seek(POS_BLOCK_SIZE);
-		fileBlockSize = raf.readUnsignedShort();
-
-		fileLength = raf.length();
-		raf.seek(POS_BLOCK_COUNT);
-		blocksInFile = readU32LE(raf);
-		if (((blocksInFile + 1) * fileBlockSize) != fileLength) {
-			raf.close();
-			raf = null;
+		fileBlockSize = buffer.getInt(POS_BLOCK_SIZE);
+		blocksInFile = Integer.toUnsignedLong(buffer.getInt(POS_BLOCK_COUNT));
+		if (fileBlockSize <= 0 || ((blocksInFile + 1) * fileBlockSize) != fileLength) {
 			throw new IOException("Wrong redo log file size!!!");
 		}
+		if (buffer.limit() < fileBlockSize + LENGTH_REDO_HEADER) {
+			throw new IOException("Invalid block size " + fileBlockSize + "!!!");
+		}
 
 		// Block 0x01
-		raf.seek(fileBlockSize);
 		// Signature
-		if (raf.readUnsignedByte() != 0x01 || raf.readUnsignedByte() != TYPE_REDO_LOG_FILE) {
-			raf.close();
-			raf = null;
+		if (buffer.get(fileBlockSize) != 0x01 || (buffer.get(fileBlockSize + 1) & 0xFF) != TYPE_REDO_LOG_FILE) {
 			throw new IOException("Invalid signature for redo block 0x01!!!");
 		}
 		// RDBMS version
-		raf.seek(fileBlockSize + POS_RDBMS_VERSION);
-		final int version4th = raf.readUnsignedByte();
-		final int version3rd = raf.readUnsignedByte();
-		final int versionMinor = raf.readUnsignedByte() >> 4;
-		versionMajor = raf.readUnsignedByte();
-		versionString =  versionMajor + "." + versionMinor + "." + version3rd + "." + version4th;
+		versionRaw = buffer.getInt(fileBlockSize + POS_RDBMS_VERSION);
 		// DB_ID
-		raf.seek(fileBlockSize + POS_DBID);
-		dbId = readU32LE(raf);
-
+		dbId = Integer.toUnsignedLong(buffer.getInt(fileBlockSize + POS_DBID));
 		//$ORACLE_SID/Database name
-		raf.seek(fileBlockSize + POS_INSTANCE_NAME);
-		instanceName = readInstanceName(raf);
-
+		instanceName = readString(buffer, fileBlockSize + POS_INSTANCE_NAME, LENGTH_INSTANCE_NAME);
 		//Activation Id
-		raf.seek(fileBlockSize + POS_ACTIVATION_ID);
-		activationId = readU32LE(raf);
-
+		activationId = Integer.toUnsignedLong(buffer.getInt(fileBlockSize + POS_ACTIVATION_ID));
 		//Description
-		raf.seek(fileBlockSize + POS_DESCRIPTION);
-		fileDescription = readDescription(raf);
-		
-		//Parse description "T 0001, S 0000000149, SCN 0x00000000003cf3ec-0x00000000003cf3f1"
-		final String[] parts = fileDescription.split(",");
-		if (parts.length != 3) {
+		fileDescription = readString(buffer, fileBlockSize + POS_DESCRIPTION, LENGTH_DESCRIPTION);
+
+		versionMajor = versionRaw >>> 24;
+		versionString = versionString(versionRaw);
+		parseDescription();
+	}
+
+	/**
+	 * Restores header read earlier, used for persisted index of headers
+	 */
+	OraRedoLogFile(final String fileName, final long fileLength, final int fileBlockSize,
+			final long blocksInFile, final int versionRaw, final long dbId, final String instanceName,
+			final long activationId, final boolean bigEndian, final String fileDescription) throws IOException {
+		this.fileName = fileName;
+		this.fileLength = fileLength;
+		this.fileBlockSize = fileBlockSize;
+		this.blocksInFile = blocksInFile;
+		this.versionRaw = versionRaw;
+		this.dbId = dbId;
+		this.instanceName = instanceName;
+		this.activationId = activationId;
+		this.bigEndian = bigEndian;
+		this.fileDescription = fileDescription;
+		versionMajor = versionRaw >>> 24;
+		versionString = versionString(versionRaw);
+		parseDescription();
+	}
+
+	private static String versionString(final int versionRaw) {
+		return (versionRaw >>> 24) + "." +
+				((versionRaw >>> 20) & 0x0F) + "." +
+				((versionRaw >>> 8) & 0xFF) + "." +
+				(versionRaw & 0xFF);
+	}
+
+	/**
+	 * Parses description "T 0001, S 0000000149, SCN 0x00000000003cf3ec-0x00000000003cf3f1"
+	 */
+	private void parseDescription() throws IOException {
+		final int length = fileDescription.length();
+		int pos = expect(0, "T ");
+		int end = fileDescription.indexOf(',', pos);
+		if (end < 0) {
 			throw new IOException("Invalid archived redo description:'" + fileDescription + "'");
 		}
-		if (!StringUtils.startsWith(StringUtils.trim(parts[0]), "T")) {
+		try {
+			threadNo = Integer.parseInt(fileDescription, pos, end, 10);
+		} catch (NumberFormatException nfe) {
+			throw new IOException("Can't parse THREAD# from description: '" + fileDescription + "'", nfe);
+		}
+		pos = expect(end + 1, "S ");
+		end = fileDescription.indexOf(',', pos);
+		if (end < 0) {
 			throw new IOException("Invalid archived redo description:'" + fileDescription + "'");
-		} else {
-			try {
-				threadNo = Integer.parseInt(parts[0].trim().split(" ")[1]);
-			} catch (Exception e) {
-				throw new IOException("Can't parse THREAD# from description: '" +
-										fileDescription + "'", e);
-			}
 		}
-		if (!StringUtils.startsWith(StringUtils.trim(parts[1]), "S")) {
+		try {
+			sequenceNo = Long.parseLong(fileDescription, pos, end, 10);
+		} catch (NumberFormatException nfe) {
+			throw new IOException("Can't parse SEQUENCE# from description: '" + fileDescription + "'", nfe);
+		}
+		pos = expect(end + 1, "SCN 0x");
+		end = fileDescription.indexOf('-', pos);
+		if (end < 0) {
 			throw new IOException("Invalid archived redo description:'" + fileDescription + "'");
-		} else {
-			try {
-				sequenceNo = Long.parseLong(parts[1].trim().split(" ")[1]);
-			} catch (Exception e) {
-				throw new IOException("Can't parse SEQUENCE# from description: '" +
-										fileDescription + "'", e);
+		}
+		try {
+			firstScn = Long.parseLong(fileDescription, pos, end, 16);
+			pos = expect(end + 1, "0x");
+			end = pos;
+			while (end < length && Character.digit(fileDescription.charAt(end), 16) >= 0) {
+				end++;
 			}
+			nextScn = Long.parseLong(fileDescription, pos, end, 16);
+		} catch (NumberFormatException nfe) {
+			throw new IOException("Can't parse SCN range from description: '" + fileDescription + "'", nfe);
 		}
-		if (!StringUtils.startsWith(StringUtils.trim(parts[2]), "SCN")) {
+	}
+
+	/**
+	 * Skips spaces and expected text, returns position after text
+	 */
+	private int expect(int pos, final String text) throws IOException {
+		while (pos < fileDescription.length() && fileDescription.charAt(pos) == ' ') {
+			pos++;
+		}
+		if (!fileDescription.startsWith(text, pos)) {
 			throw new IOException("Invalid archived redo description:'" + fileDescription + "'");
-		} else {
-			final String[] scns = StringUtils.trim(StringUtils.remove(StringUtils.trim(parts[2]), "SCN")).split("-");
-			firstScn = Long.parseLong(StringUtils.remove(scns[0], "0x"), 16);
-			nextScn = Long.parseLong(StringUtils.remove(scns[1], "0x"), 16);
 		}
-
-		raf.close();
-		raf = null;
+		return pos + text.length();
 	}
 
 	public String name() {
@@ -214,31 +274,22 @@ public class OraRedoLogFile  {
 		return nextScn;
 	}
 
-	private long readU32LE(RandomAccessFile raf) throws IOException {
-		final int b0 = raf.readUnsignedByte();
-		final int b1 = raf.readUnsignedByte();
-		final int b2 = raf.readUnsignedByte();
-		final int b3 = raf.readUnsignedByte();
-		return (b0 | (b1 << 8) | (b2 << 16) | (b3 << 24)) & 0x00000000FFFFFFFFL;
+	int getVersionRaw() {
+		return versionRaw;
 	}
 
-	private String readInstanceName(RandomAccessFile raf) throws IOException {
-		final StringBuilder sb = new StringBuilder();
-		for (int i = 0; i < 8; i++) {
-			final char v = (char) raf.readUnsignedByte();
-			if (v == 0) {
-				break;
-			} else {
-				sb.append(v);
-			}
-		}
-		return sb.toString();
+	/**
+	 * 
+	 * @return true when file is written on big-endian platform
+	 */
+	public boolean isBigEndian() {
+		return bigEndian;
 	}
 
-	private String readDescription(RandomAccessFile raf) throws IOException {
-		final StringBuilder sb = new StringBuilder();
-		for (int i = 0; i < 64; i++) {
-			final char v = (char) raf.readUnsignedByte();
+	private static String readString(final ByteBuffer buffer, final int position, final int maxLength) {
+		final StringBuilder sb = new StringBuilder(maxLength);
+		for (int i = 0; i < maxLength; i++) {
+			final char v = (char) (buffer.get(position + i) & 0xFF);
 			if (v == 0) {
 				break;
 			} else {
@@ -266,6 +317,10 @@ public class OraRedoLogFile  {
 		sb.append(versionString);
 		sb.append("\n");
 
+		sb.append("ENDIANNESS\t=\t");
+		sb.append(bigEndian ? "BIG" : "LITTLE");
+		sb.append("\n");
+
 		sb.append("DBID\t=\t");
 		sb.append(dbId);
 		sb.append("\n");
@@ -0,0 +1,384 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle.utils.file;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+
+/**
+ *
+ * Client for {@link ShipmentProtocol} with single persistent connection and
+ * any number of requests in flight. Connection is opened on first request and
+ * reopened after failure. When LZ4 compression is offered to server DATA_LZ4 frames are
+ * decompressed straight into request sink.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+public class ShipmentClient implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShipmentClient.class);
+
+	private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+	private final InetSocketAddress serverAddress;
+	private final byte compression;
+	private final AtomicLong requestIds = new AtomicLong(0);
+	private final Map<Long, PendingRequest> requests = new ConcurrentHashMap<>();
+	private SocketChannel channel;
+
+	public ShipmentClient(final InetSocketAddress serverAddress) {
+		this(serverAddress, ShipmentProtocol.COMPRESSION_NONE);
+	}
+
+	/**
+	 * 
+	 * @param serverAddress
+	 * @param compression compression offered to server, ShipmentProtocol.COMPRESSION_NONE or ShipmentProtocol.COMPRESSION_LZ4
+	 */
+	public ShipmentClient(final InetSocketAddress serverAddress, final byte compression) {
+		this.serverAddress = serverAddress;
+		this.compression = compression;
+	}
+
+	/**
+	 * Sends request for whole file
+	 *
+	 * @param fileName name of file at server side
+	 * @param sink     channel for content of file, may be null when no data expected
+	 * @return future completed after END frame received
+	 */
+	public CompletableFuture<Response> request(final String fileName, final WritableByteChannel sink) {
+		return request(fileName, 0, -1, sink);
+	}
+
+	/**
+	 * Sends request for range of file. Future completes exceptionally when CRC32C
+	 * of received content does not match checksum sent by server.
+	 *
+	 * @param fileName name of file at server side
+	 * @param position first byte of range
+	 * @param length   length of range, -1 for rest of file
+	 * @param sink     channel for content of file, may be null when no data expected
+	 * @return future completed after END frame received
+	 */
+	public CompletableFuture<Response> request(final String fileName,
+			final long position, final long length, final WritableByteChannel sink) {
+		final long requestId = requestIds.incrementAndGet();
+		final PendingRequest request = new PendingRequest(sink);
+		requests.put(requestId, request);
+		try {
+			send(request, ShipmentProtocol.request(requestId, fileName, position, length));
+		} catch (IOException ioe) {
+			requests.remove(requestId);
+			request.future.completeExceptionally(ioe);
+		}
+		return request.future;
+	}
+
+	/**
+	 * Informs server that redo below given SCN is not required anymore, no answer expected
+	 *
+	 * @param scn
+	 * @throws IOException
+	 */
+	public void release(final long scn) throws IOException {
+		send(null, ShipmentProtocol.release(scn));
+	}
+
+	private synchronized void send(final PendingRequest request, final ByteBuffer frame) throws IOException {
+		if (channel == null || !channel.isOpen()) {
+			channel = SocketChannel.open(serverAddress);
+			final SocketChannel readerChannel = channel;
+			final Thread reader = new Thread(() -> readFrames(readerChannel),
+					"OraCdcShipmentClient-" + serverAddress.getHostString() + ":" + serverAddress.getPort());
+			reader.setDaemon(true);
+			reader.start();
+			final ByteBuffer hello = ShipmentProtocol.hello(compression);
+			while (hello.hasRemaining()) {
+				channel.write(hello);
+			}
+			LOGGER.debug("Connected to {}:{}, compression {} offered",
+					serverAddress.getHostString(), serverAddress.getPort(), compression);
+		}
+		if (request != null) {
+			request.channel = channel;
+		}
+		while (frame.hasRemaining()) {
+			channel.write(frame);
+		}
+	}
+
+	private void readFrames(final SocketChannel readerChannel) {
+		final ByteBuffer header = ByteBuffer.allocate(ShipmentProtocol.FRAME_HEADER_LENGTH);
+		final ByteBuffer payload = ByteBuffer.allocateDirect(ShipmentProtocol.MAX_DATA_LENGTH);
+		final ByteBuffer decompressed = ByteBuffer.allocateDirect(ShipmentProtocol.COMPRESSION_BLOCK_LENGTH);
+		final LZ4FastDecompressor decompressor = LZ4_FACTORY.fastDecompressor();
+		IOException failure = null;
+		try {
+			while (true) {
+				header.clear();
+				if (!readFully(readerChannel, header)) {
+					break;
+				}
+				header.flip();
+				final int payloadLength = ShipmentProtocol.payloadLength(header);
+				header.getInt();
+				final byte type = header.get();
+				final long requestId = header.getLong();
+				if (payloadLength < 0 || payloadLength > ShipmentProtocol.MAX_DATA_LENGTH) {
+					throw new IOException("Invalid frame payload length " + payloadLength);
+				}
+				payload.clear();
+				payload.limit(payloadLength);
+				if (!readFully(readerChannel, payload)) {
+					throw new EOFException("Connection closed in the middle of frame");
+				}
+				payload.flip();
+				final PendingRequest request = requests.get(requestId);
+				if (request == null) {
+					LOGGER.warn("Frame of type {} for unknown request #{} ignored.", type, requestId);
+					continue;
+				}
+				switch (type) {
+				case ShipmentProtocol.TYPE_RESPONSE:
+					request.response.status = payload.get();
+					request.response.size = payload.getLong();
+					request.response.shippedBytes = payload.getLong();
+					request.response.message = ShipmentProtocol.text(payload, payload.remaining());
+					break;
+				case ShipmentProtocol.TYPE_DATA:
+					request.response.wireBytes += payloadLength;
+					request.write(payload);
+					break;
+				case ShipmentProtocol.TYPE_DATA_LZ4:
+					request.response.wireBytes += payloadLength;
+					final int rawLength = payload.getInt();
+					if (rawLength < 0 || rawLength > ShipmentProtocol.COMPRESSION_BLOCK_LENGTH) {
+						throw new IOException("Invalid compressed block length " + rawLength);
+					}
+					try {
+						decompressor.decompress(payload, payload.position(), decompressed, 0, rawLength);
+					} catch (LZ4Exception lz4e) {
+						throw new IOException("Corrupted compressed block for request #" + requestId, lz4e);
+					}
+					decompressed.clear();
+					decompressed.limit(rawLength);
+					request.write(decompressed);
+					break;
+				case ShipmentProtocol.TYPE_END:
+					requests.remove(requestId);
+					request.response.checksum = payloadLength >= ShipmentProtocol.END_LENGTH ?
+							payload.getLong() : ShipmentProtocol.NO_CHECKSUM;
+					request.complete();
+					break;
+				default:
+					throw new IOException("Unknown frame type " + type);
+				}
+			}
+		} catch (IOException ioe) {
+			LOGGER.error("Error reading from {}:{}: {}",
+					serverAddress.getHostString(), serverAddress.getPort(), ioe.getMessage());
+			LOGGER.debug(ExceptionUtils.getExceptionStackTrace(ioe));
+			failure = ioe;
+		} finally {
+			try {
+				readerChannel.close();
+			} catch (IOException ioe) {
+				LOGGER.debug(ExceptionUtils.getExceptionStackTrace(ioe));
+			}
+			if (failure == null) {
+				failure = new EOFException("Connection to " + serverAddress + " closed");
+			}
+			for (Map.Entry<Long, PendingRequest> entry : requests.entrySet()) {
+				if (entry.getValue().channel == readerChannel &&
+						requests.remove(entry.getKey(), entry.getValue())) {
+					entry.getValue().future.completeExceptionally(failure);
+				}
+			}
+		}
+	}
+
+	private static boolean readFully(final SocketChannel readerChannel, final ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (readerChannel.read(buffer) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized void close() {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException ioe) {
+				LOGGER.debug(ExceptionUtils.getExceptionStackTrace(ioe));
+			}
+			channel = null;
+		}
+	}
+
+	private static class PendingRequest {
+
+		private final CompletableFuture<Response> future = new CompletableFuture<>();
+		private final Response response = new Response();
+		private final WritableByteChannel sink;
+		private final CRC32C crc = new CRC32C();
+		private volatile SocketChannel channel;
+		private IOException failure;
+
+		PendingRequest(final WritableByteChannel sink) {
+			this.sink = sink;
+		}
+
+		void write(final ByteBuffer data) {
+			response.bytesReceived += data.remaining();
+			crc.update(data.duplicate());
+			if (sink == null || failure != null) {
+				return;
+			}
+			try {
+				while (data.hasRemaining()) {
+					sink.write(data);
+				}
+			} catch (IOException ioe) {
+				// Keep connection, fail only this request
+				failure = ioe;
+			}
+		}
+
+		void complete() {
+			if (failure == null && response.bytesReceived > 0 &&
+					response.checksum != ShipmentProtocol.NO_CHECKSUM && response.checksum != crc.getValue()) {
+				failure = new IOException("CRC32C mismatch: expected " + response.checksum +
+						", received " + crc.getValue());
+			}
+			if (failure == null) {
+				future.complete(response);
+			} else {
+				future.completeExceptionally(failure);
+			}
+		}
+
+	}
+
+	/**
+	 * Content of RESPONSE frame and number of bytes received in DATA frames
+	 */
+	public static class Response {
+
+		private byte status = ShipmentProtocol.STATUS_ERROR;
+		private long size;
+		private String message;
+		private long bytesReceived;
+		private long shippedBytes;
+		private long wireBytes;
+		private long checksum = ShipmentProtocol.NO_CHECKSUM;
+
+		public boolean isOk() {
+			return status == ShipmentProtocol.STATUS_OK;
+		}
+
+		public byte getStatus() {
+			return status;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		public long getBytesReceived() {
+			return bytesReceived;
+		}
+
+		/**
+		 * 
+		 * @return number of bytes sent over network while shipping file to server host, reported by server
+		 */
+		public long getShippedBytes() {
+			return shippedBytes;
+		}
+
+		/**
+		 * 
+		 * @return CRC32C sent by server in END frame or ShipmentProtocol.NO_CHECKSUM
+		 */
+		public long getChecksum() {
+			return checksum;
+		}
+
+		/**
+		 * 
+		 * @return number of bytes of file content received over network, compressed or not
+		 */
+		public long getWireBytes() {
+			return wireBytes;
+		}
+
+	}
+
+	/**
+	 * Returns sink writing to file channel starting from given position,
+	 * independent of file channel position
+	 *
+	 * @param fc
+	 * @param position
+	 * @return
+	 */
+	public static WritableByteChannel positionalSink(final FileChannel fc, final long position) {
+		return new WritableByteChannel() {
+			private long current = position;
+
+			@Override
+			public boolean isOpen() {
+				return fc.isOpen();
+			}
+
+			@Override
+			public void close() {}
+
+			@Override
+			public int write(final ByteBuffer src) throws IOException {
+				final int written = fc.write(src, current);
+				current += written;
+				return written;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,330 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle.utils.file;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Index of files shipped to target directory. Repeated requests for the same file,
+ * including requests after restart of agent or connector, are served from local copy
+ * when size, modification time and redo header (THREAD#, SEQUENCE#, SCN range) of copy
+ * still match the index.
+ * When total size of files exceeds quota, redo logs with NEXT_CHANGE# not greater
+ * than restart SCN reported by connector are deleted, oldest first.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+public class ShipmentFileCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShipmentFileCache.class);
+	private static final String INDEX_FILE = "oracdc-cache.index";
+	private static final char DELIMITER = '\t';
+	private static final int NO_THREAD = -1;
+
+	private final Path directory;
+	private final Path indexFile;
+	private final long quota;
+	private final Map<String, Entry> entries = new HashMap<>();
+	private long totalBytes = 0;
+	private long releaseScn = 0;
+
+	/**
+	 *
+	 * @param directory directory with shipped files
+	 * @param quota     maximum size of files in bytes, 0 for no limit
+	 */
+	public ShipmentFileCache(final Path directory, final long quota) {
+		this.directory = directory;
+		this.indexFile = directory.resolve(INDEX_FILE);
+		this.quota = quota;
+		load();
+	}
+
+	/**
+	 * Returns valid local copy of remote file or null
+	 *
+	 * @param remoteFile name of file at source
+	 * @return
+	 */
+	public synchronized Entry lookup(final String remoteFile) {
+		final Entry entry = entries.get(remoteFile);
+		if (entry == null) {
+			return null;
+		}
+		if (isValid(entry)) {
+			return entry;
+		} else {
+			LOGGER.warn("Cached copy {} of {} is changed or missing and will be shipped again.",
+					entry.localFile, remoteFile);
+			remove(remoteFile);
+			save();
+			return null;
+		}
+	}
+
+	/**
+	 * Adds shipped file to index
+	 *
+	 * @param remoteFile name of file at source
+	 * @param localFile  local copy
+	 * @param size
+	 * @param checksum   CRC32C of file
+	 */
+	public synchronized void add(final String remoteFile, final Path localFile,
+			final long size, final long checksum) {
+		final String localName = localFile.getFileName().toString();
+		// Same local name for other remote file, previous copy is overwritten
+		entries.entrySet().removeIf(e -> {
+			if (StringUtils.equals(e.getValue().localFile, localName)) {
+				totalBytes -= e.getValue().size;
+				return true;
+			} else {
+				return false;
+			}
+		});
+		final Entry entry = new Entry(localName, size, checksum);
+		try {
+			entry.lastModified = Files.getLastModifiedTime(localFile).toMillis();
+		} catch (IOException ioe) {
+			LOGGER.error("Unable to read attributes of {}: {}", localFile, ioe.getMessage());
+			return;
+		}
+		readHeader(entry, localFile);
+		entries.put(remoteFile, entry);
+		totalBytes += size;
+		evict();
+		save();
+	}
+
+	/**
+	 * Sets restart SCN of connector, files with redo below it are not required anymore
+	 * and may be evicted
+	 *
+	 * @param scn
+	 */
+	public synchronized void release(final long scn) {
+		if (scn > releaseScn) {
+			releaseScn = scn;
+			LOGGER.debug("Redo below SCN {} may be evicted.", scn);
+			if (evict()) {
+				save();
+			}
+		}
+	}
+
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private boolean evict() {
+		if (quota == 0 || totalBytes <= quota) {
+			return false;
+		}
+		final List<Map.Entry<String, Entry>> candidates = new ArrayList<>();
+		for (Map.Entry<String, Entry> e : entries.entrySet()) {
+			if (e.getValue().thread != NO_THREAD && e.getValue().nextScn <= releaseScn) {
+				candidates.add(e);
+			}
+		}
+		candidates.sort(Comparator.comparingLong(e -> e.getValue().nextScn));
+		boolean evicted = false;
+		final Iterator<Map.Entry<String, Entry>> iterator = candidates.iterator();
+		while (totalBytes > quota && iterator.hasNext()) {
+			final Map.Entry<String, Entry> e = iterator.next();
+			LOGGER.info("Evicting {} (thread# {}, sequence# {}, next change {}) from cache.",
+					e.getValue().localFile, e.getValue().thread, e.getValue().sequence, e.getValue().nextScn);
+			remove(e.getKey());
+			try {
+				Files.deleteIfExists(directory.resolve(e.getValue().localFile));
+			} catch (IOException ioe) {
+				LOGGER.error("Unable to delete {}: {}", e.getValue().localFile, ioe.getMessage());
+			}
+			evicted = true;
+		}
+		if (totalBytes > quota) {
+			LOGGER.warn("Cache size {} exceeds quota {}, no more files below SCN {} to evict.",
+					totalBytes, quota, releaseScn);
+		}
+		return evicted;
+	}
+
+	private void remove(final String remoteFile) {
+		final Entry entry = entries.remove(remoteFile);
+		if (entry != null) {
+			totalBytes -= entry.size;
+		}
+	}
+
+	private boolean isValid(final Entry entry) {
+		final Path localFile = directory.resolve(entry.localFile);
+		try {
+			if (!Files.isRegularFile(localFile) ||
+					Files.size(localFile) != entry.size ||
+					Files.getLastModifiedTime(localFile).toMillis() != entry.lastModified) {
+				return false;
+			}
+		} catch (IOException ioe) {
+			return false;
+		}
+		if (entry.thread == NO_THREAD) {
+			return true;
+		}
+		try {
+			final OraRedoLogFile redo = new OraRedoLogFile(localFile.toString());
+			return redo.thread() == entry.thread &&
+					redo.sequence() == entry.sequence &&
+					redo.firstChange() == entry.firstScn &&
+					redo.nextChange() == entry.nextScn;
+		} catch (IOException ioe) {
+			return false;
+		}
+	}
+
+	private void readHeader(final Entry entry, final Path localFile) {
+		try {
+			final OraRedoLogFile redo = new OraRedoLogFile(localFile.toString());
+			entry.thread = redo.thread();
+			entry.sequence = redo.sequence();
+			entry.firstScn = redo.firstChange();
+			entry.nextScn = redo.nextChange();
+		} catch (IOException ioe) {
+			// Not a redo log, cached but never evicted
+			LOGGER.debug("{} is not a redo log: {}", localFile, ioe.getMessage());
+		}
+	}
+
+	private void load() {
+		if (!Files.exists(indexFile)) {
+			return;
+		}
+		try {
+			for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+				final String[] fields = StringUtils.splitPreserveAllTokens(line, DELIMITER);
+				if (fields.length != 9) {
+					continue;
+				}
+				final Entry entry = new Entry(fields[1], Long.parseLong(fields[6]), Long.parseLong(fields[7]));
+				entry.thread = Integer.parseInt(fields[2]);
+				entry.sequence = Long.parseLong(fields[3]);
+				entry.firstScn = Long.parseLong(fields[4]);
+				entry.nextScn = Long.parseLong(fields[5]);
+				entry.lastModified = Long.parseLong(fields[8]);
+				if (isValid(entry)) {
+					entries.put(fields[0], entry);
+					totalBytes += entry.size;
+				}
+			}
+			LOGGER.info("{} files with total size {} bytes available in cache {}.",
+					entries.size(), totalBytes, directory);
+		} catch (IOException | NumberFormatException e) {
+			LOGGER.error("Unable to read cache index {}: {}", indexFile, e.getMessage());
+			entries.clear();
+			totalBytes = 0;
+		}
+	}
+
+	private void save() {
+		final StringBuilder sb = new StringBuilder(entries.size() * 128);
+		for (Map.Entry<String, Entry> e : entries.entrySet()) {
+			final Entry entry = e.getValue();
+			sb
+				.append(e.getKey()).append(DELIMITER)
+				.append(entry.localFile).append(DELIMITER)
+				.append(entry.thread).append(DELIMITER)
+				.append(entry.sequence).append(DELIMITER)
+				.append(entry.firstScn).append(DELIMITER)
+				.append(entry.nextScn).append(DELIMITER)
+				.append(entry.size).append(DELIMITER)
+				.append(entry.checksum).append(DELIMITER)
+				.append(entry.lastModified).append('\n');
+		}
+		final Path tmpFile = directory.resolve(INDEX_FILE + ".tmp");
+		try {
+			Files.write(tmpFile, sb.toString().getBytes(StandardCharsets.UTF_8));
+			Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ioe) {
+			LOGGER.error("Unable to write cache index {}: {}", indexFile, ioe.getMessage());
+		}
+	}
+
+	/**
+	 * Local copy of shipped file
+	 */
+	public static class Entry {
+
+		private final String localFile;
+		private final long size;
+		private final long checksum;
+		private int thread = NO_THREAD;
+		private long sequence;
+		private long firstScn;
+		private long nextScn;
+		private long lastModified;
+
+		Entry(final String localFile, final long size, final long checksum) {
+			this.localFile = localFile;
+			this.size = size;
+			this.checksum = checksum;
+		}
+
+		public String getLocalFile() {
+			return localFile;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public long getChecksum() {
+			return checksum;
+		}
+
+		public int getThread() {
+			return thread;
+		}
+
+		public long getSequence() {
+			return sequence;
+		}
+
+		public long getFirstScn() {
+			return firstScn;
+		}
+
+		public long getNextScn() {
+			return nextScn;
+		}
+
+	}
+
+}
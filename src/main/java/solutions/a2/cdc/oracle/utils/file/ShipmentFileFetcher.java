@@ -0,0 +1,462 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle.utils.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32C;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+
+/**
+ *
+ * Fetches file from shipment server in fixed size ranges over several connections at once.
+ * Every range is verified with CRC32C sent by server and written in place with positional
+ * write. Completed ranges are recorded in &lt;file&gt;.ranges, so after failure or restart
+ * transfer resumes from missing ranges only. When all ranges are received file is read
+ * once again: every range is compared with CRC32C sent by server and damaged ranges are
+ * fetched again, CRC32C of whole file is calculated in same pass. Disk reads are performed
+ * by worker threads of fetcher, not by threads of server and clients. Concurrent requests
+ * for same local file share single transfer.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+public class ShipmentFileFetcher {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShipmentFileFetcher.class);
+	private static final String RANGES_SUFFIX = ".ranges";
+	private static final int CHECKSUM_BUFFER_LENGTH = 1024 * 1024;
+
+	private final List<ShipmentClient> clients;
+	private final long rangeLength;
+	private final int rangesInFlight;
+	private final int maxAttempts;
+	private final ExecutorService worker;
+	private final Map<Path, FileFetch> fetches = new HashMap<>();
+
+	/**
+	 *
+	 * @param clients        connections to server, ranges are distributed between them
+	 * @param rangeLength    size of range in bytes
+	 * @param rangesInFlight maximum number of ranges requested at once
+	 * @param maxAttempts    maximum number of attempts to fetch single range
+	 */
+	public ShipmentFileFetcher(final List<ShipmentClient> clients,
+			final long rangeLength, final int rangesInFlight, final int maxAttempts) {
+		this.clients = clients;
+		this.rangeLength = rangeLength;
+		this.rangesInFlight = rangesInFlight;
+		this.maxAttempts = maxAttempts;
+		this.worker = Executors.newFixedThreadPool(Math.max(2, clients.size()), runnable -> {
+			final Thread thread = new Thread(runnable, "ShipmentFileFetcher-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 *
+	 * @param remoteFile name of file at server
+	 * @param localFile  destination
+	 * @return future with result of transfer
+	 */
+	public CompletableFuture<Result> fetch(final String remoteFile, final Path localFile) {
+		final Path key = localFile.toAbsolutePath().normalize();
+		synchronized (fetches) {
+			final FileFetch running = fetches.get(key);
+			if (running != null && StringUtils.equals(running.remoteFile, remoteFile)) {
+				LOGGER.debug("{} is already being fetched to {}.", remoteFile, localFile);
+				return running.future;
+			}
+			final FileFetch fetch = new FileFetch(remoteFile, localFile);
+			fetches.put(key, fetch);
+			fetch.future.whenComplete((result, throwable) -> {
+				synchronized (fetches) {
+					fetches.remove(key, fetch);
+				}
+			});
+			if (running == null) {
+				fetch.submit(fetch::start);
+			} else {
+				// Same local name for other remote file, wait for previous transfer
+				running.future.whenComplete((result, throwable) -> fetch.submit(fetch::start));
+			}
+			return fetch.future;
+		}
+	}
+
+	/**
+	 * Stops worker threads, transfers in progress are not completed
+	 */
+	public void close() {
+		worker.shutdownNow();
+	}
+
+	private class FileFetch {
+
+		private final CompletableFuture<Result> future = new CompletableFuture<>();
+		private final String remoteFile;
+		private final Path localFile;
+		private final Path rangesFile;
+		private final BitSet completed = new BitSet();
+		private final BitSet requested = new BitSet();
+		private int[] attempts;
+		private long[] checksums;
+		private FileChannel fc;
+		private long size = -1;
+		private int rangeCount;
+		private int inFlight = 0;
+		private long shippedBytes = 0;
+
+		FileFetch(final String remoteFile, final Path localFile) {
+			this.remoteFile = remoteFile;
+			this.localFile = localFile;
+			this.rangesFile = Paths.get(localFile.toString() + RANGES_SUFFIX);
+		}
+
+		void submit(final Runnable task) {
+			try {
+				worker.execute(task);
+			} catch (RejectedExecutionException ree) {
+				fail(new IOException("Fetcher is closed", ree));
+			}
+		}
+
+		synchronized void start() {
+			try {
+				final boolean resume = Files.exists(rangesFile) && Files.exists(localFile);
+				fc = FileChannel.open(localFile,
+						StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				if (resume) {
+					loadRanges();
+				} else {
+					Files.deleteIfExists(rangesFile);
+					fc.truncate(0);
+				}
+			} catch (IOException ioe) {
+				fail(ioe);
+				return;
+			}
+			if (size < 0) {
+				// File size is unknown until first answer
+				attempts = new int[1];
+			}
+			scheduleRanges();
+		}
+
+		private void loadRanges() throws IOException {
+			final List<String> lines = Files.readAllLines(rangesFile, StandardCharsets.US_ASCII);
+			if (lines.isEmpty()) {
+				return;
+			}
+			final String[] header = StringUtils.split(lines.get(0));
+			if (header.length != 2 || Long.parseLong(header[1]) != rangeLength) {
+				LOGGER.warn("Range size of {} changed, {} will be shipped again.", rangesFile, localFile);
+				fc.truncate(0);
+				return;
+			}
+			setSize(Long.parseLong(header[0]));
+			for (int i = 1; i < lines.size(); i++) {
+				final String[] range = StringUtils.split(lines.get(i));
+				if (range.length == 2) {
+					final int rangeNo = Integer.parseInt(range[0]);
+					// Ensure that range stored on disk is intact
+					final long checksum = Long.parseLong(range[1]);
+					if (rangeNo < rangeCount && checksum(rangeNo, null) == checksum) {
+						completed.set(rangeNo);
+						requested.set(rangeNo);
+						checksums[rangeNo] = checksum;
+					}
+				}
+			}
+			LOGGER.info("Resuming transfer of {}: {} of {} ranges already received.",
+					remoteFile, completed.cardinality(), rangeCount);
+		}
+
+		/**
+		 * Calculates CRC32C of range stored on disk
+		 *
+		 * @param rangeNo
+		 * @param fileCrc when not null, is updated with content of range
+		 * @return CRC32C of range or ShipmentProtocol.NO_CHECKSUM when file is too short
+		 * @throws IOException
+		 */
+		private long checksum(final int rangeNo, final CRC32C fileCrc) throws IOException {
+			final CRC32C crc = new CRC32C();
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(CHECKSUM_BUFFER_LENGTH);
+			long position = rangeNo * rangeLength;
+			long remaining = rangeLength(rangeNo);
+			while (remaining > 0) {
+				buffer.clear();
+				buffer.limit((int) Math.min(remaining, CHECKSUM_BUFFER_LENGTH));
+				final int bytesRead = fc.read(buffer, position);
+				if (bytesRead < 0) {
+					return ShipmentProtocol.NO_CHECKSUM;
+				}
+				buffer.flip();
+				if (fileCrc != null) {
+					fileCrc.update(buffer.duplicate());
+				}
+				crc.update(buffer);
+				position += bytesRead;
+				remaining -= bytesRead;
+			}
+			return crc.getValue();
+		}
+
+		private void setSize(final long size) {
+			this.size = size;
+			this.rangeCount = (int) ((size + rangeLength - 1) / rangeLength);
+			final int[] firstAttempts = attempts;
+			this.attempts = new int[Math.max(1, rangeCount)];
+			if (firstAttempts != null) {
+				this.attempts[0] = firstAttempts[0];
+			}
+			this.checksums = new long[Math.max(1, rangeCount)];
+			Arrays.fill(checksums, ShipmentProtocol.NO_CHECKSUM);
+		}
+
+		private long rangeLength(final int rangeNo) {
+			return Math.min(rangeLength, size - rangeNo * rangeLength);
+		}
+
+		private void requestRange(final int rangeNo) {
+			requested.set(rangeNo);
+			inFlight++;
+			attempts[rangeNo]++;
+			final long position = rangeNo * rangeLength;
+			final ShipmentClient client = clients.get(rangeNo % clients.size());
+			client.request(remoteFile, position, rangeLength,
+					ShipmentClient.positionalSink(fc, position)).whenComplete(
+							(response, throwable) -> rangeCompleted(rangeNo, response, throwable));
+		}
+
+		private synchronized void rangeCompleted(final int rangeNo,
+				final ShipmentClient.Response response, final Throwable throwable) {
+			inFlight--;
+			if (future.isDone()) {
+				return;
+			}
+			if (throwable == null && !response.isOk()) {
+				// Missing file, no reason to retry
+				future.complete(new Result(response.getStatus(), 0, 0, ShipmentProtocol.NO_CHECKSUM, response.getMessage()));
+				close(true);
+				return;
+			}
+			if (throwable == null && size < 0) {
+				setSize(response.getSize());
+				writeRangesHeader();
+			}
+			final Exception error;
+			if (throwable != null) {
+				error = throwable instanceof Exception ? (Exception) throwable : new IOException(throwable);
+			} else if (response.getBytesReceived() != rangeLength(rangeNo)) {
+				error = new IOException("Received " + response.getBytesReceived() + " bytes of range #" +
+						rangeNo + ", expected " + rangeLength(rangeNo));
+			} else {
+				error = null;
+			}
+			if (error == null) {
+				shippedBytes += response.getWireBytes();
+				completed.set(rangeNo);
+				checksums[rangeNo] = response.getChecksum();
+				appendRange(rangeNo, response.getChecksum());
+			} else if (attempts[rangeNo] < maxAttempts) {
+				LOGGER.warn("Range #{} of {} failed ({}), retrying.", rangeNo, remoteFile, error.getMessage());
+				requested.clear(rangeNo);
+			} else {
+				fail(error);
+				return;
+			}
+			scheduleRanges();
+		}
+
+		private void scheduleRanges() {
+			if (size < 0) {
+				requestRange(0);
+				return;
+			}
+			if (completed.cardinality() >= rangeCount) {
+				// Whole file is read again, not in thread of client
+				submit(this::finish);
+				return;
+			}
+			int rangeNo = requested.nextClearBit(0);
+			while (inFlight < rangesInFlight && rangeNo < rangeCount) {
+				requestRange(rangeNo);
+				rangeNo = requested.nextClearBit(rangeNo + 1);
+			}
+		}
+
+		private void writeRangesHeader() {
+			try {
+				Files.write(rangesFile, (size + " " + rangeLength + "\n").getBytes(StandardCharsets.US_ASCII),
+						StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			} catch (IOException ioe) {
+				LOGGER.error("Unable to write {}: {}", rangesFile, ioe.getMessage());
+			}
+		}
+
+		private void appendRange(final int rangeNo, final long checksum) {
+			try {
+				Files.write(rangesFile, (rangeNo + " " + checksum + "\n").getBytes(StandardCharsets.US_ASCII),
+						StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+			} catch (IOException ioe) {
+				// Transfer continues, only resume is affected
+				LOGGER.error("Unable to write {}: {}", rangesFile, ioe.getMessage());
+			}
+		}
+
+		private void finish() {
+			final CRC32C fileCrc = new CRC32C();
+			final BitSet damaged = new BitSet();
+			try {
+				fc.truncate(size);
+				fc.force(false);
+				for (int rangeNo = 0; rangeNo < rangeCount; rangeNo++) {
+					final long checksum = checksum(rangeNo, fileCrc);
+					if (checksums[rangeNo] != ShipmentProtocol.NO_CHECKSUM && checksums[rangeNo] != checksum) {
+						damaged.set(rangeNo);
+					}
+				}
+			} catch (IOException ioe) {
+				fail(ioe);
+				return;
+			}
+			if (!damaged.isEmpty()) {
+				refetch(damaged);
+				return;
+			}
+			try {
+				final long checksum = fileCrc.getValue();
+				close(false);
+				Files.deleteIfExists(rangesFile);
+				LOGGER.debug("{} received in {} ranges, size {}, CRC32C {}", remoteFile, rangeCount, size, checksum);
+				future.complete(new Result(ShipmentProtocol.STATUS_OK, size, shippedBytes, checksum, localFile.toString()));
+			} catch (IOException ioe) {
+				fail(ioe);
+			}
+		}
+
+		private synchronized void refetch(final BitSet damaged) {
+			for (int rangeNo = damaged.nextSetBit(0); rangeNo >= 0; rangeNo = damaged.nextSetBit(rangeNo + 1)) {
+				if (attempts[rangeNo] >= maxAttempts) {
+					fail(new IOException("CRC32C of range #" + rangeNo + " in " + localFile +
+							" does not match checksum sent by server"));
+					return;
+				}
+				LOGGER.warn("Range #{} of {} is damaged on disk, retrying.", rangeNo, remoteFile);
+				completed.clear(rangeNo);
+				requested.clear(rangeNo);
+			}
+			scheduleRanges();
+		}
+
+		private void fail(final Exception error) {
+			LOGGER.error("Unable to ship {}: {}", remoteFile, error.getMessage());
+			LOGGER.debug(ExceptionUtils.getExceptionStackTrace(error));
+			// Keep received ranges for resume
+			close(false);
+			future.completeExceptionally(error);
+		}
+
+		private void close(final boolean delete) {
+			try {
+				if (fc != null) {
+					fc.close();
+				}
+				if (delete) {
+					Files.deleteIfExists(localFile);
+					Files.deleteIfExists(rangesFile);
+				}
+			} catch (IOException ioe) {
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
+			}
+		}
+
+	}
+
+	/**
+	 * Result of file transfer
+	 */
+	public static class Result {
+
+		private final byte status;
+		private final long size;
+		private final long shippedBytes;
+		private final long checksum;
+		private final String message;
+
+		Result(final byte status, final long size, final long shippedBytes, final long checksum, final String message) {
+			this.status = status;
+			this.size = size;
+			this.shippedBytes = shippedBytes;
+			this.checksum = checksum;
+			this.message = message;
+		}
+
+		public boolean isOk() {
+			return status == ShipmentProtocol.STATUS_OK;
+		}
+
+		public byte getStatus() {
+			return status;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public long getShippedBytes() {
+			return shippedBytes;
+		}
+
+		/**
+		 *
+		 * @return CRC32C of whole file
+		 */
+		public long getChecksum() {
+			return checksum;
+		}
+
+		/**
+		 *
+		 * @return name of local file for successful transfer, error message otherwise
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+	}
+
+}
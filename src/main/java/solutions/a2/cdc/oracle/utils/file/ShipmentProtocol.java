@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle.utils.file;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *
+ * Framed protocol used between RedoTransportThread and shipment agents.
+ * Every frame starts with header
+ * <pre>
+ *   int  - length of frame excluding this field
+ *   byte - frame type
+ *   long - request id
+ * </pre>
+ * and followed by frame type specific payload:
+ * <pre>
+ *   HELLO    - byte compression accepted by client, sent once before first REQUEST
+ *   REQUEST  - long position, long length (-1 for rest of file), UTF-8 encoded file name
+ *   RESPONSE - byte status, long file size, long bytes shipped over network, UTF-8 encoded message
+ *   DATA     - file content
+ *   DATA_LZ4 - int length of file content, file content compressed with LZ4 block compressor
+ *   END      - long CRC32C of requested range of file, -1 when not calculated
+ *   RELEASE  - long SCN, redo below it is not required by client anymore
+ * </pre>
+ * Answer to each REQUEST is RESPONSE, zero or more DATA/DATA_LZ4 frames and END.
+ * RELEASE is not answered.
+ * Frames of different requests may be interleaved over the same connection.
+ * Server sends DATA_LZ4 frames only when client offered LZ4 compression in HELLO.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+public final class ShipmentProtocol {
+
+	public static final byte TYPE_REQUEST = 1;
+	public static final byte TYPE_RESPONSE = 2;
+	public static final byte TYPE_DATA = 3;
+	public static final byte TYPE_END = 4;
+	public static final byte TYPE_HELLO = 5;
+	public static final byte TYPE_DATA_LZ4 = 6;
+	public static final byte TYPE_RELEASE = 7;
+
+	public static final byte COMPRESSION_NONE = 0;
+	public static final byte COMPRESSION_LZ4 = 1;
+
+	public static final byte STATUS_OK = 0;
+	public static final byte STATUS_NOT_FOUND = 1;
+	public static final byte STATUS_ERROR = 2;
+
+	/** int length + byte type + long request id */
+	public static final int FRAME_HEADER_LENGTH = Integer.BYTES + Byte.BYTES + Long.BYTES;
+	/** Maximum size of DATA frame payload */
+	public static final int MAX_DATA_LENGTH = 256 * 1024;
+	/** Maximum size of REQUEST and RESPONSE frame payload */
+	public static final int MAX_CONTROL_LENGTH = 8192;
+	/** Length of END frame payload */
+	public static final int END_LENGTH = Long.BYTES;
+	public static final long NO_CHECKSUM = -1;
+	/** Size of file content block compressed to single DATA_LZ4 frame */
+	public static final int COMPRESSION_BLOCK_LENGTH = 128 * 1024;
+
+	private ShipmentProtocol() {}
+
+	public static ByteBuffer request(final long requestId, final String fileName,
+			final long position, final long length) {
+		final byte[] name = fileName.getBytes(StandardCharsets.UTF_8);
+		final int payloadLength = Long.BYTES + Long.BYTES + name.length;
+		final ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_LENGTH + payloadLength);
+		putHeader(frame, TYPE_REQUEST, requestId, payloadLength);
+		frame.putLong(position);
+		frame.putLong(length);
+		frame.put(name);
+		frame.flip();
+		return frame;
+	}
+
+	public static ByteBuffer hello(final byte compression) {
+		final ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_LENGTH + Byte.BYTES);
+		putHeader(frame, TYPE_HELLO, 0, Byte.BYTES);
+		frame.put(compression);
+		frame.flip();
+		return frame;
+	}
+
+	public static ByteBuffer release(final long scn) {
+		final ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_LENGTH + Long.BYTES);
+		putHeader(frame, TYPE_RELEASE, 0, Long.BYTES);
+		frame.putLong(scn);
+		frame.flip();
+		return frame;
+	}
+
+	public static ByteBuffer response(final long requestId, final byte status,
+			final long size, final long shippedBytes, final String message) {
+		final byte[] text = message == null ? new byte[0] : message.getBytes(StandardCharsets.UTF_8);
+		final int payloadLength = Byte.BYTES + Long.BYTES + Long.BYTES + text.length;
+		final ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_LENGTH + payloadLength);
+		putHeader(frame, TYPE_RESPONSE, requestId, payloadLength);
+		frame.put(status);
+		frame.putLong(size);
+		frame.putLong(shippedBytes);
+		frame.put(text);
+		frame.flip();
+		return frame;
+	}
+
+	/**
+	 * Writes frame header to buffer
+	 *
+	 * @param buffer
+	 * @param type
+	 * @param requestId
+	 * @param payloadLength
+	 */
+	public static void putHeader(final ByteBuffer buffer, final byte type, final long requestId, final int payloadLength) {
+		buffer.putInt(Byte.BYTES + Long.BYTES + payloadLength);
+		buffer.put(type);
+		buffer.putLong(requestId);
+	}
+
+	/**
+	 * Returns payload length for frame header at current buffer position
+	 *
+	 * @param buffer
+	 * @return
+	 */
+	public static int payloadLength(final ByteBuffer buffer) {
+		return buffer.getInt(buffer.position()) - Byte.BYTES - Long.BYTES;
+	}
+
+	public static String text(final ByteBuffer buffer, final int length) {
+		final byte[] text = new byte[length];
+		buffer.get(text);
+		return new String(text, StandardCharsets.UTF_8);
+	}
+
+}
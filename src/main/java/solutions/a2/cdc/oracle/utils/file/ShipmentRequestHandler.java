@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle.utils.file;
+
+/**
+ *
+ * Handler for file requests received by {@link ShipmentServer}.
+ * Called from selector thread and must not block, answer is sent using
+ * {@link ShipmentServer.Session#respond} or {@link ShipmentServer.Session#stream}
+ * from any thread.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+@FunctionalInterface
+public interface ShipmentRequestHandler {
+
+	/**
+	 * 
+	 * @param session
+	 * @param requestId
+	 * @param fileName
+	 * @param position first byte of requested range
+	 * @param length   length of requested range, -1 for rest of file
+	 */
+	void onRequest(final ShipmentServer.Session session, final long requestId, final String fileName,
+			final long position, final long length);
+
+	/**
+	 * Called when client does not need redo below given SCN anymore
+	 *
+	 * @param session
+	 * @param scn
+	 */
+	default void onRelease(final ShipmentServer.Session session, final long scn) {}
+
+}
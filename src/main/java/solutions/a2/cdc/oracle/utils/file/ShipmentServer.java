@@ -0,0 +1,540 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle.utils.file;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32C;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import solutions.a2.cdc.oracle.utils.ExceptionUtils;
+
+/**
+ *
+ * Selector based server for {@link ShipmentProtocol}. Serves any number of clients
+ * with any number of requests in flight over each connection, file content of
+ * concurrent requests is sent in interleaved DATA frames. When client offers LZ4
+ * compression file blocks are compressed by compression pool ahead of sending.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+public class ShipmentServer extends Thread {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShipmentServer.class);
+	private static final int MIN_DATA_LENGTH = 16384;
+	private static final int MAX_MESSAGE_LENGTH = 2048;
+	private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+	private static final int EMIT_MORE = 0;
+	private static final int EMIT_DONE = 1;
+	private static final int EMIT_NO_ROOM = 2;
+	private static final int EMIT_NOT_READY = 3;
+
+	private final InetSocketAddress serverAddress;
+	private final ShipmentRequestHandler handler;
+	private final ServerSocketChannel listener;
+	private final Selector selector;
+	private final Queue<Session> pending = new ConcurrentLinkedQueue<>();
+	private final ExecutorService compressionPool;
+	private final int pipelineDepth;
+	private volatile boolean running = true;
+
+	public ShipmentServer(final String name, final InetSocketAddress serverAddress,
+			final ShipmentRequestHandler handler) throws IOException {
+		this.setName(name);
+		this.serverAddress = serverAddress;
+		this.handler = handler;
+		final int threads = Runtime.getRuntime().availableProcessors();
+		this.pipelineDepth = Math.max(2, threads);
+		this.compressionPool = Executors.newFixedThreadPool(threads, runnable -> {
+			final Thread thread = new Thread(runnable, name + "-compressor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			listener = ServerSocketChannel.open();
+			listener.socket().setReuseAddress(true);
+			listener.bind(serverAddress);
+			listener.configureBlocking(false);
+			selector = Selector.open();
+			listener.register(selector, SelectionKey.OP_ACCEPT);
+			LOGGER.info("Listening on {}:{}",
+					serverAddress.getHostName(), getLocalPort());
+		} catch (IOException e) {
+			LOGGER.error("Failed to listen on {}:{}",
+					serverAddress.getHostName(), serverAddress.getPort());
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+			throw e;
+		}
+	}
+
+	public int getLocalPort() {
+		return listener.socket().getLocalPort();
+	}
+
+	public void shutdown() {
+		running = false;
+		selector.wakeup();
+	}
+
+	@Override
+	public void run() {
+		LOGGER.info("BEGIN: {}.run()", getName());
+		try {
+			while (running) {
+				selector.select();
+				Session session;
+				while ((session = pending.poll()) != null) {
+					session.activate();
+				}
+				final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+				while (iterator.hasNext()) {
+					final SelectionKey key = iterator.next();
+					iterator.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+					} else {
+						session = (Session) key.attachment();
+						try {
+							if (key.isReadable()) {
+								session.read();
+							}
+							if (key.isValid() && key.isWritable()) {
+								session.write();
+							}
+						} catch (IOException ioe) {
+							LOGGER.error("Closing connection from {} after I/O error: {}",
+									session.remoteAddress, ioe.getMessage());
+							LOGGER.debug(ExceptionUtils.getExceptionStackTrace(ioe));
+							session.close();
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.error("IOException: Unable to process data!");
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+		} finally {
+			for (SelectionKey key : selector.keys()) {
+				if (key.attachment() instanceof Session) {
+					((Session) key.attachment()).close();
+				}
+			}
+			compressionPool.shutdownNow();
+			try {
+				listener.close();
+				selector.close();
+			} catch (IOException ioe) {
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
+			}
+			LOGGER.info("END: {}.run()", getName());
+		}
+	}
+
+	private void accept() throws IOException {
+		final SocketChannel channel = listener.accept();
+		if (channel != null) {
+			channel.configureBlocking(false);
+			final Session session = new Session(channel);
+			session.key = channel.register(selector, SelectionKey.OP_READ, session);
+			LOGGER.debug("Client connection request accepted from {}", session.remoteAddress);
+		}
+	}
+
+	/**
+	 * Client connection
+	 */
+	public class Session {
+
+		private final SocketChannel channel;
+		private final String remoteAddress;
+		private final ByteBuffer input =
+				ByteBuffer.allocate(ShipmentProtocol.FRAME_HEADER_LENGTH + ShipmentProtocol.MAX_CONTROL_LENGTH);
+		private final ByteBuffer output =
+				ByteBuffer.allocateDirect(ShipmentProtocol.FRAME_HEADER_LENGTH + ShipmentProtocol.MAX_DATA_LENGTH);
+		private final Queue<Transfer> incoming = new ConcurrentLinkedQueue<>();
+		private final ArrayDeque<Transfer> active = new ArrayDeque<>();
+		private SelectionKey key;
+		private volatile byte compression = ShipmentProtocol.COMPRESSION_NONE;
+		private volatile boolean closed = false;
+
+		private Session(final SocketChannel channel) throws IOException {
+			this.channel = channel;
+			this.remoteAddress = channel.getRemoteAddress().toString();
+		}
+
+		public String getRemoteAddress() {
+			return remoteAddress;
+		}
+
+		/**
+		 * Sends RESPONSE and END frames without any data
+		 *
+		 * @param requestId
+		 * @param status
+		 * @param size
+		 * @param shippedBytes number of bytes sent over network while shipping file to this host
+		 * @param checksum CRC32C of file or ShipmentProtocol.NO_CHECKSUM
+		 * @param message
+		 */
+		public void respond(final long requestId, final byte status,
+				final long size, final long shippedBytes, final long checksum, final String message) {
+			enqueue(new Transfer(this, requestId, status, size, shippedBytes, checksum, message, null, 0, 0));
+		}
+
+		/**
+		 * Sends RESPONSE, length bytes of file starting from position in DATA frames, and END frame
+		 * with CRC32C of sent bytes.
+		 * File channel is closed after sending. When client offered LZ4 compression
+		 * blocks of file are compressed in parallel using compression pool.
+		 *
+		 * @param requestId
+		 * @param size
+		 * @param message
+		 * @param fc
+		 * @param position
+		 * @param length
+		 */
+		public void stream(final long requestId, final long size, final String message,
+				final FileChannel fc, final long position, final long length) {
+			enqueue(new Transfer(this, requestId, ShipmentProtocol.STATUS_OK, size, 0,
+					ShipmentProtocol.NO_CHECKSUM, message, fc, position, length));
+		}
+
+		private void enqueue(final Transfer transfer) {
+			if (closed) {
+				transfer.close();
+			} else {
+				incoming.add(transfer);
+				wakeup();
+			}
+		}
+
+		private void wakeup() {
+			pending.add(this);
+			selector.wakeup();
+		}
+
+		private void activate() {
+			Transfer transfer;
+			while ((transfer = incoming.poll()) != null) {
+				if (closed) {
+					transfer.close();
+				} else {
+					active.add(transfer);
+				}
+			}
+			if (!closed && !active.isEmpty() && key.isValid()) {
+				key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+			}
+		}
+
+		private void read() throws IOException {
+			if (channel.read(input) < 0) {
+				LOGGER.debug("Connection closed by {}", remoteAddress);
+				close();
+				return;
+			}
+			input.flip();
+			while (input.remaining() >= ShipmentProtocol.FRAME_HEADER_LENGTH) {
+				final int payloadLength = ShipmentProtocol.payloadLength(input);
+				if (payloadLength < 0 || payloadLength > ShipmentProtocol.MAX_CONTROL_LENGTH) {
+					throw new IOException("Invalid frame payload length " + payloadLength);
+				}
+				if (input.remaining() < ShipmentProtocol.FRAME_HEADER_LENGTH + payloadLength) {
+					break;
+				}
+				input.getInt();
+				final byte type = input.get();
+				final long requestId = input.getLong();
+				if (type == ShipmentProtocol.TYPE_HELLO && payloadLength == Byte.BYTES) {
+					final byte offered = input.get();
+					compression = offered == ShipmentProtocol.COMPRESSION_LZ4 ?
+							ShipmentProtocol.COMPRESSION_LZ4 : ShipmentProtocol.COMPRESSION_NONE;
+					LOGGER.debug("Compression {} negotiated with {}", compression, remoteAddress);
+				} else if (type == ShipmentProtocol.TYPE_REQUEST && payloadLength >= Long.BYTES + Long.BYTES) {
+					final long position = input.getLong();
+					final long length = input.getLong();
+					final String fileName = StringUtils.trim(
+							ShipmentProtocol.text(input, payloadLength - Long.BYTES - Long.BYTES));
+					LOGGER.debug("Request #{} from {} for '{}', position {}, length {}",
+							requestId, remoteAddress, fileName, position, length);
+					try {
+						handler.onRequest(this, requestId, fileName, position, length);
+					} catch (Exception e) {
+						LOGGER.error("Unable to process request for '{}' from {}", fileName, remoteAddress);
+						LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+						respond(requestId, ShipmentProtocol.STATUS_ERROR, 0, 0, ShipmentProtocol.NO_CHECKSUM, e.getMessage());
+					}
+				} else if (type == ShipmentProtocol.TYPE_RELEASE && payloadLength == Long.BYTES) {
+					final long scn = input.getLong();
+					LOGGER.debug("Release of redo below SCN {} from {}", scn, remoteAddress);
+					try {
+						handler.onRelease(this, scn);
+					} catch (Exception e) {
+						LOGGER.error("Unable to process release of SCN {} from {}", scn, remoteAddress);
+						LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+					}
+				} else {
+					LOGGER.warn("Frame of type {} from {} ignored.", type, remoteAddress);
+					input.position(input.position() + payloadLength);
+				}
+			}
+			input.compact();
+		}
+
+		private void write() throws IOException {
+			int notReady = 0;
+			while (!active.isEmpty() && notReady < active.size()) {
+				final Transfer transfer = active.pollFirst();
+				final int state = transfer.emit(output);
+				if (state == EMIT_NO_ROOM) {
+					active.addFirst(transfer);
+					break;
+				} else if (state == EMIT_DONE) {
+					transfer.close();
+					notReady = 0;
+				} else {
+					// Round-robin between requests in flight
+					active.addLast(transfer);
+					notReady = state == EMIT_NOT_READY ? notReady + 1 : 0;
+				}
+			}
+			output.flip();
+			channel.write(output);
+			output.compact();
+			if (output.position() == 0 && (active.isEmpty() || notReady > 0)) {
+				// Nothing to send until compressed block is ready or new request arrives
+				key.interestOps(SelectionKey.OP_READ);
+			}
+		}
+
+		private void close() {
+			closed = true;
+			if (key != null) {
+				key.cancel();
+			}
+			try {
+				channel.close();
+			} catch (IOException ioe) {
+				LOGGER.debug(ExceptionUtils.getExceptionStackTrace(ioe));
+			}
+			active.forEach(Transfer::close);
+			active.clear();
+			Transfer transfer;
+			while ((transfer = incoming.poll()) != null) {
+				transfer.close();
+			}
+		}
+
+	}
+
+	/**
+	 * Answer to single request: RESPONSE, DATA or DATA_LZ4 frames, END
+	 */
+	private class Transfer {
+
+		private final Session session;
+		private final long requestId;
+		private final FileChannel fc;
+		private final boolean compress;
+		private final ArrayDeque<CompletableFuture<CompressedBlock>> blocks;
+		private final CRC32C crc;
+		private final long checksum;
+		private ByteBuffer response;
+		private long position;
+		private long remaining;
+
+		Transfer(final Session session, final long requestId, final byte status,
+				final long size, final long shippedBytes, final long checksum, final String message,
+				final FileChannel fc, final long position, final long length) {
+			this.session = session;
+			this.requestId = requestId;
+			this.checksum = checksum;
+			this.crc = fc == null ? null : new CRC32C();
+			this.response = ShipmentProtocol.response(requestId, status, size, shippedBytes,
+					StringUtils.left(message, MAX_MESSAGE_LENGTH));
+			this.fc = fc;
+			this.position = position;
+			this.remaining = length;
+			this.compress = fc != null && session.compression == ShipmentProtocol.COMPRESSION_LZ4;
+			this.blocks = compress ? new ArrayDeque<>(pipelineDepth) : null;
+			if (compress) {
+				submitBlocks();
+			}
+		}
+
+		int emit(final ByteBuffer output) throws IOException {
+			if (response != null) {
+				if (output.remaining() < response.remaining()) {
+					return EMIT_NO_ROOM;
+				}
+				output.put(response);
+				response = null;
+				return EMIT_MORE;
+			} else if (compress && !blocks.isEmpty()) {
+				final CompletableFuture<CompressedBlock> block = blocks.peekFirst();
+				if (!block.isDone()) {
+					return EMIT_NOT_READY;
+				}
+				final CompressedBlock compressed;
+				try {
+					compressed = block.join();
+				} catch (CompletionException ce) {
+					throw ce.getCause() instanceof IOException ?
+							(IOException) ce.getCause() : new IOException(ce.getCause());
+				}
+				if (output.remaining() < compressed.frame.remaining()) {
+					return EMIT_NO_ROOM;
+				}
+				output.put(compressed.frame);
+				// Blocks are emitted in file order
+				crc.update(compressed.raw);
+				blocks.pollFirst();
+				submitBlocks();
+				return EMIT_MORE;
+			} else if (remaining > 0) {
+				final int length = (int) Math.min(
+						Math.min(output.remaining() - ShipmentProtocol.FRAME_HEADER_LENGTH, ShipmentProtocol.MAX_DATA_LENGTH),
+						remaining);
+				if (length < Math.min(remaining, MIN_DATA_LENGTH)) {
+					return EMIT_NO_ROOM;
+				}
+				final int headerPosition = output.position();
+				final int limit = output.limit();
+				output.position(headerPosition + ShipmentProtocol.FRAME_HEADER_LENGTH);
+				output.limit(output.position() + length);
+				while (output.hasRemaining()) {
+					if (fc.read(output, position + length - output.remaining()) < 0) {
+						throw new IOException("Unexpected end of file while sending request #" + requestId);
+					}
+				}
+				output.position(headerPosition + ShipmentProtocol.FRAME_HEADER_LENGTH);
+				crc.update(output);
+				output.limit(limit);
+				output.position(headerPosition);
+				ShipmentProtocol.putHeader(output, ShipmentProtocol.TYPE_DATA, requestId, length);
+				output.position(headerPosition + ShipmentProtocol.FRAME_HEADER_LENGTH + length);
+				position += length;
+				remaining -= length;
+				return EMIT_MORE;
+			} else {
+				if (output.remaining() < ShipmentProtocol.FRAME_HEADER_LENGTH + ShipmentProtocol.END_LENGTH) {
+					return EMIT_NO_ROOM;
+				}
+				ShipmentProtocol.putHeader(output, ShipmentProtocol.TYPE_END, requestId, ShipmentProtocol.END_LENGTH);
+				output.putLong(crc == null ? checksum : crc.getValue());
+				return EMIT_DONE;
+			}
+		}
+
+		/**
+		 * Keeps up to pipelineDepth blocks compressing in parallel
+		 */
+		private void submitBlocks() {
+			while (remaining > 0 && blocks.size() < pipelineDepth) {
+				final long blockPosition = position;
+				final int blockLength = (int) Math.min(remaining, ShipmentProtocol.COMPRESSION_BLOCK_LENGTH);
+				final CompletableFuture<CompressedBlock> block = CompletableFuture.supplyAsync(
+						() -> compressBlock(blockPosition, blockLength), compressionPool);
+				block.whenComplete((frame, throwable) -> session.wakeup());
+				blocks.addLast(block);
+				position += blockLength;
+				remaining -= blockLength;
+			}
+		}
+
+		private CompressedBlock compressBlock(final long blockPosition, final int blockLength) {
+			final byte[] raw = new byte[blockLength];
+			final ByteBuffer rawBuffer = ByteBuffer.wrap(raw);
+			try {
+				while (rawBuffer.hasRemaining()) {
+					if (fc.read(rawBuffer, blockPosition + rawBuffer.position()) < 0) {
+						throw new IOException("Unexpected end of file while sending request #" + requestId);
+					}
+				}
+			} catch (IOException ioe) {
+				throw new CompletionException(ioe);
+			}
+			final LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+			final int maxLength = compressor.maxCompressedLength(blockLength);
+			final byte[] frame = new byte[ShipmentProtocol.FRAME_HEADER_LENGTH + Integer.BYTES + maxLength];
+			final int compressedLength = compressor.compress(raw, 0, blockLength,
+					frame, ShipmentProtocol.FRAME_HEADER_LENGTH + Integer.BYTES, maxLength);
+			final ByteBuffer buffer;
+			if (compressedLength + Integer.BYTES < blockLength) {
+				buffer = ByteBuffer.wrap(frame);
+				ShipmentProtocol.putHeader(buffer, ShipmentProtocol.TYPE_DATA_LZ4, requestId,
+						Integer.BYTES + compressedLength);
+				buffer.putInt(blockLength);
+				buffer.position(0);
+				buffer.limit(ShipmentProtocol.FRAME_HEADER_LENGTH + Integer.BYTES + compressedLength);
+			} else {
+				// Incompressible block
+				buffer = ByteBuffer.allocate(ShipmentProtocol.FRAME_HEADER_LENGTH + blockLength);
+				ShipmentProtocol.putHeader(buffer, ShipmentProtocol.TYPE_DATA, requestId, blockLength);
+				buffer.put(raw);
+				buffer.flip();
+			}
+			return new CompressedBlock(buffer, raw);
+		}
+
+		void close() {
+			if (blocks != null) {
+				blocks.forEach(block -> block.cancel(false));
+			}
+			if (fc != null) {
+				try {
+					fc.close();
+				} catch (IOException ioe) {
+					LOGGER.debug(ExceptionUtils.getExceptionStackTrace(ioe));
+				}
+			}
+		}
+
+	}
+
+	private static class CompressedBlock {
+		private final ByteBuffer frame;
+		private final byte[] raw;
+
+		CompressedBlock(final ByteBuffer frame, final byte[] raw) {
+			this.frame = frame;
+			this.raw = raw;
+		}
+	}
+
+}
@@ -1,17 +1,12 @@
 package solutions.a2.cdc.oracle.utils.file;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.channels.ServerSocketChannel;
-import java.nio.channels.SocketChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -20,7 +15,6 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.BasicConfigurator;
 import org.apache.log4j.PropertyConfigurator;
 import org.slf4j.Logger;
@@ -32,78 +26,54 @@ import solutions.a2.cdc.oracle.utils.ExceptionUtils;
 public class SourceDatabaseShipmentAgent {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(SourceDatabaseShipmentAgent.class);
-	private static final int INPUT_COMMAND_LENGTH = 1024;
-	private static final int MAX_FILE_SIZE = Integer.MAX_VALUE - 4096 + 1;
 
 	private final InetSocketAddress serverAddress;
-	private ServerSocketChannel listener = null;
+	private final ShipmentServer server;
 
-	SourceDatabaseShipmentAgent(final String bindAddress, final int serverPort) {
+	public SourceDatabaseShipmentAgent(final String bindAddress, final int serverPort) throws IOException {
 		serverAddress = new InetSocketAddress(bindAddress, serverPort);
+		server = new ShipmentServer("SourceDatabaseShipmentAgent", serverAddress, this::processRequest);
 	}
 
-	private void startServer() throws IOException {
-		try {
-			listener = ServerSocketChannel.open();
-			ServerSocket ss = listener.socket();
-			ss.setReuseAddress(true);
-			ss.bind(serverAddress);
-			LOGGER.info("Listening on {}:{}",
-					serverAddress.getHostName(), serverAddress.getPort());
-		} catch (IOException e) {
-			LOGGER.error("Failed to listen on {}:{}",
-					serverAddress.getHostName(), serverAddress.getPort());
-			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
-			throw new IOException(e);
-		}
+	public void start() {
+		server.start();
+	}
 
-		try {
-			ByteBuffer inputCommand = ByteBuffer.allocate(INPUT_COMMAND_LENGTH);
-			while (true) {
-				SocketChannel channel = listener.accept();
-				LOGGER.debug("Client connection request accepted from {}", 
-						channel.getRemoteAddress().toString());
-				channel.configureBlocking(true);
-				int bytesRead = 0;
-				try {
-					bytesRead = channel.read(inputCommand);
-				} catch (IOException ioe) {
-					LOGGER.error("IOException: Unable to read command from socket");
-					LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
-				}
-				inputCommand.rewind();
-				final String fileRequest = StringUtils.trim(new String(inputCommand.array(), "UTF-8"));
-				LOGGER.debug("Read {} bytes, input request = '{}'", bytesRead, fileRequest);
-				final Path path = Paths.get(fileRequest);
-				if (!Files.exists(path) || Files.isDirectory(path)) {
-					LOGGER.error("File '{}' does not exist or is directory!", fileRequest);
-					channel.close();
-				} else {
-					final File file = path.toFile();
-					final FileInputStream fis = new FileInputStream(file);
-					final FileChannel fc = fis.getChannel();
-					final long fileSize = file.length();
-					if (fileSize < MAX_FILE_SIZE) {
-						fc.transferTo(0, fileSize, channel);
-					} else {
-						long position = 0;
-						while (position < fileSize) {
-								//TODO
-								//TODO - chunk size!!!
-								//TODO
-								position += fc.transferTo(position, 1048576, channel);
-						}
-					}
-					LOGGER.debug("File {} with length {} bytes sent.", path, fileSize);
-					fc.close();
-					fis.close();
-					channel.close();
-				}
+	public int getLocalPort() {
+		return server.getLocalPort();
+	}
+
+	public void shutdown() {
+		server.shutdown();
+	}
+
+	private void startServer() throws InterruptedException {
+		server.start();
+		server.join();
+	}
+
+	private void processRequest(final ShipmentServer.Session session, final long requestId, final String fileRequest,
+			final long position, final long length) {
+		final Path path = Paths.get(fileRequest);
+		if (!Files.exists(path) || Files.isDirectory(path)) {
+			LOGGER.error("File '{}' does not exist or is directory!", fileRequest);
+			session.respond(requestId, ShipmentProtocol.STATUS_NOT_FOUND, 0, 0, ShipmentProtocol.NO_CHECKSUM,
+					"File '" + fileRequest + "' does not exist or is directory!");
+		} else {
+			try {
+				final FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
+				final long fileSize = fc.size();
+				final long rangeStart = Math.min(Math.max(position, 0), fileSize);
+				final long rangeLength = length < 0 ?
+						fileSize - rangeStart : Math.min(length, fileSize - rangeStart);
+				LOGGER.debug("Sending {} bytes from position {} of file {} with length {} bytes to {}.",
+						rangeLength, rangeStart, path, fileSize, session.getRemoteAddress());
+				session.stream(requestId, fileSize, fileRequest, fc, rangeStart, rangeLength);
+			} catch (IOException ioe) {
+				LOGGER.error("IOException: Unable to open file '{}'!", fileRequest);
+				LOGGER.error(ExceptionUtils.getExceptionStackTrace(ioe));
+				session.respond(requestId, ShipmentProtocol.STATUS_ERROR, 0, 0, ShipmentProtocol.NO_CHECKSUM, ioe.getMessage());
 			}
-		} catch (IOException e) {
-			LOGGER.error("IOException: Unable to process data!");
-			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
-			throw new IOException(e);
 		}
 	}
 
@@ -156,13 +126,14 @@ public class SourceDatabaseShipmentAgent {
 			LOGGER.error("{} will be used as port number!", ParamConstants.DISTRIBUTED_TARGET_PORT_DEFAULT);
 		}
 
-		SourceDatabaseShipmentAgent sdsa = new SourceDatabaseShipmentAgent(bindAddressArg, portNumber);
 		try {
+			SourceDatabaseShipmentAgent sdsa = new SourceDatabaseShipmentAgent(bindAddressArg, portNumber);
 			sdsa.startServer();
-		} catch (IOException e) {
-			LOGGER.error("IOException while running {}", sdsa.getClass().getCanonicalName());
+		} catch (IOException | InterruptedException e) {
+			LOGGER.error("Exception while running {}", SourceDatabaseShipmentAgent.class.getCanonicalName());
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
 		} finally {
-			LOGGER.info("Exiting {}", sdsa.getClass().getCanonicalName());
+			LOGGER.info("Exiting {}", SourceDatabaseShipmentAgent.class.getCanonicalName());
 		}
 
 	}
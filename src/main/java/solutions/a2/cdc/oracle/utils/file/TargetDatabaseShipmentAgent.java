@@ -1,17 +1,13 @@
 package solutions.a2.cdc.oracle.utils.file;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
-import java.nio.channels.ServerSocketChannel;
-import java.nio.channels.SocketChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -32,15 +28,49 @@ import solutions.a2.cdc.oracle.utils.ExceptionUtils;
 public class TargetDatabaseShipmentAgent {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(TargetDatabaseShipmentAgent.class);
-	private static final int COMMAND_LENGTH = 1024;
+	private static final int CONNECTIONS_DEFAULT = 4;
+	private static final int RANGE_SIZE_MIB_DEFAULT = 64;
+	private static final int RANGE_MAX_ATTEMPTS = 5;
+	private static final long CACHE_QUOTA_MIB_DEFAULT = 0;
 
 	private final InetSocketAddress targetServerAddress;
 	private final InetSocketAddress sourceServerAddress;
 	private final String directoryName;
-	private ServerSocketChannel listener = null;
+	private final List<ShipmentClient> sourceClients;
+	private final ShipmentFileFetcher fetcher;
+	private final ShipmentFileCache cache;
+	private final ShipmentServer server;
 
-	TargetDatabaseShipmentAgent(final String bindAddress, final int serverPort,
-			final String directoryName, final String sourceHost, final int sourcePort) {
+	public TargetDatabaseShipmentAgent(final String bindAddress, final int serverPort,
+			final String directoryName, final String sourceHost, final int sourcePort) throws IOException {
+		this(bindAddress, serverPort, directoryName, sourceHost, sourcePort, ShipmentProtocol.COMPRESSION_NONE,
+				CONNECTIONS_DEFAULT, RANGE_SIZE_MIB_DEFAULT * 1024 * 1024);
+	}
+
+	public TargetDatabaseShipmentAgent(final String bindAddress, final int serverPort,
+			final String directoryName, final String sourceHost, final int sourcePort,
+			final byte compression, final int connections, final long rangeSize) throws IOException {
+		this(bindAddress, serverPort, directoryName, sourceHost, sourcePort, compression,
+				connections, rangeSize, CACHE_QUOTA_MIB_DEFAULT * 1024 * 1024);
+	}
+
+	/**
+	 * 
+	 * @param bindAddress
+	 * @param serverPort
+	 * @param directoryName
+	 * @param sourceHost
+	 * @param sourcePort
+	 * @param compression compression offered to SourceDatabaseShipmentAgent
+	 * @param connections number of connections to SourceDatabaseShipmentAgent
+	 * @param rangeSize   size of file range in bytes
+	 * @param cacheQuota  maximum size of shipped files in bytes kept in directory, 0 for no limit
+	 * @throws IOException
+	 */
+	public TargetDatabaseShipmentAgent(final String bindAddress, final int serverPort,
+			final String directoryName, final String sourceHost, final int sourcePort,
+			final byte compression, final int connections, final long rangeSize,
+			final long cacheQuota) throws IOException {
 		targetServerAddress = new InetSocketAddress(bindAddress, serverPort);
 		sourceServerAddress = new InetSocketAddress(sourceHost, sourcePort);
 
@@ -71,82 +101,84 @@ public class TargetDatabaseShipmentAgent {
 				this.directoryName = directoryName;
 			}
 		}
+		sourceClients = new ArrayList<>(connections);
+		for (int i = 0; i < connections; i++) {
+			sourceClients.add(new ShipmentClient(sourceServerAddress, compression));
+		}
+		// Two ranges per connection keep the link busy while range is completed
+		fetcher = new ShipmentFileFetcher(sourceClients, rangeSize, connections * 2, RANGE_MAX_ATTEMPTS);
+		cache = new ShipmentFileCache(Paths.get(this.directoryName), cacheQuota);
+		server = new ShipmentServer("TargetDatabaseShipmentAgent", targetServerAddress, new ShipmentRequestHandler() {
+			@Override
+			public void onRequest(final ShipmentServer.Session session, final long requestId,
+					final String fileName, final long position, final long length) {
+				processRequest(session, requestId, fileName, position, length);
+			}
+
+			@Override
+			public void onRelease(final ShipmentServer.Session session, final long scn) {
+				cache.release(scn);
+			}
+		});
 	}
 
-	private void startServer() throws IOException {
-		try {
-			listener = ServerSocketChannel.open();
-			ServerSocket ss = listener.socket();
-			ss.setReuseAddress(true);
-			ss.bind(targetServerAddress);
-			LOGGER.info("Listening on {}:{}",
-					targetServerAddress.getHostName(), targetServerAddress.getPort());
-		} catch (IOException e) {
-			LOGGER.error("Failed to listen on {}:{}",
-					targetServerAddress.getHostName(), targetServerAddress.getPort());
-			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
-			throw new IOException(e);
-		}
+	public void start() {
+		server.start();
+	}
 
-		try {
-			while (true) {
-				SocketChannel listenerChannel = listener.accept();
-				LOGGER.debug("Client connection request accepted from {}", 
-						listenerChannel.getRemoteAddress().toString());
-				listenerChannel.configureBlocking(true);
-				final ByteBuffer inputCommand = ByteBuffer.allocate(COMMAND_LENGTH);
-				int bytesRead = 0;
-				bytesRead = listenerChannel.read(inputCommand);
-				inputCommand.rewind();
-				final String fileRequest = StringUtils.trim(new String(inputCommand.array(), "UTF-8"));
-				if (fileRequest == null || "".equals(fileRequest)) {
-					LOGGER.error("Empty request received from {}", listenerChannel.getRemoteAddress().toString());
-					continue;
-				}
-				LOGGER.debug("Read {} bytes, input request = '{}'", bytesRead, fileRequest);
-
-				//Pass request to source database server
-				SocketChannel channelToSource = SocketChannel.open();
-				channelToSource.connect(sourceServerAddress);
-				channelToSource.configureBlocking(true);
-				channelToSource.write(inputCommand);
-
-				//TODO - size?
-				final ByteBuffer dst = ByteBuffer.allocate(4096);
-				final String localFileName = directoryName + 
-						StringUtils.substringAfterLast(fileRequest, File.separator);
-				LOGGER.debug("Remote file will be copied to {}.", localFileName);
-				FileOutputStream fos = new FileOutputStream(localFileName);
-				FileChannel fc = fos.getChannel();
-				long totalBytes = 0; 
-				bytesRead = 0;
-				while (bytesRead != -1) {
-					bytesRead = channelToSource.read(dst);
-					dst.flip();
-					fc.write(dst);
-					totalBytes += bytesRead;
-					dst.rewind();
-				}
-				fc.close();
-				fos.close();
-				channelToSource.close();
-				LOGGER.debug("{} bytes read from socket", totalBytes);
-
-				final String result = "OK" + "\n" +
-						localFileName + "\n" + totalBytes;
-				final ByteBuffer response = ByteBuffer.allocate(COMMAND_LENGTH);
-				response.put(result.getBytes("UTF-8"));
-				response.flip();
-				listenerChannel.write(response);
-
-				listenerChannel.close();
+	public int getLocalPort() {
+		return server.getLocalPort();
+	}
 
-			}
-		} catch (IOException e) {
-			LOGGER.error("IOException: Unable to process data!");
-			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
-			throw new IOException(e);
+	public void shutdown() {
+		server.shutdown();
+		fetcher.close();
+		sourceClients.forEach(ShipmentClient::close);
+	}
+
+	private void startServer() throws InterruptedException {
+		server.start();
+		server.join();
+	}
+
+	private void processRequest(final ShipmentServer.Session session, final long requestId, final String fileRequest,
+			final long position, final long length) {
+		if (fileRequest == null || "".equals(fileRequest)) {
+			LOGGER.error("Empty request received from {}", session.getRemoteAddress());
+			session.respond(requestId, ShipmentProtocol.STATUS_ERROR, 0, 0, ShipmentProtocol.NO_CHECKSUM, "Empty request");
+			return;
+		}
+		String fileName = StringUtils.substringAfterLast(fileRequest, File.separator);
+		if (StringUtils.isBlank(fileName)) {
+			fileName = Paths.get(fileRequest).getFileName().toString();
+		}
+		final String localFileName = directoryName + fileName;
+		final ShipmentFileCache.Entry cached = cache.lookup(fileRequest);
+		if (cached != null) {
+			LOGGER.debug("{} served from cache, size {}, CRC32C {}", fileRequest, cached.getSize(), cached.getChecksum());
+			session.respond(requestId, ShipmentProtocol.STATUS_OK,
+					cached.getSize(), 0, cached.getChecksum(), directoryName + cached.getLocalFile());
+			return;
 		}
+		LOGGER.debug("Remote file will be copied to {}.", localFileName);
+		//Pass request to source database server
+		fetcher.fetch(fileRequest, Paths.get(localFileName)).whenComplete((result, throwable) -> {
+			if (throwable != null) {
+				LOGGER.error("Unable to copy '{}' from source: {}", fileRequest, throwable.getMessage());
+				session.respond(requestId, ShipmentProtocol.STATUS_ERROR, 0, 0, ShipmentProtocol.NO_CHECKSUM,
+						throwable.getMessage());
+			} else if (!result.isOk()) {
+				LOGGER.error("Source returned status {} for '{}': {}",
+						result.getStatus(), fileRequest, result.getMessage());
+				session.respond(requestId, result.getStatus(), 0, 0, ShipmentProtocol.NO_CHECKSUM, result.getMessage());
+			} else {
+				LOGGER.debug("{} bytes of {} received from source, {} bytes shipped, CRC32C {}",
+						result.getSize(), fileRequest, result.getShippedBytes(), result.getChecksum());
+				cache.add(fileRequest, Paths.get(localFileName), result.getSize(), result.getChecksum());
+				session.respond(requestId, ShipmentProtocol.STATUS_OK,
+						result.getSize(), result.getShippedBytes(), result.getChecksum(), localFileName);
+			}
+		});
 	}
 
 	public static void main(String[] argv) {
@@ -188,6 +220,24 @@ public class TargetDatabaseShipmentAgent {
 				"directory to store files from SourceDatabaseShipmentAgent");
 		directory.setRequired(true);
 		options.addOption(directory);
+		final Option compression = new Option("c", "compression", true,
+				"compression of files shipped from SourceDatabaseShipmentAgent: none or lz4, if not specified none used");
+		compression.setRequired(false);
+		options.addOption(compression);
+		final Option connections = new Option("n", "connections", true,
+				"number of connections to SourceDatabaseShipmentAgent, if not specified " + CONNECTIONS_DEFAULT + " used");
+		connections.setRequired(false);
+		options.addOption(connections);
+		final Option rangeSize = new Option("r", "range-size", true,
+				"size in MiB of file range fetched over single connection, if not specified " +
+				RANGE_SIZE_MIB_DEFAULT + " used");
+		rangeSize.setRequired(false);
+		options.addOption(rangeSize);
+		final Option cacheQuota = new Option("q", "cache-quota", true,
+				"maximum size in MiB of shipped files kept in file-destination for reuse, files below restart SCN of " +
+				"connector are deleted when it is exceeded, if not specified 0 (no limit) used");
+		cacheQuota.setRequired(false);
+		options.addOption(cacheQuota);
 
 		CommandLineParser parser = new DefaultParser();
 		HelpFormatter formatter = new HelpFormatter();
@@ -218,14 +268,43 @@ public class TargetDatabaseShipmentAgent {
 			System.exit(1);
 		}
 
-		TargetDatabaseShipmentAgent tdsa = new TargetDatabaseShipmentAgent(bindAddressArg, portNumberArgInt,
-				cmd.getOptionValue("file-destination"), sourceAgentHostArg, sourceAgentPortArg);
+		final byte compressionArg;
+		if (StringUtils.equalsIgnoreCase(cmd.getOptionValue("compression", "none"), "lz4")) {
+			compressionArg = ShipmentProtocol.COMPRESSION_LZ4;
+		} else {
+			compressionArg = ShipmentProtocol.COMPRESSION_NONE;
+		}
+
+		int connectionsArg = CONNECTIONS_DEFAULT;
+		int rangeSizeArg = RANGE_SIZE_MIB_DEFAULT;
+		long cacheQuotaArg = CACHE_QUOTA_MIB_DEFAULT;
+		try {
+			connectionsArg = Math.max(1, Integer.parseInt(
+					cmd.getOptionValue("connections", Integer.toString(CONNECTIONS_DEFAULT))));
+			rangeSizeArg = Math.max(1, Integer.parseInt(
+					cmd.getOptionValue("range-size", Integer.toString(RANGE_SIZE_MIB_DEFAULT))));
+		} catch (Exception e) {
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+			LOGGER.error("{} connections and {} MiB range size will be used!", CONNECTIONS_DEFAULT, RANGE_SIZE_MIB_DEFAULT);
+		}
+		try {
+			cacheQuotaArg = Math.max(0, Long.parseLong(
+					cmd.getOptionValue("cache-quota", Long.toString(CACHE_QUOTA_MIB_DEFAULT))));
+		} catch (Exception e) {
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
+			LOGGER.error("Cache quota will not be set!");
+		}
+
 		try {
+			TargetDatabaseShipmentAgent tdsa = new TargetDatabaseShipmentAgent(bindAddressArg, portNumberArgInt,
+					cmd.getOptionValue("file-destination"), sourceAgentHostArg, sourceAgentPortArg, compressionArg,
+					connectionsArg, rangeSizeArg * 1024L * 1024L, cacheQuotaArg * 1024L * 1024L);
 			tdsa.startServer();
-		} catch (IOException e) {
-			LOGGER.error("IOException while running {}", tdsa.getClass().getCanonicalName());
+		} catch (IOException | InterruptedException e) {
+			LOGGER.error("Exception while running {}", TargetDatabaseShipmentAgent.class.getCanonicalName());
+			LOGGER.error(ExceptionUtils.getExceptionStackTrace(e));
 		} finally {
-			LOGGER.info("Exiting {}", tdsa.getClass().getCanonicalName());
+			LOGGER.info("Exiting {}", TargetDatabaseShipmentAgent.class.getCanonicalName());
 		}
 
 	}
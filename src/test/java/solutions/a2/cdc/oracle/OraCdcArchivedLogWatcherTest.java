@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ *
+ */
+public class OraCdcArchivedLogWatcherTest {
+
+	private static final long DBID = 1122334455L;
+	private static final String DB_UNIQUE_NAME = "WATCHER";
+	private static final long MAX_INTERVAL_MS = 200;
+
+	@Test
+	public void test() throws Exception {
+		final AtomicLong sequence = new AtomicLong(10);
+		final AtomicInteger connects = new AtomicInteger();
+		final AtomicInteger closes = new AtomicInteger();
+		final Connection database = OraCdcDictionaryStub.connection(sql -> {
+			final Map<String, Object> row = new LinkedHashMap<>();
+			if (OraDictSqlTexts.RDBMS_OPEN_MODE.equals(sql)) {
+				row.put("OPEN_MODE", "READ WRITE");
+			} else if (OraDictSqlTexts.LAST_ARCHIVED_ONLINE_SEQUENCE.equals(sql)) {
+				row.put("THREAD#", 1);
+				row.put("SEQUENCE#", sequence.get());
+			} else {
+				return Collections.<Map<String, Object>>emptyList();
+			}
+			return Collections.singletonList(row);
+		});
+		final OraCdcArchivedLogWatcher.ConnectionSupplier supplier = () -> {
+			connects.incrementAndGet();
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] {Connection.class}, (p, method, args) -> {
+						if ("close".equals(method.getName())) {
+							closes.incrementAndGet();
+							return null;
+						}
+						return method.invoke(database, args);
+					});
+		};
+		final OraCdcArchivedLogWatcher.ConnectionSupplier unused = () -> {
+			throw new SQLException("Connection of second subscriber must not be used");
+		};
+
+		// First sample of watcher is change for subscriber created before it
+		final OraCdcArchivedLogWatcher.Subscription first =
+				OraCdcArchivedLogWatcher.subscribe(DBID, DB_UNIQUE_NAME, 1, MAX_INTERVAL_MS, supplier);
+		assertTrue(first.await(5_000));
+		assertFalse(first.await(3 * MAX_INTERVAL_MS));
+		assertFalse(first.await(0));
+
+		sequence.incrementAndGet();
+		assertTrue(first.await(5_000));
+
+		// Second task of same database shares watcher and its connection
+		final OraCdcArchivedLogWatcher.Subscription second =
+				OraCdcArchivedLogWatcher.subscribe(DBID, DB_UNIQUE_NAME, 1, MAX_INTERVAL_MS, unused);
+		assertFalse(second.await(3 * MAX_INTERVAL_MS));
+		sequence.incrementAndGet();
+		assertTrue(second.await(5_000));
+		assertTrue(first.await(5_000));
+		assertEquals(1, connects.get());
+
+		// Watcher runs while at least one subscription is open
+		first.close();
+		sequence.incrementAndGet();
+		assertTrue(second.await(5_000));
+
+		// Last subscription stops watcher and closes its connection
+		second.close();
+		final long started = System.currentTimeMillis();
+		assertFalse(second.await(5_000));
+		assertTrue(System.currentTimeMillis() - started < 5_000);
+		for (int i = 0; i < 100 && closes.get() == 0; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(1, closes.get());
+
+		// Next subscriber starts new watcher
+		final OraCdcArchivedLogWatcher.Subscription third =
+				OraCdcArchivedLogWatcher.subscribe(DBID, DB_UNIQUE_NAME, 1, MAX_INTERVAL_MS, supplier);
+		assertTrue(third.await(5_000));
+		assertEquals(2, connects.get());
+		third.close();
+	}
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ *
+ * Oracle connection for source tests without database. Every query returns rows supplied
+ * by function for SQL text, columns of row are accessed by label or by position in row map.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+class OraCdcDictionaryStub {
+
+	/**
+	 * Database with single 19c non-CDB instance, as required by OraRdbmsInfo
+	 */
+	static final Function<String, List<Map<String, Object>>> RDBMS_INFO = sql -> {
+		final Map<String, Object> row = new LinkedHashMap<>();
+		row.put("VERSION", "19.3.0.0.0");
+		row.put("VERSION_FULL", "19.3.0.0.0");
+		row.put("PRODUCT", "Oracle Database 19c Enterprise Edition");
+		row.put("INSTANCE_NUMBER", 1);
+		row.put("INSTANCE_NAME", "ORCL");
+		row.put("HOST_NAME", "localhost");
+		row.put("CPU_CORE_COUNT_CURRENT", 2);
+		row.put("THREAD#", 1);
+		row.put("CON_NAME", "ORCL");
+		row.put("CDB", "NO");
+		row.put("DBID", 1L);
+		row.put("NAME", "ORCL");
+		row.put("DB_UNIQUE_NAME", "ORCL");
+		row.put("PLATFORM_NAME", "Linux x86 64-bit");
+		row.put("NLS_CHARACTERSET", "AL32UTF8");
+		row.put("NLS_NCHAR_CHARACTERSET", "AL16UTF16");
+		return Collections.singletonList(row);
+	};
+
+	static Connection connection(final Function<String, List<Map<String, Object>>> rows) {
+		return (Connection) proxy(Connection.class, (c, method, args) -> {
+			switch (method.getName()) {
+			case "prepareStatement":
+				final String sql = (String) args[0];
+				return proxy(PreparedStatement.class, (s, psMethod, psArgs) ->
+						"executeQuery".equals(psMethod.getName()) ?
+								resultSet(rows.apply(sql)) : defaultValue(psMethod.getReturnType()));
+			case "isValid":
+				return true;
+			default:
+				return defaultValue(method.getReturnType());
+			}
+		});
+	}
+
+	static OraRdbmsInfo rdbmsInfo() throws Exception {
+		return new OraRdbmsInfo(connection(RDBMS_INFO));
+	}
+
+	private static ResultSet resultSet(final List<Map<String, Object>> rows) {
+		final int[] position = {-1};
+		return (ResultSet) proxy(ResultSet.class, (r, method, args) -> {
+			final String name = method.getName();
+			if ("next".equals(name)) {
+				position[0]++;
+				return position[0] < rows.size();
+			} else if (name.startsWith("get") && args != null && args.length == 1) {
+				final Map<String, Object> row = rows.get(position[0]);
+				final Object value;
+				if (args[0] instanceof Integer) {
+					value = new ArrayList<>(row.values()).get((Integer) args[0] - 1);
+				} else {
+					value = row.get(args[0]);
+				}
+				return convert(value, method.getReturnType());
+			} else {
+				return defaultValue(method.getReturnType());
+			}
+		});
+	}
+
+	private static Object convert(final Object value, final Class<?> type) {
+		if (value == null) {
+			return defaultValue(type);
+		} else if (type == String.class) {
+			return value.toString();
+		} else if (type == int.class) {
+			return ((Number) value).intValue();
+		} else if (type == long.class) {
+			return ((Number) value).longValue();
+		} else if (type == short.class) {
+			return ((Number) value).shortValue();
+		} else if (type == double.class) {
+			return ((Number) value).doubleValue();
+		} else {
+			return value;
+		}
+	}
+
+	private static Object proxy(final Class<?> type, final InvocationHandler handler) {
+		return Proxy.newProxyInstance(OraCdcDictionaryStub.class.getClassLoader(), new Class<?>[] {type}, handler);
+	}
+
+	private static Object defaultValue(final Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		} else if (type == int.class) {
+			return 0;
+		} else if (type == long.class) {
+			return 0L;
+		} else if (type == short.class) {
+			return (short) 0;
+		} else if (type == byte.class) {
+			return (byte) 0;
+		} else if (type == double.class) {
+			return 0d;
+		} else if (type == float.class) {
+			return 0f;
+		} else {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.kafka.connect.errors.ConnectException;
+import org.junit.jupiter.api.Test;
+
+import solutions.a2.cdc.oracle.jmx.OraCdcInitialLoad;
+
+/**
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ *
+ */
+public class OraCdcInitialLoadChunkFailureTest {
+
+	@Test
+	public void test() throws Exception {
+		final OraRdbmsInfo rdbmsInfo = OraCdcDictionaryStub.rdbmsInfo();
+		final OraCdcInitialLoad metrics = new OraCdcInitialLoad(rdbmsInfo, "oracdc-chunk-failure-test");
+		final Map<String, Object> tableData = new HashMap<>();
+		tableData.put("tableOwner", "SCOTT");
+		tableData.put("tableName", "DEPT");
+		tableData.put("processLobs", false);
+		tableData.put("tableWithPk", true);
+		tableData.put("rowLevelScn", true);
+		final List<Map<String, Object>> columns = new ArrayList<>();
+		columns.add(column("DEPTNO", 1, true, Types.INTEGER));
+		columns.add(column("DNAME", 2, false, Types.VARCHAR));
+		tableData.put("columns", columns);
+		final OraTable4LogMiner oraTable = new OraTable4LogMiner(
+				tableData, ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD, null, rdbmsInfo);
+
+		// ORA-01555 while reading range
+		final SQLException snapshotTooOld = new SQLException("ORA-01555: snapshot too old", "72000", 1555);
+		final OraConnectionObjects oraConnections = new OraConnectionObjects("oracdc-chunk-failure-test") {
+			@Override
+			public Connection getConnection() throws SQLException {
+				throw snapshotTooOld;
+			}
+		};
+
+		final Path rootDir = Files.createTempDirectory("oracdc-chunk-failure-test");
+		for (final int stagingWindow : new int[] {0, 16}) {
+			final OraTable4InitialLoad table = new OraTable4InitialLoad(
+					rootDir, oraTable, metrics, rdbmsInfo, stagingWindow);
+			final CountDownLatch runLatch = new CountDownLatch(1);
+			final BlockingQueue<OraTable4InitialLoad> tablesQueue = new LinkedBlockingQueue<>();
+			// Runs in thread pool of initial load thread, must not throw
+			table.readTableData(0, 1L, runLatch, tablesQueue, 0, oraConnections);
+			assertEquals(0, runLatch.getCount());
+			assertSame(table, tablesQueue.poll());
+			final ConnectException ce = assertThrows(ConnectException.class,
+					() -> table.getSourceRecord(new HashMap<>()));
+			assertSame(snapshotTooOld, ce.getCause());
+			table.close();
+		}
+
+		// Concurrent snapshot, snapshot SCN for range not obtained
+		final OraTable4InitialLoad concurrent = new OraTable4InitialLoad(
+				rootDir, oraTable, metrics, rdbmsInfo, 16);
+		concurrent.setConcurrentSnapshot();
+		final CountDownLatch runLatch = new CountDownLatch(1);
+		final BlockingQueue<OraTable4InitialLoad> tablesQueue = new LinkedBlockingQueue<>();
+		final ConnectException noScn = new ConnectException(snapshotTooOld);
+		concurrent.failChunk(0, noScn, runLatch, tablesQueue);
+		assertEquals(0, runLatch.getCount());
+		assertSame(noScn, assertThrows(ConnectException.class,
+				() -> concurrent.getSnapshotScn()).getCause());
+		assertSame(noScn, assertThrows(ConnectException.class,
+				() -> concurrent.getSourceRecord(new HashMap<>())).getCause());
+		concurrent.close();
+		Files.deleteIfExists(rootDir);
+	}
+
+	private static Map<String, Object> column(final String name, final int id, final boolean pk, final int jdbcType) {
+		final Map<String, Object> column = new HashMap<>();
+		column.put("columnName", name);
+		column.put("nameFromId", "\"COL " + id + "\"");
+		column.put("columnId", id);
+		column.put("partOfPk", pk);
+		column.put("jdbcType", jdbcType);
+		column.put("nullable", !pk);
+		return column;
+	}
+
+}
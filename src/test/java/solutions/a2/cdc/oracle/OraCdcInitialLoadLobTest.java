@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+
+import net.openhft.chronicle.bytes.Bytes;
+import solutions.a2.cdc.oracle.utils.Lz4Util;
+
+/**
+ *  
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ * 
+ */
+public class OraCdcInitialLoadLobTest {
+
+	@Test
+	public void test() {
+		// Several LZ4 frame blocks with multibyte characters
+		final StringBuilder sb = new StringBuilder(300_000);
+		while (sb.length() < 300_000) {
+			sb.append("Čista voda, кириллица, 日本語 - ");
+			sb.append(sb.length());
+		}
+		final String clob = sb.toString();
+		final byte[] blob = new byte[200_000];
+		for (int i = 0; i < blob.length; i++) {
+			blob[i] = (byte) (i % 251);
+		}
+		final Bytes<?> bytes = Bytes.allocateElasticOnHeap(1024);
+		try {
+			OraInitialLoadColumnCodec.writeLob(bytes, new StringReader(clob));
+			OraInitialLoadColumnCodec.writeLob(bytes, new StringReader(""));
+			OraInitialLoadColumnCodec.writeLob(bytes, new ByteArrayInputStream(blob));
+			bytes.writeInt(Integer.MIN_VALUE);
+
+			final byte[] clobUtf8 = OraInitialLoadColumnCodec.readLob(bytes);
+			assertEquals(clob, new String(clobUtf8, StandardCharsets.UTF_8));
+			assertEquals(clob, Lz4Util.decompress(Lz4Util.compress(clobUtf8)));
+			// Empty LOB is read as zero length array
+			assertEquals(0, OraInitialLoadColumnCodec.readLob(bytes).length);
+			assertArrayEquals(blob, OraInitialLoadColumnCodec.readLob(bytes));
+			// Next column is read from correct position
+			assertEquals(Integer.MIN_VALUE, bytes.readInt());
+		} catch (IOException | SQLException e) {
+			fail(e);
+		} finally {
+			bytes.releaseLast();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ *
+ */
+public class OraCdcInitialLoadProgressTest {
+
+	@Test
+	public void test() {
+		final List<String> tables = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			tables.add("APPLICATION_SCHEMA_" + (i % 7) + ".TRANSACTION_HISTORY_TABLE_" + i);
+		}
+		final Set<String> completed = new LinkedHashSet<>();
+		for (int i = 0; i < 450; i += 3) {
+			completed.add(tables.get(i));
+		}
+
+		final Map<String, Object> offset = new HashMap<>();
+		new OraCdcInitialLoadProgress(tables).put(offset, completed);
+		// bitmap instead of list of table names
+		assertTrue(((String) offset.get(OraCdcInitialLoadProgress.DONE)).length() <= 84);
+
+		// Restored with other order of tables
+		final List<String> shuffled = new ArrayList<>(tables);
+		Collections.reverse(shuffled);
+		final Set<String> restored = new LinkedHashSet<>();
+		assertTrue(new OraCdcInitialLoadProgress(shuffled).restore(offset, restored));
+		assertEquals(completed, restored);
+
+		// Offset with Long value of CRC after deserialization
+		offset.put(OraCdcInitialLoadProgress.LIST, Long.valueOf(((Number) offset.get(OraCdcInitialLoadProgress.LIST)).longValue()));
+		restored.clear();
+		assertTrue(new OraCdcInitialLoadProgress(tables).restore(offset, restored));
+		assertEquals(completed, restored);
+
+		// Nothing completed yet
+		final Map<String, Object> empty = new HashMap<>();
+		new OraCdcInitialLoadProgress(tables).put(empty, Collections.emptySet());
+		assertFalse(empty.containsKey(OraCdcInitialLoadProgress.DONE));
+		restored.clear();
+		assertTrue(new OraCdcInitialLoadProgress(tables).restore(empty, restored));
+		assertTrue(restored.isEmpty());
+
+		// List of tables changed before restart, progress is not used
+		final List<String> changed = new ArrayList<>(tables);
+		changed.add("SCOTT.DEPT");
+		restored.clear();
+		assertFalse(new OraCdcInitialLoadProgress(changed).restore(offset, restored));
+		assertTrue(restored.isEmpty());
+	}
+
+}
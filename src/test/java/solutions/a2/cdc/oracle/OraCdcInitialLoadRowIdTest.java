@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *  
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ * 
+ */
+public class OraCdcInitialLoadRowIdTest {
+
+	@Test
+	public void test() {
+		// Same object and file, block digit 'a' (26) vs '0' (52)
+		final String lower = "AAAR3sAAEAAAACaAAA";
+		final String higher = "AAAR3sAAEAAAAC0AAA";
+		// String comparison gives wrong order for base64 encoded ROWID's
+		assertTrue(lower.compareTo(higher) > 0);
+		assertTrue(OraTable4InitialLoad.compareRowIds(lower, higher) < 0);
+		assertTrue(OraTable4InitialLoad.compareRowIds(higher, lower) > 0);
+		assertEquals(0, OraTable4InitialLoad.compareRowIds(lower, lower));
+		// Data object id has precedence over file and block
+		assertTrue(OraTable4InitialLoad.compareRowIds("AAAR3sAAzAAAACaAAA", "AAAR3tAAEAAAACTAAA") < 0);
+		// Row number
+		assertTrue(OraTable4InitialLoad.compareRowIds("AAAR3sAAEAAAACTAA/", "AAAR3sAAEAAAACTABA") < 0);
+
+		// Default chunk count, table read by single select
+		assertEquals(1, OraTable4InitialLoad.rangeCount(1_000_000, 1, 65536, 0));
+		assertEquals(8, OraTable4InitialLoad.rangeCount(1_000_000, 8, 65536, 0));
+		assertEquals(1, OraTable4InitialLoad.rangeCount(20_000, 8, 65536, 0));
+		// Concurrent snapshot, range is never larger than maxBlocks
+		assertEquals(62, OraTable4InitialLoad.rangeCount(1_000_000, 1, 65536, 16384));
+		assertEquals(62, OraTable4InitialLoad.rangeCount(1_000_000, 8, 65536, 16384));
+		assertEquals(100, OraTable4InitialLoad.rangeCount(1_000_000, 100, 65536, 16384));
+		assertEquals(2, OraTable4InitialLoad.rangeCount(20_000, 8, 65536, 16384));
+		assertEquals(1, OraTable4InitialLoad.rangeCount(16_384, 1, 65536, 16384));
+		// Size of table unknown
+		assertEquals(1, OraTable4InitialLoad.rangeCount(-1, 1, 65536, 16384));
+	}
+}
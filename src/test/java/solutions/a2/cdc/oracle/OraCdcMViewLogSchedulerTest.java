@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *  
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ * 
+ */
+public class OraCdcMViewLogSchedulerTest {
+
+	private static final int BATCH_SIZE = 100;
+
+	@Test
+	public void test() throws SQLException {
+		// Log 0 never gets empty, log 1 is empty at first sample
+		final int[] rows = {Integer.MAX_VALUE, 0};
+		final OraCdcMViewLogScheduler scheduler = new OraCdcMViewLogScheduler(rows.length, BATCH_SIZE);
+		final List<Integer> polled = new ArrayList<>();
+		for (int pass = 0; pass < 4 * OraCdcMViewLogScheduler.RESAMPLE_PASSES; pass++) {
+			if (pass == 1) {
+				// New rows in log 1 after first sample
+				rows[1] = BATCH_SIZE / 2;
+			}
+			final int tableNo = scheduler.next((logNo, limit) -> Math.min(rows[logNo], limit));
+			assertTrue(tableNo >= 0);
+			polled.add(tableNo);
+			final int rowCount = Math.min(rows[tableNo], BATCH_SIZE);
+			if (rows[tableNo] != Integer.MAX_VALUE) {
+				rows[tableNo] -= rowCount;
+			}
+			scheduler.polled(tableNo, rowCount, rows[tableNo] > 0);
+		}
+		System.out.println(polled);
+		// Log 1 is polled after next sample, when estimate of busy log is decreased below its backlog,
+		// and only once. Estimate of busy log is capped by BATCH_SIZE + 1
+		final int firstPollOfLog1 = polled.indexOf(1);
+		assertTrue(firstPollOfLog1 >= OraCdcMViewLogScheduler.RESAMPLE_PASSES);
+		assertTrue(firstPollOfLog1 <= OraCdcMViewLogScheduler.RESAMPLE_PASSES + rows.length);
+		assertEquals(firstPollOfLog1, polled.lastIndexOf(1));
+		assertEquals(0, rows[1]);
+
+		// All logs empty
+		rows[0] = 0;
+		scheduler.polled(0, BATCH_SIZE, false);
+		assertEquals(-1, scheduler.next((logNo, limit) -> Math.min(rows[logNo], limit)));
+	}
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ * 
+ */
+public class OraCdcMViewLogSqlTest {
+
+	@Test
+	public void test() throws SQLException {
+		final List<OraColumn> allColumns = new ArrayList<>();
+		final Map<String, OraColumn> pkColumns = new LinkedHashMap<>();
+		final OraColumn deptNo = new OraColumn(new Field("DEPTNO", 0, Schema.INT32_SCHEMA), true);
+		allColumns.add(deptNo);
+		pkColumns.put(deptNo.getColumnName(), deptNo);
+		allColumns.add(new OraColumn(new Field("DNAME", 1, Schema.OPTIONAL_STRING_SCHEMA), false));
+		allColumns.add(new OraColumn(new Field("LOC", 2, Schema.OPTIONAL_STRING_SCHEMA), false));
+
+		// Materialized view log with primary key and sequence, restart after offset
+		final Map<String, Object> sourceOffset = new HashMap<>();
+		sourceOffset.put(OraColumn.MVLOG_SEQUENCE, 42L);
+		final String pkJoinSql = OraTable.buildJoinSql("SCOTT", "DEPT", "MLOG$_DEPT",
+				allColumns, pkColumns, false, true, sourceOffset);
+		System.out.println(pkJoinSql);
+		assertEquals(
+				"select L.\"DEPTNO\", L.SEQUENCE$$, " +
+				"case L.DMLTYPE$$ when 'I' then 'c' when 'U' then 'u' else 'd' end as OPTYPE$$, " +
+				"L.ORA_ROWSCN, SYSTIMESTAMP at time zone 'GMT' as TIMESTAMP$$, L.ROWID, " +
+				"M.\"DNAME\", M.\"LOC\", M.ROWID MASTER$$ROWID\n" +
+				"from \"SCOTT\".\"MLOG$_DEPT\" L left outer join \"SCOTT\".\"DEPT\" M\n" +
+				"  on L.DMLTYPE$$ <> 'D' and M.\"DEPTNO\" = L.\"DEPTNO\"\n" +
+				"where L.SEQUENCE$$ > 42\n" +
+				"order by L.SEQUENCE$$",
+				pkJoinSql);
+
+		// Materialized view log with ROWID, master table is accessed by ROWID
+		final OraColumn rowId = new OraColumn(new Field(OraColumn.ROWID_KEY, 0, Schema.STRING_SCHEMA), true);
+		final List<OraColumn> rowIdColumns = new ArrayList<>();
+		rowIdColumns.add(rowId);
+		rowIdColumns.addAll(allColumns.subList(1, allColumns.size()));
+		final Map<String, OraColumn> rowIdPk = new LinkedHashMap<>();
+		rowIdPk.put(rowId.getColumnName(), rowId);
+		final String rowIdJoinSql = OraTable.buildJoinSql("SCOTT", "DEPT", "MLOG$_DEPT",
+				rowIdColumns, rowIdPk, true, false, null);
+		System.out.println(rowIdJoinSql);
+		assertTrue(rowIdJoinSql.startsWith("select chartorowid(L.M_ROW$$) " + OraColumn.ROWID_KEY + ", case L.DMLTYPE$$"));
+		assertTrue(rowIdJoinSql.endsWith("on L.DMLTYPE$$ <> 'D' and M.ROWID = chartorowid(L.M_ROW$$)"));
+		assertFalse(rowIdJoinSql.contains("L.\"" + OraColumn.ROWID_KEY + "\""));
+		assertFalse(rowIdJoinSql.contains("order by"));
+	}
+
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import solutions.a2.cdc.oracle.utils.file.OraRedoLogCatalog;
+import solutions.a2.cdc.oracle.utils.file.OraRedoLogFile;
+
+/**
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ *
+ */
+public class OraCdcRedoLogCatalogTest {
+
+	private static final int BLOCK_SIZE = 512;
+	private static final int BLOCK_COUNT = 7;
+	private static final long DBID = 1122334455L;
+
+	@Test
+	public void test() throws Exception {
+		final Path dir1 = Files.createTempDirectory("oracdc-arch1");
+		final Path dir2 = Files.createTempDirectory("oracdc-arch2");
+		// Sequences 10, 11, 13 of thread 1, sequence 12 of thread 2 and file which is not redo log
+		writeRedo(dir1.resolve("1_10.arc"), 1, 10, 1000, 1100, DBID);
+		writeRedo(dir2.resolve("1_11.arc"), 1, 11, 1100, 1200, DBID);
+		writeRedo(dir1.resolve("1_13.arc"), 1, 13, 1300, 1400, DBID);
+		writeRedo(dir1.resolve("2_12.arc"), 2, 12, 1150, 1250, DBID);
+		writeRedo(dir1.resolve("other_db.arc"), 1, 12, 1200, 1300, DBID + 1);
+		Files.write(dir2.resolve("readme.txt"), "not a redo log".getBytes(StandardCharsets.US_ASCII));
+
+		final Path indexFile = Files.createTempFile("oracdc-catalog", ".index");
+		Files.delete(indexFile);
+		try (OraRedoLogCatalog catalog = new OraRedoLogCatalog(Arrays.asList(dir1, dir2), 1, DBID, indexFile)) {
+			catalog.scan();
+			assertEquals(3, catalog.size());
+			assertEquals(1000, catalog.firstChange());
+
+			// Gap after sequence 11
+			List<OraRedoLogCatalog.Entry> files = catalog.next(1050, 0, 0);
+			assertEquals(2, files.size());
+			assertEquals(10, files.get(0).getRedoLog().sequence());
+			assertEquals(11, files.get(1).getRedoLog().sequence());
+			assertEquals(0, catalog.next(1200, 0, 0).size());
+			// Limits
+			assertEquals(1, catalog.next(1000, 1, 0).size());
+			assertEquals(1, catalog.next(1000, 0, BLOCK_SIZE).size());
+
+			// Missing file arrives
+			writeRedo(dir2.resolve("1_12.arc"), 1, 12, 1200, 1300, DBID);
+			catalog.scan();
+			files = catalog.next(1200, 0, 0);
+			assertEquals(2, files.size());
+			assertEquals(12, files.get(0).getRedoLog().sequence());
+			assertEquals(13, files.get(1).getRedoLog().sequence());
+
+			// Removed file
+			Files.delete(dir1.resolve("1_10.arc"));
+			catalog.scan();
+			assertEquals(1100, catalog.firstChange());
+			// File with required SCN is missing and there is no older file
+			assertEquals(0, catalog.next(1050, 0, 0).size());
+			assertEquals(3, catalog.next(1100, 0, 0).size());
+		}
+
+		// Headers are restored from index, only new file is read
+		writeRedo(dir1.resolve("1_14.arc"), 1, 14, 1400, 1500, DBID);
+		assertTrue(Files.exists(indexFile));
+		try (OraRedoLogCatalog catalog = new OraRedoLogCatalog(Arrays.asList(dir1, dir2), 1, DBID, indexFile)) {
+			catalog.scan();
+			assertEquals(4, catalog.size());
+			final List<OraRedoLogCatalog.Entry> files = catalog.next(1100, 0, 0);
+			assertEquals(4, files.size());
+			assertEquals(14, files.get(3).getRedoLog().sequence());
+			assertEquals("19.3.0.0", files.get(0).getRedoLog().getVersionString());
+		}
+
+		// Big-endian platform
+		final Path bigEndian = dir1.resolve("big_endian.arc");
+		writeRedo(bigEndian, 3, 7, 0x123456789aL, 0x12345678ffL, DBID, ByteOrder.BIG_ENDIAN);
+		final OraRedoLogFile redoLog = new OraRedoLogFile(bigEndian.toString());
+		assertTrue(redoLog.isBigEndian());
+		assertEquals(BLOCK_SIZE, redoLog.blockSize());
+		assertEquals(BLOCK_COUNT, redoLog.blockCount());
+		assertEquals(DBID, redoLog.getDbId());
+		assertEquals(3, redoLog.thread());
+		assertEquals(7, redoLog.sequence());
+		assertEquals(0x123456789aL, redoLog.firstChange());
+		assertEquals(0x12345678ffL, redoLog.nextChange());
+		assertEquals("19.3.0.0", redoLog.getVersionString());
+	}
+
+	private static void writeRedo(final Path file, final int thread, final long sequence,
+			final long firstScn, final long nextScn, final long dbId) throws Exception {
+		writeRedo(file, thread, sequence, firstScn, nextScn, dbId, null);
+	}
+
+	/**
+	 * Writes file with header of archived redo log, block 0x00 is file header and block 0x01 redo header.
+	 * Magic number is written only when byteOrder is set.
+	 */
+	private static void writeRedo(final Path file, final int thread, final long sequence,
+			final long firstScn, final long nextScn, final long dbId, final ByteOrder byteOrder) throws Exception {
+		final ByteBuffer buffer = ByteBuffer.allocate((BLOCK_COUNT + 1) * BLOCK_SIZE)
+				.order(byteOrder == null ? ByteOrder.LITTLE_ENDIAN : byteOrder);
+		buffer.put(0, (byte) 0x00);
+		buffer.put(1, (byte) 0x22);
+		buffer.putInt(0x14, BLOCK_SIZE);
+		buffer.putInt(0x18, BLOCK_COUNT);
+		if (byteOrder != null) {
+			buffer.putInt(0x1c, 0x7a7b7c7d);
+		}
+		buffer.put(BLOCK_SIZE, (byte) 0x01);
+		buffer.put(BLOCK_SIZE + 1, (byte) 0x22);
+		// 19.3.0.0
+		buffer.putInt(BLOCK_SIZE + 0x14, (19 << 24) | (3 << 20));
+		buffer.putInt(BLOCK_SIZE + 0x18, (int) dbId);
+		final byte[] sid = "ORCL".getBytes(StandardCharsets.US_ASCII);
+		for (int i = 0; i < sid.length; i++) {
+			buffer.put(BLOCK_SIZE + 0x1c + i, sid[i]);
+		}
+		buffer.putInt(BLOCK_SIZE + 0x34, 123456);
+		final byte[] description = String.format("T %04d, S %010d, SCN 0x%016x-0x%016x",
+				thread, sequence, firstScn, nextScn).getBytes(StandardCharsets.US_ASCII);
+		for (int i = 0; i < description.length; i++) {
+			buffer.put(BLOCK_SIZE + 0x5c + i, description[i]);
+		}
+		Files.write(file, buffer.array());
+	}
+
+}
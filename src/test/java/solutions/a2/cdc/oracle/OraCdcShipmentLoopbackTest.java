@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+
+import solutions.a2.cdc.oracle.utils.file.ShipmentClient;
+import solutions.a2.cdc.oracle.utils.file.ShipmentProtocol;
+import solutions.a2.cdc.oracle.utils.file.SourceDatabaseShipmentAgent;
+import solutions.a2.cdc.oracle.utils.file.TargetDatabaseShipmentAgent;
+
+/**
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ *
+ */
+public class OraCdcShipmentLoopbackTest {
+
+	private static final int RANGE_SIZE = 1024 * 1024;
+
+	@Test
+	public void test() throws Exception {
+		final Path sourceDir = Files.createTempDirectory("oracdc-source");
+		final Path targetDir = Files.createTempDirectory("oracdc-target");
+		final Path targetDirLz4 = Files.createTempDirectory("oracdc-target-lz4");
+		final Random random = new Random(2021);
+		final int[] sizes = {3 * 1024 * 1024 + 17, 300_000, 1, 0, 5 * 1024 * 1024 + 3};
+		final List<byte[]> contents = new ArrayList<>();
+		final List<String> names = new ArrayList<>();
+		for (int i = 0; i < sizes.length; i++) {
+			final byte[] content = new byte[sizes[i]];
+			if (i == sizes.length - 1) {
+				// Compressible, like real redo
+				for (int j = 0; j < content.length; j++) {
+					content[j] = (byte) ((j % 512) < 384 ? 0 : random.nextInt(16));
+				}
+			} else {
+				random.nextBytes(content);
+			}
+			final Path file = sourceDir.resolve("arch_1_" + i + ".arc");
+			Files.write(file, content);
+			contents.add(content);
+			names.add(file.toString());
+		}
+
+		// Interrupted transfer: two 1 MiB ranges of last file are received, second one is damaged
+		final int last = sizes.length - 1;
+		final byte[] partial = Arrays.copyOf(contents.get(last), 2 * RANGE_SIZE);
+		final CRC32C crc = new CRC32C();
+		crc.update(partial, 0, RANGE_SIZE);
+		final long firstRangeCrc = crc.getValue();
+		crc.reset();
+		crc.update(partial, RANGE_SIZE, RANGE_SIZE);
+		final long secondRangeCrc = crc.getValue();
+		partial[RANGE_SIZE + 7] ^= 0x55;
+		final Path partialFile = targetDir.resolve(Paths.get(names.get(last)).getFileName());
+		Files.write(partialFile, partial);
+		Files.write(Paths.get(partialFile.toString() + ".ranges"),
+				(sizes[last] + " " + RANGE_SIZE + "\n0 " + firstRangeCrc + "\n1 " + secondRangeCrc + "\n")
+					.getBytes(StandardCharsets.US_ASCII));
+
+		for (byte compression : new byte[] {ShipmentProtocol.COMPRESSION_NONE, ShipmentProtocol.COMPRESSION_LZ4}) {
+			final SourceDatabaseShipmentAgent source = new SourceDatabaseShipmentAgent("127.0.0.1", 0);
+			source.start();
+			final Path destination = compression == ShipmentProtocol.COMPRESSION_NONE ? targetDir : targetDirLz4;
+			final TargetDatabaseShipmentAgent target = new TargetDatabaseShipmentAgent("127.0.0.1", 0,
+					destination.toString(), "127.0.0.1", source.getLocalPort(), compression, 3, RANGE_SIZE);
+			target.start();
+			final ShipmentClient client = new ShipmentClient(new InetSocketAddress("127.0.0.1", target.getLocalPort()));
+			try {
+				// All requests are in flight over single connection
+				final List<CompletableFuture<ShipmentClient.Response>> futures = new ArrayList<>();
+				for (String name : names) {
+					futures.add(client.request(name, null));
+				}
+				final CompletableFuture<ShipmentClient.Response> missing =
+						client.request(sourceDir.resolve("missing.arc").toString(), null);
+				// Second request for same file joins transfer in progress
+				final CompletableFuture<ShipmentClient.Response> duplicate = client.request(names.get(0), null);
+
+				for (int i = 0; i < names.size(); i++) {
+					final ShipmentClient.Response response = futures.get(i).get(30, TimeUnit.SECONDS);
+					assertTrue(response.isOk());
+					assertEquals(sizes[i], response.getSize());
+					assertEquals(destination.resolve(Paths.get(names.get(i)).getFileName()).toString(), response.getMessage());
+					assertArrayEquals(contents.get(i), Files.readAllBytes(Paths.get(response.getMessage())));
+					crc.reset();
+					crc.update(contents.get(i));
+					assertEquals(crc.getValue(), response.getChecksum());
+					if (compression == ShipmentProtocol.COMPRESSION_NONE && i == last) {
+						// Only damaged and missing ranges are shipped
+						assertEquals(sizes[i] - RANGE_SIZE, response.getShippedBytes());
+					} else if (compression == ShipmentProtocol.COMPRESSION_NONE || sizes[i] < 2) {
+						assertEquals(sizes[i], response.getShippedBytes());
+					} else if (i == names.size() - 1) {
+						assertTrue(response.getShippedBytes() < sizes[i] / 2);
+					}
+				}
+				final ShipmentClient.Response response = missing.get(30, TimeUnit.SECONDS);
+				assertFalse(response.isOk());
+				assertEquals(ShipmentProtocol.STATUS_NOT_FOUND, response.getStatus());
+				final ShipmentClient.Response joined = duplicate.get(30, TimeUnit.SECONDS);
+				assertTrue(joined.isOk());
+				assertEquals(sizes[0], joined.getSize());
+				assertArrayEquals(contents.get(0), Files.readAllBytes(Paths.get(joined.getMessage())));
+			} finally {
+				client.close();
+				target.shutdown();
+				source.shutdown();
+			}
+		}
+
+		// After restart files are served from cache without shipping
+		final SourceDatabaseShipmentAgent source = new SourceDatabaseShipmentAgent("127.0.0.1", 0);
+		source.start();
+		final TargetDatabaseShipmentAgent target = new TargetDatabaseShipmentAgent("127.0.0.1", 0,
+				targetDir.toString(), "127.0.0.1", source.getLocalPort(), ShipmentProtocol.COMPRESSION_NONE, 3, RANGE_SIZE);
+		target.start();
+		final ShipmentClient client = new ShipmentClient(new InetSocketAddress("127.0.0.1", target.getLocalPort()));
+		try {
+			for (int i = 0; i < names.size(); i++) {
+				final ShipmentClient.Response response = client.request(names.get(i), null).get(30, TimeUnit.SECONDS);
+				assertTrue(response.isOk());
+				assertEquals(sizes[i], response.getSize());
+				assertEquals(0, response.getShippedBytes());
+				crc.reset();
+				crc.update(contents.get(i));
+				assertEquals(crc.getValue(), response.getChecksum());
+			}
+			// Changed copy is shipped again
+			Files.write(targetDir.resolve(Paths.get(names.get(1)).getFileName()), new byte[] {1, 2, 3});
+			final ShipmentClient.Response response = client.request(names.get(1), null).get(30, TimeUnit.SECONDS);
+			assertTrue(response.isOk());
+			assertEquals(sizes[1], response.getShippedBytes());
+			assertArrayEquals(contents.get(1), Files.readAllBytes(Paths.get(response.getMessage())));
+		} finally {
+			client.close();
+			target.shutdown();
+			source.shutdown();
+		}
+	}
+
+}
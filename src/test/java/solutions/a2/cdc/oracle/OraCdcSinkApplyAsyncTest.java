@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ *
+ */
+public class OraCdcSinkApplyAsyncTest {
+
+	private static final TopicPartition PARTITION = new TopicPartition("DEPT", 0);
+
+	@Test
+	public void test() throws Exception {
+		final List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch release = new CountDownLatch(1);
+		final OraCdcJdbcSinkTask task = new OraCdcJdbcSinkTask(
+				new OraCdcSinkJdbcStub(row -> false).pool(OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL)) {
+			@Override
+			void apply(Collection<SinkRecord> records) {
+				try {
+					release.await();
+				} catch (InterruptedException ie) {
+					throw new ConnectException(ie);
+				}
+				for (SinkRecord record : records) {
+					if (record.kafkaOffset() == 99) {
+						throw new ConnectException("Apply failure for offset 99");
+					}
+					applied.add(record.kafkaOffset());
+				}
+			}
+		};
+		final Map<String, String> props = new HashMap<>();
+		props.put("name", "oracdc-apply-async-test");
+		props.put(OraCdcJdbcSinkConnectorConfig.TASK_PARAM_ID, "3");
+		props.put(ParamConstants.CONNECTION_URL_PARAM, "jdbc:postgresql://localhost/test");
+		props.put(ParamConstants.CONNECTION_USER_PARAM, "test");
+		props.put(ParamConstants.CONNECTION_PASSWORD_PARAM, "test");
+		props.put(OraCdcJdbcSinkConnectorConfig.APPLY_ASYNC_PARAM, "true");
+		props.put(OraCdcJdbcSinkConnectorConfig.APPLY_QUEUE_SIZE_PARAM, "1");
+		task.start(props);
+
+		final ObjectName mbean = new ObjectName(
+				"solutions.a2.oracdc:type=Sink-apply-pipeline,name=oracdc-apply-async-test,task=3");
+		assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(mbean));
+
+		// First batch is taken by apply thread, second fills the queue, third must block
+		task.put(records(0, 1));
+		task.put(records(2, 3));
+		final CountDownLatch thirdPut = new CountDownLatch(1);
+		final Thread producer = new Thread(() -> {
+			task.put(records(4, 5));
+			thirdPut.countDown();
+		});
+		producer.start();
+		assertFalse(thirdPut.await(500, TimeUnit.MILLISECONDS));
+		assertTrue(task.preCommit(currentOffsets()).isEmpty());
+
+		release.countDown();
+		assertTrue(thirdPut.await(10, TimeUnit.SECONDS));
+		task.close(Collections.singletonList(PARTITION));
+		assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L), applied);
+
+		// Apply error is raised by next put() or preCommit()
+		task.put(records(6, 99));
+		final Map<TopicPartition, OffsetAndMetadata> currentOffsets = currentOffsets();
+		assertThrows(ConnectException.class, () -> {
+			for (int i = 0; i < 100; i++) {
+				task.preCommit(currentOffsets);
+				Thread.sleep(50);
+			}
+		});
+		assertThrows(ConnectException.class, () -> task.put(records(100)));
+		assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L), applied);
+
+		task.stop();
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(mbean));
+	}
+
+	private static List<SinkRecord> records(final long... offsets) {
+		final List<SinkRecord> records = new ArrayList<>();
+		for (long offset : offsets) {
+			records.add(new SinkRecord(PARTITION.topic(), PARTITION.partition(),
+					Schema.INT64_SCHEMA, offset, Schema.INT64_SCHEMA, offset, offset));
+		}
+		return records;
+	}
+
+	private static Map<TopicPartition, OffsetAndMetadata> currentOffsets() {
+		final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+		offsets.put(PARTITION, new OffsetAndMetadata(100));
+		return offsets;
+	}
+
+}
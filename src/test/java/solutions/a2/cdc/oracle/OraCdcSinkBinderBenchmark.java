@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark: binding of synthetic SinkRecord's by column name vs precompiled binders.
+ * Run after "mvn test-compile" with
+ *   java -cp target/classes:target/test-classes:<dependencies> solutions.a2.cdc.oracle.OraCdcSinkBinderBenchmark
+ *  
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OraCdcSinkBinderBenchmark {
+
+	private static final int RECORD_COUNT = 1_000;
+	private static final int DB_TYPE = OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL;
+
+	private final List<OraColumn> pkColumns = new ArrayList<>();
+	private final List<OraColumn> allColumns = new ArrayList<>();
+	private final List<SinkRecord> records = new ArrayList<>();
+	private PreparedStatement statement;
+	private OraSinkColumnBinder[] keyBinders;
+	private OraSinkColumnBinder[] valueBinders;
+
+	@Setup
+	public void setup() throws SQLException {
+		final Schema keySchema = SchemaBuilder.struct()
+				.field("ID", Schema.INT64_SCHEMA)
+				.build();
+		final SchemaBuilder valueBuilder = SchemaBuilder.struct();
+		for (int i = 0; i < 5; i++) {
+			valueBuilder.field("NAME_" + i, Schema.OPTIONAL_STRING_SCHEMA);
+			valueBuilder.field("QTY_" + i, Schema.OPTIONAL_INT32_SCHEMA);
+			valueBuilder.field("PRICE_" + i, Decimal.builder(2).optional().build());
+			valueBuilder.field("CHANGED_" + i, Timestamp.builder().optional().build());
+		}
+		final Schema valueSchema = valueBuilder.build();
+		for (Field field : keySchema.fields()) {
+			pkColumns.add(new OraColumn(field, true));
+		}
+		for (Field field : valueSchema.fields()) {
+			allColumns.add(new OraColumn(field, false));
+		}
+		for (int row = 0; row < RECORD_COUNT; row++) {
+			final Struct key = new Struct(keySchema).put("ID", (long) row);
+			final Struct value = new Struct(valueSchema);
+			for (int i = 0; i < 5; i++) {
+				value.put("NAME_" + i, "Name " + row + "/" + i);
+				value.put("QTY_" + i, row * i);
+				value.put("PRICE_" + i, BigDecimal.valueOf(row * 100 + i, 2));
+				value.put("CHANGED_" + i, new Date());
+			}
+			records.add(new SinkRecord("DEPT", 0, keySchema, key, valueSchema, value, row));
+		}
+		statement = (PreparedStatement) Proxy.newProxyInstance(
+				PreparedStatement.class.getClassLoader(),
+				new Class<?>[] {PreparedStatement.class},
+				(proxy, method, args) -> null);
+		keyBinders = OraSinkColumnBinder.compile(DB_TYPE, keySchema, pkColumns, 1);
+		valueBinders = OraSinkColumnBinder.compile(DB_TYPE, valueSchema, allColumns, pkColumns.size() + 1);
+	}
+
+	@Benchmark
+	public int bindByColumnName() throws SQLException {
+		int bound = 0;
+		for (SinkRecord record : records) {
+			final Struct key = (Struct) record.key();
+			final Struct value = (Struct) record.value();
+			int columnNo = 1;
+			for (OraColumn column : pkColumns) {
+				column.bindWithPrepStmt(DB_TYPE, statement, columnNo++, key.get(column.getColumnName()));
+			}
+			for (OraColumn column : allColumns) {
+				column.bindWithPrepStmt(DB_TYPE, statement, columnNo++, value.get(column.getColumnName()));
+			}
+			bound += columnNo;
+		}
+		return bound;
+	}
+
+	@Benchmark
+	public int bindWithPrecompiledBinders() throws SQLException {
+		int bound = 0;
+		for (SinkRecord record : records) {
+			final Struct key = (Struct) record.key();
+			final Struct value = (Struct) record.value();
+			for (int i = 0; i < keyBinders.length; i++) {
+				keyBinders[i].bind(statement, 0, key);
+			}
+			for (int i = 0; i < valueBinders.length; i++) {
+				valueBinders[i].bind(statement, 0, value);
+			}
+			bound += keyBinders.length + valueBinders.length;
+		}
+		return bound;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(OraCdcSinkBinderBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.RetriableException;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.sink.ErrantRecordReporter;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ *
+ */
+public class OraCdcSinkBisectTest {
+
+	private static final Schema KEY_SCHEMA = SchemaBuilder.struct()
+			.field("DEPTNO", Schema.INT32_SCHEMA)
+			.build();
+	private static final Schema VALUE_SCHEMA = SchemaBuilder.struct()
+			.field("DEPTNO", Schema.INT32_SCHEMA)
+			.field("DNAME", Schema.OPTIONAL_STRING_SCHEMA)
+			.build();
+
+	@Test
+	public void test() {
+		// Row with DEPTNO=13 violates constraint in target database
+		final OraCdcSinkJdbcStub stub = new OraCdcSinkJdbcStub(row -> row.startsWith("upsert [13,"));
+		final List<SinkRecord> reported = new ArrayList<>();
+		final ErrantRecordReporter reporter = (record, error) -> {
+			reported.add(record);
+			return CompletableFuture.completedFuture(null);
+		};
+		final SinkTaskContext context = (SinkTaskContext) Proxy.newProxyInstance(
+				SinkTaskContext.class.getClassLoader(), new Class<?>[] {SinkTaskContext.class},
+				(p, method, args) -> "errantRecordReporter".equals(method.getName()) ? reporter : null);
+
+		final OraCdcJdbcSinkTask task = new OraCdcJdbcSinkTask(
+				stub.pool(OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL));
+		task.initialize(context);
+		final Map<String, String> props = new HashMap<>();
+		props.put("name", "oracdc-bisect-test");
+		props.put(ParamConstants.CONNECTION_URL_PARAM, "jdbc:postgresql://localhost/test");
+		props.put(ParamConstants.CONNECTION_USER_PARAM, "test");
+		props.put(ParamConstants.CONNECTION_PASSWORD_PARAM, "test");
+		props.put(OraCdcJdbcSinkConnectorConfig.BISECT_ON_ERROR_PARAM, "true");
+		task.start(props);
+
+		final List<SinkRecord> records = new ArrayList<>();
+		for (int deptNo = 10; deptNo < 18; deptNo++) {
+			final Struct key = new Struct(KEY_SCHEMA).put("DEPTNO", deptNo);
+			final Struct value = new Struct(VALUE_SCHEMA).put("DEPTNO", deptNo).put("DNAME", "D" + deptNo);
+			records.add(new SinkRecord("DEPT", 0, KEY_SCHEMA, key, VALUE_SCHEMA, value, deptNo,
+					null, TimestampType.NO_TIMESTAMP_TYPE, new ConnectHeaders().addString("op", "u")));
+		}
+		task.put(records);
+		task.stop();
+
+		assertEquals(1, reported.size());
+		assertEquals(13, reported.get(0).kafkaOffset());
+		System.out.println(stub.getApplied());
+		assertEquals(Arrays.asList(
+				"upsert [10, D10]",
+				"upsert [11, D11]",
+				"upsert [12, D12]",
+				"upsert [14, D14]",
+				"upsert [15, D15]",
+				"upsert [16, D16]",
+				"upsert [17, D17]"), stub.getApplied());
+
+		// Deadlock is not caused by record, batch is retried without bisection
+		final OraCdcSinkJdbcStub deadlock = new OraCdcSinkJdbcStub(row -> row.startsWith("upsert [13,"), "40P01", 0);
+		final OraCdcJdbcSinkTask retryTask = new OraCdcJdbcSinkTask(
+				deadlock.pool(OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL));
+		retryTask.initialize(context);
+		retryTask.start(props);
+		assertThrows(RetriableException.class, () -> retryTask.put(records));
+		retryTask.stop();
+		assertEquals(1, reported.size());
+		assertTrue(deadlock.getApplied().isEmpty());
+	}
+
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ *
+ * JDBC objects for sink tests without target database. Every executed row is recorded as
+ * operation (insert, upsert, delete) followed by bound values, rows become visible in
+ * {@link #getApplied()} only after commit. Statement fails when any executed row matches predicate,
+ * exception has SQLState and vendor code passed to constructor.
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ */
+class OraCdcSinkJdbcStub {
+
+	private final Predicate<String> failOn;
+	private final String failSqlState;
+	private final int failErrorCode;
+	private final List<String> prepared = new ArrayList<>();
+	private int openSavepoints = 0;
+	private final List<String> applied = new ArrayList<>();
+	private final List<String> pending = new ArrayList<>();
+	private final Connection connection;
+
+	OraCdcSinkJdbcStub(final Predicate<String> failOn) {
+		this(failOn, null, 0);
+	}
+
+	OraCdcSinkJdbcStub(final Predicate<String> failOn, final String failSqlState, final int failErrorCode) {
+		this.failOn = failOn;
+		this.failSqlState = failSqlState;
+		this.failErrorCode = failErrorCode;
+		this.connection = (Connection) proxy(Connection.class, (p, method, args) -> {
+			switch (method.getName()) {
+			case "prepareStatement":
+			case "prepareCall":
+				prepared.add((String) args[0]);
+				return statement((String) args[0]);
+			case "getMetaData":
+				return proxy(DatabaseMetaData.class, (m, mdMethod, mdArgs) ->
+						"getTables".equals(mdMethod.getName()) ? tableExists() : defaultValue(mdMethod.getReturnType()));
+			case "setSavepoint":
+				openSavepoints++;
+				final int position = pending.size();
+				return proxy(Savepoint.class, (s, spMethod, spArgs) ->
+						"getSavepointId".equals(spMethod.getName()) ? position : defaultValue(spMethod.getReturnType()));
+			case "releaseSavepoint":
+				openSavepoints--;
+				return null;
+			case "rollback":
+				if (args == null || args.length == 0) {
+					pending.clear();
+					openSavepoints = 0;
+				} else {
+					final int savepoint = ((Savepoint) args[0]).getSavepointId();
+					pending.subList(savepoint, pending.size()).clear();
+				}
+				return null;
+			case "commit":
+				applied.addAll(pending);
+				pending.clear();
+				openSavepoints = 0;
+				return null;
+			default:
+				return defaultValue(method.getReturnType());
+			}
+		});
+	}
+
+	OraCdcJdbcSinkConnectionPool pool(final int dbType) {
+		return new OraCdcJdbcSinkConnectionPool(dbType) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				return connection;
+			}
+		};
+	}
+
+	List<String> getApplied() {
+		return applied;
+	}
+
+	/**
+	 * 
+	 * @return SQL texts of all statements prepared on connection
+	 */
+	List<String> getPrepared() {
+		return prepared;
+	}
+
+	/**
+	 * 
+	 * @return savepoints set in current transaction and not released
+	 */
+	int getOpenSavepoints() {
+		return openSavepoints;
+	}
+
+	private ResultSet tableExists() {
+		final boolean[] fetched = {false};
+		return (ResultSet) proxy(ResultSet.class, (r, method, args) -> {
+			if ("next".equals(method.getName())) {
+				final boolean result = !fetched[0];
+				fetched[0] = true;
+				return result;
+			}
+			return defaultValue(method.getReturnType());
+		});
+	}
+
+	private Object statement(final String sql) {
+		final String operation;
+		if (StringUtils.startsWithIgnoreCase(sql, "delete") || StringUtils.containsIgnoreCase(sql, "delete from")) {
+			operation = "delete";
+		} else if (StringUtils.containsIgnoreCase(sql, "on conflict") || StringUtils.containsIgnoreCase(sql, "merge")) {
+			operation = "upsert";
+		} else {
+			operation = "insert";
+		}
+		final Map<Integer, Object> params = new TreeMap<>();
+		final List<String> batch = new ArrayList<>();
+		final Class<?> type = StringUtils.startsWithIgnoreCase(sql, "declare") ?
+				CallableStatement.class : PreparedStatement.class;
+		return proxy(type, (s, method, args) -> {
+			final String name = method.getName();
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+				params.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+				return null;
+			}
+			switch (name) {
+			case "addBatch":
+				batch.add(operation + " " + params.values());
+				params.clear();
+				return null;
+			case "clearBatch":
+				batch.clear();
+				return null;
+			case "executeBatch":
+				final List<String> rows = new ArrayList<>(batch);
+				batch.clear();
+				execute(rows);
+				return new int[rows.size()];
+			case "executeUpdate":
+				final List<String> row = new ArrayList<>();
+				row.add(operation + " " + params.values());
+				params.clear();
+				execute(row);
+				return 1;
+			case "getConnection":
+				return connection;
+			default:
+				return defaultValue(method.getReturnType());
+			}
+		});
+	}
+
+	private void execute(final List<String> rows) throws SQLException {
+		for (String row : rows) {
+			if (failOn.test(row)) {
+				throw new SQLException("Stub failure for row " + row, failSqlState, failErrorCode);
+			}
+		}
+		pending.addAll(rows);
+	}
+
+	private static Object proxy(final Class<?> type, final InvocationHandler handler) {
+		return Proxy.newProxyInstance(OraCdcSinkJdbcStub.class.getClassLoader(), new Class<?>[] {type}, handler);
+	}
+
+	private static Object defaultValue(final Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		} else if (type == int.class) {
+			return 0;
+		} else if (type == long.class) {
+			return 0L;
+		} else if (type == short.class) {
+			return (short) 0;
+		} else if (type == byte.class) {
+			return (byte) 0;
+		} else if (type == double.class) {
+			return 0d;
+		} else if (type == float.class) {
+			return 0f;
+		} else {
+			return null;
+		}
+	}
+
+}
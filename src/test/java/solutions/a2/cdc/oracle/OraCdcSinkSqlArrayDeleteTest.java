@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Timestamp;
+import org.junit.jupiter.api.Test;
+
+import solutions.a2.cdc.oracle.utils.TargetDbSqlUtils;
+
+/**
+ *  
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ * 
+ */
+public class OraCdcSinkSqlArrayDeleteTest {
+
+	@Test
+	public void test() throws SQLException {
+
+		final Map<String, OraColumn> pkColumns = new LinkedHashMap<>();
+		final OraColumn deptNo = new OraColumn(new Field("DEPTNO", 0, Schema.INT64_SCHEMA), true);
+		final OraColumn deptCode = new OraColumn(new Field("DEPT_CODE", 1, Schema.STRING_SCHEMA), true);
+		pkColumns.put(deptNo.getColumnName(), deptNo);
+		pkColumns.put(deptCode.getColumnName(), deptCode);
+
+		final String sqlPg = TargetDbSqlUtils.generateArrayDeleteSql(
+				"DEPT", OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL, pkColumns);
+		final String sqlOra = TargetDbSqlUtils.generateArrayDeleteSql(
+				"DEPT", OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE, pkColumns);
+
+		System.out.println("========== PostgreSQL ====================");
+		System.out.println(sqlPg);
+		System.out.println("========== Oracle ========================");
+		System.out.println(sqlOra);
+
+		assertEquals("delete from DEPT where (DEPTNO,DEPT_CODE) in (select * from unnest(?::int8[],?::text[]))", sqlPg);
+		assertTrue(sqlOra.contains("ORACDC_P1 SYS.ODCINUMBERLIST := ?;"));
+		assertTrue(sqlOra.contains("ORACDC_P2 SYS.ODCIVARCHAR2LIST := ?;"));
+		assertTrue(sqlOra.contains("where DEPTNO=ORACDC_P1(I) and DEPT_CODE=ORACDC_P2(I);"));
+		assertNull(TargetDbSqlUtils.generateArrayDeleteSql(
+				"DEPT", OraCdcJdbcSinkConnectionPool.DB_TYPE_MYSQL, pkColumns));
+
+		final OraColumn changed = new OraColumn(new Field("CHANGED", 2, Timestamp.SCHEMA), true);
+		pkColumns.put(changed.getColumnName(), changed);
+		assertNull(TargetDbSqlUtils.generateArrayDeleteSql(
+				"DEPT", OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE, pkColumns));
+		assertTrue(TargetDbSqlUtils.generateArrayDeleteSql(
+				"DEPT", OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL, pkColumns).contains("?::timestamp[]"));
+	}
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import solutions.a2.cdc.oracle.utils.TargetDbSqlUtils;
+
+/**
+ *  
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ * 
+ */
+public class OraCdcSinkSqlMultiRowInsertTest {
+
+	@Test
+	public void test() throws Exception {
+
+		final Map<String, OraColumn> pkColumns = new LinkedHashMap<>();
+		final List<OraColumn> allColumns = new ArrayList<>();
+		final OraColumn deptNo = new OraColumn(new Field("DEPTNO", 0, Schema.INT8_SCHEMA), true);
+		pkColumns.put(deptNo.getColumnName(), deptNo);
+		allColumns.add(new OraColumn(new Field("DNAME", 1, Schema.OPTIONAL_STRING_SCHEMA), false));
+		allColumns.add(new OraColumn(new Field("LOC", 2, Schema.OPTIONAL_STRING_SCHEMA), false));
+
+		final String sqlPg = TargetDbSqlUtils.generateMultiRowInsertSql(
+				"DEPT", OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL, pkColumns, allColumns, 3);
+		final String sqlOra = TargetDbSqlUtils.generateMultiRowInsertSql(
+				"DEPT", OraCdcJdbcSinkConnectionPool.DB_TYPE_ORACLE, pkColumns, allColumns, 3);
+
+		System.out.println("========== PostgreSQL ====================");
+		System.out.println(sqlPg);
+		System.out.println("========== Oracle ========================");
+		System.out.println(sqlOra);
+
+		assertTrue(sqlPg.startsWith("insert into DEPT(DEPTNO,DNAME,LOC) values"));
+		assertEquals(3, StringUtils.countMatches(sqlPg, "(?,?,?)"));
+		assertEquals(9, StringUtils.countMatches(sqlPg, "?"));
+		assertTrue(sqlOra.startsWith("insert all"));
+		assertEquals(3, StringUtils.countMatches(sqlOra, "into DEPT(DEPTNO,DNAME,LOC) values(?,?,?)"));
+		assertTrue(sqlOra.endsWith("select * from DUAL"));
+
+		assertEquals(256, TargetDbSqlUtils.multiRowInsertRunLength(
+				OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL, 3, 0));
+		assertEquals(699, TargetDbSqlUtils.multiRowInsertRunLength(
+				OraCdcJdbcSinkConnectionPool.DB_TYPE_MSSQL, 3, 5000));
+		assertEquals(1000, TargetDbSqlUtils.multiRowInsertRunLength(
+				OraCdcJdbcSinkConnectionPool.DB_TYPE_MSSQL, 1, 5000));
+
+		// Delete between inserts of the same key is applied between runs of inserts
+		final OraCdcSinkJdbcStub stub = new OraCdcSinkJdbcStub(row -> false);
+		final List<SinkRecord> records = Arrays.asList(
+				record("c", 10, "ACCOUNTING", 0),
+				record("c", 20, "RESEARCH", 1),
+				record("d", 10, null, 2),
+				record("c", 10, "SALES", 3));
+		final OraCdcJdbcSinkConnectionPool pool = stub.pool(OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL);
+		final Connection connection = pool.getConnection();
+		final OraTable4SinkConnector table = new OraTable4SinkConnector(
+				pool, "DEPT", records.get(0), false, ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD, true, 0, false);
+		for (SinkRecord record : records) {
+			table.putData(connection, record);
+		}
+		table.execAndCloseCursors();
+		assertEquals(0, stub.getApplied().size());
+		connection.commit();
+		System.out.println(stub.getApplied());
+		assertEquals(Arrays.asList(
+				"insert [10, ACCOUNTING, 20, RESEARCH]",
+				"delete [10]",
+				"insert [10, SALES]"), stub.getApplied());
+
+		// Savepoints of runs are released, statement for remainder of run is prepared once
+		final OraCdcSinkJdbcStub duplicates = new OraCdcSinkJdbcStub(
+				row -> row.startsWith("insert [30,"), "23505", 0);
+		final OraCdcJdbcSinkConnectionPool duplicatesPool =
+				duplicates.pool(OraCdcJdbcSinkConnectionPool.DB_TYPE_POSTGRESQL);
+		final Connection duplicatesConnection = duplicatesPool.getConnection();
+		final OraTable4SinkConnector emp = new OraTable4SinkConnector(
+				duplicatesPool, "EMP", records.get(0), false, ParamConstants.SCHEMA_TYPE_INT_KAFKA_STD, true, 0, false);
+		for (int empNo = 40; empNo < 46; empNo += 2) {
+			emp.putData(duplicatesConnection, record("c", empNo, "D" + empNo, empNo));
+			emp.putData(duplicatesConnection, record("c", empNo + 1, "D" + (empNo + 1), empNo + 1));
+			emp.exec();
+			assertEquals(0, duplicates.getOpenSavepoints());
+		}
+		// Unique key violation, rows are applied with upsert
+		emp.putData(duplicatesConnection, record("c", 30, "OPERATIONS", 30));
+		emp.putData(duplicatesConnection, record("c", 31, "PLANNING", 31));
+		emp.execAndCloseCursors();
+		assertEquals(0, duplicates.getOpenSavepoints());
+		duplicatesConnection.commit();
+		assertEquals(1, duplicates.getPrepared().stream()
+				.filter(sql -> StringUtils.countMatches(sql, "(?,?)") == 2).count());
+		assertEquals(Arrays.asList(
+				"insert [40, D40, 41, D41]",
+				"insert [42, D42, 43, D43]",
+				"insert [44, D44, 45, D45]",
+				"upsert [30, OPERATIONS]",
+				"upsert [31, PLANNING]"), duplicates.getApplied());
+		final ObjectName mbean = new ObjectName("solutions.a2.oracdc:type=Sink-metrics,tableName=EMP");
+		final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+		assertEquals(8L, mbs.getAttribute(mbean, "InsertCount"));
+		assertEquals(0L, mbs.getAttribute(mbean, "UpsertCount"));
+	}
+
+	private static final Schema KEY_SCHEMA = SchemaBuilder.struct()
+			.field("DEPTNO", Schema.INT32_SCHEMA)
+			.build();
+	private static final Schema VALUE_SCHEMA = SchemaBuilder.struct()
+			.field("DEPTNO", Schema.INT32_SCHEMA)
+			.field("DNAME", Schema.OPTIONAL_STRING_SCHEMA)
+			.build();
+
+	private static SinkRecord record(final String op, final int deptNo, final String dname, final long offset) {
+		final Struct key = new Struct(KEY_SCHEMA).put("DEPTNO", deptNo);
+		final Struct value = dname == null ? null :
+				new Struct(VALUE_SCHEMA).put("DEPTNO", deptNo).put("DNAME", dname);
+		return new SinkRecord("DEPT", 0, KEY_SCHEMA, key, VALUE_SCHEMA, value, offset,
+				null, TimestampType.NO_TIMESTAMP_TYPE, new ConnectHeaders().addString("op", op));
+	}
+
+}
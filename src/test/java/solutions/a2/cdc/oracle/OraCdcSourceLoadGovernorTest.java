@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2018-present, A2 Rešitve d.o.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package solutions.a2.cdc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import solutions.a2.cdc.oracle.jmx.OraCdcInitialLoad;
+
+/**
+ *
+ * @author <a href="mailto:averemee@a2.solutions">Aleksei Veremeev</a>
+ *
+ */
+public class OraCdcSourceLoadGovernorTest {
+
+	private double hostCpu;
+	private double activeSessions;
+	private int contending;
+
+	@Test
+	public void test() throws Exception {
+		final OraRdbmsInfo rdbmsInfo = OraCdcDictionaryStub.rdbmsInfo();
+		final OraConnectionObjects oraConnections = new OraConnectionObjects("oracdc-governor-test") {
+			@Override
+			public Connection getConnection() {
+				return OraCdcDictionaryStub.connection(sql -> sample(sql));
+			}
+		};
+		final Map<String, String> props = new HashMap<>();
+		props.put(ParamConstants.GOVERNOR_INTERVAL_PARAM, "1000");
+		props.put(ParamConstants.GOVERNOR_HOST_CPU_MAX_PARAM, "80");
+		props.put(ParamConstants.GOVERNOR_ACTIVE_SESSIONS_MAX_PARAM, "4");
+		props.put(ParamConstants.GOVERNOR_FETCH_SIZE_MIN_PARAM, "16");
+		props.put(ParamConstants.GOVERNOR_FETCH_SIZE_MAX_PARAM, "256");
+		final OraCdcSourceConnectorConfig config = new OraCdcSourceConnectorConfig(props);
+
+		final int[] logMinerFetchSize = {128};
+		final OraCdcFetchSizeIntf worker = new OraCdcFetchSizeIntf() {
+			@Override
+			public int getFetchSize() {
+				return logMinerFetchSize[0];
+			}
+			@Override
+			public void setFetchSize(final int fetchSize) {
+				logMinerFetchSize[0] = fetchSize;
+			}
+		};
+		final OraCdcInitialLoadThread initialLoad = new OraCdcInitialLoadThread(
+				1000, 1L, new HashMap<>(), null, rdbmsInfo,
+				new OraCdcInitialLoad(rdbmsInfo, "oracdc-governor-test"), null,
+				1, 0, 0, 4, null, null, null, false, 0, oraConnections);
+		final OraCdcSourceLoadGovernor governor = new OraCdcSourceLoadGovernor(
+				config, rdbmsInfo, "oracdc-governor-test", worker, initialLoad, oraConnections);
+		assertLimits(4, 256, 128, initialLoad, logMinerFetchSize);
+
+		// Host CPU above limit - everything is halved
+		sample(governor, 95, 1, 0);
+		assertLimits(2, 128, 64, initialLoad, logMinerFetchSize);
+		// Between relax ratio and limit - no changes
+		sample(governor, 70, 1, 0);
+		assertLimits(2, 128, 64, initialLoad, logMinerFetchSize);
+		// Sessions of connector contend for resources
+		sample(governor, 20, 1, 1);
+		assertLimits(1, 64, 32, initialLoad, logMinerFetchSize);
+		// Average active sessions above limit, lower bounds are kept
+		sample(governor, 20, 5, 0);
+		assertLimits(1, 32, 16, initialLoad, logMinerFetchSize);
+		sample(governor, 20, 5, 0);
+		assertLimits(1, 16, 16, initialLoad, logMinerFetchSize);
+		// Enough headroom - load is increased step by step up to upper bounds
+		sample(governor, 20, 1, 0);
+		assertLimits(2, 32, 32, initialLoad, logMinerFetchSize);
+		for (int i = 0; i < 5; i++) {
+			sample(governor, 20, 1, 0);
+		}
+		assertLimits(4, 256, 128, initialLoad, logMinerFetchSize);
+	}
+
+	private void sample(final OraCdcSourceLoadGovernor governor,
+			final double hostCpu, final double activeSessions, final int contending) throws Exception {
+		this.hostCpu = hostCpu;
+		this.activeSessions = activeSessions;
+		this.contending = contending;
+		governor.sampleAndAdjust();
+	}
+
+	private List<Map<String, Object>> sample(final String sql) {
+		final List<Map<String, Object>> rows = new ArrayList<>();
+		if (OraDictSqlTexts.GOVERNOR_SYSMETRIC.equals(sql)) {
+			rows.add(metric("Host CPU Utilization (%)", hostCpu));
+			rows.add(metric("Average Active Sessions", activeSessions));
+		} else if (OraDictSqlTexts.GOVERNOR_SESSIONS.equals(sql)) {
+			final Map<String, Object> row = new LinkedHashMap<>();
+			row.put("SESSIONS", 3);
+			row.put("WAITING", contending);
+			row.put("CONTENDING", contending);
+			row.put("TOP_EVENT", contending > 0 ? "enq: TX - row lock contention" : null);
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	private static Map<String, Object> metric(final String name, final double value) {
+		final Map<String, Object> row = new LinkedHashMap<>();
+		row.put("METRIC_NAME", name);
+		row.put("VALUE", value);
+		return row;
+	}
+
+	private static void assertLimits(final int loaders, final int initialLoadFetchSize, final int logMinerFetchSize,
+			final OraCdcInitialLoadThread initialLoad, final int[] actualLogMinerFetchSize) {
+		assertEquals(loaders, initialLoad.getActiveLoaders());
+		assertEquals(initialLoadFetchSize, initialLoad.getFetchSize());
+		assertEquals(logMinerFetchSize, actualLogMinerFetchSize[0]);
+	}
+
+}